@@ -101,6 +101,8 @@
     protected final ASN1Encodable[] elements;
     protected final boolean isSorted;
 
+    private volatile ASN1Primitive derObject;
+
     /**
      * return an ASN1Set from the given object.
      *
@@ -344,12 +346,18 @@ public int size()
 
     public ASN1Encodable[] toArray()
     {
-        return ASN1EncodableVector.cloneElements(elements);
+        return ASN1EncodableVector.cloneElements(toArrayInternal());
+    }
+
+    ASN1Encodable[] toArrayInternal()
+    {
+        return elements;
     }
 
     public ASN1SetParser parser()
     {
-        final int count = size();
+        final ASN1Encodable[] array = toArrayInternal();
+        final int count = array.length;
 
         return new ASN1SetParser()
         {
@@ -362,7 +370,7 @@ public ASN1Encodable readObject() throws IOException
                     return null;
                 }
 
-                ASN1Encodable obj = elements[pos++];
+                ASN1Encodable obj = array[pos++];
                 if (obj instanceof ASN1Sequence)
                 {
                     return ((ASN1Sequence)obj).parser();
@@ -390,13 +398,14 @@ public ASN1Primitive toASN1Primitive()
     public int hashCode()
     {
 //        return Arrays.hashCode(elements);
-        int i = elements.length;
+        ASN1Encodable[] array = toArrayInternal();
+        int i = array.length;
         int hc = i + 1;
 
         // NOTE: Order-independent contribution of elements to avoid sorting
         while (--i >= 0)
         {
-            hc += elements[i].toASN1Primitive().hashCode();
+            hc += array[i].toASN1Primitive().hashCode();
         }
 
         return hc;
@@ -407,6 +416,22 @@ public int hashCode()
      * This is part of Distinguished Encoding Rules form serialization.
      */
     ASN1Primitive toDERObject()
+    {
+        // NOTE: Cached, so that sorting is done once and the lengths it caches are reused
+        ASN1Primitive der = derObject;
+        if (null == der)
+        {
+            der = createDERObject();
+            derObject = der;
+        }
+        return der;
+    }
+
+    /**
+     * Build the {@link DERSet} form of this SET, sorting the elements if necessary; the result is cached by
+     * {@link #toDERObject()}.
+     */
+    ASN1Primitive createDERObject()
     {
         ASN1Encodable[] tmp;
         if (isSorted)
@@ -473,7 +498,8 @@ boolean isConstructed()
 
     public String toString() 
     {
-        int count = size();
+        ASN1Encodable[] array = toArrayInternal();
+        int count = array.length;
         if (0 == count)
         {
             return "[]";
@@ -483,7 +509,7 @@ public String toString()
         sb.append('[');
         for (int i = 0;;)
         {
-            sb.append(elements[i]);
+            sb.append(array[i]);
             if (++i >= count)
             {
                 break;
@@ -0,0 +1,43 @@
+package org.bouncycastle.asn1;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ASN1Cursor} over BER/DER encoded data held in a {@link ByteBuffer}, which may be direct or
+ * memory-mapped. Offsets are indices into the buffer, and the buffer's position and limit are not modified.
+ */
+public class ASN1BufferCursor
+    extends ASN1Cursor
+{
+    private final ByteBuffer buf;
+
+    /**
+     * Create a cursor over the remaining bytes of a buffer, i.e. from its position to its limit.
+     */
+    public ASN1BufferCursor(ByteBuffer buffer)
+    {
+        super(buffer.position(), buffer.limit());
+
+        this.buf = buffer;
+    }
+
+    int getByte(int index)
+    {
+        return buf.get(index) & 0xFF;
+    }
+
+    void copyBytes(int off, byte[] out, int len)
+    {
+        if (buf.hasArray())
+        {
+            System.arraycopy(buf.array(), buf.arrayOffset() + off, out, 0, len);
+        }
+        else
+        {
+            for (int i = 0; i < len; ++i)
+            {
+                out[i] = buf.get(off + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package org.bouncycastle.asn1;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A read-only cursor over BER/DER encoded data held in a byte array (see {@link ASN1BufferCursor} for data
+ * held in a direct or memory-mapped buffer). The cursor walks the TLV structure in place: moving between elements and reading
+ * their tags, offsets and lengths does not allocate or copy, so a caller needing only a few fields of a large
+ * structure can pick them out without building the object tree. Any element can be promoted to a regular
+ * {@link ASN1Primitive} with {@link #toASN1Primitive()}.
+ * <p>
+ * The cursor starts before the first element at the top level:
+ * <pre>
+ *     ASN1Cursor c = new ASN1Cursor(certBytes);
+ *     c.next();       // Certificate
+ *     c.down();
+ *     c.next();       // TBSCertificate
+ *     c.down();
+ *     c.next();       // version [0], or serialNumber for a v1 certificate
+ *     if (c.getTag() == (BERTags.TAGGED | BERTags.CONSTRUCTED) &amp;&amp; c.getTagNo() == 0)
+ *     {
+ *         c.next();   // serialNumber
+ *     }
+ *     ASN1Integer serial = (ASN1Integer)c.toASN1Primitive();
+ * </pre>
+ * Offsets are indices into the underlying array.
+ * </p>
+ */
+public class ASN1Cursor
+{
+    private static final int NONE = -1;
+
+    // null for subclasses, which supply the data through getByte() and copyBytes()
+    private final byte[] data;
+
+    // the current level: the end of its contents, and where the next element starts
+    private int levelLimit, nextPos;
+
+    // the current element
+    private int pos = NONE, tag, tagNo, contentsOff, contentsLen, end;
+
+    // the enclosing levels: the position of each parent element, and the limit of the level containing it
+    private int depth = 0;
+    private int[] parentPos = new int[8], parentLimit = new int[8];
+
+    // results of parseHeader
+    private int hTag, hTagNo, hContentsOff, hLength;
+
+    /**
+     * Create a cursor over the whole of an array.
+     */
+    public ASN1Cursor(byte[] data)
+    {
+        this(data, 0, data.length);
+    }
+
+    /**
+     * Create a cursor over part of an array.
+     */
+    public ASN1Cursor(byte[] data, int off, int len)
+    {
+        if (off < 0 || len < 0 || off > data.length - len)
+        {
+            throw new IndexOutOfBoundsException("data range out of bounds");
+        }
+
+        this.data = data;
+        this.levelLimit = off + len;
+        this.nextPos = off;
+    }
+
+    ASN1Cursor(int start, int limit)
+    {
+        this.data = null;
+        this.levelLimit = limit;
+        this.nextPos = start;
+    }
+
+    /**
+     * Move to the next element at the current level.
+     *
+     * @return true if there is a next element, false if the end of the level has been reached.
+     * @throws IOException if the encoding is malformed.
+     */
+    public boolean next()
+        throws IOException
+    {
+        if (pos != NONE)
+        {
+            nextPos = end;
+        }
+
+        if (nextPos >= levelLimit)
+        {
+            pos = NONE;
+            return false;
+        }
+
+        setCurrent(nextPos, levelLimit);
+        return true;
+    }
+
+    /**
+     * Move into the current (constructed) element, positioning the cursor before its first child.
+     *
+     * @throws IOException if there is no current element or it is not constructed.
+     */
+    public void down()
+        throws IOException
+    {
+        if (pos == NONE)
+        {
+            throw new IllegalStateException("no current element");
+        }
+        if ((tag & BERTags.CONSTRUCTED) == 0)
+        {
+            throw new IOException("element is not constructed");
+        }
+
+        if (depth == parentPos.length)
+        {
+            int[] tmpPos = new int[depth * 2], tmpLimit = new int[depth * 2];
+            System.arraycopy(parentPos, 0, tmpPos, 0, depth);
+            System.arraycopy(parentLimit, 0, tmpLimit, 0, depth);
+            parentPos = tmpPos;
+            parentLimit = tmpLimit;
+        }
+
+        parentPos[depth] = pos;
+        parentLimit[depth] = levelLimit;
+        ++depth;
+
+        // for indefinite-length elements, the contents end before the end-of-contents octets
+        levelLimit = contentsLen < 0 ? end - 2 : end;
+        nextPos = contentsOff;
+        pos = NONE;
+    }
+
+    /**
+     * Move back out to the enclosing level, with the cursor on the element that contained the current level.
+     */
+    public void up()
+    {
+        if (depth == 0)
+        {
+            throw new IllegalStateException("already at top level");
+        }
+
+        --depth;
+        levelLimit = parentLimit[depth];
+
+        try
+        {
+            setCurrent(parentPos[depth], levelLimit);
+        }
+        catch (IOException e)
+        {
+            // the parent was successfully parsed on the way down
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    /**
+     * Return the number of levels the cursor has been moved down.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Return the identifier octet of the current element, excluding the tag number: a combination of
+     * {@link BERTags#CONSTRUCTED}, {@link BERTags#APPLICATION} and {@link BERTags#TAGGED}.
+     */
+    public int getTag()
+    {
+        checkCurrent();
+        return tag;
+    }
+
+    /**
+     * Return the tag number of the current element.
+     */
+    public int getTagNo()
+    {
+        checkCurrent();
+        return tagNo;
+    }
+
+    public boolean isConstructed()
+    {
+        checkCurrent();
+        return (tag & BERTags.CONSTRUCTED) != 0;
+    }
+
+    /**
+     * Return true if the current element is a universal type with the passed in tag number.
+     */
+    public boolean isUniversal(int tagNo)
+    {
+        checkCurrent();
+        return (tag & (BERTags.APPLICATION | BERTags.TAGGED)) == 0 && this.tagNo == tagNo;
+    }
+
+    /**
+     * Return true if the current element is context specific, with the passed in tag number.
+     */
+    public boolean isTagged(int tagNo)
+    {
+        checkCurrent();
+        return (tag & (BERTags.APPLICATION | BERTags.TAGGED)) == BERTags.TAGGED && this.tagNo == tagNo;
+    }
+
+    /**
+     * Return the offset of the first octet of the current element's encoding.
+     */
+    public int getOffset()
+    {
+        checkCurrent();
+        return pos;
+    }
+
+    /**
+     * Return the length of the current element's complete encoding.
+     */
+    public int getEncodedLength()
+    {
+        checkCurrent();
+        return end - pos;
+    }
+
+    /**
+     * Return the offset of the current element's contents octets.
+     */
+    public int getContentsOffset()
+    {
+        checkCurrent();
+        return contentsOff;
+    }
+
+    /**
+     * Return the length of the current element's contents octets, or -1 if it uses the indefinite-length
+     * form.
+     */
+    public int getContentsLength()
+    {
+        checkCurrent();
+        return contentsLen;
+    }
+
+    /**
+     * Return a contents octet of the current element.
+     *
+     * @param index the index of the octet within the contents.
+     */
+    public int getContentsByte(int index)
+    {
+        checkCurrent();
+        if (index < 0 || contentsLen < 0 || index >= contentsLen)
+        {
+            throw new IndexOutOfBoundsException("index out of range");
+        }
+        return getByte(contentsOff + index);
+    }
+
+    /**
+     * Compare the current element's complete encoding to the passed in encoding.
+     */
+    public boolean encodingEquals(byte[] encoding)
+    {
+        checkCurrent();
+        int len = end - pos;
+        if (encoding.length != len)
+        {
+            return false;
+        }
+        for (int i = 0; i < len; ++i)
+        {
+            if (getByte(pos + i) != (encoding[i] & 0xFF))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return a copy of the current element's contents octets (for a definite-length element).
+     */
+    public byte[] getContents()
+    {
+        checkCurrent();
+        if (contentsLen < 0)
+        {
+            throw new IllegalStateException("element uses the indefinite-length form");
+        }
+        return copy(contentsOff, contentsLen);
+    }
+
+    /**
+     * Return a copy of the current element's complete encoding.
+     */
+    public byte[] getEncoded()
+    {
+        checkCurrent();
+        return copy(pos, end - pos);
+    }
+
+    /**
+     * Parse the current element into a regular ASN.1 object.
+     *
+     * @throws IOException if the element's encoding is malformed.
+     */
+    public ASN1Primitive toASN1Primitive()
+        throws IOException
+    {
+        checkCurrent();
+
+        int len = end - pos;
+        ByteArrayInputStream bIn;
+        if (data != null)
+        {
+            bIn = new ByteArrayInputStream(data, pos, len);
+        }
+        else
+        {
+            bIn = new ByteArrayInputStream(copy(pos, len));
+        }
+
+        return new ASN1InputStream(bIn, len).readObject();
+    }
+
+    private void checkCurrent()
+    {
+        if (pos == NONE)
+        {
+            throw new IllegalStateException("no current element");
+        }
+    }
+
+    private byte[] copy(int off, int len)
+    {
+        byte[] tmp = new byte[len];
+        copyBytes(off, tmp, len);
+        return tmp;
+    }
+
+    /**
+     * Return the octet at the passed in offset.
+     */
+    int getByte(int index)
+    {
+        return data[index] & 0xFF;
+    }
+
+    /**
+     * Copy len octets starting at the passed in offset to the start of out.
+     */
+    void copyBytes(int off, byte[] out, int len)
+    {
+        System.arraycopy(data, off, out, 0, len);
+    }
+
+    private void setCurrent(int p, int max)
+        throws IOException
+    {
+        parseHeader(p, max);
+
+        this.tag = hTag;
+        this.tagNo = hTagNo;
+        this.contentsOff = hContentsOff;
+        this.contentsLen = hLength;
+        this.end = hLength < 0 ? findEnd(hContentsOff, max) : hContentsOff + hLength;
+        this.pos = p;
+    }
+
+    // find the end of an indefinite-length element with contents starting at p
+    private int findEnd(int p, int max)
+        throws IOException
+    {
+        int level = 1;
+        while (level > 0)
+        {
+            if (p + 2 > max)
+            {
+                throw new EOFException("EOF found inside indefinite-length element");
+            }
+
+            if (getByte(p) == 0 && getByte(p + 1) == 0)
+            {
+                p += 2;
+                --level;
+                continue;
+            }
+
+            parseHeader(p, max);
+
+            if (hLength < 0)
+            {
+                p = hContentsOff;
+                ++level;
+            }
+            else
+            {
+                p = hContentsOff + hLength;
+            }
+        }
+        return p;
+    }
+
+    private void parseHeader(int p, int max)
+        throws IOException
+    {
+        if (p >= max)
+        {
+            throw new EOFException("EOF found when tag expected");
+        }
+
+        int b = getByte(p++);
+        if (b == 0)
+        {
+            throw new IOException("unexpected end-of-contents marker");
+        }
+
+        int tagNo = b & 0x1f;
+        if (tagNo == 0x1f)
+        {
+            tagNo = 0;
+
+            if (p >= max)
+            {
+                throw new EOFException("EOF found inside tag value.");
+            }
+
+            int t = getByte(p++);
+
+            // X.690-0207 8.1.2.4.2
+            // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
+            if ((t & 0x7f) == 0)
+            {
+                throw new IOException("corrupted stream - invalid high tag number found");
+            }
+
+            while ((t & 0x80) != 0)
+            {
+                if ((tagNo >>> 24) != 0)
+                {
+                    throw new IOException("corrupted stream - tag number too large");
+                }
+                tagNo |= (t & 0x7f);
+                tagNo <<= 7;
+
+                if (p >= max)
+                {
+                    throw new EOFException("EOF found inside tag value.");
+                }
+                t = getByte(p++);
+            }
+
+            tagNo |= (t & 0x7f);
+        }
+
+        if (p >= max)
+        {
+            throw new EOFException("EOF found when length expected");
+        }
+
+        int length = getByte(p++);
+        if (length == 0x80)
+        {
+            if ((b & BERTags.CONSTRUCTED) == 0)
+            {
+                throw new IOException("indefinite-length primitive encoding encountered");
+            }
+            length = -1;
+        }
+        else if (length > 127)
+        {
+            int size = length & 0x7f;
+
+            // Note: The invalid long form "0xff" (see X.690 8.1.3.5c) will be caught here
+            if (size > 4)
+            {
+                throw new IOException("DER length more than 4 bytes: " + size);
+            }
+            if (p + size > max)
+            {
+                throw new EOFException("EOF found reading length");
+            }
+
+            length = 0;
+            for (int i = 0; i < size; i++)
+            {
+                length = (length << 8) + (getByte(p++));
+            }
+
+            if (length < 0)
+            {
+                throw new IOException("corrupted stream - negative length found");
+            }
+        }
+
+        if (length > max - p)
+        {
+            throw new IOException("corrupted stream - out of bounds length found: " + length);
+        }
+
+        this.hTag = b & ~0x1f;
+        this.hTagNo = tagNo;
+        this.hContentsOff = p;
+        this.hLength = length;
+    }
+}
@@ -0,0 +1,749 @@
+package org.bouncycastle.asn1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * An event based pull parser for BER/DER encoded data. Rather than building objects, the parser reports the
+ * structure of the encoding one element at a time:
+ * <ul>
+ * <li>{@link #START_CONSTRUCTED} - the header of a constructed element, its children follow.</li>
+ * <li>{@link #PRIMITIVE} - a primitive element, its contents can be read or are skipped on the next event.</li>
+ * <li>{@link #END_CONSTRUCTED} - the end of the constructed element most recently started.</li>
+ * <li>{@link #END_DOCUMENT} - the end of the input.</li>
+ * </ul>
+ * Only the current element header and the chain of enclosing elements are held, so memory use does not depend
+ * on the size of the input. A whole subtree can be passed over with {@link #skipSubtree()}, which for a
+ * definite-length element skips the input directly without examining the children, and any single element
+ * can be converted into a regular object with {@link #readObject()}. For example, to visit the entries of a
+ * very large CRL one at a time, passing over the TBSCertList fields that come before them:
+ * <pre>
+ *     ASN1EventParser p = new ASN1EventParser(new FileInputStream(crlFile));
+ *     p.next();                        // CertificateList
+ *     p.next();                        // TBSCertList
+ *     if (p.next() == ASN1EventParser.PRIMITIVE)
+ *     {
+ *         p.next();                    // version is present, move on to signature
+ *     }
+ *     p.skipSubtree();                 // signature
+ *     p.next();
+ *     p.skipSubtree();                 // issuer
+ *     p.next();                        // thisUpdate
+ *     if (p.next() == ASN1EventParser.PRIMITIVE)
+ *     {
+ *         p.next();                    // nextUpdate is present, move past it
+ *     }
+ *     if (p.getEvent() == ASN1EventParser.START_CONSTRUCTED &amp;&amp; p.isUniversal(BERTags.SEQUENCE))
+ *     {
+ *         // revokedCertificates - otherwise crlExtensions, or the end of the TBSCertList
+ *         while (p.next() == ASN1EventParser.START_CONSTRUCTED)
+ *         {
+ *             process(TBSCertList.CRLEntry.getInstance(p.readObject()));
+ *         }
+ *     }
+ * </pre>
+ * Offsets are measured in octets from the start of parsing. The parser reads ahead from the underlying stream,
+ * so the stream should not be used by anything else while the parser is.
+ * </p>
+ */
+public class ASN1EventParser
+{
+    /**
+     * The start of a constructed element.
+     */
+    public static final int START_CONSTRUCTED = 1;
+
+    /**
+     * A primitive element.
+     */
+    public static final int PRIMITIVE = 2;
+
+    /**
+     * The end of a constructed element.
+     */
+    public static final int END_CONSTRUCTED = 3;
+
+    /**
+     * The end of the input.
+     */
+    public static final int END_DOCUMENT = -1;
+
+    // before the first event, or after the current element has been consumed
+    private static final int NONE = 0;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final int limit;
+
+    // read-ahead buffer, bufStart is the offset of buf[0] in the input
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int bufPos, bufLen;
+    private long bufStart;
+
+    // when set, every octet consumed is also written here (see readObject())
+    private ByteArrayOutputStream record;
+
+    // the current event and element
+    private int event = NONE;
+    private int tag, tagNo, length;
+    private long offset, contentsOffset;
+    private int remaining;
+    private final byte[] header = new byte[12];
+    private int headerLen;
+
+    // the enclosing constructed elements: their end (-1 if indefinite-length) and the bound on their end
+    private int depth = 0;
+    private long[] frameEnd = new long[8], frameBound = new long[8];
+    private long[] frameOffset = new long[8], frameContentsOffset = new long[8];
+    private int[] frameTag = new int[8], frameTagNo = new int[8], frameLength = new int[8];
+
+    /**
+     * Create a parser for the passed in stream.
+     */
+    public ASN1EventParser(InputStream in)
+    {
+        this(in, StreamUtil.findLimit(in));
+    }
+
+    /**
+     * Create a parser for the passed in stream.
+     *
+     * @param in the stream to parse.
+     * @param limit the maximum length of any element that will be read into memory by {@link #readObject()} or
+     * {@link #getContents()}. Elements which are only passed over are not affected.
+     */
+    public ASN1EventParser(InputStream in, int limit)
+    {
+        this.in = in;
+        this.limit = limit;
+    }
+
+    /**
+     * Create a parser reading from the passed in channel.
+     */
+    public ASN1EventParser(ReadableByteChannel channel)
+    {
+        this(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Advance to the next event. Any unread contents of a primitive element are skipped.
+     *
+     * @return the event type.
+     * @throws IOException if the encoding is malformed or the input cannot be read.
+     */
+    public int next()
+        throws IOException
+    {
+        if (event == START_CONSTRUCTED)
+        {
+            push();
+        }
+        else if (event == PRIMITIVE)
+        {
+            transfer(remaining);
+            remaining = 0;
+        }
+        else if (event == END_DOCUMENT)
+        {
+            return END_DOCUMENT;
+        }
+
+        long pos = getPosition();
+        long bound = depth > 0 ? frameBound[depth - 1] : Long.MAX_VALUE;
+
+        if (depth > 0 && frameEnd[depth - 1] == pos)
+        {
+            return pop();
+        }
+
+        int b = read();
+        if (b < 0)
+        {
+            if (depth > 0)
+            {
+                throw new EOFException("EOF found when tag expected");
+            }
+            return event = END_DOCUMENT;
+        }
+
+        if (b == 0)
+        {
+            if (depth == 0 || frameEnd[depth - 1] >= 0)
+            {
+                throw new IOException("unexpected end-of-contents marker");
+            }
+            if (readNonEOF("EOF found when length expected") != 0)
+            {
+                throw new IOException("malformed end-of-contents marker");
+            }
+            if (pos + 2 > bound)
+            {
+                throw new IOException("corrupted stream - out of bounds length found");
+            }
+            return pop();
+        }
+
+        readHeader(b, pos);
+
+        if (length < 0 ? contentsOffset > bound : length > bound - contentsOffset)
+        {
+            throw new IOException("corrupted stream - out of bounds length found: " + length);
+        }
+
+        if ((tag & BERTags.CONSTRUCTED) != 0)
+        {
+            return event = START_CONSTRUCTED;
+        }
+
+        remaining = length;
+        return event = PRIMITIVE;
+    }
+
+    /**
+     * Return the current event type, {@link #END_DOCUMENT} once the input is exhausted, or 0 if there is no
+     * current event (before the first call to {@link #next()}, or once the current element has been consumed).
+     */
+    public int getEvent()
+    {
+        return event;
+    }
+
+    /**
+     * Return the number of constructed elements enclosing the current element. A {@link #START_CONSTRUCTED}
+     * event and its matching {@link #END_CONSTRUCTED} event are reported at the same depth.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Return the identifier octet of the current element, excluding the tag number: a combination of
+     * {@link BERTags#CONSTRUCTED}, {@link BERTags#APPLICATION} and {@link BERTags#TAGGED}.
+     */
+    public int getTag()
+    {
+        checkCurrent();
+        return tag;
+    }
+
+    /**
+     * Return the tag number of the current element.
+     */
+    public int getTagNo()
+    {
+        checkCurrent();
+        return tagNo;
+    }
+
+    public boolean isConstructed()
+    {
+        checkCurrent();
+        return (tag & BERTags.CONSTRUCTED) != 0;
+    }
+
+    /**
+     * Return true if the current element is a universal type with the passed in tag number.
+     */
+    public boolean isUniversal(int tagNo)
+    {
+        checkCurrent();
+        return (tag & (BERTags.APPLICATION | BERTags.TAGGED)) == 0 && this.tagNo == tagNo;
+    }
+
+    /**
+     * Return true if the current element is context specific, with the passed in tag number.
+     */
+    public boolean isTagged(int tagNo)
+    {
+        checkCurrent();
+        return (tag & (BERTags.APPLICATION | BERTags.TAGGED)) == BERTags.TAGGED && this.tagNo == tagNo;
+    }
+
+    /**
+     * Return the offset of the first octet of the current element's encoding.
+     */
+    public long getOffset()
+    {
+        checkCurrent();
+        return offset;
+    }
+
+    /**
+     * Return the offset of the current element's contents octets.
+     */
+    public long getContentsOffset()
+    {
+        checkCurrent();
+        return contentsOffset;
+    }
+
+    /**
+     * Return the length of the current element's contents octets, or -1 if it uses the indefinite-length
+     * form.
+     */
+    public int getContentsLength()
+    {
+        checkCurrent();
+        return length;
+    }
+
+    /**
+     * Read the (remaining) contents octets of the current primitive element.
+     *
+     * @throws IOException if the contents are longer than the parser's limit or cannot be read.
+     */
+    public byte[] getContents()
+        throws IOException
+    {
+        checkPrimitive();
+        if (remaining >= limit)
+        {
+            throw new IOException("corrupted stream - out of bounds length found: " + remaining + " >= " + limit);
+        }
+
+        byte[] contents = new byte[remaining];
+        readFully(contents, 0, remaining);
+        remaining = 0;
+        return contents;
+    }
+
+    /**
+     * Return a stream over the (remaining) contents octets of the current primitive element, allowing large
+     * contents to be processed without reading them into memory. The stream is only valid until the next call
+     * to {@link #next()}.
+     */
+    public InputStream getContentStream()
+    {
+        checkPrimitive();
+        return new ContentStream(offset);
+    }
+
+    /**
+     * Pass over the current element. For a constructed element the next event will be the one following its
+     * end, its children and {@link #END_CONSTRUCTED} event are not reported. Definite-length elements are
+     * skipped without examining their contents.
+     *
+     * @throws IOException if the encoding is malformed or the input cannot be read.
+     */
+    public void skipSubtree()
+        throws IOException
+    {
+        checkElement();
+
+        if (event == PRIMITIVE)
+        {
+            transfer(remaining);
+            remaining = 0;
+        }
+        else if (length >= 0)
+        {
+            transfer(length);
+        }
+        else
+        {
+            int level = depth;
+            while (next() != END_CONSTRUCTED || depth != level)
+            {
+                if (event == START_CONSTRUCTED && length >= 0)
+                {
+                    transfer(length);
+                    event = NONE;
+                }
+            }
+        }
+
+        event = NONE;
+    }
+
+    /**
+     * Read the whole of the current element as a regular ASN.1 object. The element is consumed, as for
+     * {@link #skipSubtree()}.
+     *
+     * @throws IOException if the element is malformed, longer than the parser's limit, or cannot be read.
+     */
+    public ASN1Primitive readObject()
+        throws IOException
+    {
+        checkElement();
+        if (event == PRIMITIVE && remaining != length)
+        {
+            throw new IllegalStateException("contents of current element already read");
+        }
+
+        byte[] data;
+        if (length >= 0)
+        {
+            if (length >= limit)
+            {
+                throw new IOException("corrupted stream - out of bounds length found: " + length + " >= " + limit);
+            }
+
+            data = new byte[headerLen + length];
+            System.arraycopy(header, 0, data, 0, headerLen);
+            readFully(data, headerLen, length);
+            remaining = 0;
+            event = NONE;
+        }
+        else
+        {
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            bOut.write(header, 0, headerLen);
+
+            record = bOut;
+            try
+            {
+                skipSubtree();
+            }
+            finally
+            {
+                record = null;
+            }
+            data = bOut.toByteArray();
+        }
+
+        return new ASN1InputStream(data).readObject();
+    }
+
+    private void checkCurrent()
+    {
+        if (event == NONE || event == END_DOCUMENT)
+        {
+            throw new IllegalStateException("no current element");
+        }
+    }
+
+    private void checkElement()
+    {
+        if (event != START_CONSTRUCTED && event != PRIMITIVE)
+        {
+            throw new IllegalStateException("no current element");
+        }
+    }
+
+    private void checkPrimitive()
+    {
+        if (event != PRIMITIVE)
+        {
+            throw new IllegalStateException("current element is not primitive");
+        }
+    }
+
+    private void readHeader(int b, long pos)
+        throws IOException
+    {
+        headerLen = 0;
+        header[headerLen++] = (byte)b;
+
+        int tagNo = b & 0x1f;
+        if (tagNo == 0x1f)
+        {
+            tagNo = 0;
+
+            int t = readNonEOF("EOF found inside tag value.");
+            header[headerLen++] = (byte)t;
+
+            // X.690-0207 8.1.2.4.2
+            // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
+            if ((t & 0x7f) == 0)
+            {
+                throw new IOException("corrupted stream - invalid high tag number found");
+            }
+
+            while ((t & 0x80) != 0)
+            {
+                if ((tagNo >>> 24) != 0)
+                {
+                    throw new IOException("corrupted stream - tag number too large");
+                }
+                tagNo |= (t & 0x7f);
+                tagNo <<= 7;
+
+                t = readNonEOF("EOF found inside tag value.");
+                header[headerLen++] = (byte)t;
+            }
+
+            tagNo |= (t & 0x7f);
+        }
+
+        int length = readNonEOF("EOF found when length expected");
+        header[headerLen++] = (byte)length;
+        if (length == 0x80)
+        {
+            if ((b & BERTags.CONSTRUCTED) == 0)
+            {
+                throw new IOException("indefinite-length primitive encoding encountered");
+            }
+            length = -1;
+        }
+        else if (length > 127)
+        {
+            int size = length & 0x7f;
+
+            // Note: The invalid long form "0xff" (see X.690 8.1.3.5c) will be caught here
+            if (size > 4)
+            {
+                throw new IOException("DER length more than 4 bytes: " + size);
+            }
+
+            length = 0;
+            for (int i = 0; i < size; i++)
+            {
+                int next = readNonEOF("EOF found reading length");
+                header[headerLen++] = (byte)next;
+                length = (length << 8) + next;
+            }
+
+            if (length < 0)
+            {
+                throw new IOException("corrupted stream - negative length found");
+            }
+        }
+
+        this.tag = b & ~0x1f;
+        this.tagNo = tagNo;
+        this.length = length;
+        this.offset = pos;
+        this.contentsOffset = pos + headerLen;
+    }
+
+    private void push()
+    {
+        if (depth == frameEnd.length)
+        {
+            int size = depth * 2;
+            frameEnd = copy(frameEnd, size);
+            frameBound = copy(frameBound, size);
+            frameOffset = copy(frameOffset, size);
+            frameContentsOffset = copy(frameContentsOffset, size);
+            frameTag = copy(frameTag, size);
+            frameTagNo = copy(frameTagNo, size);
+            frameLength = copy(frameLength, size);
+        }
+
+        long end = length < 0 ? -1 : contentsOffset + length;
+
+        frameEnd[depth] = end;
+        frameBound[depth] = end >= 0 ? end : (depth > 0 ? frameBound[depth - 1] : Long.MAX_VALUE);
+        frameOffset[depth] = offset;
+        frameContentsOffset[depth] = contentsOffset;
+        frameTag[depth] = tag;
+        frameTagNo[depth] = tagNo;
+        frameLength[depth] = length;
+        ++depth;
+    }
+
+    private int pop()
+    {
+        --depth;
+        this.tag = frameTag[depth];
+        this.tagNo = frameTagNo[depth];
+        this.length = frameLength[depth];
+        this.offset = frameOffset[depth];
+        this.contentsOffset = frameContentsOffset[depth];
+        return event = END_CONSTRUCTED;
+    }
+
+    private long getPosition()
+    {
+        return bufStart + bufPos;
+    }
+
+    private boolean fill()
+        throws IOException
+    {
+        bufStart += bufLen;
+        bufPos = 0;
+        bufLen = 0;
+
+        int count = in.read(buf, 0, buf.length);
+        if (count <= 0)
+        {
+            return false;
+        }
+        bufLen = count;
+        return true;
+    }
+
+    private int read()
+        throws IOException
+    {
+        if (bufPos == bufLen && !fill())
+        {
+            return -1;
+        }
+
+        int b = buf[bufPos++] & 0xff;
+        if (record != null)
+        {
+            record.write(b);
+        }
+        return b;
+    }
+
+    private int readNonEOF(String message)
+        throws IOException
+    {
+        int b = read();
+        if (b < 0)
+        {
+            throw new EOFException(message);
+        }
+        return b;
+    }
+
+    private void readFully(byte[] data, int off, int len)
+        throws IOException
+    {
+        while (len > 0)
+        {
+            if (bufPos == bufLen && !fill())
+            {
+                throw new EOFException("EOF encountered in middle of object");
+            }
+
+            int count = Math.min(len, bufLen - bufPos);
+            System.arraycopy(buf, bufPos, data, off, count);
+            if (record != null)
+            {
+                record.write(buf, bufPos, count);
+            }
+            bufPos += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    // consume len octets, skipping the underlying stream where possible
+    private void transfer(long len)
+        throws IOException
+    {
+        int buffered = (int)Math.min(len, bufLen - bufPos);
+        if (record != null)
+        {
+            if (record.size() + len >= limit)
+            {
+                throw new IOException("corrupted stream - out of bounds length found: " + len + " >= " + limit);
+            }
+            record.write(buf, bufPos, buffered);
+        }
+        bufPos += buffered;
+        len -= buffered;
+
+        if (len == 0)
+        {
+            return;
+        }
+
+        if (record != null || len < BUFFER_SIZE)
+        {
+            while (len > 0)
+            {
+                if (!fill())
+                {
+                    throw new EOFException("EOF encountered in middle of object");
+                }
+
+                int count = (int)Math.min(len, bufLen);
+                if (record != null)
+                {
+                    record.write(buf, 0, count);
+                }
+                bufPos = count;
+                len -= count;
+            }
+            return;
+        }
+
+        // the buffer is exhausted, so skip the stream directly and restart the buffer after the skipped data
+        bufStart += bufLen + len;
+        bufPos = 0;
+        bufLen = 0;
+        while (len > 0)
+        {
+            long skipped = in.skip(len);
+            if (skipped <= 0)
+            {
+                if (in.read() < 0)
+                {
+                    throw new EOFException("EOF encountered in middle of object");
+                }
+                skipped = 1;
+            }
+            len -= skipped;
+        }
+    }
+
+    private static long[] copy(long[] a, int size)
+    {
+        long[] tmp = new long[size];
+        System.arraycopy(a, 0, tmp, 0, a.length);
+        return tmp;
+    }
+
+    private static int[] copy(int[] a, int size)
+    {
+        int[] tmp = new int[size];
+        System.arraycopy(a, 0, tmp, 0, a.length);
+        return tmp;
+    }
+
+    private class ContentStream
+        extends InputStream
+    {
+        private final long elementOffset;
+
+        ContentStream(long elementOffset)
+        {
+            this.elementOffset = elementOffset;
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (!isCurrent() || remaining == 0)
+            {
+                return -1;
+            }
+
+            int b = readNonEOF("EOF encountered in middle of object");
+            --remaining;
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len)
+            throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (!isCurrent() || remaining == 0)
+            {
+                return -1;
+            }
+
+            if (bufPos == bufLen && !fill())
+            {
+                throw new EOFException("EOF encountered in middle of object");
+            }
+
+            int count = Math.min(Math.min(len, remaining), bufLen - bufPos);
+            System.arraycopy(buf, bufPos, b, off, count);
+            bufPos += count;
+            remaining -= count;
+            return count;
+        }
+
+        private boolean isCurrent()
+        {
+            return event == PRIMITIVE && offset == elementOffset;
+        }
+    }
+}
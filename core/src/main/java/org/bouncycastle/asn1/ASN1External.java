@@ -142,10 +142,29 @@ boolean isConstructed()
         return true;
     }
 
-    int encodedLength()
+    /**
+     * Calculate the length of the encoding written by encode(), with the components encoded using the passed in
+     * encoding.
+     */
+    int calculateEncodedLength(String componentEncoding)
         throws IOException
     {
-        return this.getEncoded().length;
+        int length = 0;
+        if (directReference != null)
+        {
+            length += directReference.toEncodingObject(componentEncoding).encodedLength();
+        }
+        if (indirectReference != null)
+        {
+            length += indirectReference.toEncodingObject(componentEncoding).encodedLength();
+        }
+        if (dataValueDescriptor != null)
+        {
+            length += dataValueDescriptor.toEncodingObject(componentEncoding).encodedLength();
+        }
+        length += new DERTaggedObject(true, encoding, externalContent).toEncodingObject(componentEncoding).encodedLength();
+
+        return 1 + StreamUtil.calculateBodyLength(length) + length;
     }
 
     /* (non-Javadoc)
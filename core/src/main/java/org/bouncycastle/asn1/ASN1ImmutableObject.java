@@ -0,0 +1,76 @@
+package org.bouncycastle.asn1;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Base class for ASN.1 objects whose content can never change once constructed. As the DER encoding of such
+ * an object is fixed, it is calculated on first use and reused after that, so repeated requests for it cost
+ * only a copy.
+ * <p>
+ * Subclasses must not allow their content, or the primitive returned by {@link #toASN1Primitive()}, to be
+ * altered after construction.
+ * </p>
+ */
+public abstract class ASN1ImmutableObject
+    extends ASN1Object
+{
+    private volatile byte[] derEncoding;
+
+    public byte[] getEncoded(String encoding) throws IOException
+    {
+        if (ASN1Encoding.DER.equals(encoding))
+        {
+            return Arrays.clone(getDEREncoding());
+        }
+
+        return super.getEncoded(encoding);
+    }
+
+    public int getEncodedLength(String encoding) throws IOException
+    {
+        if (ASN1Encoding.DER.equals(encoding))
+        {
+            return getDEREncoding().length;
+        }
+
+        return super.getEncodedLength(encoding);
+    }
+
+    public void encodeTo(OutputStream output, String encoding) throws IOException
+    {
+        if (ASN1Encoding.DER.equals(encoding))
+        {
+            output.write(getDEREncoding());
+        }
+        else
+        {
+            super.encodeTo(output, encoding);
+        }
+    }
+
+    public int encodeTo(byte[] out, int outOff, String encoding) throws IOException
+    {
+        if (ASN1Encoding.DER.equals(encoding))
+        {
+            byte[] der = getDEREncoding();
+            System.arraycopy(der, 0, out, outOff, der.length);
+            return der.length;
+        }
+
+        return super.encodeTo(out, outOff, encoding);
+    }
+
+    private byte[] getDEREncoding() throws IOException
+    {
+        byte[] encoding = derEncoding;
+        if (null == encoding)
+        {
+            encoding = super.getEncoded(ASN1Encoding.DER);
+            derEncoding = encoding;
+        }
+        return encoding;
+    }
+}
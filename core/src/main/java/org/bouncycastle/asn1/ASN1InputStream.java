@@ -148,6 +148,11 @@ protected ASN1Primitive buildObject(
 
         if ((tag & TAGGED) != 0)
         {
+            if (lazyEvaluate && isConstructed)
+            {
+                return readLazyTaggedObject(tagNo, defIn.toByteArray());
+            }
+
             return new ASN1StreamParser(defIn).readTaggedObject(isConstructed, tagNo);
         }
 
@@ -187,7 +192,14 @@ protected ASN1Primitive buildObject(
                         return DLFactory.createSequence(readVector(defIn));   
                     }
                 case SET:
-                    return DLFactory.createSet(readVector(defIn));
+                    if (lazyEvaluate)
+                    {
+                        return new LazyEncodedSet(defIn.toByteArray());
+                    }
+                    else
+                    {
+                        return DLFactory.createSet(readVector(defIn));
+                    }
                 case EXTERNAL:
                     return new DLExternal(readVector(defIn));
                 default:
@@ -198,6 +210,22 @@ protected ASN1Primitive buildObject(
         return createPrimitiveDERObject(tagNo, defIn, tmpBuffers);
     }
 
+    /**
+     * A constructed tagged object holding exactly one element is taken as explicitly tagged, otherwise the
+     * contents are implicitly tagged SEQUENCE contents - as for {@link ASN1StreamParser#readTaggedObject}.
+     * Either way, constructed contents are left unparsed until needed.
+     */
+    private ASN1Primitive readLazyTaggedObject(int tagNo, byte[] contents) throws IOException
+    {
+        ASN1Cursor cursor = new ASN1Cursor(contents);
+        if (cursor.next() && cursor.getEncodedLength() == contents.length)
+        {
+            return new DLTaggedObject(true, tagNo, new ASN1InputStream(contents, true).readObject());
+        }
+
+        return new DLTaggedObject(false, tagNo, new LazyEncodedSequence(contents));
+    }
+
     ASN1EncodableVector readVector(DefiniteLengthInputStream dIn) throws IOException
     {
         if (dIn.getRemaining() < 1)
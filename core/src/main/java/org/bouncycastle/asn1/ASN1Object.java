@@ -1,6 +1,5 @@
 package org.bouncycastle.asn1;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -30,9 +29,7 @@ public void encodeTo(OutputStream output, String encoding) throws IOException
      */
     public byte[] getEncoded() throws IOException
     {
-        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-        encodeTo(bOut);
-        return bOut.toByteArray();
+        return getEncoded(ASN1Encoding.BER);
     }
 
     /**
@@ -44,9 +41,49 @@ public byte[] getEncoded() throws IOException
      */
     public byte[] getEncoded(String encoding) throws IOException
     {
-        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-        encodeTo(bOut, encoding);
-        return bOut.toByteArray();
+        ASN1Primitive primitive = toASN1Primitive().toEncodingObject(encoding);
+
+        // lengths are calculated (and cached by the constructed types) first, so the output can be
+        // written in a single pass into an array of exactly the right size
+        byte[] data = new byte[primitive.encodedLength()];
+
+        if (primitive.encodeTo(data, 0, encoding) != data.length)
+        {
+            throw new IllegalStateException("encoding shorter than calculated length");
+        }
+
+        return data;
+    }
+
+    /**
+     * Return the length of the encoding produced by {@link #getEncoded(String)} for this object.
+     *
+     * @param encoding name of encoding to use.
+     * @return the length of the encoding.
+     * @throws IOException on encoding error.
+     */
+    public int getEncodedLength(String encoding) throws IOException
+    {
+        return toASN1Primitive().toEncodingObject(encoding).encodedLength();
+    }
+
+    /**
+     * Write either the default for "BER" or a DER encoding if "DER" is specified into the passed in array.
+     *
+     * @param out the array to write to, which must have at least {@link #getEncodedLength(String)} bytes
+     * available from outOff.
+     * @param outOff the offset into out the encoding starts at.
+     * @param encoding name of encoding to use.
+     * @return the number of bytes written.
+     * @throws IOException on encoding error.
+     */
+    public int encodeTo(byte[] out, int outOff, String encoding) throws IOException
+    {
+        FixedArrayOutputStream fOut = new FixedArrayOutputStream(out, outOff);
+
+        ASN1OutputStream.create(fOut, encoding).writeObject(this);
+
+        return fOut.getCount();
     }
 
     public int hashCode()
@@ -23,6 +23,25 @@ public void encodeTo(OutputStream output, String encoding) throws IOException
         ASN1OutputStream.create(output, encoding).writeObject(this);
     }
 
+    /**
+     * Return the object that is actually written when this object is encoded with the given encoding.
+     */
+    ASN1Primitive toEncodingObject(String encoding)
+    {
+        if (encoding.equals(ASN1Encoding.DER))
+        {
+            return toDERObject();
+        }
+        else if (encoding.equals(ASN1Encoding.DL))
+        {
+            return toDLObject();
+        }
+        else
+        {
+            return this;
+        }
+    }
+
     /**
      * Create a base ASN.1 object from a byte stream.
      *
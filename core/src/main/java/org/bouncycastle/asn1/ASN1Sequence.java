@@ -60,8 +60,9 @@
     extends ASN1Primitive
     implements org.bouncycastle.util.Iterable<ASN1Encodable>
 {
-    // NOTE: Only non-final to support LazyEncodedSequence
-    ASN1Encodable[] elements;
+    final ASN1Encodable[] elements;
+
+    private volatile ASN1Primitive derObject;
 
     /**
      * Return an ASN1Sequence from the given object.
@@ -224,7 +225,7 @@ protected ASN1Sequence(ASN1Encodable[] elements)
 
     public ASN1Encodable[] toArray()
     {
-        return ASN1EncodableVector.cloneElements(elements);
+        return ASN1EncodableVector.cloneElements(toArrayInternal());
     }
 
     ASN1Encodable[] toArrayInternal()
@@ -256,8 +257,9 @@ public Object nextElement()
 
     public ASN1SequenceParser parser()
     {
-        // NOTE: Call size() here to 'force' a LazyEncodedSequence
-        final int count = size();
+        // NOTE: Use toArrayInternal() so a LazyEncodedSequence is parsed
+        final ASN1Encodable[] array = toArrayInternal();
+        final int count = array.length;
 
         return new ASN1SequenceParser()
         {
@@ -270,7 +272,7 @@ public ASN1Encodable readObject() throws IOException
                     return null;
                 }
 
-                ASN1Encodable obj = elements[pos++];
+                ASN1Encodable obj = array[pos++];
                 if (obj instanceof ASN1Sequence)
                 {
                     return ((ASN1Sequence)obj).parser();
@@ -319,13 +321,14 @@ public int size()
     public int hashCode()
     {
 //        return Arrays.hashCode(elements);
-        int i = elements.length;
+        ASN1Encodable[] array = toArrayInternal();
+        int i = array.length;
         int hc = i + 1;
 
         while (--i >= 0)
         {
             hc *= 257;
-            hc ^= elements[i].toASN1Primitive().hashCode();
+            hc ^= array[i].toASN1Primitive().hashCode();
         }
 
         return hc;
@@ -348,8 +351,8 @@ boolean asn1Equals(ASN1Primitive other)
 
         for (int i = 0; i < count; ++i)
         {
-            ASN1Primitive p1 = this.elements[i].toASN1Primitive();
-            ASN1Primitive p2 = that.elements[i].toASN1Primitive();
+            ASN1Primitive p1 = this.getObjectAt(i).toASN1Primitive();
+            ASN1Primitive p2 = that.getObjectAt(i).toASN1Primitive();
 
             if (p1 != p2 && !p1.asn1Equals(p2))
             {
@@ -366,7 +369,14 @@ boolean asn1Equals(ASN1Primitive other)
      */
     ASN1Primitive toDERObject()
     {
-        return new DERSequence(elements, false);
+        // NOTE: Cached, so that the lengths it caches are reused each time a containing structure is encoded
+        ASN1Primitive der = derObject;
+        if (null == der)
+        {
+            der = new DERSequence(toArrayInternal(), false);
+            derObject = der;
+        }
+        return der;
     }
 
     /**
@@ -375,7 +385,7 @@ ASN1Primitive toDERObject()
      */
     ASN1Primitive toDLObject()
     {
-        return new DLSequence(elements, false);
+        return new DLSequence(toArrayInternal(), false);
     }
 
     boolean isConstructed()
@@ -387,8 +397,9 @@ boolean isConstructed()
 
     public String toString() 
     {
-        // NOTE: Call size() here to 'force' a LazyEncodedSequence
-        int count = size();
+        // NOTE: Use toArrayInternal() so a LazyEncodedSequence is parsed
+        ASN1Encodable[] array = toArrayInternal();
+        int count = array.length;
         if (0 == count)
         {
             return "[]";
@@ -398,7 +409,7 @@ public String toString()
         sb.append('[');
         for (int i = 0;;)
         {
-            sb.append(elements[i]);
+            sb.append(array[i]);
             if (++i >= count)
             {
                 break;
@@ -411,6 +422,6 @@ public String toString()
 
     public Iterator<ASN1Encodable> iterator()
     {
-        return new Arrays.Iterator<ASN1Encodable>(elements);
+        return new Arrays.Iterator<ASN1Encodable>(toArrayInternal());
     }
 }
@@ -15,6 +15,8 @@
     final boolean       explicit;
     final ASN1Encodable obj;
 
+    private volatile ASN1Primitive derObject;
+
     static public ASN1TaggedObject getInstance(
         ASN1TaggedObject    obj,
         boolean             explicit)
@@ -178,7 +180,14 @@ public ASN1Primitive getLoadedObject()
 
     ASN1Primitive toDERObject()
     {
-        return new DERTaggedObject(explicit, tagNo, obj);
+        // NOTE: Cached, so that the lengths of the contents are reused each time a containing structure is encoded
+        ASN1Primitive der = derObject;
+        if (null == der)
+        {
+            der = new DERTaggedObject(explicit, tagNo, obj);
+            derObject = der;
+        }
+        return der;
     }
 
     ASN1Primitive toDLObject()
@@ -53,20 +53,23 @@ boolean isConstructed()
     int encodedLength()
         throws IOException
     {
-        ASN1Primitive primitive = obj.toASN1Primitive();
-        int length = primitive.encodedLength();
+        int length = 0;
 
         if (explicit)
         {
-            return StreamUtil.calculateTagLength(tagNo) + StreamUtil.calculateBodyLength(length) + length;
+            length = obj.toASN1Primitive().encodedLength();
         }
         else
         {
-            // header length already in calculation
-            length = length - 1;
-
-            return StreamUtil.calculateTagLength(tagNo) + length;
+            Enumeration e = getImplicitElements();
+            while (e.hasMoreElements())
+            {
+                length += ((ASN1Encodable)e.nextElement()).toASN1Primitive().encodedLength();
+            }
         }
+
+        // always written in the indefinite-length form: 0x80, then the contents, then the end-of-contents octets
+        return StreamUtil.calculateTagLength(tagNo) + 1 + length + 2;
     }
 
     void encode(ASN1OutputStream out, boolean withTag) throws IOException
@@ -76,34 +79,7 @@ void encode(ASN1OutputStream out, boolean withTag) throws IOException
 
         if (!explicit)
         {
-            Enumeration e;
-            if (obj instanceof ASN1OctetString)
-            {
-                if (obj instanceof BEROctetString)
-                {
-                    e = ((BEROctetString)obj).getObjects();
-                }
-                else
-                {
-                    ASN1OctetString octs = (ASN1OctetString)obj;
-                    BEROctetString berO = new BEROctetString(octs.getOctets());
-                    e = berO.getObjects();
-                }
-            }
-            else if (obj instanceof ASN1Sequence)
-            {
-                e = ((ASN1Sequence)obj).getObjects();
-            }
-            else if (obj instanceof ASN1Set)
-            {
-                e = ((ASN1Set)obj).getObjects();
-            }
-            else
-            {
-                throw new ASN1Exception("not implemented: " + obj.getClass().getName());
-            }
-
-            out.writeElements(e);
+            out.writeElements(getImplicitElements());
         }
         else
         {
@@ -135,4 +111,30 @@ else if (obj instanceof ASN1Set)
 //            out.writePrimitive(obj.toASN1Primitive(), false);
 //        }
     }
+
+    private Enumeration getImplicitElements()
+        throws IOException
+    {
+        if (obj instanceof ASN1OctetString)
+        {
+            if (obj instanceof BEROctetString)
+            {
+                return ((BEROctetString)obj).getObjects();
+            }
+
+            ASN1OctetString octs = (ASN1OctetString)obj;
+            BEROctetString berO = new BEROctetString(octs.getOctets());
+            return berO.getObjects();
+        }
+        else if (obj instanceof ASN1Sequence)
+        {
+            return ((ASN1Sequence)obj).getObjects();
+        }
+        else if (obj instanceof ASN1Set)
+        {
+            return ((ASN1Set)obj).getObjects();
+        }
+
+        throw new ASN1Exception("not implemented: " + obj.getClass().getName());
+    }
 }
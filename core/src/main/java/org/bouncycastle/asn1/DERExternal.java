@@ -66,7 +66,7 @@ ASN1Primitive toDLObject()
     int encodedLength()
         throws IOException
     {
-        return this.getEncoded().length;
+        return calculateEncodedLength(ASN1Encoding.DER);
     }
 
     /* (non-Javadoc)
@@ -61,7 +61,7 @@ ASN1Primitive toDLObject()
     int encodedLength()
         throws IOException
     {
-        return this.getEncoded().length;
+        return calculateEncodedLength(ASN1Encoding.DL);
     }
 
     /* (non-Javadoc)
@@ -0,0 +1,37 @@
+package org.bouncycastle.asn1;
+
+import java.io.OutputStream;
+
+/**
+ * Unsynchronized stream writing into an array that has already been sized for the output.
+ */
+class FixedArrayOutputStream
+    extends OutputStream
+{
+    private final byte[] buf;
+    private final int start;
+    private int pos;
+
+    FixedArrayOutputStream(byte[] buf, int off)
+    {
+        this.buf = buf;
+        this.start = off;
+        this.pos = off;
+    }
+
+    public void write(int b)
+    {
+        buf[pos++] = (byte)b;
+    }
+
+    public void write(byte[] b, int off, int len)
+    {
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    int getCount()
+    {
+        return pos - start;
+    }
+}
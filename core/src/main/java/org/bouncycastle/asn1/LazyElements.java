@@ -0,0 +1,161 @@
+package org.bouncycastle.asn1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The elements of a lazily parsed constructed object, held as its DER/DL contents octets. The element
+ * boundaries are found (without parsing) on first use, and each element is only parsed when first requested.
+ * <p>
+ * Instances are safe for concurrent readers without locking: threads racing on the same element may each
+ * parse it, but only the first result is kept, so every caller sees the same object.
+ * </p>
+ */
+class LazyElements
+{
+    private static class Index
+    {
+        final int[] offsets;
+        final AtomicReferenceArray<ASN1Encodable> parsed;
+
+        Index(int[] offsets, int count)
+        {
+            this.offsets = offsets;
+            this.parsed = new AtomicReferenceArray<ASN1Encodable>(count);
+        }
+    }
+
+    private final byte[] encoded;
+
+    private volatile Index index;
+    private volatile ASN1Encodable[] elements;
+
+    LazyElements(byte[] encoded)
+    {
+        this.encoded = encoded;
+    }
+
+    byte[] getEncoded()
+    {
+        return encoded;
+    }
+
+    int size()
+    {
+        return getIndex().parsed.length();
+    }
+
+    ASN1Encodable get(int i)
+    {
+        Index idx = getIndex();
+
+        ASN1Encodable element = idx.parsed.get(i);
+        if (null == element)
+        {
+            element = parse(idx.offsets[i], idx.offsets[i + 1]);
+            if (!idx.parsed.compareAndSet(i, null, element))
+            {
+                element = idx.parsed.get(i);
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Return all the elements. The returned array is shared and must not be modified.
+     */
+    ASN1Encodable[] getElements()
+    {
+        ASN1Encodable[] result = elements;
+        if (null == result)
+        {
+            int count = size();
+            result = new ASN1Encodable[count];
+            for (int i = 0; i < count; ++i)
+            {
+                result[i] = get(i);
+            }
+            elements = result;
+        }
+        return result;
+    }
+
+    Enumeration getObjects()
+    {
+        return new Enumeration()
+        {
+            private int pos = 0;
+
+            public boolean hasMoreElements()
+            {
+                return pos < size();
+            }
+
+            public Object nextElement()
+            {
+                if (pos >= size())
+                {
+                    throw new NoSuchElementException("ASN1 Enumeration");
+                }
+                return get(pos++);
+            }
+        };
+    }
+
+    private Index getIndex()
+    {
+        Index idx = index;
+        if (null == idx)
+        {
+            idx = createIndex();
+            index = idx;
+        }
+        return idx;
+    }
+
+    private Index createIndex()
+    {
+        int[] offsets = new int[8];
+        int count = 0;
+
+        try
+        {
+            ASN1Cursor cursor = new ASN1Cursor(encoded);
+            while (cursor.next())
+            {
+                if (count + 1 == offsets.length)
+                {
+                    int[] tmp = new int[offsets.length * 2];
+                    System.arraycopy(offsets, 0, tmp, 0, count);
+                    offsets = tmp;
+                }
+                offsets[count++] = cursor.getOffset();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new ASN1ParsingException("malformed DER construction: " + e, e);
+        }
+
+        offsets[count] = encoded.length;
+
+        return new Index(offsets, count);
+    }
+
+    private ASN1Encodable parse(int start, int end)
+    {
+        int length = end - start;
+
+        try
+        {
+            return new ASN1InputStream(new ByteArrayInputStream(encoded, start, length), length, true).readObject();
+        }
+        catch (IOException e)
+        {
+            throw new ASN1ParsingException("malformed DER construction: " + e, e);
+        }
+    }
+}
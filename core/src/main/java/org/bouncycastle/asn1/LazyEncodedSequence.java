@@ -2,127 +2,57 @@
 
 import java.io.IOException;
 import java.util.Enumeration;
-import java.util.Iterator;
 
 /**
  * Note: this class is for processing DER/DL encoded sequences only.
+ * <p>
+ * Elements are parsed individually as they are requested, and the object is immutable once constructed, so
+ * it may be shared between threads without locking (see {@link LazyElements}).
+ * </p>
  */
 class LazyEncodedSequence
     extends ASN1Sequence
 {
-    private byte[] encoded;
+    private final LazyElements contents;
 
     LazyEncodedSequence(byte[] encoded) throws IOException
     {
-        // NOTE: Initially, the actual 'elements' will be empty
+        // NOTE: The actual 'elements' will always be empty
         super();
 
-        this.encoded = encoded;
+        this.contents = new LazyElements(encoded);
     }
 
-    public synchronized ASN1Encodable getObjectAt(int index)
+    public ASN1Encodable getObjectAt(int index)
     {
-        force();
-
-        return super.getObjectAt(index);
-    }
-
-    public synchronized Enumeration getObjects()
-    {
-        if (null != encoded)
-        {
-            return new LazyConstructionEnumeration(encoded);
-        }
-
-        return super.getObjects();
+        return contents.get(index);
     }
 
-    public synchronized int hashCode()
+    public Enumeration getObjects()
     {
-        force();
-
-        return super.hashCode();
+        return contents.getObjects();
     }
 
-    public synchronized Iterator<ASN1Encodable> iterator()
+    public int size()
     {
-        force();
-
-        return super.iterator();
-    }
-
-    public synchronized int size()
-    {
-        force();
-
-        return super.size();
-    }
-
-    public synchronized ASN1Encodable[] toArray()
-    {
-        force();
-
-        return super.toArray();
+        return contents.size();
     }
 
     ASN1Encodable[] toArrayInternal()
     {
-        force();
-
-        return super.toArrayInternal();
+        return contents.getElements();
     }
 
-    synchronized int encodedLength()
+    int encodedLength()
         throws IOException
     {
-        if (null != encoded)
-        {
-            return 1 + StreamUtil.calculateBodyLength(encoded.length) + encoded.length;
-        }
-
-        return super.toDLObject().encodedLength();
-    }
-
-    synchronized void encode(ASN1OutputStream out, boolean withTag) throws IOException
-    {
-        if (null != encoded)
-        {
-            out.writeEncoded(withTag, BERTags.SEQUENCE | BERTags.CONSTRUCTED, encoded);
-        }
-        else
-        {
-            super.toDLObject().encode(out, withTag);
-        }
-    }
-
-    synchronized ASN1Primitive toDERObject()
-    {
-        force();
+        byte[] encoded = contents.getEncoded();
 
-        return super.toDERObject();
+        return 1 + StreamUtil.calculateBodyLength(encoded.length) + encoded.length;
     }
 
-    synchronized ASN1Primitive toDLObject()
+    void encode(ASN1OutputStream out, boolean withTag) throws IOException
     {
-        force();
-
-        return super.toDLObject();
-    }
-
-    private void force()
-    {
-        if (null != encoded)
-        {
-            ASN1EncodableVector v = new ASN1EncodableVector();
-
-            Enumeration en = new LazyConstructionEnumeration(encoded);
-            while (en.hasMoreElements())
-            {
-                v.add((ASN1Primitive)en.nextElement());
-            }
-
-            this.elements = v.takeElements();
-            this.encoded = null;
-        }
+        out.writeEncoded(withTag, BERTags.SEQUENCE | BERTags.CONSTRUCTED, contents.getEncoded());
     }
 }
@@ -0,0 +1,69 @@
+package org.bouncycastle.asn1;
+
+import java.io.IOException;
+import java.util.Enumeration;
+
+/**
+ * Note: this class is for processing DER/DL encoded sets only.
+ * <p>
+ * Elements are parsed individually as they are requested, and the object is immutable once constructed, so
+ * it may be shared between threads without locking (see {@link LazyElements}).
+ * </p>
+ */
+class LazyEncodedSet
+    extends ASN1Set
+{
+    private final LazyElements contents;
+
+    LazyEncodedSet(byte[] encoded)
+    {
+        // NOTE: The actual 'elements' will always be empty
+        super();
+
+        this.contents = new LazyElements(encoded);
+    }
+
+    public ASN1Encodable getObjectAt(int index)
+    {
+        return contents.get(index);
+    }
+
+    public Enumeration getObjects()
+    {
+        return contents.getObjects();
+    }
+
+    public int size()
+    {
+        return contents.size();
+    }
+
+    ASN1Encodable[] toArrayInternal()
+    {
+        return contents.getElements();
+    }
+
+    ASN1Primitive createDERObject()
+    {
+        // NOTE: the encoding's element order is not trusted, so the DER form sorts the elements
+        return new DLSet(false, toArrayInternal()).createDERObject();
+    }
+
+    ASN1Primitive toDLObject()
+    {
+        return new DLSet(false, toArrayInternal());
+    }
+
+    int encodedLength()
+        throws IOException
+    {
+        byte[] encoded = contents.getEncoded();
+
+        return 1 + StreamUtil.calculateBodyLength(encoded.length) + encoded.length;
+    }
+
+    void encode(ASN1OutputStream out, boolean withTag) throws IOException
+    {
+        out.writeEncoded(withTag, BERTags.SET | BERTags.CONSTRUCTED, contents.getEncoded());
+    }
+}
@@ -4,7 +4,7 @@
 
 import org.bouncycastle.asn1.ASN1Choice;
 import org.bouncycastle.asn1.ASN1Encodable;
-import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1ImmutableObject;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -28,12 +28,12 @@
  * </pre>
  */
 public class X500Name
-    extends ASN1Object
+    extends ASN1ImmutableObject
     implements ASN1Choice
 {
     private static X500NameStyle    defaultStyle = BCStyle.INSTANCE;
 
-    private boolean                 isHashCodeCalculated;
+    private volatile boolean        isHashCodeCalculated;
     private int                     hashCodeValue;
 
     private X500NameStyle style;
@@ -241,11 +241,13 @@ public int hashCode()
             return hashCodeValue;
         }
 
-        isHashCodeCalculated = true;
+        int hashCode = style.calculateHashCode(this);
 
-        hashCodeValue = style.calculateHashCode(this);
+        // publish the value before the flag, so a racing thread never sees the flag set without it
+        hashCodeValue = hashCode;
+        isHashCodeCalculated = true;
 
-        return hashCodeValue;
+        return hashCode;
     }
 
     /**
@@ -272,7 +274,13 @@ public boolean equals(Object obj)
 
         try
         {
-            return style.areEqual(this, new X500Name(ASN1Sequence.getInstance(((ASN1Encodable)obj).toASN1Primitive())));
+            // hash codes are computed once per instance, and must agree for names equal under the same style
+            if (obj instanceof X500Name && style == ((X500Name)obj).style && hashCode() != obj.hashCode())
+            {
+                return false;
+            }
+
+            return style.areEqual(this, new X500Name(ASN1Sequence.getInstance(derO)));
         }
         catch (Exception e)
         {
@@ -285,6 +293,11 @@ public String toString()
         return style.toString(this);
     }
 
+    X500NameStyle getStyle()
+    {
+        return style;
+    }
+
     /**
      * Set the default style for X500Name construction.
      *
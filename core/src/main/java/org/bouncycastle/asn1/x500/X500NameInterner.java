@@ -0,0 +1,107 @@
+package org.bouncycastle.asn1.x500;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded cache of canonical X500Name instances. Passing a name to {@link #intern(X500Name)} returns the
+ * cached instance equal to it (under the interner's style), adding the name if there is none. Interned names can
+ * be compared cheaply: equal names are the same instance, and unequal ones are nearly always told apart by their
+ * hash codes, which are calculated once per instance. This suits code which compares the same set of names many
+ * times, such as certification path building.
+ * <p>
+ * When the cache is full the least recently used name is dropped. Instances of this class are thread safe.
+ * </p>
+ */
+public class X500NameInterner
+{
+    private final X500NameStyle style;
+    private final Map cache;
+
+    /**
+     * Create an interner for names using the default style.
+     *
+     * @param maxSize the maximum number of names to hold.
+     */
+    public X500NameInterner(int maxSize)
+    {
+        this(X500Name.getDefaultStyle(), maxSize);
+    }
+
+    /**
+     * Create an interner for names using the passed in style.
+     *
+     * @param style the style used to compare names, and given to the names returned.
+     * @param maxSize the maximum number of names to hold.
+     */
+    public X500NameInterner(X500NameStyle style, final int maxSize)
+    {
+        if (style == null)
+        {
+            throw new NullPointerException("style cannot be null");
+        }
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+
+        this.style = style;
+        this.cache = new LinkedHashMap(16, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Return the canonical instance of the passed in name.
+     *
+     * @param name the name of interest.
+     * @return a name equal to name, using this interner's style.
+     */
+    public X500Name intern(X500Name name)
+    {
+        if (name.getStyle() != style)
+        {
+            name = X500Name.getInstance(style, name);
+        }
+
+        // the hash code is cached by the name, so calculate it outside the lock
+        name.hashCode();
+
+        synchronized (cache)
+        {
+            X500Name interned = (X500Name)cache.get(name);
+            if (interned == null)
+            {
+                cache.put(name, name);
+                interned = name;
+            }
+            return interned;
+        }
+    }
+
+    /**
+     * Return the number of names currently held.
+     */
+    public int size()
+    {
+        synchronized (cache)
+        {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Remove all the names held.
+     */
+    public void clear()
+    {
+        synchronized (cache)
+        {
+            cache.clear();
+        }
+    }
+}
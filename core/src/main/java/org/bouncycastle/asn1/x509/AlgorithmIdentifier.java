@@ -2,7 +2,7 @@
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1ImmutableObject;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -10,7 +10,7 @@
 import org.bouncycastle.asn1.DERSequence;
 
 public class AlgorithmIdentifier
-    extends ASN1Object
+    extends ASN1ImmutableObject
 {
     private ASN1ObjectIdentifier algorithm;
     private ASN1Encodable       parameters;
@@ -6,7 +6,7 @@
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1ImmutableObject;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -24,11 +24,13 @@
  * </pre>
  */
 public class Extensions
-    extends ASN1Object
+    extends ASN1ImmutableObject
 {
     private Hashtable extensions = new Hashtable();
     private Vector ordering = new Vector();
 
+    private volatile ASN1Primitive primitive;
+
     public static Extensions getInstance(
         ASN1TaggedObject obj,
         boolean explicit)
@@ -155,6 +157,11 @@ public ASN1Encodable getExtensionParsedValue(ASN1ObjectIdentifier oid)
      */
     public ASN1Primitive toASN1Primitive()
     {
+        if (null != primitive)
+        {
+            return primitive;
+        }
+
         ASN1EncodableVector vec = new ASN1EncodableVector(ordering.size());
 
         Enumeration e = ordering.elements();
@@ -166,7 +173,9 @@ public ASN1Primitive toASN1Primitive()
             vec.add(ext);
         }
 
-        return new DERSequence(vec);
+        primitive = new DERSequence(vec);
+
+        return primitive;
     }
 
     public boolean equivalent(
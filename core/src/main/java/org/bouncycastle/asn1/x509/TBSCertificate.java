@@ -2,8 +2,8 @@
 
 import java.math.BigInteger;
 
+import org.bouncycastle.asn1.ASN1ImmutableObject;
 import org.bouncycastle.asn1.ASN1Integer;
-import org.bouncycastle.asn1.ASN1Object;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.ASN1TaggedObject;
@@ -31,7 +31,7 @@
  * will parse them, but you really shouldn't be creating new ones.
  */
 public class TBSCertificate
-    extends ASN1Object
+    extends ASN1ImmutableObject
 {
     ASN1Sequence            seq;
 
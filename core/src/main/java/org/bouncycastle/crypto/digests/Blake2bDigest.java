@@ -8,8 +8,9 @@
  Reference Implementation and Description can be found at: https://blake2.net/      
  Internet Draft: https://tools.ietf.org/html/draft-saarinen-blake2-02
 
- This implementation does not support the Tree Hashing Mode. 
- 
+ Tree hashing nodes can be created using the tree parameter constructor, see
+ Blake2bpDigest for the parallel BLAKE2bp mode built on top of them.
+
    For unkeyed hashing, developers adapting BLAKE2 to ASN.1 - based
    message formats SHOULD use the OID tree at x = 1.3.6.1.4.1.1722.12.2.
 
@@ -41,7 +42,7 @@
  * between 1 and 64 bytes.
  */
 public class Blake2bDigest
-    implements ExtendedDigest
+    implements ExtendedDigest, EncodableDigest
 {
     // Blake2b Initialization Vector:
     private final static long[] blake2b_IV =
@@ -72,6 +73,7 @@
 
     private static int ROUNDS = 12; // to use for Catenas H'
     private final static int BLOCK_LENGTH_BYTES = 128;// bytes
+    private final static int ENCODED_STATE_SIZE = 56 + 8 * 8 + BLOCK_LENGTH_BYTES + 16 + 16 + 64;
 
     // General parameters:
     private int digestLength = 64; // 1- 64 bytes
@@ -83,13 +85,16 @@
     private byte[] key = null;
 
     // Tree hashing parameters:
-    // Because this class does not implement the Tree Hashing Mode,
-    // these parameters can be treated as constants (see init() function)
-	/*
-	 * private int fanout = 1; // 0-255 private int depth = 1; // 1 - 255
-	 * private int leafLength= 0; private long nodeOffset = 0L; private int
-	 * nodeDepth = 0; private int innerHashLength = 0;
-	 */
+    private int fanout = 1; // 0 - 255
+    private int depth = 1; // 1 - 255
+    private int leafLength = 0;
+    private long nodeOffset = 0L;
+    private int nodeDepth = 0; // 0 - 255
+    private int innerHashLength = 0; // 0 - 64
+    private boolean lastNode = false;
+
+    // number of bytes actually output, differs from digestLength for BLAKE2bp leaves
+    private int outputLength = 64;
 
     // whenever this buffer overflows, it will be processed
     // in the compress() function.
@@ -107,8 +112,7 @@
     private long t1 = 0L; // counter: Length up to 2^128 are supported
     private long f0 = 0L; // finalization flag, for last block: ~0L
 
-    // For Tree Hashing Mode, not used here:
-    // private long f1 = 0L; // finalization flag, for last node: ~0L
+    private long f1 = 0L; // finalization flag, for last node: ~0L
 
     public Blake2bDigest()
     {
@@ -128,6 +132,15 @@ public Blake2bDigest(Blake2bDigest digest)
         this.t0 = digest.t0;
         this.t1 = digest.t1;
         this.f0 = digest.f0;
+        this.f1 = digest.f1;
+        this.fanout = digest.fanout;
+        this.depth = digest.depth;
+        this.leafLength = digest.leafLength;
+        this.nodeOffset = digest.nodeOffset;
+        this.nodeDepth = digest.nodeDepth;
+        this.innerHashLength = digest.innerHashLength;
+        this.lastNode = digest.lastNode;
+        this.outputLength = digest.outputLength;
     }
 
     /**
@@ -146,6 +159,7 @@ public Blake2bDigest(int digestSize)
         buffer = new byte[BLOCK_LENGTH_BYTES];
         keyLength = 0;
         this.digestLength = digestSize / 8;
+        this.outputLength = digestLength;
         init();
     }
 
@@ -193,14 +207,75 @@ public Blake2bDigest(byte[] key)
      */
     public Blake2bDigest(byte[] key, int digestLength, byte[] salt, byte[] personalization)
     {
+        this(key, digestLength, salt, personalization, 1, 1, 0, 0L, 0, 0, digestLength, true);
+    }
+
+    /**
+     * Blake2b tree hashing node with key, required digest length (in bytes), salt, personalization
+     * and the tree parameters of the node as defined in section 2.10 of the BLAKE2 specification.
+     * <p>
+     * The node absorbs its input (a leaf's slice of the message, or the concatenated digests of
+     * its children) as for the sequential mode, and its digest forms the chaining value passed to
+     * its parent. The last node at each level must be flagged using {@link #setLastNode(boolean)}.
+     *
+     * @param key             A key up to 64 bytes or null
+     * @param digestLength    from 1 up to 64 bytes
+     * @param salt            16 bytes or null
+     * @param personalization 16 bytes or null
+     * @param fanout          the maximal fanout of the tree, from 0 (unlimited) up to 255
+     * @param depth           the maximal depth of the tree, from 1 up to 255 (unlimited)
+     * @param leafLength      the maximal byte length of leaves, 0 for unlimited
+     * @param nodeOffset      the offset of this node within its level
+     * @param nodeDepth       the depth of this node, from 0 (leaves) up to 255
+     * @param innerHashLength the length in bytes of the inner digests, from 0 up to 64
+     */
+    public Blake2bDigest(byte[] key, int digestLength, byte[] salt, byte[] personalization,
+        int fanout, int depth, int leafLength, long nodeOffset, int nodeDepth, int innerHashLength)
+    {
+        this(key, digestLength, salt, personalization, fanout, depth, leafLength, nodeOffset, nodeDepth,
+            innerHashLength, digestLength, true);
+    }
 
+    // tree node with an output length that may differ from the digest length parameter, and
+    // optionally without the key block (BLAKE2bp root).
+    Blake2bDigest(byte[] key, int digestLength, byte[] salt, byte[] personalization,
+        int fanout, int depth, int leafLength, long nodeOffset, int nodeDepth, int innerHashLength,
+        int outputLength, boolean absorbKey)
+    {
         buffer = new byte[BLOCK_LENGTH_BYTES];
         if (digestLength < 1 || digestLength > 64)
         {
             throw new IllegalArgumentException(
                 "Invalid digest length (required: 1 - 64)");
         }
+        if (fanout < 0 || fanout > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid fanout (required: 0 - 255)");
+        }
+        if (depth < 1 || depth > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid depth (required: 1 - 255)");
+        }
+        if (nodeDepth < 0 || nodeDepth > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid node depth (required: 0 - 255)");
+        }
+        if (innerHashLength < 0 || innerHashLength > 64)
+        {
+            throw new IllegalArgumentException(
+                "Invalid inner hash length (required: 0 - 64)");
+        }
         this.digestLength = digestLength;
+        this.outputLength = outputLength;
+        this.fanout = fanout;
+        this.depth = depth;
+        this.leafLength = leafLength;
+        this.nodeOffset = nodeOffset;
+        this.nodeDepth = nodeDepth;
+        this.innerHashLength = innerHashLength;
         if (salt != null)
         {
             if (salt.length != 16)
@@ -224,21 +299,114 @@ public Blake2bDigest(byte[] key, int digestLength, byte[] salt, byte[] personali
         }
         if (key != null)
         {
-            this.key = new byte[key.length];
-            System.arraycopy(key, 0, this.key, 0, key.length);
-
             if (key.length > 64)
             {
                 throw new IllegalArgumentException(
                     "Keys > 64 are not supported");
             }
             keyLength = key.length;
-            System.arraycopy(key, 0, buffer, 0, key.length);
-            bufferPos = BLOCK_LENGTH_BYTES; // zero padding
+            if (absorbKey)
+            {
+                this.key = new byte[key.length];
+                System.arraycopy(key, 0, this.key, 0, key.length);
+
+                System.arraycopy(key, 0, buffer, 0, key.length);
+                bufferPos = BLOCK_LENGTH_BYTES; // zero padding
+            }
         }
         init();
     }
 
+    /**
+     * Create a digest initialised with the state of a previous one.
+     *
+     * @param encodedState the encoded state from the originating digest.
+     * @return a BLAKE2b digest in the encoded state.
+     */
+    public static Blake2bDigest fromEncodedState(byte[] encodedState)
+    {
+        if (encodedState.length != ENCODED_STATE_SIZE)
+        {
+            throw new IllegalArgumentException("encoded state has wrong length");
+        }
+
+        Blake2bDigest digest = new Blake2bDigest();
+
+        int flags = encodedState[7];
+        digest.digestLength = encodedState[0] & 0xFF;
+        digest.keyLength = encodedState[1] & 0xFF;
+        digest.outputLength = encodedState[2] & 0xFF;
+        digest.fanout = encodedState[3] & 0xFF;
+        digest.depth = encodedState[4] & 0xFF;
+        digest.nodeDepth = encodedState[5] & 0xFF;
+        digest.innerHashLength = encodedState[6] & 0xFF;
+        digest.lastNode = (flags & 0x01) != 0;
+        digest.salt = ((flags & 0x02) != 0) ? Arrays.copyOfRange(encodedState, 248, 264) : null;
+        digest.personalization = ((flags & 0x04) != 0) ? Arrays.copyOfRange(encodedState, 264, 280) : null;
+        digest.key = ((flags & 0x08) != 0) ? Arrays.copyOfRange(encodedState, 280, 280 + digest.keyLength) : null;
+        digest.leafLength = Pack.bigEndianToInt(encodedState, 8);
+        digest.bufferPos = Pack.bigEndianToInt(encodedState, 12);
+        digest.nodeOffset = Pack.bigEndianToLong(encodedState, 16);
+        digest.t0 = Pack.bigEndianToLong(encodedState, 24);
+        digest.t1 = Pack.bigEndianToLong(encodedState, 32);
+        digest.f0 = Pack.bigEndianToLong(encodedState, 40);
+        digest.f1 = Pack.bigEndianToLong(encodedState, 48);
+        Pack.bigEndianToLong(encodedState, 56, digest.chainValue);
+        System.arraycopy(encodedState, 120, digest.buffer, 0, BLOCK_LENGTH_BYTES);
+
+        if (digest.digestLength < 1 || digest.digestLength > 64 || digest.keyLength > 64
+            || digest.outputLength < 1 || digest.outputLength > 64
+            || digest.bufferPos < 0 || digest.bufferPos > BLOCK_LENGTH_BYTES)
+        {
+            throw new IllegalArgumentException("invalid encoded state");
+        }
+
+        return digest;
+    }
+
+    /**
+     * Return the encoded state of the digest. Note: for a keyed digest the encoding includes the key.
+     *
+     * @return the encoded state.
+     */
+    public byte[] getEncodedState()
+    {
+        byte[] encoded = new byte[ENCODED_STATE_SIZE];
+
+        encoded[0] = (byte)digestLength;
+        encoded[1] = (byte)keyLength;
+        encoded[2] = (byte)outputLength;
+        encoded[3] = (byte)fanout;
+        encoded[4] = (byte)depth;
+        encoded[5] = (byte)nodeDepth;
+        encoded[6] = (byte)innerHashLength;
+        encoded[7] = (byte)((lastNode ? 0x01 : 0) | (salt != null ? 0x02 : 0) | (personalization != null ? 0x04 : 0)
+            | (key != null ? 0x08 : 0));
+        Pack.intToBigEndian(leafLength, encoded, 8);
+        Pack.intToBigEndian(bufferPos, encoded, 12);
+        Pack.longToBigEndian(nodeOffset, encoded, 16);
+        Pack.longToBigEndian(t0, encoded, 24);
+        Pack.longToBigEndian(t1, encoded, 32);
+        Pack.longToBigEndian(f0, encoded, 40);
+        Pack.longToBigEndian(f1, encoded, 48);
+        Pack.longToBigEndian(chainValue, encoded, 56);
+        System.arraycopy(buffer, 0, encoded, 120, BLOCK_LENGTH_BYTES);
+        if (salt != null)
+        {
+            System.arraycopy(salt, 0, encoded, 248, 16);
+        }
+        if (personalization != null)
+        {
+            System.arraycopy(personalization, 0, encoded, 264, 16);
+        }
+        if (key != null)
+        {
+            System.arraycopy(key, 0, encoded, 280, key.length);
+        }
+
+        return encoded;
+    }
+
     // initialize chainValue
     private void init()
     {
@@ -247,14 +415,10 @@ private void init()
             chainValue = new long[8];
 
             chainValue[0] = blake2b_IV[0]
-                ^ (digestLength | (keyLength << 8) | 0x1010000);
-            // 0x1010000 = ((fanout << 16) | (depth << 24) | (leafLength <<
-            // 32));
-            // with fanout = 1; depth = 0; leafLength = 0;
-            chainValue[1] = blake2b_IV[1];// ^ nodeOffset; with nodeOffset = 0;
-            chainValue[2] = blake2b_IV[2];// ^ ( nodeDepth | (innerHashLength <<
-            // 8) );
-            // with nodeDepth = 0; innerHashLength = 0;
+                ^ (digestLength | (keyLength << 8) | (fanout << 16) | ((long)depth << 24)
+                    | ((leafLength & 0xFFFFFFFFL) << 32));
+            chainValue[1] = blake2b_IV[1] ^ nodeOffset;
+            chainValue[2] = blake2b_IV[2] ^ (nodeDepth | (innerHashLength << 8));
 
             chainValue[3] = blake2b_IV[3];
 
@@ -284,7 +448,7 @@ private void initializeInternalState()
         internalState[12] = t0 ^ blake2b_IV[4];
         internalState[13] = t1 ^ blake2b_IV[5];
         internalState[14] = f0 ^ blake2b_IV[6];
-        internalState[15] = blake2b_IV[7];// ^ f1 with f1 = 0
+        internalState[15] = f1 ^ blake2b_IV[7];
     }
 
     /**
@@ -393,6 +557,10 @@ public int doFinal(byte[] out, int outOffset)
     {
 
         f0 = 0xFFFFFFFFFFFFFFFFL;
+        if (lastNode)
+        {
+            f1 = 0xFFFFFFFFFFFFFFFFL;
+        }
         t0 += bufferPos;
         if (bufferPos > 0 && t0 == 0)
         {
@@ -402,17 +570,17 @@ public int doFinal(byte[] out, int outOffset)
         Arrays.fill(buffer, (byte)0);// Holds eventually the key if input is null
         Arrays.fill(internalState, 0L);
 
-        for (int i = 0; i < chainValue.length && (i * 8 < digestLength); i++)
+        for (int i = 0; i < chainValue.length && (i * 8 < outputLength); i++)
         {
             byte[] bytes = Pack.longToLittleEndian(chainValue[i]);
 
-            if (i * 8 < digestLength - 8)
+            if (i * 8 < outputLength - 8)
             {
                 System.arraycopy(bytes, 0, out, outOffset + i * 8, 8);
             }
             else
             {
-                System.arraycopy(bytes, 0, out, outOffset + i * 8, digestLength - (i * 8));
+                System.arraycopy(bytes, 0, out, outOffset + i * 8, outputLength - (i * 8));
             }
         }
 
@@ -420,7 +588,7 @@ public int doFinal(byte[] out, int outOffset)
 
         reset();
 
-        return digestLength;
+        return outputLength;
     }
 
     /**
@@ -432,6 +600,7 @@ public void reset()
     {
         bufferPos = 0;
         f0 = 0L;
+        f1 = 0L;
         t0 = 0L;
         t1 = 0L;
         chainValue = null;
@@ -513,7 +682,18 @@ public String getAlgorithmName()
      */
     public int getDigestSize()
     {
-        return digestLength;
+        return outputLength;
+    }
+
+    /**
+     * Flag this digest as the last node at its level of a hash tree. The flag is applied
+     * when the digest is finalised and remains set across resets.
+     *
+     * @param lastNode true if this is the last node at its level, false otherwise.
+     */
+    public void setLastNode(boolean lastNode)
+    {
+        this.lastNode = lastNode;
     }
 
     /**
@@ -8,7 +8,8 @@
   Reference Implementation and Description can be found at: https://blake2.net/
   RFC: https://tools.ietf.org/html/rfc7693
 
-  This implementation does not support the Tree Hashing Mode.
+  Tree hashing nodes can be created using the tree parameter constructor, see
+  Blake2spDigest for the parallel BLAKE2sp mode built on top of them.
 
   For unkeyed hashing, developers adapting BLAKE2 to ASN.1 - based
   message formats SHOULD use the OID tree at x = 1.3.6.1.4.1.1722.12.2.
@@ -40,7 +41,7 @@
  * between 1 and 32 bytes.
  */
 public class Blake2sDigest
-    implements ExtendedDigest
+    implements ExtendedDigest, EncodableDigest
 {
     /**
      * BLAKE2s Initialization Vector
@@ -73,6 +74,7 @@
 
     private static final int ROUNDS = 10; // to use for Catenas H'
     private static final int BLOCK_LENGTH_BYTES = 64;// bytes
+    private static final int ENCODED_STATE_SIZE = 40 + 8 * 4 + BLOCK_LENGTH_BYTES + 8 + 8 + 32;
 
     // General parameters:
     private int digestLength = 32; // 1- 32 bytes
@@ -82,14 +84,18 @@
     private byte[] key = null;
 
     // Tree hashing parameters:
-    // The Tree Hashing Mode is not supported but these are used for
-    // the XOF implementation
-	private int fanout = 1; // 0-255
-	private int depth = 1; // 0-255
-	private int leafLength= 0;
-	private long nodeOffset = 0L;
-	private int nodeDepth = 0;
-	private int innerHashLength = 0;
+    private int fanout = 1; // 0-255
+    private int depth = 1; // 0-255
+    private int leafLength = 0;
+    private long nodeOffset = 0L;
+    private int nodeDepth = 0;
+    private int innerHashLength = 0;
+    private boolean lastNode = false;
+
+    /**
+     * Number of bytes actually output, differs from digestLength for BLAKE2sp leaves
+     */
+    private int outputLength = 32;
 
 
     /**
@@ -125,8 +131,10 @@
      **/
     private int f0 = 0;
 
-    // For Tree Hashing Mode, not used here:
-    // private long f1 = 0L; // finalization flag, for last node: ~0L
+    /**
+     * finalization flag, for last node: ~0
+     **/
+    private int f1 = 0;
 
     /**
      * BLAKE2s-256 for hashing.
@@ -148,6 +156,7 @@ public Blake2sDigest(Blake2sDigest digest)
         this.t0 = digest.t0;
         this.t1 = digest.t1;
         this.f0 = digest.f0;
+        this.f1 = digest.f1;
         this.salt = Arrays.clone(digest.salt);
         this.personalization = Arrays.clone(digest.personalization);
         this.fanout = digest.fanout;
@@ -156,6 +165,8 @@ public Blake2sDigest(Blake2sDigest digest)
         this.nodeOffset = digest.nodeOffset;
         this.nodeDepth = digest.nodeDepth;
         this.innerHashLength = digest.innerHashLength;
+        this.lastNode = digest.lastNode;
+        this.outputLength = digest.outputLength;
     }
 
     /**
@@ -171,6 +182,7 @@ public Blake2sDigest(int digestBits)
                 "BLAKE2s digest bit length must be a multiple of 8 and not greater than 256");
         }
         digestLength = digestBits / 8;
+        outputLength = digestLength;
 
         init(null, null, null);
     }
@@ -211,13 +223,105 @@ public Blake2sDigest(byte[] key, int digestBytes, byte[] salt,
                 "Invalid digest length (required: 1 - 32)");
         }
         digestLength = digestBytes;
+        outputLength = digestBytes;
 
         init(salt, personalization, key);
     }
 
+    /**
+     * BLAKE2s tree hashing node with key, required digest length, salt, personalization and
+     * the tree parameters of the node as defined in section 2.10 of the BLAKE2 specification.
+     * <p/>
+     * The node absorbs its input (a leaf's slice of the message, or the concatenated digests
+     * of its children) as for the sequential mode, and its digest forms the chaining value
+     * passed to its parent. The last node at each level must be flagged using
+     * {@link #setLastNode(boolean)}.
+     *
+     * @param key             a key up to 32 bytes or null
+     * @param digestBytes     from 1 up to 32 bytes
+     * @param salt            8 bytes or null
+     * @param personalization 8 bytes or null
+     * @param fanout          the maximal fanout of the tree, from 0 (unlimited) up to 255
+     * @param depth           the maximal depth of the tree, from 1 up to 255 (unlimited)
+     * @param leafLength      the maximal byte length of leaves, 0 for unlimited
+     * @param nodeOffset      the offset of this node within its level, less than 2^48
+     * @param nodeDepth       the depth of this node, from 0 (leaves) up to 255
+     * @param innerHashLength the length in bytes of the inner digests, from 0 up to 32
+     */
+    public Blake2sDigest(byte[] key, int digestBytes, byte[] salt, byte[] personalization,
+                         int fanout, int depth, int leafLength, long nodeOffset, int nodeDepth,
+                         int innerHashLength)
+    {
+        this(key, digestBytes, salt, personalization, fanout, depth, leafLength, nodeOffset,
+            nodeDepth, innerHashLength, digestBytes, true);
+    }
+
+    // tree node with an output length that may differ from the digest length parameter, and
+    // optionally without the key block (BLAKE2sp root).
+    Blake2sDigest(byte[] key, int digestBytes, byte[] salt, byte[] personalization,
+                  int fanout, int depth, int leafLength, long nodeOffset, int nodeDepth,
+                  int innerHashLength, int outputBytes, boolean absorbKey)
+    {
+        if (digestBytes < 1 || digestBytes > 32)
+        {
+            throw new IllegalArgumentException(
+                "Invalid digest length (required: 1 - 32)");
+        }
+        if (fanout < 0 || fanout > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid fanout (required: 0 - 255)");
+        }
+        if (depth < 1 || depth > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid depth (required: 1 - 255)");
+        }
+        if (nodeOffset < 0 || nodeOffset >= (1L << 48))
+        {
+            throw new IllegalArgumentException(
+                "Invalid node offset (required: 0 - 2^48 - 1)");
+        }
+        if (nodeDepth < 0 || nodeDepth > 255)
+        {
+            throw new IllegalArgumentException(
+                "Invalid node depth (required: 0 - 255)");
+        }
+        if (innerHashLength < 0 || innerHashLength > 32)
+        {
+            throw new IllegalArgumentException(
+                "Invalid inner hash length (required: 0 - 32)");
+        }
+        this.digestLength = digestBytes;
+        this.outputLength = outputBytes;
+        this.fanout = fanout;
+        this.depth = depth;
+        this.leafLength = leafLength;
+        this.nodeOffset = nodeOffset;
+        this.nodeDepth = nodeDepth;
+        this.innerHashLength = innerHashLength;
+
+        if (absorbKey)
+        {
+            init(salt, personalization, key);
+        }
+        else
+        {
+            if (key != null && key.length > 32)
+            {
+                throw new IllegalArgumentException(
+                        "Keys > 32 bytes are not supported");
+            }
+            this.keyLength = (key == null) ? 0 : key.length;
+
+            init(salt, personalization, null);
+        }
+    }
+
     // XOF root hash parameters
     Blake2sDigest(int digestBytes, byte[] key, byte[] salt, byte[] personalization, long offset) {
         digestLength = digestBytes;
+        outputLength = digestBytes;
         nodeOffset = offset;
 
         init(salt, personalization, key);
@@ -226,6 +330,7 @@ public Blake2sDigest(byte[] key, int digestBytes, byte[] salt,
     // XOF internal hash parameters
     Blake2sDigest(int digestBytes, int hashLength, long offset) {
         digestLength = digestBytes;
+        outputLength = digestBytes;
         nodeOffset = offset;
         fanout = 0;
         depth = 0;
@@ -236,6 +341,96 @@ public Blake2sDigest(byte[] key, int digestBytes, byte[] salt,
         init(null, null, null);
     }
 
+    /**
+     * Create a digest initialised with the state of a previous one.
+     *
+     * @param encodedState the encoded state from the originating digest.
+     * @return a BLAKE2s digest in the encoded state.
+     */
+    public static Blake2sDigest fromEncodedState(byte[] encodedState)
+    {
+        if (encodedState.length != ENCODED_STATE_SIZE)
+        {
+            throw new IllegalArgumentException("encoded state has wrong length");
+        }
+
+        Blake2sDigest digest = new Blake2sDigest();
+
+        int flags = encodedState[7];
+        digest.digestLength = encodedState[0] & 0xFF;
+        digest.keyLength = encodedState[1] & 0xFF;
+        digest.outputLength = encodedState[2] & 0xFF;
+        digest.fanout = encodedState[3] & 0xFF;
+        digest.depth = encodedState[4] & 0xFF;
+        digest.nodeDepth = encodedState[5] & 0xFF;
+        digest.innerHashLength = encodedState[6] & 0xFF;
+        digest.lastNode = (flags & 0x01) != 0;
+        digest.salt = ((flags & 0x02) != 0) ? Arrays.copyOfRange(encodedState, 136, 144) : null;
+        digest.personalization = ((flags & 0x04) != 0) ? Arrays.copyOfRange(encodedState, 144, 152) : null;
+        digest.key = ((flags & 0x08) != 0) ? Arrays.copyOfRange(encodedState, 152, 152 + digest.keyLength) : null;
+        digest.leafLength = Pack.bigEndianToInt(encodedState, 8);
+        digest.bufferPos = Pack.bigEndianToInt(encodedState, 12);
+        digest.nodeOffset = Pack.bigEndianToLong(encodedState, 16);
+        digest.t0 = Pack.bigEndianToInt(encodedState, 24);
+        digest.t1 = Pack.bigEndianToInt(encodedState, 28);
+        digest.f0 = Pack.bigEndianToInt(encodedState, 32);
+        digest.f1 = Pack.bigEndianToInt(encodedState, 36);
+        Pack.bigEndianToInt(encodedState, 40, digest.chainValue);
+        System.arraycopy(encodedState, 72, digest.buffer, 0, BLOCK_LENGTH_BYTES);
+
+        if (digest.digestLength < 1 || digest.digestLength > 32 || digest.keyLength > 32
+            || digest.outputLength < 1 || digest.outputLength > 32
+            || digest.bufferPos < 0 || digest.bufferPos > BLOCK_LENGTH_BYTES)
+        {
+            throw new IllegalArgumentException("invalid encoded state");
+        }
+
+        return digest;
+    }
+
+    /**
+     * Return the encoded state of the digest. Note: for a keyed digest the encoding includes the key.
+     *
+     * @return the encoded state.
+     */
+    public byte[] getEncodedState()
+    {
+        byte[] encoded = new byte[ENCODED_STATE_SIZE];
+
+        encoded[0] = (byte)digestLength;
+        encoded[1] = (byte)keyLength;
+        encoded[2] = (byte)outputLength;
+        encoded[3] = (byte)fanout;
+        encoded[4] = (byte)depth;
+        encoded[5] = (byte)nodeDepth;
+        encoded[6] = (byte)innerHashLength;
+        encoded[7] = (byte)((lastNode ? 0x01 : 0) | (salt != null ? 0x02 : 0) | (personalization != null ? 0x04 : 0)
+            | (key != null ? 0x08 : 0));
+        Pack.intToBigEndian(leafLength, encoded, 8);
+        Pack.intToBigEndian(bufferPos, encoded, 12);
+        Pack.longToBigEndian(nodeOffset, encoded, 16);
+        Pack.intToBigEndian(t0, encoded, 24);
+        Pack.intToBigEndian(t1, encoded, 28);
+        Pack.intToBigEndian(f0, encoded, 32);
+        Pack.intToBigEndian(f1, encoded, 36);
+        Pack.intToBigEndian(chainValue, encoded, 40);
+        System.arraycopy(buffer, 0, encoded, 72, BLOCK_LENGTH_BYTES);
+        if (salt != null)
+        {
+            System.arraycopy(salt, 0, encoded, 136, 8);
+        }
+        if (personalization != null)
+        {
+            System.arraycopy(personalization, 0, encoded, 144, 8);
+        }
+        if (key != null)
+        {
+            System.arraycopy(key, 0, encoded, 152, key.length);
+        }
+
+        return encoded;
+    }
+
     // initialize the digest's parameters
     private void init(byte[] salt, byte[] personalization, byte[] key)
     {
@@ -313,7 +508,7 @@ private void initializeInternalState()
         internalState[12] = t0 ^ blake2s_IV[4];
         internalState[13] = t1 ^ blake2s_IV[5];
         internalState[14] = f0 ^ blake2s_IV[6];
-        internalState[15] = blake2s_IV[7];// ^ f1 with f1 = 0
+        internalState[15] = f1 ^ blake2s_IV[7];
     }
 
     /**
@@ -420,6 +615,10 @@ public void update(byte[] message, int offset, int len)
     public int doFinal(byte[] out, int outOffset)
     {
         f0 = 0xFFFFFFFF;
+        if (lastNode)
+        {
+            f1 = 0xFFFFFFFF;
+        }
         t0 += bufferPos;
         // bufferPos may be < 64, so (t0 == 0) does not work
         // for 2^32 < message length > 2^32 - 63
@@ -431,18 +630,18 @@ public int doFinal(byte[] out, int outOffset)
         Arrays.fill(buffer, (byte)0);// Holds eventually the key if input is null
         Arrays.fill(internalState, 0);
 
-        for (int i = 0; i < chainValue.length && (i * 4 < digestLength); i++)
+        for (int i = 0; i < chainValue.length && (i * 4 < outputLength); i++)
         {
             byte[] bytes = Pack.intToLittleEndian(chainValue[i]);
 
-            if (i * 4 < digestLength - 4)
+            if (i * 4 < outputLength - 4)
             {
                 System.arraycopy(bytes, 0, out, outOffset + i * 4, 4);
             }
             else
             {
                 System.arraycopy(bytes, 0, out, outOffset + i * 4,
-                    digestLength - (i * 4));
+                    outputLength - (i * 4));
             }
         }
 
@@ -450,7 +649,7 @@ public int doFinal(byte[] out, int outOffset)
 
         reset();
 
-        return digestLength;
+        return outputLength;
     }
 
     /**
@@ -461,6 +660,7 @@ public void reset()
     {
         bufferPos = 0;
         f0 = 0;
+        f1 = 0;
         t0 = 0;
         t1 = 0;
         chainValue = null;
@@ -541,7 +741,18 @@ public String getAlgorithmName()
      */
     public int getDigestSize()
     {
-        return digestLength;
+        return outputLength;
+    }
+
+    /**
+     * Flag this digest as the last node at its level of a hash tree. The flag
+     * is applied when the digest is finalised and remains set across resets.
+     *
+     * @param lastNode true if this is the last node at its level, false otherwise.
+     */
+    public void setLastNode(boolean lastNode)
+    {
+        this.lastNode = lastNode;
     }
 
     /**
@@ -0,0 +1,298 @@
+package org.bouncycastle.crypto.digests;
+
+/*
+  The BLAKE2 cryptographic hash function was designed by Jean-
+  Philippe Aumasson, Samuel Neves, Zooko Wilcox-O'Hearn, and Christian
+  Winnerlein.
+
+  Reference Implementation and Description can be found at: https://blake2.net/
+ */
+
+import java.util.concurrent.ExecutorService;
+
+import org.bouncycastle.crypto.ExtendedDigest;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Implementation of the parallel hash function BLAKE2sp.
+ * <p>
+ * BLAKE2sp is a tree of depth 2 with a fanout of 8: the message is split into 64 byte blocks
+ * which are distributed round robin over 8 BLAKE2s leaves, and the root BLAKE2s node hashes the
+ * concatenated digests of the leaves. The leaves are independent, so if an executor is provided
+ * large updates are spread over multiple threads.
+ * <p>
+ * BLAKE2sp produces digests of any size between 1 and 32 bytes, which are different from the
+ * BLAKE2s digests of the same message.
+ */
+public class Blake2spDigest
+    implements ExtendedDigest
+{
+    private static final int PARALLELISM_DEGREE = 8;
+    private static final int BLOCK_LENGTH_BYTES = 64;
+    private static final int STRIPE_LENGTH_BYTES = PARALLELISM_DEGREE * BLOCK_LENGTH_BYTES;
+    private static final int OUT_BYTES = 32;
+
+    // smallest run of whole stripes worth handing to other threads.
+    private static final int PARALLEL_THRESHOLD_BYTES = 64 * 1024;
+
+    private final int digestLength;
+    private final byte[] key;
+    private final ExecutorService executor;
+
+    private final Blake2sDigest[] leaves = new Blake2sDigest[PARALLELISM_DEGREE];
+    private final Blake2sDigest root;
+    private final byte[] leafDigest = new byte[OUT_BYTES];
+
+    // position within the current stripe of PARALLELISM_DEGREE blocks
+    private int stripePos = 0;
+
+    /**
+     * BLAKE2sp-256 for hashing.
+     */
+    public Blake2spDigest()
+    {
+        this(256);
+    }
+
+    /**
+     * Basic sized constructor - size in bits.
+     *
+     * @param digestSize size of the digest in bits
+     */
+    public Blake2spDigest(int digestSize)
+    {
+        this(null, checkDigestSize(digestSize) / 8, null);
+    }
+
+    /**
+     * BLAKE2sp with key and required digest length (in bytes).
+     *
+     * @param key          A key up to 32 bytes or null
+     * @param digestLength from 1 up to 32 bytes
+     */
+    public Blake2spDigest(byte[] key, int digestLength)
+    {
+        this(key, digestLength, null);
+    }
+
+    /**
+     * BLAKE2sp with key and required digest length (in bytes), using the passed in executor to
+     * hash the leaves of large updates in parallel.
+     *
+     * @param key          A key up to 32 bytes or null
+     * @param digestLength from 1 up to 32 bytes
+     * @param executor     executor to run leaf computations on, null to hash on the calling thread only.
+     */
+    public Blake2spDigest(byte[] key, int digestLength, ExecutorService executor)
+    {
+        if (digestLength < 1 || digestLength > 32)
+        {
+            throw new IllegalArgumentException(
+                "Invalid digest length (required: 1 - 32)");
+        }
+        if (key != null && key.length > 32)
+        {
+            throw new IllegalArgumentException(
+                "Keys > 32 bytes are not supported");
+        }
+
+        this.digestLength = digestLength;
+        this.key = (key == null || key.length == 0) ? null : Arrays.clone(key);
+        this.executor = executor;
+
+        for (int i = 0; i < PARALLELISM_DEGREE; i++)
+        {
+            leaves[i] = new Blake2sDigest(this.key, digestLength, null, null,
+                PARALLELISM_DEGREE, 2, 0, i, 0, OUT_BYTES, OUT_BYTES, true);
+        }
+        leaves[PARALLELISM_DEGREE - 1].setLastNode(true);
+
+        root = new Blake2sDigest(this.key, digestLength, null, null,
+            PARALLELISM_DEGREE, 2, 0, 0L, 1, OUT_BYTES, digestLength, false);
+        root.setLastNode(true);
+    }
+
+    public Blake2spDigest(Blake2spDigest digest)
+    {
+        this.digestLength = digest.digestLength;
+        this.key = Arrays.clone(digest.key);
+        this.executor = digest.executor;
+
+        for (int i = 0; i < PARALLELISM_DEGREE; i++)
+        {
+            this.leaves[i] = new Blake2sDigest(digest.leaves[i]);
+        }
+        this.root = new Blake2sDigest(digest.root);
+        this.stripePos = digest.stripePos;
+    }
+
+    private static int checkDigestSize(int digestSize)
+    {
+        if (digestSize < 8 || digestSize > 256 || digestSize % 8 != 0)
+        {
+            throw new IllegalArgumentException(
+                "BLAKE2sp digest bit length must be a multiple of 8 and not greater than 256");
+        }
+        return digestSize;
+    }
+
+    /**
+     * update the message digest with a single byte.
+     *
+     * @param b the input byte to be entered.
+     */
+    public void update(byte b)
+    {
+        leaves[stripePos / BLOCK_LENGTH_BYTES].update(b);
+
+        if (++stripePos == STRIPE_LENGTH_BYTES)
+        {
+            stripePos = 0;
+        }
+    }
+
+    /**
+     * update the message digest with a block of bytes.
+     *
+     * @param message the byte array containing the data.
+     * @param offset  the offset into the byte array where the data starts.
+     * @param len     the length of the data.
+     */
+    public void update(byte[] message, int offset, int len)
+    {
+        if (message == null || len == 0)
+        {
+            return;
+        }
+
+        // complete the current stripe
+        while (stripePos != 0 && len > 0)
+        {
+            int chunk = Math.min(len, BLOCK_LENGTH_BYTES - (stripePos % BLOCK_LENGTH_BYTES));
+
+            leaves[stripePos / BLOCK_LENGTH_BYTES].update(message, offset, chunk);
+
+            offset += chunk;
+            len -= chunk;
+            stripePos = (stripePos + chunk) % STRIPE_LENGTH_BYTES;
+        }
+
+        // whole stripes, each leaf taking one block per stripe
+        int stripes = len / STRIPE_LENGTH_BYTES;
+        if (stripes > 0)
+        {
+            if (executor != null && stripes * STRIPE_LENGTH_BYTES >= PARALLEL_THRESHOLD_BYTES)
+            {
+                TreeUtils.updateLeavesInParallel(executor, leaves, message, offset, BLOCK_LENGTH_BYTES, stripes);
+            }
+            else
+            {
+                for (int i = 0; i < PARALLELISM_DEGREE; i++)
+                {
+                    TreeUtils.updateLeaf(leaves[i], message, offset + i * BLOCK_LENGTH_BYTES,
+                        BLOCK_LENGTH_BYTES, STRIPE_LENGTH_BYTES, stripes);
+                }
+            }
+
+            offset += stripes * STRIPE_LENGTH_BYTES;
+            len -= stripes * STRIPE_LENGTH_BYTES;
+        }
+
+        // partial trailing stripe
+        while (len > 0)
+        {
+            int chunk = Math.min(len, BLOCK_LENGTH_BYTES);
+
+            leaves[stripePos / BLOCK_LENGTH_BYTES].update(message, offset, chunk);
+
+            offset += chunk;
+            len -= chunk;
+            stripePos += chunk;
+        }
+    }
+
+    /**
+     * close the digest, producing the final digest value. The doFinal
+     * call leaves the digest reset.
+     * The key remains.
+     *
+     * @param out       the array the digest is to be copied into.
+     * @param outOffset the offset into the out array the digest is to start at.
+     */
+    public int doFinal(byte[] out, int outOffset)
+    {
+        for (int i = 0; i < PARALLELISM_DEGREE; i++)
+        {
+            leaves[i].doFinal(leafDigest, 0);
+            root.update(leafDigest, 0, OUT_BYTES);
+        }
+        Arrays.fill(leafDigest, (byte)0);
+
+        root.doFinal(out, outOffset);
+
+        stripePos = 0;
+
+        return digestLength;
+    }
+
+    /**
+     * Reset the digest back to it's initial state.
+     * The key will remain for further computations.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < PARALLELISM_DEGREE; i++)
+        {
+            leaves[i].reset();
+        }
+        root.reset();
+        stripePos = 0;
+    }
+
+    /**
+     * return the algorithm name
+     *
+     * @return the algorithm name
+     */
+    public String getAlgorithmName()
+    {
+        return "BLAKE2sp";
+    }
+
+    /**
+     * return the size, in bytes, of the digest produced by this message digest.
+     *
+     * @return the size, in bytes, of the digest produced by this message digest.
+     */
+    public int getDigestSize()
+    {
+        return digestLength;
+    }
+
+    /**
+     * Return the size in bytes of the internal buffer the digest applies it's compression
+     * function to.
+     *
+     * @return byte length of the digests internal buffer.
+     */
+    public int getByteLength()
+    {
+        return BLOCK_LENGTH_BYTES;
+    }
+
+    /**
+     * Overwrite the key
+     * if it is no longer used (zeroization)
+     */
+    public void clearKey()
+    {
+        if (key != null)
+        {
+            Arrays.fill(key, (byte)0);
+            for (int i = 0; i < PARALLELISM_DEGREE; i++)
+            {
+                leaves[i].clearKey();
+            }
+        }
+    }
+}
@@ -28,7 +28,7 @@ public CSHAKEDigest(int bitLength, byte[] N, byte[] S)
         }
         else
         {
-            diff = Arrays.concatenate(leftEncode(rate / 8), encodeString(N), encodeString(S));
+            diff = Arrays.concatenate(XofUtils.leftEncode(rate / 8), encodeString(N), encodeString(S));
             diffPadAndAbsorb();
         }
     }
@@ -53,34 +53,12 @@ private byte[] encodeString(byte[] str)
     {
         if (str == null || str.length == 0)
         {
-            return leftEncode(0);
+            return XofUtils.leftEncode(0);
         }
 
-        return Arrays.concatenate(leftEncode(str.length * 8L), str);
+        return Arrays.concatenate(XofUtils.leftEncode(str.length * 8L), str);
     }
-    
-    private static byte[] leftEncode(long strLen)
-    {
-    	byte n = 1;
-
-        long v = strLen;
-    	while ((v >>= 8) != 0)
-        {
-    		n++;
-    	}
 
-        byte[] b = new byte[n + 1];
-
-    	b[0] = n;
-  
-    	for (int i = 1; i <= n; i++)
-    	{
-    		b[i] = (byte)(strLen >> (8 * (n - i)));
-    	}
- 
-    	return b;
-    }
-    
     public int doOutput(byte[] out, int outOff, int outLen)
     {
         if (diff != null)
@@ -0,0 +1,288 @@
+package org.bouncycastle.crypto.digests;
+
+import java.util.concurrent.ExecutorService;
+
+import org.bouncycastle.crypto.Xof;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Implementation of the KangarooTwelve extendable output function.
+ * <p>
+ * KangarooTwelve is a tree hash over the reduced round permutation Keccak-p[1600, 12]: the message (followed
+ * by the customization string) is split into 8192 byte chunks, every chunk after the first is hashed into a
+ * 32 byte chaining value and the final node absorbs the first chunk followed by these chaining values. If an
+ * executor is provided runs of whole chunks passed to a single update are hashed on multiple threads.
+ * </p>
+ * See <a href="https://keccak.team/kangarootwelve.html">https://keccak.team/kangarootwelve.html</a>
+ */
+public class KangarooTwelveDigest
+    implements Xof
+{
+    private static final int ROUNDS = 12;
+    private static final int BIT_LENGTH = 128;
+    private static final int CHUNK_LENGTH = 8192;
+    private static final int CV_LENGTH = 32;
+
+    // smallest run of whole chunks worth handing to other threads.
+    private static final int PARALLEL_THRESHOLD_CHUNKS = 8;
+
+    private static final byte[] FINAL_NODE_SEPARATOR = new byte[]{ 0x03, 0, 0, 0, 0, 0, 0, 0 };
+    private static final byte[] FINAL_NODE_TERMINATOR = new byte[]{ (byte)0xFF, (byte)0xFF };
+
+    private final byte[] customization;
+    private final int digestLength;
+    private final ExecutorService executor;
+
+    private final KeccakDigest finalNode;
+    private final KeccakDigest leaf;
+    private final byte[] cv = new byte[CV_LENGTH];
+    private final byte[] singleByte = new byte[1];
+
+    private long chunks;       // number of chunks started, including the first
+    private int chunkPos;      // number of bytes absorbed into the current chunk
+    private boolean squeezing;
+
+    /**
+     * KangarooTwelve with no customization string and a 32 byte digest.
+     */
+    public KangarooTwelveDigest()
+    {
+        this((byte[])null);
+    }
+
+    /**
+     * KangarooTwelve with a customization string and a 32 byte digest.
+     *
+     * @param customization the customization string, may be null.
+     */
+    public KangarooTwelveDigest(byte[] customization)
+    {
+        this(customization, CV_LENGTH, null);
+    }
+
+    /**
+     * KangarooTwelve with a customization string, a default digest length and an executor to hash
+     * chunks in parallel.
+     *
+     * @param customization the customization string, may be null.
+     * @param digestLength the length in bytes of the output of doFinal(byte[], int).
+     * @param executor executor to hash chunks on, null to hash on the calling thread only.
+     */
+    public KangarooTwelveDigest(byte[] customization, int digestLength, ExecutorService executor)
+    {
+        if (digestLength < 1)
+        {
+            throw new IllegalArgumentException("digest length must be positive");
+        }
+
+        this.customization = (customization == null) ? new byte[0] : Arrays.clone(customization);
+        this.digestLength = digestLength;
+        this.executor = executor;
+        this.finalNode = new KeccakDigest(BIT_LENGTH, ROUNDS);
+        this.leaf = new KeccakDigest(BIT_LENGTH, ROUNDS);
+
+        reset();
+    }
+
+    public KangarooTwelveDigest(KangarooTwelveDigest source)
+    {
+        this.customization = source.customization;
+        this.digestLength = source.digestLength;
+        this.executor = source.executor;
+
+        this.finalNode = new KeccakDigest(source.finalNode);
+        this.leaf = new KeccakDigest(source.leaf);
+        this.chunks = source.chunks;
+        this.chunkPos = source.chunkPos;
+        this.squeezing = source.squeezing;
+    }
+
+    public String getAlgorithmName()
+    {
+        return "KangarooTwelve";
+    }
+
+    public int getDigestSize()
+    {
+        return digestLength;
+    }
+
+    public int getByteLength()
+    {
+        return finalNode.getByteLength();
+    }
+
+    public void update(byte in)
+    {
+        singleByte[0] = in;
+        update(singleByte, 0, 1);
+    }
+
+    public void update(byte[] in, int inOff, int len)
+    {
+        if (squeezing)
+        {
+            throw new IllegalStateException("attempt to absorb while squeezing");
+        }
+
+        while (len > 0)
+        {
+            if (chunkPos == CHUNK_LENGTH)
+            {
+                startChunk();
+            }
+
+            if (chunks > 1 && chunkPos == 0 && executor != null && len >= PARALLEL_THRESHOLD_CHUNKS * CHUNK_LENGTH)
+            {
+                int count = len / CHUNK_LENGTH;
+
+                hashChunksInParallel(in, inOff, count);
+
+                inOff += count * CHUNK_LENGTH;
+                len -= count * CHUNK_LENGTH;
+                continue;
+            }
+
+            int partial = Math.min(len, CHUNK_LENGTH - chunkPos);
+
+            if (chunks == 1)
+            {
+                finalNode.absorb(in, inOff, partial);
+            }
+            else
+            {
+                leaf.absorb(in, inOff, partial);
+            }
+
+            chunkPos += partial;
+            inOff += partial;
+            len -= partial;
+        }
+    }
+
+    public int doFinal(byte[] out, int outOff)
+    {
+        return doFinal(out, outOff, digestLength);
+    }
+
+    public int doFinal(byte[] out, int outOff, int outLen)
+    {
+        int length = doOutput(out, outOff, outLen);
+
+        reset();
+
+        return length;
+    }
+
+    public int doOutput(byte[] out, int outOff, int outLen)
+    {
+        if (!squeezing)
+        {
+            switchToSqueezing();
+        }
+
+        finalNode.squeeze(out, outOff, ((long)outLen) * 8);
+
+        return outLen;
+    }
+
+    public void reset()
+    {
+        finalNode.reset();
+        leaf.reset();
+        Arrays.fill(cv, (byte)0);
+        chunks = 1;
+        chunkPos = 0;
+        squeezing = false;
+    }
+
+    // the current chunk is full, finish it and move to the next one.
+    private void startChunk()
+    {
+        if (chunks == 1)
+        {
+            finalNode.absorb(FINAL_NODE_SEPARATOR, 0, FINAL_NODE_SEPARATOR.length);
+        }
+        else
+        {
+            finishLeaf();
+        }
+
+        chunks++;
+        chunkPos = 0;
+    }
+
+    private void finishLeaf()
+    {
+        leaf.absorbBits(0x03, 3);
+        leaf.squeeze(cv, 0, CV_LENGTH * 8);
+        leaf.reset();
+
+        finalNode.absorb(cv, 0, CV_LENGTH);
+    }
+
+    private void hashChunksInParallel(byte[] in, int inOff, int count)
+    {
+        byte[] cvs = new byte[count * CV_LENGTH];
+
+        TreeUtils.hashChunksInParallel(executor, new TreeUtils.ChunkHasher()
+        {
+            public void hashChunk(byte[] in, int inOff, int inLen, byte[] out, int outOff)
+            {
+                KeccakDigest chunkLeaf = new KeccakDigest(BIT_LENGTH, ROUNDS);
+
+                chunkLeaf.absorb(in, inOff, inLen);
+                chunkLeaf.absorbBits(0x03, 3);
+                chunkLeaf.squeeze(out, outOff, CV_LENGTH * 8);
+            }
+        }, in, inOff, CHUNK_LENGTH, count, cvs, 0, CV_LENGTH);
+
+        // as the length encoding of the customization string always follows there is at least one more chunk.
+        finalNode.absorb(cvs, 0, cvs.length);
+        chunks += count;
+        chunkPos = 0;
+    }
+
+    private void switchToSqueezing()
+    {
+        update(customization, 0, customization.length);
+
+        byte[] encLength = lengthEncode(customization.length);
+        update(encLength, 0, encLength.length);
+
+        if (chunks == 1)
+        {
+            finalNode.absorbBits(0x03, 2);
+        }
+        else
+        {
+            finishLeaf();
+
+            byte[] encChunks = lengthEncode(chunks - 1);
+            finalNode.absorb(encChunks, 0, encChunks.length);
+            finalNode.absorb(FINAL_NODE_TERMINATOR, 0, FINAL_NODE_TERMINATOR.length);
+            finalNode.absorbBits(0x02, 2);
+        }
+
+        squeezing = true;
+    }
+
+    // length_encode(x): the big endian bytes of x with no leading zeros, followed by their count.
+    private static byte[] lengthEncode(long x)
+    {
+        int n = 0;
+        for (long v = x; v != 0; v >>>= 8)
+        {
+            n++;
+        }
+
+        byte[] b = new byte[n + 1];
+        for (int i = 0; i < n; i++)
+        {
+            b[i] = (byte)(x >>> (8 * (n - 1 - i)));
+        }
+        b[n] = (byte)n;
+
+        return b;
+    }
+}
@@ -10,7 +10,7 @@
  * Following the naming conventions used in the C source code to enable easy review of the implementation.
  */
 public class KeccakDigest
-    implements ExtendedDigest
+    implements ExtendedDigest, EncodableDigest
 {
     private static long[] KeccakRoundConstants = new long[]{ 0x0000000000000001L, 0x0000000000008082L,
         0x800000000000808aL, 0x8000000080008000L, 0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L,
@@ -19,6 +19,8 @@
         0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL, 0x8000000080008081L, 0x8000000000008080L,
         0x0000000080000001L, 0x8000000080008008L };
 
+    private static final int ENCODED_STATE_SIZE = 14 + 25 * 8 + 192;
+
     protected long[] state = new long[25];
     protected byte[] dataQueue = new byte[192];
     protected int rate;
@@ -26,6 +28,9 @@
     protected int fixedOutputLength;
     protected boolean squeezing;
 
+    // number of rounds of Keccak-p[1600] applied by the permutation, the last rounds of Keccak-f[1600] are used.
+    private final int rounds;
+
     public KeccakDigest()
     {
         this(288);
@@ -33,6 +38,21 @@ public KeccakDigest()
 
     public KeccakDigest(int bitLength)
     {
+        this(bitLength, 24);
+    }
+
+    /**
+     * Keccak sponge using the reduced round permutation Keccak-p[1600, rounds] (e.g. KangarooTwelve).
+     */
+    KeccakDigest(int bitLength, int rounds)
+    {
+        if (rounds < 1 || rounds > 24)
+        {
+            throw new IllegalArgumentException("rounds must be in the range 1 to 24");
+        }
+
+        this.rounds = rounds;
+
         init(bitLength);
     }
 
@@ -44,6 +64,44 @@ public KeccakDigest(KeccakDigest source)
         this.bitsInQueue = source.bitsInQueue;
         this.fixedOutputLength = source.fixedOutputLength;
         this.squeezing = source.squeezing;
+        this.rounds = source.rounds;
+    }
+
+    /**
+     * State constructor - create a digest initialised with the state of a previous one.
+     *
+     * @param encodedState the encoded state from the originating digest.
+     */
+    public KeccakDigest(byte[] encodedState)
+    {
+        if (encodedState.length != ENCODED_STATE_SIZE)
+        {
+            throw new IllegalArgumentException("encoded state has wrong length");
+        }
+
+        this.rate = Pack.bigEndianToInt(encodedState, 0);
+        this.bitsInQueue = Pack.bigEndianToInt(encodedState, 4);
+        this.fixedOutputLength = Pack.bigEndianToInt(encodedState, 8);
+        this.squeezing = encodedState[12] != 0;
+        this.rounds = encodedState[13];
+
+        if ((rate <= 0) || (rate >= 1600) || ((rate % 64) != 0) || bitsInQueue < 0 || bitsInQueue > rate
+            || rounds < 1 || rounds > 24)
+        {
+            throw new IllegalArgumentException("invalid encoded state");
+        }
+
+        Pack.bigEndianToLong(encodedState, 14, state);
+        System.arraycopy(encodedState, 14 + state.length * 8, dataQueue, 0, dataQueue.length);
+    }
+
+    /**
+     * Return true if the sponge uses the full 24 round permutation with a capacity of twice the output length, as
+     * SHA-3 and SHAKE do.
+     */
+    boolean hasStandardParameters()
+    {
+        return rounds == 24 && rate == 1600 - (fixedOutputLength << 1);
     }
 
     public String getAlgorithmName()
@@ -97,6 +155,21 @@ public void reset()
         init(fixedOutputLength);
     }
 
+    public byte[] getEncodedState()
+    {
+        byte[] encoded = new byte[ENCODED_STATE_SIZE];
+
+        Pack.intToBigEndian(rate, encoded, 0);
+        Pack.intToBigEndian(bitsInQueue, encoded, 4);
+        Pack.intToBigEndian(fixedOutputLength, encoded, 8);
+        encoded[12] = (byte)(squeezing ? 1 : 0);
+        encoded[13] = (byte)rounds;
+        Pack.longToBigEndian(state, encoded, 14);
+        System.arraycopy(dataQueue, 0, encoded, 14 + state.length * 8, dataQueue.length);
+
+        return encoded;
+    }
+
     /**
      * Return the size of block that the compression function is applied to in bytes.
      *
@@ -297,7 +370,7 @@ private void KeccakPermutation()
         long a15 = A[15], a16 = A[16], a17 = A[17], a18 = A[18], a19 = A[19];
         long a20 = A[20], a21 = A[21], a22 = A[22], a23 = A[23], a24 = A[24];
 
-        for (int i = 0; i < 24; i++)
+        for (int i = 24 - rounds; i < 24; i++)
         {
             // theta
             long c0 = a00 ^ a05 ^ a10 ^ a15 ^ a20;
@@ -0,0 +1,277 @@
+package org.bouncycastle.crypto.digests;
+
+import java.util.concurrent.ExecutorService;
+
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.Xof;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Strings;
+
+/**
+ * ParallelHash - a hash designed to support the efficient hashing of very long strings, by taking advantage
+ * of the parallelism available in modern processors with an optional XOF mode.
+ * <p>
+ * From NIST Special Publication 800-185 - SHA-3 Derived Functions:cSHAKE, KMAC, TupleHash and ParallelHash
+ * </p>
+ * The message is split into blocks of B bytes which are hashed independently, if an executor is provided
+ * runs of whole blocks passed to a single update are hashed on multiple threads.
+ */
+public class ParallelHash
+    implements Xof
+{
+    private static final byte[] N_PARALLEL_HASH = Strings.toByteArray("ParallelHash");
+
+    // smallest run of whole blocks worth handing to other threads.
+    private static final int PARALLEL_THRESHOLD_BYTES = 64 * 1024;
+
+    private final CSHAKEDigest cshake;
+    private final int bitLength;
+    private final int outputLength;
+    private final int B;
+    private final ExecutorService executor;
+
+    private final SHAKEDigest compressor;
+    private final byte[] compressorBuffer;
+    private final byte[] buffer;
+
+    private int bufOff;
+    private long nCount;
+    private boolean firstOutput;
+
+    /**
+     * Base constructor.
+     *
+     * @param bitLength bit length of the underlying SHAKE function, 128 or 256.
+     * @param S the customization string - available for local use.
+     * @param B the blocksize (in bytes) for hashing.
+     */
+    public ParallelHash(int bitLength, byte[] S, int B)
+    {
+        this(bitLength, S, B, bitLength * 2);
+    }
+
+    /**
+     * Constructor with an explicit output size.
+     *
+     * @param bitLength bit length of the underlying SHAKE function, 128 or 256.
+     * @param S the customization string - available for local use.
+     * @param B the blocksize (in bytes) for hashing.
+     * @param outputSize the output size in bits.
+     */
+    public ParallelHash(int bitLength, byte[] S, int B, int outputSize)
+    {
+        this(bitLength, S, B, outputSize, null);
+    }
+
+    /**
+     * Constructor with an explicit output size, using the passed in executor to hash blocks in parallel.
+     *
+     * @param bitLength bit length of the underlying SHAKE function, 128 or 256.
+     * @param S the customization string - available for local use.
+     * @param B the blocksize (in bytes) for hashing.
+     * @param outputSize the output size in bits.
+     * @param executor executor to hash blocks on, null to hash on the calling thread only.
+     */
+    public ParallelHash(int bitLength, byte[] S, int B, int outputSize, ExecutorService executor)
+    {
+        if (B <= 0)
+        {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        if (outputSize <= 0 || outputSize % 8 != 0)
+        {
+            throw new IllegalArgumentException("output size must be a positive multiple of 8");
+        }
+
+        this.cshake = new CSHAKEDigest(bitLength, N_PARALLEL_HASH, S);
+        this.compressor = new SHAKEDigest(bitLength);
+        this.bitLength = bitLength;
+        this.B = B;
+        this.outputLength = (outputSize + 7) / 8;
+        this.executor = executor;
+        this.buffer = new byte[B];
+        this.compressorBuffer = new byte[bitLength * 2 / 8];
+
+        reset();
+    }
+
+    public String getAlgorithmName()
+    {
+        return "ParallelHash" + cshake.getAlgorithmName().substring(6);
+    }
+
+    public int getByteLength()
+    {
+        return cshake.getByteLength();
+    }
+
+    public int getDigestSize()
+    {
+        return outputLength;
+    }
+
+    public void update(byte in)
+        throws IllegalStateException
+    {
+        buffer[bufOff++] = in;
+        if (bufOff == buffer.length)
+        {
+            compress();
+        }
+    }
+
+    public void update(byte[] in, int inOff, int len)
+        throws DataLengthException, IllegalStateException
+    {
+        //
+        // fill the current block
+        //
+        int i = 0;
+        if (bufOff != 0)
+        {
+            while (i < len && bufOff != buffer.length)
+            {
+                buffer[bufOff++] = in[inOff + i++];
+            }
+
+            if (bufOff == buffer.length)
+            {
+                compress();
+            }
+        }
+
+        //
+        // process whole blocks.
+        //
+        if (i < len)
+        {
+            int blocks = (len - i) / B;
+
+            if (executor != null && blocks > 1 && blocks * B >= PARALLEL_THRESHOLD_BYTES)
+            {
+                compressInParallel(in, inOff + i, blocks);
+                i += blocks * B;
+            }
+            else
+            {
+                while (len - i >= B)
+                {
+                    compress(in, inOff + i, B);
+                    i += B;
+                }
+            }
+        }
+
+        //
+        // load in the remainder.
+        //
+        while (i < len)
+        {
+            update(in[inOff + i++]);
+        }
+    }
+
+    private void compress()
+    {
+        compress(buffer, 0, bufOff);
+        bufOff = 0;
+    }
+
+    private void compress(byte[] buf, int offSet, int len)
+    {
+        compressor.update(buf, offSet, len);
+        compressor.doFinal(compressorBuffer, 0, compressorBuffer.length);
+
+        cshake.update(compressorBuffer, 0, compressorBuffer.length);
+
+        nCount++;
+    }
+
+    private void compressInParallel(byte[] buf, int offSet, int blocks)
+    {
+        final int cvLen = compressorBuffer.length;
+        byte[] cvs = new byte[blocks * cvLen];
+
+        TreeUtils.hashChunksInParallel(executor, new TreeUtils.ChunkHasher()
+        {
+            public void hashChunk(byte[] in, int inOff, int inLen, byte[] out, int outOff)
+            {
+                SHAKEDigest shake = new SHAKEDigest(bitLength);
+
+                shake.update(in, inOff, inLen);
+                shake.doFinal(out, outOff, cvLen);
+            }
+        }, buf, offSet, B, blocks, cvs, 0, cvLen);
+
+        cshake.update(cvs, 0, cvs.length);
+
+        nCount += blocks;
+    }
+
+    private void wrapUp(int outputSize)
+    {
+        if (bufOff != 0)
+        {
+            compress();
+        }
+        byte[] nOut = XofUtils.rightEncode(nCount);
+        byte[] encOut = XofUtils.rightEncode(outputSize * 8);
+
+        cshake.update(nOut, 0, nOut.length);
+        cshake.update(encOut, 0, encOut.length);
+
+        firstOutput = false;
+    }
+
+    public int doFinal(byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        if (firstOutput)
+        {
+            wrapUp(outputLength);
+        }
+
+        int rv = cshake.doFinal(out, outOff, getDigestSize());
+
+        reset();
+
+        return rv;
+    }
+
+    public int doFinal(byte[] out, int outOff, int outLen)
+    {
+        if (firstOutput)
+        {
+            wrapUp(outLen);
+        }
+
+        int rv = cshake.doFinal(out, outOff, outLen);
+
+        reset();
+
+        return rv;
+    }
+
+    public int doOutput(byte[] out, int outOff, int outLen)
+    {
+        if (firstOutput)
+        {
+            wrapUp(0);
+        }
+
+        return cshake.doOutput(out, outOff, outLen);
+    }
+
+    public void reset()
+    {
+        cshake.reset();
+        Arrays.fill(buffer, (byte)0);
+
+        byte[] hdr = XofUtils.leftEncode(B);
+        cshake.update(hdr, 0, hdr.length);
+
+        nCount = 0;
+        bufOff = 0;
+        firstOutput = true;
+    }
+}
@@ -9,7 +9,7 @@
 public class SHA3Digest
     extends KeccakDigest
 {
-    private static int checkBitLength(int bitLength)
+    private static boolean isSupportedBitLength(int bitLength)
     {
         switch (bitLength)
         {
@@ -17,10 +17,19 @@ private static int checkBitLength(int bitLength)
         case 256:
         case 384:
         case 512:
-            return bitLength;
+            return true;
         default:
+            return false;
+        }
+    }
+
+    private static int checkBitLength(int bitLength)
+    {
+        if (!isSupportedBitLength(bitLength))
+        {
             throw new IllegalArgumentException("'bitLength' " + bitLength + " not supported for SHA-3");
         }
+        return bitLength;
     }
 
     public SHA3Digest()
@@ -37,6 +46,22 @@ public SHA3Digest(SHA3Digest source) {
         super(source);
     }
 
+    /**
+     * State constructor - create a digest initialised with the state of a previous one.
+     *
+     * @param encodedState the encoded state from the originating digest.
+     * @throws IllegalArgumentException if the state is not that of a SHA-3 digest.
+     */
+    public SHA3Digest(byte[] encodedState)
+    {
+        super(encodedState);
+
+        if (!isSupportedBitLength(fixedOutputLength) || !hasStandardParameters())
+        {
+            throw new IllegalArgumentException("encoded state is not for SHA-3");
+        }
+    }
+
     public String getAlgorithmName()
     {
         return "SHA3-" + fixedOutputLength;
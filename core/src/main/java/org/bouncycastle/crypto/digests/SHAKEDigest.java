@@ -12,16 +12,25 @@
     extends KeccakDigest
     implements Xof
 {
-    private static int checkBitLength(int bitLength)
+    private static boolean isSupportedBitLength(int bitLength)
     {
         switch (bitLength)
         {
         case 128:
         case 256:
-            return bitLength;
+            return true;
         default:
+            return false;
+        }
+    }
+
+    private static int checkBitLength(int bitLength)
+    {
+        if (!isSupportedBitLength(bitLength))
+        {
             throw new IllegalArgumentException("'bitLength' " + bitLength + " not supported for SHAKE");
         }
+        return bitLength;
     }
 
     public SHAKEDigest()
@@ -38,6 +47,22 @@ public SHAKEDigest(SHAKEDigest source) {
         super(source);
     }
 
+    /**
+     * State constructor - create a digest initialised with the state of a previous one.
+     *
+     * @param encodedState the encoded state from the originating digest.
+     * @throws IllegalArgumentException if the state is not that of a SHAKE digest.
+     */
+    public SHAKEDigest(byte[] encodedState)
+    {
+        super(encodedState);
+
+        if (!isSupportedBitLength(fixedOutputLength) || !hasStandardParameters())
+        {
+            throw new IllegalArgumentException("encoded state is not for SHAKE");
+        }
+    }
+
     public String getAlgorithmName()
     {
         return "SHAKE" + fixedOutputLength;
@@ -0,0 +1,170 @@
+package org.bouncycastle.crypto.digests;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bouncycastle.crypto.Digest;
+
+/**
+ * Helper methods for tree hashing modes where leaves are independent digests, either fed from
+ * interleaved blocks of the message or each covering a consecutive chunk of it.
+ */
+class TreeUtils
+{
+    /**
+     * Feed a leaf every stride bytes of a message, blockLen bytes at a time.
+     */
+    static void updateLeaf(Digest leaf, byte[] message, int offset, int blockLen, int stride, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            leaf.update(message, offset, blockLen);
+            offset += stride;
+        }
+    }
+
+    /**
+     * Feed count stripes of leaves.length interleaved blocks to the leaves, with the first leaf
+     * updated on the calling thread and the others on the passed in executor. Returns once all
+     * the leaves have absorbed their blocks.
+     */
+    static void updateLeavesInParallel(ExecutorService executor, final Digest[] leaves, final byte[] message,
+        final int offset, final int blockLen, final int count)
+    {
+        final int stride = leaves.length * blockLen;
+
+        Future[] tasks = new Future[leaves.length - 1];
+        for (int i = 1; i < leaves.length; i++)
+        {
+            final Digest leaf = leaves[i];
+            final int leafOff = offset + i * blockLen;
+
+            Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                    updateLeaf(leaf, message, leafOff, blockLen, stride, count);
+                }
+            };
+
+            try
+            {
+                tasks[i - 1] = executor.submit(task);
+            }
+            catch (RejectedExecutionException e)
+            {
+                // executor is shutting down or saturated, fall back to this thread.
+                FutureTask inline = new FutureTask(task, null);
+                inline.run();
+                tasks[i - 1] = inline;
+            }
+        }
+
+        RuntimeException failure = null;
+        try
+        {
+            updateLeaf(leaves[0], message, offset, blockLen, stride, count);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        awaitAll(tasks, failure);
+    }
+
+    /**
+     * Hash count consecutive chunks of chunkLen bytes of a message into consecutive chaining
+     * values of cvLen bytes, spreading the chunks over the passed in executor. Returns once all
+     * the chaining values have been written.
+     */
+    static void hashChunksInParallel(ExecutorService executor, final ChunkHasher hasher, final byte[] message,
+        int offset, final int chunkLen, int count, final byte[] cvs, int cvOff, final int cvLen)
+    {
+        int taskCount = Math.min(count, Runtime.getRuntime().availableProcessors());
+        int perTask = (count + taskCount - 1) / taskCount;
+
+        Future[] tasks = new Future[(count + perTask - 1) / perTask];
+        for (int i = 0; i < tasks.length; i++)
+        {
+            final int first = i * perTask;
+            final int chunks = Math.min(perTask, count - first);
+            final int inOff = offset + first * chunkLen;
+            final int outOff = cvOff + first * cvLen;
+
+            Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < chunks; j++)
+                    {
+                        hasher.hashChunk(message, inOff + j * chunkLen, chunkLen, cvs, outOff + j * cvLen);
+                    }
+                }
+            };
+
+            try
+            {
+                tasks[i] = executor.submit(task);
+            }
+            catch (RejectedExecutionException e)
+            {
+                // executor is shutting down or saturated, fall back to this thread.
+                FutureTask inline = new FutureTask(task, null);
+                inline.run();
+                tasks[i] = inline;
+            }
+        }
+
+        awaitAll(tasks, null);
+    }
+
+    /**
+     * Computes the chaining value of a single chunk, must be safe for use by concurrent threads.
+     */
+    interface ChunkHasher
+    {
+        void hashChunk(byte[] in, int inOff, int inLen, byte[] out, int outOff);
+    }
+
+    // wait for every task, the state they update must not be touched by this thread while they run.
+    private static void awaitAll(Future[] tasks, RuntimeException failure)
+    {
+        boolean interrupted = false;
+        for (int i = 0; i < tasks.length; i++)
+        {
+            for (;;)
+            {
+                try
+                {
+                    tasks[i].get();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException e)
+                {
+                    if (failure == null)
+                    {
+                        failure = new IllegalStateException("parallel hash computation failed: " + e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.bouncycastle.crypto.digests;
+
+/**
+ * Encoding functions from NIST SP 800-185.
+ */
+class XofUtils
+{
+    /**
+     * left_encode(x): the byte length of x followed by the big endian bytes of x.
+     */
+    static byte[] leftEncode(long strLen)
+    {
+        byte n = 1;
+
+        long v = strLen;
+        while ((v >>= 8) != 0)
+        {
+            n++;
+        }
+
+        byte[] b = new byte[n + 1];
+
+        b[0] = n;
+
+        for (int i = 1; i <= n; i++)
+        {
+            b[i] = (byte)(strLen >> (8 * (n - i)));
+        }
+
+        return b;
+    }
+
+    /**
+     * right_encode(x): the big endian bytes of x followed by the byte length of x.
+     */
+    static byte[] rightEncode(long strLen)
+    {
+        byte n = 1;
+
+        long v = strLen;
+        while ((v >>= 8) != 0)
+        {
+            n++;
+        }
+
+        byte[] b = new byte[n + 1];
+
+        b[n] = n;
+
+        for (int i = 0; i < n; i++)
+        {
+            b[i] = (byte)(strLen >> (8 * (n - i - 1)));
+        }
+
+        return b;
+    }
+}
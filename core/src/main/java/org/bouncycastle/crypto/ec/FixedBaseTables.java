@@ -0,0 +1,206 @@
+package org.bouncycastle.crypto.ec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Vector;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.math.ec.FixedPointUtil;
+import org.bouncycastle.math.ec.rfc8032.Ed25519;
+import org.bouncycastle.math.ec.rfc8032.Ed448;
+
+/**
+ * Save and restore the fixed-base precomputations for the curves in {@link CustomNamedCurves} and for
+ * Ed25519/X25519 and Ed448/X448. These tables are otherwise built on first use in each class loader, which
+ * adds noticeable latency to the first key generation or signature; writing them once (for example at build
+ * time, see org.bouncycastle.math.ec.tools.FixedBaseTableWriter) and loading the result at startup avoids it.
+ * <pre>
+ *     InputStream in = MyApp.class.getResourceAsStream("/bc-fixed-base.bin");
+ *     try
+ *     {
+ *         FixedBaseTables.load(in);
+ *     }
+ *     finally
+ *     {
+ *         in.close();
+ *     }
+ * </pre>
+ * The tables are only checked for basic consistency when loaded, so they must come from a trusted source.
+ */
+public class FixedBaseTables
+{
+    /**
+     * Name of the tables for Ed25519, which are also used by X25519.
+     */
+    public static final String ED25519 = "Ed25519";
+
+    /**
+     * Name of the tables for Ed448, which are also used by X448.
+     */
+    public static final String ED448 = "Ed448";
+
+    private static final int MAGIC = 0x42434642;  // "BCFB"
+    private static final int VERSION = 1;
+
+    private FixedBaseTables()
+    {
+    }
+
+    /**
+     * Return the names of all the tables that can be saved: the CustomNamedCurves curve names, plus
+     * {@link #ED25519} and {@link #ED448}.
+     *
+     * @return the available table names.
+     */
+    public static String[] getNames()
+    {
+        Vector v = new Vector();
+
+        for (Enumeration en = CustomNamedCurves.getNames(); en.hasMoreElements();)
+        {
+            v.addElement(en.nextElement());
+        }
+        v.addElement(ED25519);
+        v.addElement(ED448);
+
+        String[] names = new String[v.size()];
+        v.copyInto(names);
+        return names;
+    }
+
+    /**
+     * Write all the available tables.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the tables cannot be written.
+     */
+    public static void write(OutputStream out)
+        throws IOException
+    {
+        write(out, getNames());
+    }
+
+    /**
+     * Write the named tables, calculating any that have not been built yet.
+     *
+     * @param out   the stream to write to.
+     * @param names the names of the tables to write.
+     * @throws IOException if the tables cannot be written.
+     */
+    public static void write(OutputStream out, String[] names)
+        throws IOException
+    {
+        DataOutputStream dOut = new DataOutputStream(out);
+
+        dOut.writeInt(MAGIC);
+        dOut.writeInt(VERSION);
+        dOut.writeInt(names.length);
+
+        for (int i = 0; i != names.length; i++)
+        {
+            byte[] encoding = getEncoding(names[i]);
+
+            dOut.writeUTF(names[i]);
+            dOut.writeInt(encoding.length);
+            dOut.write(encoding);
+        }
+
+        dOut.flush();
+    }
+
+    /**
+     * Load tables previously saved with one of the write() methods. Tables with names that are not
+     * recognised are skipped, and a table is ignored if an equivalent one has already been built.
+     *
+     * @param in the stream to read from.
+     * @return the number of tables read.
+     * @throws IOException if the stream cannot be read or does not contain a valid set of tables.
+     */
+    public static int load(InputStream in)
+        throws IOException
+    {
+        DataInputStream dIn = new DataInputStream(in);
+
+        if (dIn.readInt() != MAGIC || dIn.readInt() != VERSION)
+        {
+            throw new IOException("stream does not contain fixed base tables");
+        }
+
+        int count = dIn.readInt();
+        int loaded = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            String name = dIn.readUTF();
+            int length = dIn.readInt();
+            if (length < 0)
+            {
+                throw new IOException("invalid fixed base table length");
+            }
+
+            byte[] encoding = new byte[length];
+            dIn.readFully(encoding);
+
+            try
+            {
+                if (install(name, encoding))
+                {
+                    loaded++;
+                }
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("invalid fixed base table for " + name + ": " + e.getMessage());
+            }
+        }
+
+        return loaded;
+    }
+
+    private static byte[] getEncoding(String name)
+    {
+        if (ED25519.equals(name))
+        {
+            return Ed25519.getPrecomputationEncoding();
+        }
+        if (ED448.equals(name))
+        {
+            return Ed448.getPrecomputationEncoding();
+        }
+
+        X9ECParameters x9 = CustomNamedCurves.getByName(name);
+        if (x9 == null)
+        {
+            throw new IllegalArgumentException("unknown curve: " + name);
+        }
+
+        return FixedPointUtil.getPrecomputationEncoding(x9.getG());
+    }
+
+    private static boolean install(String name, byte[] encoding)
+    {
+        if (ED25519.equals(name))
+        {
+            Ed25519.precompute(encoding);
+            return true;
+        }
+        if (ED448.equals(name))
+        {
+            Ed448.precompute(encoding);
+            return true;
+        }
+
+        X9ECParameters x9 = CustomNamedCurves.getByName(name);
+        if (x9 == null)
+        {
+            return false;
+        }
+
+        FixedPointUtil.precompute(x9.getG(), encoding);
+        return true;
+    }
+}
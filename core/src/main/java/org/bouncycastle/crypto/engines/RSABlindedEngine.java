@@ -10,16 +10,14 @@
 import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.crypto.params.RSAKeyParameters;
 import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
-import org.bouncycastle.util.BigIntegers;
 
 /**
- * this does your basic RSA algorithm with blinding
+ * this does your basic RSA algorithm with blinding. The blinding factors for each private key are shared
+ * between engines and refreshed by squaring between uses, with a fresh random factor generated periodically.
  */
 public class RSABlindedEngine
     implements AsymmetricBlockCipher
 {
-    private static final BigInteger ONE = BigInteger.valueOf(1);
-
     private RSACoreEngine    core = new RSACoreEngine();
     private RSAKeyParameters key;
     private SecureRandom     random;
@@ -120,13 +118,12 @@ public byte[] processBlock(
             if (e != null)   // can't do blinding without a public exponent
             {
                 BigInteger m = k.getModulus();
-                BigInteger r = BigIntegers.createRandomInRange(ONE, m.subtract(ONE), random);
+                BigInteger[] factors = RSABlindingFactors.getInstance(k, e).next(random);
 
-                BigInteger blindedInput = r.modPow(e, m).multiply(input).mod(m);
+                BigInteger blindedInput = factors[0].multiply(input).mod(m);
                 BigInteger blindedResult = core.processBlock(blindedInput);
 
-                BigInteger rInv = r.modInverse(m);
-                result = blindedResult.multiply(rInv).mod(m);
+                result = blindedResult.multiply(factors[1]).mod(m);
                 // defence against Arjen Lenstra’s CRT attack
                 if (!input.equals(result.modPow(e, m)))
                 {
@@ -0,0 +1,75 @@
+package org.bouncycastle.crypto.engines;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.bouncycastle.util.BigIntegers;
+
+/**
+ * Blinding factors for an RSA private key, shared by all the engines using the key. Rather than computing a
+ * fresh random r, r^e mod n and r^-1 mod n for every operation, each pair handed out is replaced by its square,
+ * which is again a valid (blinding, unblinding) pair; a fresh pair is generated every {@link #REFRESH_INTERVAL}
+ * uses. Each pair is handed out once only.
+ */
+class RSABlindingFactors
+{
+    static final int REFRESH_INTERVAL = 32;
+
+    private static final BigInteger ONE = BigInteger.valueOf(1);
+
+    private static final Map cache = new WeakHashMap();
+
+    private final BigInteger m, e;
+
+    private BigInteger blind, unblind;
+    private int uses;
+
+    static RSABlindingFactors getInstance(RSAKeyParameters key, BigInteger e)
+    {
+        synchronized (cache)
+        {
+            RSABlindingFactors factors = (RSABlindingFactors)cache.get(key);
+            if (factors == null)
+            {
+                factors = new RSABlindingFactors(key.getModulus(), e);
+                cache.put(key, factors);
+            }
+            return factors;
+        }
+    }
+
+    private RSABlindingFactors(BigInteger m, BigInteger e)
+    {
+        this.m = m;
+        this.e = e;
+        this.uses = REFRESH_INTERVAL;
+    }
+
+    /**
+     * Return the next blinding pair, { r^e mod n, r^-1 mod n }.
+     *
+     * @param random source of randomness for when a fresh pair is due.
+     */
+    synchronized BigInteger[] next(SecureRandom random)
+    {
+        if (uses >= REFRESH_INTERVAL)
+        {
+            BigInteger r = BigIntegers.createRandomInRange(ONE, m.subtract(ONE), random);
+
+            blind = r.modPow(e, m);
+            unblind = r.modInverse(m);
+            uses = 0;
+        }
+
+        BigInteger[] pair = new BigInteger[]{ blind, unblind };
+
+        blind = blind.multiply(blind).mod(m);
+        unblind = unblind.multiply(unblind).mod(m);
+        ++uses;
+
+        return pair;
+    }
+}
@@ -43,6 +43,50 @@ public void init(
      * pair in accordance with X9.62 section 5.2.1 pages 26, 27.
      */
     public AsymmetricCipherKeyPair generateKeyPair()
+    {
+        BigInteger d = generatePrivateScalar();
+
+        ECPoint Q = createBasePointMultiplier().multiply(params.getG(), d);
+
+        return new AsymmetricCipherKeyPair(
+            new ECPublicKeyParameters(Q, params),
+            new ECPrivateKeyParameters(d, params));
+    }
+
+    /**
+     * Generate several key pairs at once. The public points are normalized together, sharing a single
+     * field inversion, making this faster per key pair than repeated calls to {@link #generateKeyPair()}.
+     *
+     * @param count the number of key pairs to generate.
+     * @return an array of count key pairs.
+     */
+    public AsymmetricCipherKeyPair[] generateKeyPairs(int count)
+    {
+        ECMultiplier multiplier = createBasePointMultiplier();
+        ECPoint G = params.getG();
+
+        BigInteger[] ds = new BigInteger[count];
+        ECPoint[] Qs = new ECPoint[count];
+
+        for (int i = 0; i < count; ++i)
+        {
+            ds[i] = generatePrivateScalar();
+            Qs[i] = multiplier.multiply(G, ds[i]);
+        }
+
+        params.getCurve().normalizeAll(Qs);
+
+        AsymmetricCipherKeyPair[] keyPairs = new AsymmetricCipherKeyPair[count];
+        for (int i = 0; i < count; ++i)
+        {
+            keyPairs[i] = new AsymmetricCipherKeyPair(
+                new ECPublicKeyParameters(Qs[i], params),
+                new ECPrivateKeyParameters(ds[i], params));
+        }
+        return keyPairs;
+    }
+
+    private BigInteger generatePrivateScalar()
     {
         BigInteger n = params.getN();
         int nBitLength = n.bitLength();
@@ -65,12 +109,7 @@ public AsymmetricCipherKeyPair generateKeyPair()
 
             break;
         }
-
-        ECPoint Q = createBasePointMultiplier().multiply(params.getG(), d);
-
-        return new AsymmetricCipherKeyPair(
-            new ECPublicKeyParameters(Q, params),
-            new ECPrivateKeyParameters(d, params));
+        return d;
     }
 
     protected ECMultiplier createBasePointMultiplier()
@@ -7,6 +7,8 @@
 import org.bouncycastle.crypto.KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.math.ec.rfc8032.Ed25519;
+import org.bouncycastle.util.Arrays;
 
 public class Ed25519KeyPairGenerator
     implements AsymmetricCipherKeyPairGenerator
@@ -24,4 +26,36 @@ public AsymmetricCipherKeyPair generateKeyPair()
         Ed25519PublicKeyParameters publicKey = privateKey.generatePublicKey();
         return new AsymmetricCipherKeyPair(publicKey, privateKey);
     }
+
+    /**
+     * Generate several key pairs at once. The public keys share a single field inversion, making this
+     * faster per key pair than repeated calls to {@link #generateKeyPair()}.
+     *
+     * @param count the number of key pairs to generate.
+     * @return an array of count key pairs.
+     */
+    public AsymmetricCipherKeyPair[] generateKeyPairs(int count)
+    {
+        Ed25519PrivateKeyParameters[] privateKeys = new Ed25519PrivateKeyParameters[count];
+        byte[] sk = new byte[count * Ed25519PrivateKeyParameters.KEY_SIZE];
+        byte[] pk = new byte[count * Ed25519PublicKeyParameters.KEY_SIZE];
+
+        for (int i = 0; i < count; ++i)
+        {
+            privateKeys[i] = new Ed25519PrivateKeyParameters(random);
+            privateKeys[i].encode(sk, i * Ed25519PrivateKeyParameters.KEY_SIZE);
+        }
+
+        Ed25519.generatePublicKeys(sk, 0, pk, 0, count);
+        Arrays.fill(sk, (byte)0);
+
+        AsymmetricCipherKeyPair[] keyPairs = new AsymmetricCipherKeyPair[count];
+        for (int i = 0; i < count; ++i)
+        {
+            Ed25519PublicKeyParameters publicKey = new Ed25519PublicKeyParameters(pk,
+                i * Ed25519PublicKeyParameters.KEY_SIZE);
+            keyPairs[i] = new AsymmetricCipherKeyPair(publicKey, privateKeys[i]);
+        }
+        return keyPairs;
+    }
 }
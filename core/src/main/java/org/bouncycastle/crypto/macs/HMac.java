@@ -106,9 +106,38 @@ public Digest getUnderlyingDigest()
         return digest;
     }
 
+    /**
+     * Initialise the MAC.
+     * <p>
+     * Accepts either a {@link KeyParameter} containing the raw key, or a {@link HMacKeyState}
+     * previously obtained from {@link #getKeyState()} on an HMac using the same digest type. The
+     * latter installs the key without recomputing the pads or allocating.
+     *
+     * @param params the key to use.
+     */
     public void init(
         CipherParameters params)
     {
+        if (params instanceof HMacKeyState)
+        {
+            HMacKeyState keyState = (HMacKeyState)params;
+
+            if (!(digest instanceof Memoable))
+            {
+                throw new IllegalArgumentException("key state requires a Memoable digest");
+            }
+            if (!getAlgorithmName().equals(keyState.getAlgorithmName()))
+            {
+                throw new IllegalArgumentException("key state was created for " + keyState.getAlgorithmName());
+            }
+
+            ipadState = keyState.getIpadState();
+            opadState = keyState.getOpadState();
+
+            ((Memoable)digest).reset(ipadState);
+            return;
+        }
+
         digest.reset();
 
         byte[] key = ((KeyParameter)params).getKey();
@@ -151,6 +180,24 @@ public void init(
         }
     }
 
+    /**
+     * Return an immutable snapshot of the current key, suitable for initialising other HMac
+     * instances based on the same digest type via {@link #init(CipherParameters)}.
+     *
+     * @return the key state for the current key.
+     * @throws IllegalStateException if the MAC has not been initialised, or the underlying
+     * digest does not implement {@link Memoable}.
+     */
+    public HMacKeyState getKeyState()
+    {
+        if (ipadState == null || opadState == null)
+        {
+            throw new IllegalStateException("HMac not initialised with a Memoable digest");
+        }
+
+        return new HMacKeyState(getAlgorithmName(), ipadState, opadState);
+    }
+
     public int getMacSize()
     {
         return digestSize;
@@ -210,6 +257,12 @@ public int doFinal(
      */
     public void reset()
     {
+        if (ipadState != null)
+        {
+            ((Memoable)digest).reset(ipadState);
+            return;
+        }
+
         /*
          * reset the underlying digest.
          */
@@ -0,0 +1,46 @@
+package org.bouncycastle.crypto.macs;
+
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.util.Memoable;
+
+/**
+ * A pre-keyed HMAC state, capturing the digest states after absorbing the inner and outer
+ * padded keys. Instances are immutable once created and may be shared between any number
+ * of {@link HMac} objects (including across threads) using the same underlying digest type,
+ * allowing a key to be installed by passing the state to {@link HMac#init(CipherParameters)}
+ * without recomputing the pads or allocating.
+ */
+public final class HMacKeyState
+    implements CipherParameters
+{
+    private final String algorithmName;
+    private final Memoable ipadState;
+    private final Memoable opadState;
+
+    HMacKeyState(String algorithmName, Memoable ipadState, Memoable opadState)
+    {
+        this.algorithmName = algorithmName;
+        this.ipadState = ipadState;
+        this.opadState = opadState;
+    }
+
+    /**
+     * Return the name of the MAC algorithm this key state was created for.
+     *
+     * @return the algorithm name, e.g. "SHA-256/HMAC".
+     */
+    public String getAlgorithmName()
+    {
+        return algorithmName;
+    }
+
+    Memoable getIpadState()
+    {
+        return ipadState;
+    }
+
+    Memoable getOpadState()
+    {
+        return opadState;
+    }
+}
@@ -0,0 +1,45 @@
+package org.bouncycastle.crypto.params;
+
+import org.bouncycastle.math.ec.FixedPointPreCompInfo;
+import org.bouncycastle.math.ec.FixedPointUtil;
+
+/**
+ * An EC public key for verifiers which use the same key many times. The fixed-point comb tables for the
+ * public point and the domain generator are built when the key is created and are held by the key, so
+ * signature verification with {@link org.bouncycastle.crypto.signers.ECDSASigner} can use them directly
+ * rather than the general two-point multiplication.
+ */
+public class ECPrecomputedPublicKeyParameters
+    extends ECPublicKeyParameters
+{
+    private final FixedPointPreCompInfo qInfo;
+    private final FixedPointPreCompInfo gInfo;
+
+    public ECPrecomputedPublicKeyParameters(ECPublicKeyParameters publicKey)
+    {
+        super(publicKey.getQ(), publicKey.getParameters());
+
+        this.qInfo = FixedPointUtil.precompute(getQ());
+        this.gInfo = FixedPointUtil.precompute(getParameters().getG());
+    }
+
+    /**
+     * Return the precomputed comb table for the public point.
+     *
+     * @return fixed-point precomputation for Q.
+     */
+    public FixedPointPreCompInfo getQPreCompInfo()
+    {
+        return qInfo;
+    }
+
+    /**
+     * Return the precomputed comb table for the domain generator.
+     *
+     * @return fixed-point precomputation for G.
+     */
+    public FixedPointPreCompInfo getGPreCompInfo()
+    {
+        return gInfo;
+    }
+}
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.DSAExt;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.ECKeyParameters;
+import org.bouncycastle.crypto.params.ECPrecomputedPublicKeyParameters;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
@@ -167,7 +168,7 @@ public boolean verifySignature(
         ECPoint G = ec.getG();
         ECPoint Q = ((ECPublicKeyParameters)key).getQ();
 
-        ECPoint point = ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
+        ECPoint point = sumOfTwoMultiplies(G, u1, Q, u2);
 
         // components must be bogus.
         if (point.isInfinity())
@@ -216,6 +217,97 @@ public boolean verifySignature(
         return v.equals(r);
     }
 
+    /**
+     * Verify a batch of signatures made with the public key the signer was initialised with. The inversions
+     * modulo the group order, and the final conversion of each point to affine coordinates, are shared by
+     * the whole batch. Initialising the signer with an {@link ECPrecomputedPublicKeyParameters} allows the
+     * multiplications to use the key's precomputed tables as well.
+     *
+     * @param messages the message (hash) for each signature.
+     * @param r        the r value of each signature.
+     * @param s        the s value of each signature.
+     * @param results  if not null, receives the validity of each individual signature.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public boolean verifySignatures(
+        byte[][]        messages,
+        BigInteger[]    r,
+        BigInteger[]    s,
+        boolean[]       results)
+    {
+        int count = messages.length;
+        if (r.length != count || s.length != count || (results != null && results.length < count))
+        {
+            throw new IllegalArgumentException("batch arrays have inconsistent lengths");
+        }
+
+        ECDomainParameters ec = key.getParameters();
+        BigInteger n = ec.getN();
+        ECPoint G = ec.getG();
+        ECPoint Q = ((ECPublicKeyParameters)key).getQ();
+
+        // s^-1 for each signature with r and s in the range [1,n-1], by Montgomery's trick
+        BigInteger[] c = new BigInteger[count];
+        BigInteger product = ONE;
+        for (int i = 0; i < count; ++i)
+        {
+            if (r[i].compareTo(ONE) >= 0 && r[i].compareTo(n) < 0
+                && s[i].compareTo(ONE) >= 0 && s[i].compareTo(n) < 0)
+            {
+                c[i] = product;
+                product = product.multiply(s[i]).mod(n);
+            }
+        }
+
+        BigInteger inverse = product.modInverse(n);
+        for (int i = count - 1; i >= 0; --i)
+        {
+            if (c[i] != null)
+            {
+                BigInteger si = s[i];
+                c[i] = c[i].multiply(inverse).mod(n);
+                inverse = inverse.multiply(si).mod(n);
+            }
+        }
+
+        ECPoint[] points = new ECPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            if (c[i] != null)
+            {
+                BigInteger e = calculateE(n, messages[i]);
+
+                BigInteger u1 = e.multiply(c[i]).mod(n);
+                BigInteger u2 = r[i].multiply(c[i]).mod(n);
+
+                ECPoint point = sumOfTwoMultiplies(G, u1, Q, u2);
+
+                // components must be bogus.
+                if (!point.isInfinity())
+                {
+                    points[i] = point;
+                }
+            }
+        }
+
+        ec.getCurve().normalizeAll(points);
+
+        boolean allValid = true;
+        for (int i = 0; i < count; ++i)
+        {
+            boolean valid = points[i] != null
+                && points[i].getAffineXCoord().toBigInteger().mod(n).equals(r[i]);
+
+            if (results != null)
+            {
+                results[i] = valid;
+            }
+            allValid &= valid;
+        }
+
+        return allValid;
+    }
+
     protected BigInteger calculateE(BigInteger n, byte[] message)
     {
         int log2n = n.bitLength();
@@ -229,6 +321,19 @@ protected BigInteger calculateE(BigInteger n, byte[] message)
         return e;
     }
 
+    private ECPoint sumOfTwoMultiplies(ECPoint G, BigInteger u1, ECPoint Q, BigInteger u2)
+    {
+        if (key instanceof ECPrecomputedPublicKeyParameters)
+        {
+            ECPrecomputedPublicKeyParameters precomputed = (ECPrecomputedPublicKeyParameters)key;
+
+            return ECAlgorithms.sumOfTwoFixedPointMultiplies(G, u1, precomputed.getGPreCompInfo(), Q, u2,
+                precomputed.getQPreCompInfo());
+        }
+
+        return ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
+    }
+
     protected ECMultiplier createBasePointMultiplier()
     {
         return new FixedPointCombMultiplier();
@@ -1,8 +1,10 @@
 package org.bouncycastle.crypto.signers;
 
 import java.io.ByteArrayOutputStream;
+import java.security.SecureRandom;
 
 import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.crypto.Signer;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
@@ -77,6 +79,29 @@ public void reset()
         buffer.reset();
     }
 
+    /**
+     * Verify a batch of Ed25519 signatures in one operation, see {@link Ed25519#verifyBatch}.
+     *
+     * @param publicKeys the public key for each signature.
+     * @param messages   the message for each signature.
+     * @param signatures the signatures.
+     * @param random     source of randomness for the batch coefficients, null for the default.
+     * @param results    if not null, receives the validity of each individual signature.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(Ed25519PublicKeyParameters[] publicKeys, byte[][] messages, byte[][] signatures,
+        SecureRandom random, boolean[] results)
+    {
+        byte[][] pks = new byte[publicKeys.length][];
+        for (int i = 0; i < publicKeys.length; ++i)
+        {
+            pks[i] = publicKeys[i].getEncoded();
+        }
+
+        return Ed25519.verifyBatch(signatures, pks, messages,
+            (random != null) ? random : CryptoServicesRegistrar.getSecureRandom(), results);
+    }
+
     private static class Buffer extends ByteArrayOutputStream
     {
         synchronized byte[] generateSignature(Ed25519PrivateKeyParameters privateKey, Ed25519PublicKeyParameters publicKey)
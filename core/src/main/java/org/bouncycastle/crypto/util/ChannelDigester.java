@@ -0,0 +1,234 @@
+package org.bouncycastle.crypto.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.EncodableDigest;
+
+/**
+ * Hash the contents of a FileChannel, optionally taking periodic checkpoints of the digest state so
+ * a long running computation can be resumed from the last checkpoint rather than the start of the file.
+ * <p>
+ * Data is read through a reusable direct buffer using positional reads, and passed to the digest
+ * through a single reusable array, as that is what the Digest interface consumes. Memory mapping is
+ * not used: the bytes would still have to be copied into the array, and each mapping would only be
+ * released when it was garbage collected.
+ * </p>
+ * <p>
+ * A typical resumable computation looks like:
+ * <pre>
+ *     ChannelDigester digester = (saved == null)
+ *         ? new ChannelDigester(new SHA256Digest())
+ *         : new ChannelDigester(DigestCheckpoint.getInstance(saved));
+ *
+ *     digester.setCheckpointInterval(1L &lt;&lt; 30, listener);
+ *     digester.update(channel);
+ *     byte[] hash = digester.doFinal();
+ * </pre>
+ * </p>
+ */
+public class ChannelDigester
+{
+    /**
+     * Receives checkpoints as the digester passes each checkpoint interval.
+     */
+    public interface CheckpointListener
+    {
+        /**
+         * Called with a checkpoint of the digest state. The listener would normally persist the
+         * encoding of the checkpoint before returning, any exception thrown stops the update.
+         *
+         * @param checkpoint the current state of the computation.
+         * @throws IOException if the checkpoint cannot be saved.
+         */
+        void checkpoint(DigestCheckpoint checkpoint)
+            throws IOException;
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Digest digest;
+    private final byte[] block;
+
+    private long position;
+    private ByteBuffer buffer;
+    private long checkpointInterval = 0;
+    private long nextCheckpoint = Long.MAX_VALUE;
+    private CheckpointListener listener;
+
+    /**
+     * Start a new computation from the beginning of the channel.
+     *
+     * @param digest the digest to use, must implement EncodableDigest if checkpoints are wanted.
+     */
+    public ChannelDigester(Digest digest)
+    {
+        this(digest, 0L, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Resume a computation from a checkpoint.
+     *
+     * @param checkpoint a checkpoint produced by an earlier computation over the same data.
+     */
+    public ChannelDigester(DigestCheckpoint checkpoint)
+    {
+        this(checkpoint.restoreDigest(), checkpoint.getPosition(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Base constructor.
+     *
+     * @param digest     the digest to use, having already absorbed position bytes of the channel.
+     * @param position   the position in the channel to continue hashing from.
+     * @param bufferSize the size of the read buffer in bytes.
+     */
+    public ChannelDigester(Digest digest, long position, int bufferSize)
+    {
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("position cannot be negative");
+        }
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("buffer size must be positive");
+        }
+
+        this.digest = digest;
+        this.position = position;
+        this.block = new byte[bufferSize];
+    }
+
+    /**
+     * Request a checkpoint be passed to listener each time another interval bytes have been hashed.
+     *
+     * @param interval the number of bytes between checkpoints, 0 to disable checkpoints.
+     * @param listener the receiver of the checkpoints.
+     */
+    public void setCheckpointInterval(long interval, CheckpointListener listener)
+    {
+        if (interval < 0)
+        {
+            throw new IllegalArgumentException("checkpoint interval cannot be negative");
+        }
+        if (interval > 0 && !(digest instanceof EncodableDigest))
+        {
+            throw new IllegalStateException("digest " + digest.getAlgorithmName() + " cannot be checkpointed");
+        }
+
+        this.checkpointInterval = interval;
+        this.listener = listener;
+        this.nextCheckpoint = (interval > 0) ? position + interval : Long.MAX_VALUE;
+    }
+
+    /**
+     * Return the position in the channel the next byte will be hashed from.
+     *
+     * @return the number of bytes hashed so far.
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    public Digest getDigest()
+    {
+        return digest;
+    }
+
+    /**
+     * Hash the channel from the current position to its end.
+     *
+     * @param channel the channel to read.
+     * @throws IOException if the channel cannot be read, or a checkpoint cannot be saved.
+     */
+    public void update(FileChannel channel)
+        throws IOException
+    {
+        update(channel, channel.size());
+    }
+
+    /**
+     * Hash the channel from the current position up to, but not including, end. The channel's own
+     * position is not used or changed.
+     *
+     * @param channel the channel to read.
+     * @param end     the position to stop at.
+     * @throws IOException if the channel cannot be read, or a checkpoint cannot be saved.
+     */
+    public void update(FileChannel channel, long end)
+        throws IOException
+    {
+        if (end > channel.size())
+        {
+            throw new IOException("channel is shorter than requested end position");
+        }
+
+        while (position < end)
+        {
+            updateBuffered(channel, Math.min(end, nextCheckpoint));
+
+            if (position == nextCheckpoint)
+            {
+                listener.checkpoint(getCheckpoint());
+                nextCheckpoint = position + checkpointInterval;
+            }
+        }
+    }
+
+    /**
+     * Return a checkpoint of the computation at the current position.
+     *
+     * @return a checkpoint of the digest state.
+     */
+    public DigestCheckpoint getCheckpoint()
+    {
+        return new DigestCheckpoint(digest, position);
+    }
+
+    /**
+     * Complete the computation, the digester is reset to start a new computation at position 0.
+     *
+     * @return the digest value.
+     */
+    public byte[] doFinal()
+    {
+        byte[] rv = new byte[digest.getDigestSize()];
+
+        digest.doFinal(rv, 0);
+
+        position = 0;
+        nextCheckpoint = (checkpointInterval > 0) ? checkpointInterval : Long.MAX_VALUE;
+
+        return rv;
+    }
+
+    private void updateBuffered(FileChannel channel, long limit)
+        throws IOException
+    {
+        if (buffer == null)
+        {
+            buffer = ByteBuffer.allocateDirect(block.length);
+        }
+
+        while (position < limit)
+        {
+            buffer.clear();
+            buffer.limit((int)Math.min(block.length, limit - position));
+
+            int count = channel.read(buffer, position);
+            if (count < 0)
+            {
+                throw new IOException("unexpected end of channel");
+            }
+
+            buffer.flip();
+            buffer.get(block, 0, count);
+            digest.update(block, 0, count);
+
+            position += count;
+        }
+    }
+}
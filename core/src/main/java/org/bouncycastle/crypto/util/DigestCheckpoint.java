@@ -0,0 +1,194 @@
+package org.bouncycastle.crypto.util;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.crypto.digests.Blake2sDigest;
+import org.bouncycastle.crypto.digests.EncodableDigest;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.bouncycastle.crypto.digests.MD5Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA224Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA384Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.digests.SHA512tDigest;
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Encodable;
+import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.Strings;
+
+/**
+ * A snapshot of a digest part way through a message: the digest algorithm, the number of message bytes
+ * absorbed so far and the digest's encoded state. A checkpoint can be written out with {@link #getEncoded()}
+ * and used later, possibly in another process, to recreate the digest and continue hashing from the
+ * recorded position.
+ * <p>
+ * Note: the encoded state of a keyed digest (for example BLAKE2b used as a MAC) includes the key.
+ * </p>
+ */
+public final class DigestCheckpoint
+    implements Encodable
+{
+    private static final int VERSION = 1;
+
+    private final String algorithmName;
+    private final long position;
+    private final byte[] encodedState;
+
+    /**
+     * Create a checkpoint from a digest which has absorbed position bytes of a message.
+     *
+     * @param digest   the digest, must implement EncodableDigest.
+     * @param position the number of message bytes absorbed by the digest.
+     */
+    public DigestCheckpoint(Digest digest, long position)
+    {
+        if (!(digest instanceof EncodableDigest))
+        {
+            throw new IllegalArgumentException("digest " + digest.getAlgorithmName() + " cannot be checkpointed");
+        }
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("position cannot be negative");
+        }
+
+        this.algorithmName = digest.getAlgorithmName();
+        this.position = position;
+        this.encodedState = ((EncodableDigest)digest).getEncodedState();
+    }
+
+    private DigestCheckpoint(String algorithmName, long position, byte[] encodedState)
+    {
+        this.algorithmName = algorithmName;
+        this.position = position;
+        this.encodedState = encodedState;
+    }
+
+    /**
+     * Recover a checkpoint from its encoding.
+     *
+     * @param encoding the output of a previous call to getEncoded().
+     * @return the checkpoint.
+     */
+    public static DigestCheckpoint getInstance(byte[] encoding)
+    {
+        if (encoding.length < 11 || encoding[0] != VERSION)
+        {
+            throw new IllegalArgumentException("unrecognised checkpoint encoding");
+        }
+
+        int nameLength = ((encoding[1] & 0xFF) << 8) | (encoding[2] & 0xFF);
+        if (encoding.length < 11 + nameLength)
+        {
+            throw new IllegalArgumentException("truncated checkpoint encoding");
+        }
+
+        String algorithmName = Strings.fromUTF8ByteArray(Arrays.copyOfRange(encoding, 3, 3 + nameLength));
+        long position = Pack.bigEndianToLong(encoding, 3 + nameLength);
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("invalid checkpoint position");
+        }
+
+        return new DigestCheckpoint(algorithmName, position,
+            Arrays.copyOfRange(encoding, 11 + nameLength, encoding.length));
+    }
+
+    public String getAlgorithmName()
+    {
+        return algorithmName;
+    }
+
+    /**
+     * Return the number of message bytes absorbed by the digest when the checkpoint was taken.
+     *
+     * @return the position in the message to resume from.
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    public byte[] getEncodedState()
+    {
+        return Arrays.clone(encodedState);
+    }
+
+    /**
+     * Recreate the digest in the state it was in when the checkpoint was taken.
+     *
+     * @return a new digest ready to absorb the message from getPosition() onwards.
+     */
+    public Digest restoreDigest()
+    {
+        byte[] state = encodedState;
+
+        if (algorithmName.equals("MD5"))
+        {
+            return new MD5Digest(state);
+        }
+        if (algorithmName.equals("SHA-1"))
+        {
+            return new SHA1Digest(state);
+        }
+        if (algorithmName.equals("SHA-224"))
+        {
+            return new SHA224Digest(state);
+        }
+        if (algorithmName.equals("SHA-256"))
+        {
+            return new SHA256Digest(state);
+        }
+        if (algorithmName.equals("SHA-384"))
+        {
+            return new SHA384Digest(state);
+        }
+        if (algorithmName.equals("SHA-512"))
+        {
+            return new SHA512Digest(state);
+        }
+        if (algorithmName.startsWith("SHA-512/"))
+        {
+            return new SHA512tDigest(state);
+        }
+        if (algorithmName.startsWith("SHA3-"))
+        {
+            return new SHA3Digest(state);
+        }
+        if (algorithmName.startsWith("SHAKE"))
+        {
+            return new SHAKEDigest(state);
+        }
+        if (algorithmName.startsWith("Keccak-"))
+        {
+            return new KeccakDigest(state);
+        }
+        if (algorithmName.equals("BLAKE2b"))
+        {
+            return Blake2bDigest.fromEncodedState(state);
+        }
+        if (algorithmName.equals("BLAKE2s"))
+        {
+            return Blake2sDigest.fromEncodedState(state);
+        }
+
+        throw new IllegalStateException("unable to restore digest " + algorithmName);
+    }
+
+    public byte[] getEncoded()
+    {
+        byte[] name = Strings.toUTF8ByteArray(algorithmName);
+        byte[] encoding = new byte[11 + name.length + encodedState.length];
+
+        encoding[0] = VERSION;
+        encoding[1] = (byte)(name.length >>> 8);
+        encoding[2] = (byte)name.length;
+        System.arraycopy(name, 0, encoding, 3, name.length);
+        Pack.longToBigEndian(position, encoding, 3 + name.length);
+        System.arraycopy(encodedState, 0, encoding, 11 + name.length, encodedState.length);
+
+        return encoding;
+    }
+}
@@ -11,6 +11,12 @@
 
 public class ECAlgorithms
 {
+    /*
+     * Number of points (after any GLV decomposition) from which sumOfMultiplies switches from interleaved
+     * wNAF to the bucket method.
+     */
+    private static final int PIPPENGER_THRESHOLD = 256;
+
     public static boolean isF2mCurve(ECCurve c)
     {
         return isF2mField(c.getField());
@@ -66,6 +72,11 @@ public static ECPoint sumOfMultiplies(ECPoint[] ps, BigInteger[] ks)
             return implCheckResult(implSumOfMultipliesGLV(imported, ks, (GLVEndomorphism)endomorphism));
         }
 
+        if (count >= PIPPENGER_THRESHOLD)
+        {
+            return implCheckResult(implSumOfMultipliesPippenger(imported, ks));
+        }
+
         return implCheckResult(implSumOfMultiplies(imported, ks));
     }
 
@@ -95,6 +106,95 @@ public static ECPoint sumOfTwoMultiplies(ECPoint P, BigInteger a,
         return implCheckResult(implShamirsTrickWNaf(P, a, Q, b));
     }
 
+    /**
+     * Calculate a.P + b.Q using the fixed-point comb tables of both points, building (and caching) the
+     * tables if they are not already present. This is intended for public inputs with points that are
+     * used repeatedly, such as a domain generator and a long-lived public key; the table lookups are not
+     * constant time. Both scalars must be non-negative and within the comb size (normally the curve order).
+     */
+    public static ECPoint sumOfTwoFixedPointMultiplies(ECPoint P, BigInteger a, ECPoint Q, BigInteger b)
+    {
+        ECCurve c = P.getCurve();
+        Q = importPoint(c, Q);
+
+        int size = FixedPointUtil.getCombSize(c);
+        if (a.signum() < 0 || b.signum() < 0 || a.bitLength() > size || b.bitLength() > size)
+        {
+            return sumOfTwoMultiplies(P, a, Q, b);
+        }
+
+        FixedPointPreCompInfo infoP = FixedPointUtil.precompute(P);
+        FixedPointPreCompInfo infoQ = FixedPointUtil.precompute(Q);
+
+        return implSumOfTwoFixedPointMultiplies(c, size, P, a, infoP, Q, b, infoQ);
+    }
+
+    /**
+     * Calculate a.P + b.Q using fixed-point comb tables already built for P and Q, such as those held with a
+     * long-lived public key, rather than looking them up in the points. The tables must be those returned by
+     * {@link FixedPointUtil#precompute(ECPoint)} for P and Q; if the points are on different curves this falls
+     * back to {@link #sumOfTwoFixedPointMultiplies(ECPoint, BigInteger, ECPoint, BigInteger)}.
+     */
+    public static ECPoint sumOfTwoFixedPointMultiplies(ECPoint P, BigInteger a, FixedPointPreCompInfo infoP,
+        ECPoint Q, BigInteger b, FixedPointPreCompInfo infoQ)
+    {
+        ECCurve c = P.getCurve();
+        if (!c.equals(Q.getCurve()))
+        {
+            return sumOfTwoFixedPointMultiplies(P, a, Q, b);
+        }
+
+        int size = FixedPointUtil.getCombSize(c);
+        if (a.signum() < 0 || b.signum() < 0 || a.bitLength() > size || b.bitLength() > size)
+        {
+            return sumOfTwoMultiplies(P, a, Q, b);
+        }
+
+        return implSumOfTwoFixedPointMultiplies(c, size, P, a, infoP, Q, b, infoQ);
+    }
+
+    static ECPoint implSumOfTwoFixedPointMultiplies(ECCurve c, int size, ECPoint P, BigInteger a,
+        FixedPointPreCompInfo infoP, ECPoint Q, BigInteger b, FixedPointPreCompInfo infoQ)
+    {
+        // the combs can only share doublings if their teeth are the same distance apart
+        if (infoP.getWidth() != infoQ.getWidth())
+        {
+            return implCheckResult(P.multiply(a).add(Q.multiply(b)));
+        }
+
+        return implCheckResult(implSumOfTwoMultipliesComb(c, size, infoP, a, infoQ, b));
+    }
+
+    static ECPoint implSumOfTwoMultipliesComb(ECCurve c, int size, FixedPointPreCompInfo infoP, BigInteger a,
+        FixedPointPreCompInfo infoQ, BigInteger b)
+    {
+        ECLookupTable tableP = infoP.getLookupTable(), tableQ = infoQ.getLookupTable();
+        int width = infoP.getWidth();
+
+        int d = (size + width - 1) / width;
+        int fullComb = d * width;
+        int[] A = Nat.fromBigInteger(fullComb, a);
+        int[] B = Nat.fromBigInteger(fullComb, b);
+
+        ECPoint R = c.getInfinity();
+
+        int top = fullComb - 1;
+        for (int i = 0; i < d; ++i)
+        {
+            int indexA = 0, indexB = 0;
+
+            for (int j = top - i; j >= 0; j -= d)
+            {
+                indexA = (indexA << 1) | ((A[j >>> 5] >>> (j & 0x1F)) & 1);
+                indexB = (indexB << 1) | ((B[j >>> 5] >>> (j & 0x1F)) & 1);
+            }
+
+            R = R.twicePlus(tableP.lookupVar(indexA)).add(tableQ.lookupVar(indexB));
+        }
+
+        return R.add(infoP.getOffset()).add(infoQ.getOffset());
+    }
+
     /*
      * "Shamir's Trick", originally due to E. G. Straus
      * (Addition chains of vectors. American Mathematical Monthly,
@@ -433,7 +533,9 @@ static ECPoint implSumOfMultipliesGLV(ECPoint[] ps, BigInteger[] ks, GLVEndomorp
             abs[j++] = ab[1];
         }
 
-        if (glvEndomorphism.hasEfficientPointMap())
+        boolean bucketMethod = (len << 1) >= PIPPENGER_THRESHOLD;
+
+        if (glvEndomorphism.hasEfficientPointMap() && !bucketMethod)
         {
             return implSumOfMultiplies(glvEndomorphism, ps, abs);
         }
@@ -447,9 +549,161 @@ static ECPoint implSumOfMultipliesGLV(ECPoint[] ps, BigInteger[] ks, GLVEndomorp
             pqs[j++] = q;
         }
 
+        if (bucketMethod)
+        {
+            return implSumOfMultipliesPippenger(pqs, abs);
+        }
+
         return implSumOfMultiplies(pqs, abs);
     }
 
+    /**
+     * Bucket method (Pippenger) multi-scalar multiplication. The scalars are recoded into signed c-bit
+     * digits; for each digit position, from the most significant, every point is added into the bucket
+     * for its digit and the buckets are combined with a running sum, so each point costs one addition
+     * per window regardless of the number of points, with no per-point precomputation.
+     */
+    static ECPoint implSumOfMultipliesPippenger(ECPoint[] ps, BigInteger[] ks)
+    {
+        int count = ps.length;
+
+        ECPoint[] pos = new ECPoint[count];
+        BigInteger[] abs = new BigInteger[count];
+        int bits = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger ki = ks[i];
+            ECPoint pi = ps[i];
+            if (ki.signum() < 0)
+            {
+                ki = ki.negate();
+                pi = pi.negate();
+            }
+
+            pos[i] = pi;
+            abs[i] = ki;
+            bits = Math.max(bits, ki.bitLength());
+        }
+
+        ECCurve curve = ps[0].getCurve();
+        ECPoint infinity = curve.getInfinity();
+
+        if (bits == 0)
+        {
+            return infinity;
+        }
+
+        // affine points make the bucket additions cheaper
+        curve.normalizeAll(pos);
+
+        ECPoint[] neg = new ECPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            neg[i] = pos[i].negate();
+        }
+
+        int c = getPippengerWindowSize(count, bits);
+        int windows = (bits + c) / c;
+        int[][] digits = new int[count][];
+        for (int i = 0; i < count; ++i)
+        {
+            digits[i] = getSignedDigits(abs[i], c, windows);
+        }
+
+        int half = 1 << (c - 1);
+        ECPoint[] buckets = new ECPoint[half + 1];
+
+        ECPoint R = infinity;
+        for (int j = windows - 1; j >= 0; --j)
+        {
+            if (!R.isInfinity())
+            {
+                R = R.timesPow2(c);
+            }
+
+            for (int b = 1; b <= half; ++b)
+            {
+                buckets[b] = infinity;
+            }
+
+            for (int i = 0; i < count; ++i)
+            {
+                int d = digits[i][j];
+                if (d > 0)
+                {
+                    buckets[d] = buckets[d].add(pos[i]);
+                }
+                else if (d < 0)
+                {
+                    buckets[-d] = buckets[-d].add(neg[i]);
+                }
+            }
+
+            // sum(b * buckets[b]) as a sum of running sums
+            ECPoint running = infinity, sum = infinity;
+            for (int b = half; b >= 1; --b)
+            {
+                running = running.add(buckets[b]);
+                sum = sum.add(running);
+            }
+
+            R = R.add(sum);
+        }
+
+        return R;
+    }
+
+    // choose the window minimising the number of additions, roughly windows * (points + buckets).
+    private static int getPippengerWindowSize(int count, int bits)
+    {
+        int best = 2;
+        long bestCost = Long.MAX_VALUE;
+        for (int c = 2; c <= 16; ++c)
+        {
+            long cost = (long)((bits + c) / c) * (count + (1 << c));
+            if (cost < bestCost)
+            {
+                best = c;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    // recode k into digits in the range (-2^(c-1), 2^(c-1)], least significant first; windows * c must exceed
+    // the bit length of k so the top digit never carries.
+    private static int[] getSignedDigits(BigInteger k, int c, int windows)
+    {
+        int[] digits = new int[windows];
+        int[] x = Nat.fromBigInteger(windows * c + 32, k);
+        int mask = (1 << c) - 1, half = 1 << (c - 1), carry = 0;
+
+        for (int j = 0; j < windows; ++j)
+        {
+            int bit = j * c, word = bit >>> 5, shift = bit & 31;
+            int d = x[word] >>> shift;
+            if (shift + c > 32)
+            {
+                d |= x[word + 1] << (32 - shift);
+            }
+            d = (d & mask) + carry;
+
+            if (d > half)
+            {
+                d -= (1 << c);
+                carry = 1;
+            }
+            else
+            {
+                carry = 0;
+            }
+
+            digits[j] = d;
+        }
+
+        return digits;
+    }
+
     static ECPoint implSumOfMultiplies(ECEndomorphism endomorphism, ECPoint[] ps, BigInteger[] ks)
     {
         int halfCount = ps.length, fullCount = halfCount << 1;
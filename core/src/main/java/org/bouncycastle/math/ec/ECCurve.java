@@ -148,10 +148,26 @@ public boolean supportsCoordinateSystem(int coord)
         return coord == COORD_AFFINE;
     }
 
+    /**
+     * Return the <code>PreCompInfo</code> held for a point under a given name, or null if there is none. Results
+     * stored by {@link #precompute(ECPoint, String, PreCompCallback)} are found without locking, so a caller
+     * whose precomputation is never modified once stored can check it here before calling precompute.
+     *
+     * @param point
+     *            The <code>ECPoint</code> to look up precomputations for.
+     * @param name
+     *            A <code>String</code> used to index precomputations of different types.
+     */
     public PreCompInfo getPreCompInfo(ECPoint point, String name)
     {
         checkPoint(point);
 
+        PreCompInfo info = point.preCompSnapshot.get(name);
+        if (null != info)
+        {
+            return info;
+        }
+
         Hashtable table;
         synchronized (point)
         {
@@ -173,6 +189,10 @@ public PreCompInfo getPreCompInfo(ECPoint point, String name)
      * Compute a <code>PreCompInfo</code> for a point on this curve, under a given name. Used by
      * <code>ECMultiplier</code>s to save the precomputation for this <code>ECPoint</code> for use
      * by subsequent multiplication.
+     * <p>
+     * The callback is run holding the lock on the point's precomputations, so callbacks for a point are never run
+     * concurrently and may update the existing <code>PreCompInfo</code> in place.
+     * </p>
      * 
      * @param point
      *            The <code>ECPoint</code> to store precomputations for.
@@ -203,6 +223,7 @@ public PreCompInfo precompute(ECPoint point, String name, PreCompCallback callba
             if (result != existing)
             {
                 table.put(name, result);
+                point.preCompSnapshot = point.preCompSnapshot.put(name, result);
             }
 
             return result;
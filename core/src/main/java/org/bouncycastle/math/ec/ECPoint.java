@@ -49,6 +49,9 @@ protected static ECFieldElement[] getInitialZCoords(ECCurve curve)
     // Hashtable is (String -> PreCompInfo)
     protected Hashtable preCompTable = null;
 
+    // immutable copy of preCompTable for lock-free lookups, replaced as ECCurve.precompute stores results
+    volatile PreCompTable preCompSnapshot = PreCompTable.EMPTY;
+
     protected ECPoint(ECCurve curve, ECFieldElement x, ECFieldElement y)
     {
         this(curve, x, y, getInitialZCoords(curve));
@@ -2,6 +2,8 @@
 
 import java.math.BigInteger;
 
+import org.bouncycastle.util.Arrays;
+
 public class FixedPointUtil
 {
     public static final String PRECOMP_NAME = "bc_fixed_point";
@@ -17,19 +19,144 @@ public static FixedPointPreCompInfo getFixedPointPreCompInfo(PreCompInfo preComp
         return (preCompInfo instanceof FixedPointPreCompInfo) ? (FixedPointPreCompInfo)preCompInfo : null;
     }
 
-    public static FixedPointPreCompInfo precompute(final ECPoint p)
+    /**
+     * Return an encoding of the fixed-point precomputation for p, calculating it first if necessary. The
+     * encoding can be passed to {@link #precompute(ECPoint, byte[])}, typically in another process, to
+     * install the same precomputation without the cost of building it.
+     *
+     * @param p the point to encode the precomputation for.
+     * @return the width, offset and lookup table of the precomputation.
+     */
+    public static byte[] getPrecomputationEncoding(ECPoint p)
+    {
+        FixedPointPreCompInfo info = precompute(p);
+        ECLookupTable lookupTable = info.getLookupTable();
+        int width = info.getWidth();
+        int n = 1 << width;
+
+        int pointLength = getPointEncodingLength(p.getCurve());
+        byte[] encoding = new byte[1 + (n + 1) * pointLength];
+
+        encoding[0] = (byte)width;
+        System.arraycopy(info.getOffset().getEncoded(false), 0, encoding, 1, pointLength);
+        for (int i = 0; i < n; ++i)
+        {
+            System.arraycopy(lookupTable.lookupVar(i).getEncoded(false), 0, encoding, 1 + (i + 1) * pointLength,
+                pointLength);
+        }
+
+        return encoding;
+    }
+
+    /**
+     * Install a fixed-point precomputation for p from an encoding produced by
+     * {@link #getPrecomputationEncoding(ECPoint)}, unless p already has one at least as wide. The points
+     * in the encoding are checked to be on the curve, but the encoding should still come from a trusted source such as a
+     * resource bundled with the application.
+     *
+     * @param p        the point the encoding was produced for.
+     * @param encoding the encoded precomputation.
+     * @return the precomputation now held for p.
+     */
+    public static FixedPointPreCompInfo precompute(final ECPoint p, byte[] encoding)
     {
         final ECCurve c = p.getCurve();
 
+        int width = encoding.length > 0 ? encoding[0] : 0;
+        int pointLength = getPointEncodingLength(c);
+
+        if (width < 2 || width > 16 || encoding.length != 1 + ((1 << width) + 1) * pointLength)
+        {
+            throw new IllegalArgumentException("invalid fixed-point precomputation encoding");
+        }
+
+        final int n = 1 << width;
+        final ECPoint offset = decodePoint(c, encoding, 1, pointLength);
+        final ECPoint[] lookupTable = new ECPoint[n];
+        for (int i = 0; i < n; ++i)
+        {
+            lookupTable[i] = decodePoint(c, encoding, 1 + (i + 1) * pointLength, pointLength);
+        }
+
+        // the first entry of the comb is the point itself
+        if (!lookupTable[0].equals(p))
+        {
+            throw new IllegalArgumentException("fixed-point precomputation is for a different point");
+        }
+
+        final int minWidth = width;
+
         return (FixedPointPreCompInfo)c.precompute(p, PRECOMP_NAME, new PreCompCallback()
         {
             public PreCompInfo precompute(PreCompInfo existing)
             {
                 FixedPointPreCompInfo existingFP = (existing instanceof FixedPointPreCompInfo) ? (FixedPointPreCompInfo)existing : null;
 
-                int bits = getCombSize(c);
-                int minWidth = bits > 250 ? 6 : 5;
-                int n = 1 << minWidth;
+                if (existingFP != null && existingFP.getLookupTable() != null
+                    && existingFP.getLookupTable().getSize() >= n)
+                {
+                    return existingFP;
+                }
+
+                FixedPointPreCompInfo result = new FixedPointPreCompInfo();
+                result.setLookupTable(c.createCacheSafeLookupTable(lookupTable, 0, lookupTable.length));
+                result.setOffset(offset);
+                result.setWidth(minWidth);
+                return result;
+            }
+        });
+    }
+
+    private static int getPointEncodingLength(ECCurve c)
+    {
+        return 1 + 2 * ((c.getFieldSize() + 7) / 8);
+    }
+
+    // uncompressed points, checked against the curve equation only as an order check would cost more than the table
+    private static ECPoint decodePoint(ECCurve c, byte[] encoding, int off, int len)
+    {
+        int feLength = (len - 1) / 2;
+
+        if (encoding[off] != 0x04)
+        {
+            throw new IllegalArgumentException("invalid point encoding in fixed-point precomputation");
+        }
+
+        BigInteger X = new BigInteger(1, Arrays.copyOfRange(encoding, off + 1, off + 1 + feLength));
+        BigInteger Y = new BigInteger(1, Arrays.copyOfRange(encoding, off + 1 + feLength, off + len));
+
+        if (!c.isValidFieldElement(X) || !c.isValidFieldElement(Y))
+        {
+            throw new IllegalArgumentException("invalid point in fixed-point precomputation");
+        }
+
+        ECPoint p = c.createPoint(X, Y);
+        if (!p.isValidPartial())
+        {
+            throw new IllegalArgumentException("invalid point in fixed-point precomputation");
+        }
+        return p;
+    }
+
+    public static FixedPointPreCompInfo precompute(final ECPoint p)
+    {
+        final ECCurve c = p.getCurve();
+        final int bits = getCombSize(c);
+        final int minWidth = bits > 250 ? 6 : 5;
+        final int n = 1 << minWidth;
+
+        // the precomputation is never modified once stored, so an existing one can be used without locking
+        FixedPointPreCompInfo stored = getFixedPointPreCompInfo(c.getPreCompInfo(p, PRECOMP_NAME));
+        if (stored != null && stored.getLookupTable() != null && stored.getLookupTable().getSize() >= n)
+        {
+            return stored;
+        }
+
+        return (FixedPointPreCompInfo)c.precompute(p, PRECOMP_NAME, new PreCompCallback()
+        {
+            public PreCompInfo precompute(PreCompInfo existing)
+            {
+                FixedPointPreCompInfo existingFP = (existing instanceof FixedPointPreCompInfo) ? (FixedPointPreCompInfo)existing : null;
 
                 if (checkExisting(existingFP, n))
                 {
@@ -0,0 +1,55 @@
+package org.bouncycastle.math.ec;
+
+/**
+ * An immutable (String -&gt; PreCompInfo) map holding the precomputations for a point. A point only ever
+ * refers to a complete table, and a changed entry is published by replacing the whole table, so readers
+ * need no locking.
+ */
+final class PreCompTable
+{
+    static final PreCompTable EMPTY = new PreCompTable(new String[0], new PreCompInfo[0]);
+
+    private final String[] names;
+    private final PreCompInfo[] infos;
+
+    private PreCompTable(String[] names, PreCompInfo[] infos)
+    {
+        this.names = names;
+        this.infos = infos;
+    }
+
+    PreCompInfo get(String name)
+    {
+        for (int i = 0; i < names.length; ++i)
+        {
+            if (names[i].equals(name))
+            {
+                return infos[i];
+            }
+        }
+        return null;
+    }
+
+    PreCompTable put(String name, PreCompInfo info)
+    {
+        int count = names.length;
+        for (int i = 0; i < count; ++i)
+        {
+            if (names[i].equals(name))
+            {
+                PreCompInfo[] newInfos = new PreCompInfo[count];
+                System.arraycopy(infos, 0, newInfos, 0, count);
+                newInfos[i] = info;
+                return new PreCompTable(names, newInfos);
+            }
+        }
+
+        String[] newNames = new String[count + 1];
+        PreCompInfo[] newInfos = new PreCompInfo[count + 1];
+        System.arraycopy(names, 0, newNames, 0, count);
+        System.arraycopy(infos, 0, newInfos, 0, count);
+        newNames[count] = name;
+        newInfos[count] = info;
+        return new PreCompTable(newNames, newInfos);
+    }
+}
@@ -28,6 +28,17 @@ public static ECPoint mapPoint(final ECEndomorphism endomorphism, final ECPoint
     {
         final ECCurve c = p.getCurve();
 
+        // the precomputation is never modified once stored, so an existing one can be used without locking
+        PreCompInfo stored = c.getPreCompInfo(p, PRECOMP_NAME);
+        if (stored instanceof EndoPreCompInfo)
+        {
+            EndoPreCompInfo storedEndo = (EndoPreCompInfo)stored;
+            if (storedEndo.getEndomorphism() == endomorphism && storedEndo.getMappedPoint() != null)
+            {
+                return storedEndo.getMappedPoint();
+            }
+        }
+
         EndoPreCompInfo precomp = (EndoPreCompInfo)c.precompute(p, PRECOMP_NAME, new PreCompCallback()
         {
             public PreCompInfo precompute(PreCompInfo existing)
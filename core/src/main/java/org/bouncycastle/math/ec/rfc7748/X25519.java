@@ -63,6 +63,80 @@ public static void generatePublicKey(byte[] k, int kOff, byte[] r, int rOff)
         scalarMultBase(k, kOff, r, rOff);
     }
 
+    /**
+     * Generate the public keys for several private keys, sharing a single field inversion between them.
+     *
+     * @param k     the private keys, stored consecutively from kOff.
+     * @param kOff  the offset of the first private key.
+     * @param r     the array to store the public keys in, consecutively from rOff.
+     * @param rOff  the offset for the first public key.
+     * @param count the number of keys.
+     */
+    public static void generatePublicKeys(byte[] k, int kOff, byte[] r, int rOff, int count)
+    {
+        if (count < 1)
+        {
+            return;
+        }
+
+        int[][] u = new int[count][];
+        int[][] d = new int[count][];
+        int[][] c = new int[count][];
+
+        int[] one = X25519Field.create();     X25519Field.one(one);
+        int[] zero = X25519Field.create();
+
+        for (int i = 0; i < count; ++i)
+        {
+            int[] y = X25519Field.create();
+            int[] z = X25519Field.create();
+
+            Ed25519.scalarMultBaseYZ(Friend.INSTANCE, k, kOff + i * SCALAR_SIZE, y, z);
+
+            X25519Field.apm(z, y, y, z);
+
+            // A zero denominator would spoil the shared inversion, so replace it by one and zero the numerator
+            int isZero = X25519Field.isZero(z);
+            X25519Field.cmov(isZero, one, 0, z, 0);
+            X25519Field.cmov(isZero, zero, 0, y, 0);
+
+            u[i] = y;
+            d[i] = z;
+            c[i] = X25519Field.create();
+
+            if (i == 0)
+            {
+                X25519Field.copy(z, 0, c[0], 0);
+            }
+            else
+            {
+                X25519Field.mul(c[i - 1], z, c[i]);
+            }
+        }
+
+        int[] t = X25519Field.create();
+        X25519Field.inv(c[count - 1], t);
+
+        for (int i = count - 1; i >= 0; --i)
+        {
+            int[] zInv = c[i];
+            if (i > 0)
+            {
+                X25519Field.mul(t, c[i - 1], zInv);
+                X25519Field.mul(t, d[i], t);
+            }
+            else
+            {
+                X25519Field.copy(t, 0, zInv, 0);
+            }
+
+            X25519Field.mul(u[i], zInv, u[i]);
+
+            X25519Field.normalize(u[i]);
+            X25519Field.encode(u[i], r, rOff + i * POINT_SIZE);
+        }
+    }
+
     private static void pointDouble(int[] x, int[] z)
     {
         int[] A = X25519Field.create();
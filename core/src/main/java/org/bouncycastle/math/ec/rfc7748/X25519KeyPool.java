@@ -0,0 +1,27 @@
+package org.bouncycastle.math.ec.rfc7748;
+
+import java.security.SecureRandom;
+
+/**
+ * A pool of pre-generated X25519 ephemeral key pairs.
+ */
+public class X25519KeyPool
+    extends XDHKeyPool
+{
+    public X25519KeyPool(SecureRandom random, int capacity)
+    {
+        super(random, capacity, X25519.SCALAR_SIZE, X25519.POINT_SIZE);
+    }
+
+    protected void generate(SecureRandom random, byte[] k, byte[] r, int count)
+    {
+        byte[] sk = new byte[X25519.SCALAR_SIZE];
+        for (int i = 0; i < count; ++i)
+        {
+            X25519.generatePrivateKey(random, sk);
+            System.arraycopy(sk, 0, k, i * X25519.SCALAR_SIZE, X25519.SCALAR_SIZE);
+        }
+
+        X25519.generatePublicKeys(k, 0, r, 0, count);
+    }
+}
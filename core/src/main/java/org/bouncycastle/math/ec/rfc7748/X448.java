@@ -62,6 +62,79 @@ public static void generatePublicKey(byte[] k, int kOff, byte[] r, int rOff)
         scalarMultBase(k, kOff, r, rOff);
     }
 
+    /**
+     * Generate the public keys for several private keys, sharing a single field inversion between them.
+     *
+     * @param k     the private keys, stored consecutively from kOff.
+     * @param kOff  the offset of the first private key.
+     * @param r     the array to store the public keys in, consecutively from rOff.
+     * @param rOff  the offset for the first public key.
+     * @param count the number of keys.
+     */
+    public static void generatePublicKeys(byte[] k, int kOff, byte[] r, int rOff, int count)
+    {
+        if (count < 1)
+        {
+            return;
+        }
+
+        int[][] u = new int[count][];
+        int[][] d = new int[count][];
+        int[][] c = new int[count][];
+
+        int[] one = X448Field.create();       X448Field.one(one);
+        int[] zero = X448Field.create();
+
+        for (int i = 0; i < count; ++i)
+        {
+            int[] x = X448Field.create();
+            int[] y = X448Field.create();
+
+            Ed448.scalarMultBaseXY(Friend.INSTANCE, k, kOff + i * SCALAR_SIZE, x, y);
+
+            // A zero denominator would spoil the shared inversion, so replace it by one and zero the numerator
+            int isZero = X448Field.isZero(x);
+            X448Field.cmov(isZero, one, 0, x, 0);
+            X448Field.cmov(isZero, zero, 0, y, 0);
+
+            u[i] = y;
+            d[i] = x;
+            c[i] = X448Field.create();
+
+            if (i == 0)
+            {
+                X448Field.copy(x, 0, c[0], 0);
+            }
+            else
+            {
+                X448Field.mul(c[i - 1], x, c[i]);
+            }
+        }
+
+        int[] t = X448Field.create();
+        X448Field.inv(c[count - 1], t);
+
+        for (int i = count - 1; i >= 0; --i)
+        {
+            int[] xInv = c[i];
+            if (i > 0)
+            {
+                X448Field.mul(t, c[i - 1], xInv);
+                X448Field.mul(t, d[i], t);
+            }
+            else
+            {
+                X448Field.copy(t, 0, xInv, 0);
+            }
+
+            X448Field.mul(u[i], xInv, u[i]);
+            X448Field.sqr(u[i], u[i]);
+
+            X448Field.normalize(u[i]);
+            X448Field.encode(u[i], r, rOff + i * POINT_SIZE);
+        }
+    }
+
     private static void pointDouble(int[] x, int[] z)
     {
         int[] A = X448Field.create();
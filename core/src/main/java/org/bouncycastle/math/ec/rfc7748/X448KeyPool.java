@@ -0,0 +1,27 @@
+package org.bouncycastle.math.ec.rfc7748;
+
+import java.security.SecureRandom;
+
+/**
+ * A pool of pre-generated X448 ephemeral key pairs.
+ */
+public class X448KeyPool
+    extends XDHKeyPool
+{
+    public X448KeyPool(SecureRandom random, int capacity)
+    {
+        super(random, capacity, X448.SCALAR_SIZE, X448.POINT_SIZE);
+    }
+
+    protected void generate(SecureRandom random, byte[] k, byte[] r, int count)
+    {
+        byte[] sk = new byte[X448.SCALAR_SIZE];
+        for (int i = 0; i < count; ++i)
+        {
+            X448.generatePrivateKey(random, sk);
+            System.arraycopy(sk, 0, k, i * X448.SCALAR_SIZE, X448.SCALAR_SIZE);
+        }
+
+        X448.generatePublicKeys(k, 0, r, 0, count);
+    }
+}
@@ -0,0 +1,206 @@
+package org.bouncycastle.math.ec.rfc7748;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A pool of pre-generated ephemeral key pairs for X25519 or X448. Key pairs are generated in batches so that
+ * the public keys share a single field inversion, and can be generated ahead of demand by a background thread
+ * started with {@link #start()}. If the pool is empty when a key pair is requested a batch is generated on the
+ * calling thread.
+ * <p>
+ * Each key pair is handed out once only, and is cleared from the pool when taken. Note the private keys are
+ * held in memory until taken, so the pool should be sized for the expected demand and closed when no longer
+ * needed.
+ * </p>
+ */
+public abstract class XDHKeyPool
+{
+    private static final int DEFAULT_BATCH_SIZE = 32;
+
+    private final SecureRandom random;
+    private final int scalarSize, pointSize, capacity, batchSize;
+    private final byte[] scalars, points;
+
+    private int available = 0;
+    private boolean closed = false;
+    private Thread thread = null;
+
+    protected XDHKeyPool(SecureRandom random, int capacity, int scalarSize, int pointSize)
+    {
+        if (random == null)
+        {
+            throw new NullPointerException("'random' cannot be null");
+        }
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("'capacity' must be positive");
+        }
+
+        this.random = random;
+        this.scalarSize = scalarSize;
+        this.pointSize = pointSize;
+        this.capacity = capacity;
+        this.batchSize = Math.min(capacity, DEFAULT_BATCH_SIZE);
+        this.scalars = new byte[capacity * scalarSize];
+        this.points = new byte[capacity * pointSize];
+    }
+
+    /**
+     * Generate private keys and their public keys.
+     *
+     * @param random the source of randomness for the private keys.
+     * @param k      an array for the private keys, stored consecutively from 0.
+     * @param r      an array for the public keys, stored consecutively from 0.
+     * @param count  the number of key pairs to generate.
+     */
+    protected abstract void generate(SecureRandom random, byte[] k, byte[] r, int count);
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Return the number of key pairs currently held in the pool.
+     */
+    public synchronized int getAvailable()
+    {
+        return available;
+    }
+
+    /**
+     * Start a background (daemon) thread that keeps the pool topped up. If an earlier thread has stopped,
+     * because it was interrupted or failed to generate keys, a new one is started.
+     */
+    public synchronized void start()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("pool closed");
+        }
+        if (thread == null)
+        {
+            thread = new Thread(new Filler(), getClass().getName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop any background thread and clear the key pairs held in the pool.
+     */
+    public synchronized void close()
+    {
+        closed = true;
+        available = 0;
+        Arrays.fill(scalars, (byte)0);
+        Arrays.fill(points, (byte)0);
+        notifyAll();
+    }
+
+    /**
+     * Take a key pair from the pool, generating more first if the pool is empty.
+     *
+     * @param k    an array to receive the private key.
+     * @param kOff the offset for the private key.
+     * @param r    an array to receive the public key.
+     * @param rOff the offset for the public key.
+     * @throws IllegalStateException if the pool has been closed.
+     */
+    public void take(byte[] k, int kOff, byte[] r, int rOff)
+    {
+        for (;;)
+        {
+            synchronized (this)
+            {
+                if (closed)
+                {
+                    throw new IllegalStateException("pool closed");
+                }
+                if (available > 0)
+                {
+                    int i = --available;
+
+                    System.arraycopy(scalars, i * scalarSize, k, kOff, scalarSize);
+                    System.arraycopy(points, i * pointSize, r, rOff, pointSize);
+                    Arrays.fill(scalars, i * scalarSize, (i + 1) * scalarSize, (byte)0);
+
+                    if (thread != null && available <= capacity - batchSize)
+                    {
+                        notifyAll();
+                    }
+                    return;
+                }
+            }
+
+            refill();
+        }
+    }
+
+    private void refill()
+    {
+        byte[] k = new byte[batchSize * scalarSize];
+        byte[] r = new byte[batchSize * pointSize];
+
+        generate(random, k, r, batchSize);
+
+        synchronized (this)
+        {
+            if (!closed)
+            {
+                int count = Math.min(batchSize, capacity - available);
+
+                System.arraycopy(k, 0, scalars, available * scalarSize, count * scalarSize);
+                System.arraycopy(r, 0, points, available * pointSize, count * pointSize);
+                available += count;
+            }
+        }
+
+        Arrays.fill(k, (byte)0);
+    }
+
+    private class Filler
+        implements Runnable
+    {
+        public void run()
+        {
+            try
+            {
+                for (;;)
+                {
+                    synchronized (XDHKeyPool.this)
+                    {
+                        while (!closed && available > capacity - batchSize)
+                        {
+                            XDHKeyPool.this.wait();
+                        }
+
+                        if (closed)
+                        {
+                            return;
+                        }
+                    }
+
+                    refill();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // stop filling, the pool is still usable and start() will create a new filler
+            }
+            finally
+            {
+                // also reached if refill() throws, so start() is never left thinking a filler is running
+                synchronized (XDHKeyPool.this)
+                {
+                    if (thread == Thread.currentThread())
+                    {
+                        thread = null;
+                    }
+                }
+            }
+        }
+    }
+}
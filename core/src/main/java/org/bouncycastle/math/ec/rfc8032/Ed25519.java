@@ -10,6 +10,7 @@
 import org.bouncycastle.math.raw.Nat;
 import org.bouncycastle.math.raw.Nat256;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
 import org.bouncycastle.util.Strings;
 
 public abstract class Ed25519
@@ -290,13 +291,20 @@ private static void encode56(long n, byte[] bs, int off)
     }
 
     private static int encodePoint(PointAccum p, byte[] r, int rOff)
+    {
+        int[] zInv = X25519Field.create();
+        X25519Field.inv(p.z, zInv);
+
+        return encodePoint(p, zInv, r, rOff);
+    }
+
+    private static int encodePoint(PointAccum p, int[] zInv, byte[] r, int rOff)
     {
         int[] x = X25519Field.create();
         int[] y = X25519Field.create();
 
-        X25519Field.inv(p.z, y);
-        X25519Field.mul(p.x, y, x);
-        X25519Field.mul(p.y, y, y);
+        X25519Field.mul(p.x, zInv, x);
+        X25519Field.mul(p.y, zInv, y);
         X25519Field.normalize(x);
         X25519Field.normalize(y);
 
@@ -327,6 +335,75 @@ public static void generatePublicKey(byte[] sk, int skOff, byte[] pk, int pkOff)
         scalarMultBaseEncoded(s, pk, pkOff);
     }
 
+    /**
+     * Generate the public keys for several secret keys, sharing a single field inversion between them.
+     *
+     * @param sk    the secret keys, stored consecutively from skOff.
+     * @param skOff the offset of the first secret key.
+     * @param pk    the array to store the public keys in, consecutively from pkOff.
+     * @param pkOff the offset for the first public key.
+     * @param count the number of keys.
+     */
+    public static void generatePublicKeys(byte[] sk, int skOff, byte[] pk, int pkOff, int count)
+    {
+        if (count < 1)
+        {
+            return;
+        }
+
+        Digest d = createDigest();
+        byte[] h = new byte[d.getDigestSize()];
+        byte[] s = new byte[SCALAR_BYTES];
+
+        PointAccum[] points = new PointAccum[count];
+        int[][] c = new int[count][];
+
+        for (int i = 0; i < count; ++i)
+        {
+            d.update(sk, skOff + i * SECRET_KEY_SIZE, SECRET_KEY_SIZE);
+            d.doFinal(h, 0);
+
+            pruneScalar(h, 0, s);
+
+            PointAccum p = new PointAccum();
+            scalarMultBase(s, p);
+
+            points[i] = p;
+            c[i] = X25519Field.create();
+
+            if (i == 0)
+            {
+                X25519Field.copy(p.z, 0, c[0], 0);
+            }
+            else
+            {
+                X25519Field.mul(c[i - 1], p.z, c[i]);
+            }
+        }
+
+        int[] t = X25519Field.create();
+        X25519Field.inv(c[count - 1], t);
+
+        for (int i = count - 1; i >= 0; --i)
+        {
+            int[] zInv = c[i];
+            if (i > 0)
+            {
+                X25519Field.mul(t, c[i - 1], zInv);
+                X25519Field.mul(t, points[i].z, t);
+            }
+            else
+            {
+                X25519Field.copy(t, 0, zInv, 0);
+            }
+
+            if (0 == encodePoint(points[i], zInv, pk, pkOff + i * PUBLIC_KEY_SIZE))
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
     private static int getWindow4(int[] x, int n)
     {
         int w = n >>> 3, b = (n & 7) << 2;
@@ -504,6 +581,132 @@ private static boolean implVerify(byte[] sig, int sigOff, byte[] pk, int pkOff,
         return 0 != encodePoint(pR, check, 0) && Arrays.areEqual(check, R);
     }
 
+    private static boolean implVerifyBatch(byte[][] sig, byte[][] pk, byte[][] m, SecureRandom random)
+    {
+        int count = sig.length;
+
+        PointAffine[] pR = new PointAffine[count];
+        PointAffine[] pA = new PointAffine[count];
+        int[][] nZ = new int[count][];
+        int[][] nZK = new int[count][];
+        int[] nS = new int[SCALAR_INTS];
+
+        Digest d = createDigest();
+        byte[] h = new byte[d.getDigestSize()];
+        byte[] zBytes = new byte[16];
+
+        for (int i = 0; i < count; ++i)
+        {
+            if (sig[i] == null || sig[i].length != SIGNATURE_SIZE || pk[i] == null || pk[i].length != PUBLIC_KEY_SIZE)
+            {
+                return false;
+            }
+
+            byte[] S = Arrays.copyOfRange(sig[i], POINT_BYTES, SIGNATURE_SIZE);
+            if (!checkScalarVar(S))
+            {
+                return false;
+            }
+
+            // R and A are negated, the combined equation is then a sum which should come to the neutral element.
+            pR[i] = new PointAffine();
+            pA[i] = new PointAffine();
+            if (!decodePointVar(sig[i], 0, true, pR[i]) || !decodePointVar(pk[i], 0, true, pA[i]))
+            {
+                return false;
+            }
+
+            // the cofactored batch equation cannot see small order points, so check these as verify() would
+            if (isSmallOrderVar(pR[i]) || isSmallOrderVar(pA[i]))
+            {
+                if (!verify(sig[i], 0, pk[i], 0, m[i], 0, m[i].length))
+                {
+                    return false;
+                }
+
+                nZ[i] = new int[SCALAR_INTS];
+                nZK[i] = new int[SCALAR_INTS];
+                continue;
+            }
+
+            d.update(sig[i], 0, POINT_BYTES);
+            d.update(pk[i], 0, POINT_BYTES);
+            d.update(m[i], 0, m[i].length);
+            d.doFinal(h, 0);
+
+            int[] nK = new int[SCALAR_INTS];
+            decodeScalar(reduceScalar(h), 0, nK);
+
+            // a random 128 bit coefficient, non-zero
+            random.nextBytes(zBytes);
+            int[] z = nZ[i] = new int[SCALAR_INTS];
+            decode32(zBytes, 0, z, 0, 4);
+            z[0] |= 1;
+
+            int[] s = new int[SCALAR_INTS];
+            decodeScalar(S, 0, s);
+
+            mulAddScalarVar(z, s, nS);
+            mulAddScalarVar(z, nK, nZK[i] = new int[SCALAR_INTS]);
+        }
+
+        // [8]([sum(z_i.S_i)]B - sum([z_i]R_i) - sum([z_i.k_i]A_i)) == O
+        PointAccum r = new PointAccum();
+        scalarMultStrausVar(nS, nZ, pR, nZK, pA, r);
+
+        pointDouble(r);
+        pointDouble(r);
+        pointDouble(r);
+
+        return isNeutralElementVar(r);
+    }
+
+    private static boolean isSmallOrderVar(PointAffine p)
+    {
+        PointAccum r = new PointAccum();
+        pointCopy(p, r);
+
+        pointDouble(r);
+        pointDouble(r);
+        pointDouble(r);
+
+        return isNeutralElementVar(r);
+    }
+
+    private static boolean isNeutralElementVar(PointAccum p)
+    {
+        int[] t = X25519Field.create();
+
+        X25519Field.sub(p.y, p.z, t);
+        X25519Field.carry(t);
+        X25519Field.normalize(t);
+        X25519Field.normalize(p.x);
+
+        return X25519Field.isZeroVar(p.x) && X25519Field.isZeroVar(t);
+    }
+
+    // z = (x * y + z) mod L, for y and z less than L
+    private static void mulAddScalarVar(int[] x, int[] y, int[] z)
+    {
+        int[] tt = Nat256.createExt();
+        Nat256.mul(x, y, tt);
+
+        byte[] product = new byte[SCALAR_BYTES * 2];
+        for (int i = 0; i < tt.length; ++i)
+        {
+            encode32(tt[i], product, i * 4);
+        }
+
+        int[] t = new int[SCALAR_INTS];
+        decodeScalar(reduceScalar(product), 0, t);
+
+        Nat256.addTo(t, z);
+        if (Nat256.gte(z, L))
+        {
+            Nat256.subFrom(L, z);
+        }
+    }
+
     private static void pointAdd(PointExt p, PointAccum r)
     {
         int[] A = X25519Field.create();
@@ -948,6 +1151,82 @@ public static void precompute()
         }
     }
 
+    /**
+     * Return an encoding of the base point tables built by {@link #precompute()}. Passing the encoding to
+     * {@link #precompute(byte[])}, for example from a resource generated at build time, installs the tables
+     * without the cost of calculating them.
+     *
+     * @return the encoded base point tables.
+     */
+    public static byte[] getPrecomputationEncoding()
+    {
+        precompute();
+
+        int count = precompBaseTable.length, pointInts = 4 * X25519Field.SIZE;
+        byte[] encoding = new byte[(count * pointInts + precompBase.length) * 4];
+
+        int off = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            PointExt q = precompBaseTable[i];
+            Pack.intToBigEndian(q.x, encoding, off);        off += X25519Field.SIZE * 4;
+            Pack.intToBigEndian(q.y, encoding, off);        off += X25519Field.SIZE * 4;
+            Pack.intToBigEndian(q.z, encoding, off);        off += X25519Field.SIZE * 4;
+            Pack.intToBigEndian(q.t, encoding, off);        off += X25519Field.SIZE * 4;
+        }
+        Pack.intToBigEndian(precompBase, encoding, off);
+
+        return encoding;
+    }
+
+    /**
+     * Install the base point tables from an encoding produced by {@link #getPrecomputationEncoding()}, if
+     * they have not already been calculated. The encoding should come from a trusted source.
+     *
+     * @param encoding the encoded base point tables.
+     */
+    public static void precompute(byte[] encoding)
+    {
+        int count = 1 << (WNAF_WIDTH_BASE - 2), pointInts = 4 * X25519Field.SIZE;
+        int baseInts = PRECOMP_BLOCKS * PRECOMP_POINTS * 3 * X25519Field.SIZE;
+
+        if (encoding.length != (count * pointInts + baseInts) * 4)
+        {
+            throw new IllegalArgumentException("invalid Ed25519 precomputation encoding");
+        }
+
+        PointExt[] table = new PointExt[count];
+        int off = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            PointExt q = table[i] = new PointExt();
+            Pack.bigEndianToInt(encoding, off, q.x);        off += X25519Field.SIZE * 4;
+            Pack.bigEndianToInt(encoding, off, q.y);        off += X25519Field.SIZE * 4;
+            Pack.bigEndianToInt(encoding, off, q.z);        off += X25519Field.SIZE * 4;
+            Pack.bigEndianToInt(encoding, off, q.t);        off += X25519Field.SIZE * 4;
+        }
+
+        int[] base = X25519Field.createTable(PRECOMP_BLOCKS * PRECOMP_POINTS * 3);
+        Pack.bigEndianToInt(encoding, off, base);
+
+        // the first entry of the wNAF table is the base point itself
+        if (!Arrays.areEqual(B_x, table[0].x) || !Arrays.areEqual(B_y, table[0].y))
+        {
+            throw new IllegalArgumentException("Ed25519 precomputation is not for the base point");
+        }
+
+        synchronized (precompLock)
+        {
+            if (precompBase != null)
+            {
+                return;
+            }
+
+            precompBaseTable = table;
+            precompBase = base;
+        }
+    }
+
     private static void pruneScalar(byte[] n, int nOff, byte[] r)
     {
         System.arraycopy(n, nOff, r, 0, SCALAR_BYTES);
@@ -1269,6 +1548,61 @@ private static void scalarMultStrausVar(int[] nb, int[] np, PointAffine p, Point
         }
     }
 
+    // r = [nb]B + sum([np1_i]p1_i) + sum([np2_i]p2_i), sharing the doublings between all the points.
+    private static void scalarMultStrausVar(int[] nb, int[][] np1, PointAffine[] p1, int[][] np2, PointAffine[] p2,
+        PointAccum r)
+    {
+        precompute();
+
+        final int width = 5;
+        final int count = p1.length;
+
+        byte[] ws_b = getWNAF(nb, WNAF_WIDTH_BASE);
+        byte[][] ws_p = new byte[count * 2][];
+        PointExt[][] tp = new PointExt[count * 2][];
+
+        for (int i = 0; i < count; ++i)
+        {
+            ws_p[2 * i] = getWNAF(np1[i], width);
+            tp[2 * i] = pointPrecompVar(pointCopy(p1[i]), 1 << (width - 2));
+            ws_p[2 * i + 1] = getWNAF(np2[i], width);
+            tp[2 * i + 1] = pointPrecompVar(pointCopy(p2[i]), 1 << (width - 2));
+        }
+
+        pointSetNeutral(r);
+
+        for (int bit = 252;;)
+        {
+            int wb = ws_b[bit];
+            if (wb != 0)
+            {
+                int sign = wb >> 31;
+                int index = (wb ^ sign) >>> 1;
+
+                pointAddVar((sign != 0), precompBaseTable[index], r);
+            }
+
+            for (int i = 0; i < ws_p.length; ++i)
+            {
+                int wp = ws_p[i][bit];
+                if (wp != 0)
+                {
+                    int sign = wp >> 31;
+                    int index = (wp ^ sign) >>> 1;
+
+                    pointAddVar((sign != 0), tp[i][index], r);
+                }
+            }
+
+            if (--bit < 0)
+            {
+                break;
+            }
+
+            pointDouble(r);
+        }
+    }
+
     public static void sign(byte[] sk, int skOff, byte[] m, int mOff, int mLen, byte[] sig, int sigOff)
     {
         byte[] ctx = null;
@@ -1354,6 +1688,54 @@ public static boolean verify(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[
         return implVerify(sig, sigOff, pk, pkOff, ctx, phflag, m, mOff, mLen);
     }
 
+    /**
+     * Verify a batch of pure Ed25519 signatures together, which is substantially faster than verifying them
+     * one at a time. The signatures are checked with a random linear combination of the (cofactored)
+     * verification equations, so the result depends on random coefficients drawn from the passed in random.
+     * <p>
+     * If the batch check fails and results is not null, each signature is then verified individually and
+     * results[i] records whether signature i is valid. Signatures with a small order public key or R are
+     * left out of the batch equation, which cannot see such points, and are verified individually instead. Note
+     * that a public key or R of mixed order, i.e. with a small order component added, is still only checked by
+     * the cofactored batch equation, which may accept a signature that individual verification rejects.
+     * </p>
+     *
+     * @param sig     the signatures, each SIGNATURE_SIZE bytes.
+     * @param pk      the public keys, each PUBLIC_KEY_SIZE bytes.
+     * @param m       the messages.
+     * @param random  source of randomness for the batch coefficients.
+     * @param results if not null, receives the validity of each individual signature.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(byte[][] sig, byte[][] pk, byte[][] m, SecureRandom random, boolean[] results)
+    {
+        int count = sig.length;
+        if (pk.length != count || m.length != count || (results != null && results.length < count))
+        {
+            throw new IllegalArgumentException("batch arrays must have the same length");
+        }
+
+        if (implVerifyBatch(sig, pk, m, random))
+        {
+            if (results != null)
+            {
+                Arrays.fill(results, 0, count, true);
+            }
+            return true;
+        }
+
+        if (results != null)
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                results[i] = sig[i] != null && sig[i].length == SIGNATURE_SIZE
+                    && pk[i] != null && pk[i].length == PUBLIC_KEY_SIZE
+                    && verify(sig[i], 0, pk[i], 0, m[i], 0, m[i].length);
+            }
+        }
+        return false;
+    }
+
     public static boolean verifyPrehash(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[] ctx, byte[] ph, int phOff)
     {
         byte phflag = 0x01;
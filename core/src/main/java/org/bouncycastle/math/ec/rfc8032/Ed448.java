@@ -8,6 +8,7 @@
 import org.bouncycastle.math.ec.rfc7748.X448Field;
 import org.bouncycastle.math.raw.Nat;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
 import org.bouncycastle.util.Strings;
 
 public abstract class Ed448
@@ -836,6 +837,80 @@ public static void precompute()
         }
     }
 
+    /**
+     * Return an encoding of the base point tables built by {@link #precompute()}. Passing the encoding to
+     * {@link #precompute(byte[])}, for example from a resource generated at build time, installs the tables
+     * without the cost of calculating them.
+     *
+     * @return the encoded base point tables.
+     */
+    public static byte[] getPrecomputationEncoding()
+    {
+        precompute();
+
+        int count = precompBaseTable.length, pointInts = 3 * X448Field.SIZE;
+        byte[] encoding = new byte[(count * pointInts + precompBase.length) * 4];
+
+        int off = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            PointExt q = precompBaseTable[i];
+            Pack.intToBigEndian(q.x, encoding, off);        off += X448Field.SIZE * 4;
+            Pack.intToBigEndian(q.y, encoding, off);        off += X448Field.SIZE * 4;
+            Pack.intToBigEndian(q.z, encoding, off);        off += X448Field.SIZE * 4;
+        }
+        Pack.intToBigEndian(precompBase, encoding, off);
+
+        return encoding;
+    }
+
+    /**
+     * Install the base point tables from an encoding produced by {@link #getPrecomputationEncoding()}, if
+     * they have not already been calculated. The encoding should come from a trusted source.
+     *
+     * @param encoding the encoded base point tables.
+     */
+    public static void precompute(byte[] encoding)
+    {
+        int count = 1 << (WNAF_WIDTH_BASE - 2), pointInts = 3 * X448Field.SIZE;
+        int baseInts = PRECOMP_BLOCKS * PRECOMP_POINTS * 2 * X448Field.SIZE;
+
+        if (encoding.length != (count * pointInts + baseInts) * 4)
+        {
+            throw new IllegalArgumentException("invalid Ed448 precomputation encoding");
+        }
+
+        PointExt[] table = new PointExt[count];
+        int off = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            PointExt q = table[i] = new PointExt();
+            Pack.bigEndianToInt(encoding, off, q.x);        off += X448Field.SIZE * 4;
+            Pack.bigEndianToInt(encoding, off, q.y);        off += X448Field.SIZE * 4;
+            Pack.bigEndianToInt(encoding, off, q.z);        off += X448Field.SIZE * 4;
+        }
+
+        int[] base = X448Field.createTable(PRECOMP_BLOCKS * PRECOMP_POINTS * 2);
+        Pack.bigEndianToInt(encoding, off, base);
+
+        // the first entry of the wNAF table is the base point itself
+        if (!Arrays.areEqual(B_x, table[0].x) || !Arrays.areEqual(B_y, table[0].y))
+        {
+            throw new IllegalArgumentException("Ed448 precomputation is not for the base point");
+        }
+
+        synchronized (precompLock)
+        {
+            if (precompBase != null)
+            {
+                return;
+            }
+
+            precompBaseTable = table;
+            precompBase = base;
+        }
+    }
+
     private static void pruneScalar(byte[] n, int nOff, byte[] r)
     {
         System.arraycopy(n, nOff, r, 0, SCALAR_BYTES - 1);
@@ -0,0 +1,50 @@
+package org.bouncycastle.math.ec.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.bouncycastle.crypto.ec.FixedBaseTables;
+
+/**
+ * Write the fixed-base tables for {@link FixedBaseTables#load(java.io.InputStream)}, for example as a
+ * build step producing an application resource.
+ * <pre>
+ *     java org.bouncycastle.math.ec.tools.FixedBaseTableWriter bc-fixed-base.bin [name ...]
+ * </pre>
+ * With no names, the tables for all the supported curves are written.
+ */
+public class FixedBaseTableWriter
+{
+    public static void main(String[] args)
+        throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("usage: FixedBaseTableWriter outputFile [name ...]");
+            System.exit(1);
+        }
+
+        String[] names;
+        if (args.length > 1)
+        {
+            names = new String[args.length - 1];
+            System.arraycopy(args, 1, names, 0, names.length);
+        }
+        else
+        {
+            names = FixedBaseTables.getNames();
+        }
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(args[0]));
+        try
+        {
+            FixedBaseTables.write(out, names);
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
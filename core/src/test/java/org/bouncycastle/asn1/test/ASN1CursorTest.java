@@ -0,0 +1,201 @@
+package org.bouncycastle.asn1.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.asn1.ASN1BufferCursor;
+import org.bouncycastle.asn1.ASN1Cursor;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.encoders.Base64;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+public class ASN1CursorTest
+    extends SimpleTest
+{
+    private static final byte[] cert = Base64.decode(
+           "MIIDXjCCAsegAwIBAgIBBzANBgkqhkiG9w0BAQQFADCBtzELMAkGA1UEBhMCQVUx"
+         + "ETAPBgNVBAgTCFZpY3RvcmlhMRgwFgYDVQQHEw9Tb3V0aCBNZWxib3VybmUxGjAY"
+         + "BgNVBAoTEUNvbm5lY3QgNCBQdHkgTHRkMR4wHAYDVQQLExVDZXJ0aWZpY2F0ZSBB"
+         + "dXRob3JpdHkxFTATBgNVBAMTDENvbm5lY3QgNCBDQTEoMCYGCSqGSIb3DQEJARYZ"
+         + "d2VibWFzdGVyQGNvbm5lY3Q0LmNvbS5hdTAeFw0wMDA2MDIwNzU2MjFaFw0wMTA2"
+         + "MDIwNzU2MjFaMIG4MQswCQYDVQQGEwJBVTERMA8GA1UECBMIVmljdG9yaWExGDAW"
+         + "BgNVBAcTD1NvdXRoIE1lbGJvdXJuZTEaMBgGA1UEChMRQ29ubmVjdCA0IFB0eSBM"
+         + "dGQxFzAVBgNVBAsTDldlYnNlcnZlciBUZWFtMR0wGwYDVQQDExR3d3cyLmNvbm5l"
+         + "Y3Q0LmNvbS5hdTEoMCYGCSqGSIb3DQEJARYZd2VibWFzdGVyQGNvbm5lY3Q0LmNv"
+         + "bS5hdTCBnzANBgkqhkiG9w0BAQEFAAOBjQAwgYkCgYEArvDxclKAhyv7Q/Wmr2re"
+         + "Gw4XL9Cnh9e+6VgWy2AWNy/MVeXdlxzd7QAuc1eOWQkGQEiLPy5XQtTY+sBUJ3AO"
+         + "Rvd2fEVJIcjf29ey7bYua9J/vz5MG2KYo9/WCHIwqD9mmG9g0xLcfwq/s8ZJBswE"
+         + "7sb85VU+h94PTvsWOsWuKaECAwEAAaN3MHUwJAYDVR0RBB0wG4EZd2VibWFzdGVy"
+         + "QGNvbm5lY3Q0LmNvbS5hdTA6BglghkgBhvhCAQ0ELRYrbW9kX3NzbCBnZW5lcmF0"
+         + "ZWQgY3VzdG9tIHNlcnZlciBjZXJ0aWZpY2F0ZTARBglghkgBhvhCAQEEBAMCBkAw"
+         + "DQYJKoZIhvcNAQEEBQADgYEAotccfKpwSsIxM1Hae8DR7M/Rw8dg/RqOWx45HNVL"
+         + "iBS4/3N/TO195yeQKbfmzbAA2jbPVvIvGgTxPgO1MP4ZgvgRhasaa0qCJCkWvpM4"
+         + "yQf33vOiYQbpv4rTwzU8AmRlBG45WdjyNIigGV+oRc61aKCTnLq7zB8N3z1TF/bF"
+         + "5/8=");
+
+    // SEQUENCE (indefinite) { INTEGER 1, [17] (indefinite) { SEQUENCE (indefinite) { } }, [APPLICATION 200] OCTET STRING 'AA' }
+    private static final byte[] berNested = Hex.decode("3080020101b1803080000000005f814801aa0000");
+
+    private static final byte[] highTagZero = Hex.decode("1f800100");
+    private static final byte[] longLength = Hex.decode("3085010000000000");
+    private static final byte[] negativeLength = Hex.decode("3084ffffffff");
+    private static final byte[] truncated = Hex.decode("300602010102");
+    private static final byte[] unterminated = Hex.decode("3080020101");
+
+    public String getName()
+    {
+        return "ASN1Cursor";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        certificateTest(new ASN1Cursor(cert));
+
+        byte[] padded = new byte[cert.length + 7];
+        System.arraycopy(cert, 0, padded, 3, cert.length);
+        certificateTest(new ASN1Cursor(padded, 3, cert.length));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(cert.length);
+        direct.put(cert);
+        direct.flip();
+        certificateTest(new ASN1BufferCursor(direct));
+        isEquals(0, direct.position());
+
+        walkTest(cert);
+        walkTest(berNested);
+        berTest();
+
+        failureTest("high tag zero", highTagZero, "corrupted stream - invalid high tag number found");
+        failureTest("long length", longLength, "DER length more than 4 bytes: 5");
+        failureTest("negative length", negativeLength, "corrupted stream - negative length found");
+        failureTest("truncated", truncated, "corrupted stream - out of bounds length found: 6");
+        failureTest("unterminated", unterminated, "EOF found inside indefinite-length element");
+    }
+
+    private void certificateTest(ASN1Cursor c)
+        throws IOException
+    {
+        Certificate certificate = Certificate.getInstance(cert);
+
+        isTrue(c.next() && c.isUniversal(BERTags.SEQUENCE));
+        c.down();
+        isTrue(c.next() && c.isUniversal(BERTags.SEQUENCE));
+        isTrue(c.encodingEquals(certificate.getTBSCertificate().getEncoded(ASN1Encoding.DER)));
+
+        c.down();
+        isEquals(2, c.getDepth());
+        isTrue(c.next() && c.isTagged(0) && c.isConstructed());
+        isTrue(c.next() && c.isUniversal(BERTags.INTEGER));
+        isEquals(certificate.getSerialNumber(), c.toASN1Primitive());
+        isTrue(c.getContentsLength() == 1 && c.getContentsByte(0) == 7);
+
+        isTrue(c.next());       // signature
+        isTrue(c.next());       // issuer
+        isTrue(Arrays.areEqual(certificate.getIssuer().getEncoded(), c.getEncoded()));
+
+        c.up();
+        isEquals(1, c.getDepth());
+        isTrue(c.next() && c.isUniversal(BERTags.SEQUENCE));
+        isEquals(certificate.getSignatureAlgorithm().toASN1Primitive(), c.toASN1Primitive());
+        isTrue(c.next() && c.isUniversal(BERTags.BIT_STRING));
+        isEquals(certificate.getSignature(), c.toASN1Primitive());
+        isTrue(!c.next());
+
+        c.up();
+        isEquals(0, c.getEncodedLength() - cert.length);
+        isTrue(!c.next());
+    }
+
+    // every element found by the cursor should promote to the same object as a full parse gives
+    private void walkTest(byte[] data)
+        throws IOException
+    {
+        ASN1Cursor c = new ASN1Cursor(data);
+        int count = 0;
+
+        for (;;)
+        {
+            if (c.next())
+            {
+                ++count;
+                ASN1Primitive p = c.toASN1Primitive();
+                isEquals(p, ASN1Primitive.fromByteArray(c.getEncoded()));
+                if (c.isConstructed())
+                {
+                    c.down();
+                }
+            }
+            else if (c.getDepth() > 0)
+            {
+                c.up();
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        isTrue(count > 1);
+    }
+
+    private void berTest()
+        throws IOException
+    {
+        ASN1Cursor c = new ASN1Cursor(berNested);
+
+        isTrue(c.next() && c.isUniversal(BERTags.SEQUENCE));
+        isEquals(-1, c.getContentsLength());
+        isEquals(berNested.length, c.getEncodedLength());
+
+        c.down();
+        isTrue(c.next());
+        isEquals(new ASN1Integer(1), c.toASN1Primitive());
+
+        isTrue(c.next() && c.isTagged(17) && c.isConstructed());
+        isEquals(8, c.getEncodedLength());
+        c.down();
+        isTrue(c.next() && c.isUniversal(BERTags.SEQUENCE));
+        c.down();
+        isTrue(!c.next());
+        c.up();
+        isTrue(!c.next());
+        c.up();
+
+        isTrue(c.next());
+        isEquals(BERTags.APPLICATION, c.getTag());
+        isEquals(200, c.getTagNo());
+        isEquals(1, c.getContentsLength());
+        isEquals(0xaa, c.getContentsByte(0));
+        isTrue(!c.next());
+    }
+
+    private void failureTest(String label, byte[] data, String message)
+    {
+        try
+        {
+            ASN1Cursor c = new ASN1Cursor(data);
+            while (c.next() && c.isConstructed())
+            {
+                c.down();
+            }
+            fail(label + " not detected");
+        }
+        catch (IOException e)
+        {
+            isEquals(label, message, e.getMessage());
+        }
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ASN1CursorTest());
+    }
+}
@@ -0,0 +1,418 @@
+package org.bouncycastle.asn1.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1EventParser;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.BEROctetString;
+import org.bouncycastle.asn1.BERSequence;
+import org.bouncycastle.asn1.BERTaggedObject;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTCTime;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.io.Streams;
+import org.bouncycastle.util.test.SimpleTest;
+
+public class ASN1EventParserTest
+    extends SimpleTest
+{
+    private static final int ENTRIES = 2000;
+
+    public String getName()
+    {
+        return "ASN1EventParser";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        byte[] crl = createCRL(true);
+        byte[] v1CRL = createCRL(false);
+
+        walkTest(crl, new ByteArrayInputStream(crl));
+        walkTest(crl, new OneByteInputStream(crl));
+        entriesTest(crl, true, new ASN1EventParser(new ByteArrayInputStream(crl)));
+        entriesTest(crl, true, new ASN1EventParser(Channels.newChannel(new OneByteInputStream(crl))));
+        entriesTest(v1CRL, false, new ASN1EventParser(new ByteArrayInputStream(v1CRL)));
+        skipTest(crl);
+
+        berTest();
+        contentsTest();
+        errorTest();
+    }
+
+    // a CRL shaped structure with a large revokedCertificates list, v2 adds the optional fields
+    private byte[] createCRL(boolean v2)
+        throws Exception
+    {
+        AlgorithmIdentifier sigAlg = new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE);
+        DERUTCTime time = new DERUTCTime("200101000000Z");
+
+        ASN1EncodableVector entries = new ASN1EncodableVector();
+        for (int i = 0; i < ENTRIES; ++i)
+        {
+            entries.add(new DERSequence(new ASN1Encodable[]{ new ASN1Integer(1000 + i), time }));
+        }
+
+        ASN1EncodableVector tbs = new ASN1EncodableVector();
+        if (v2)
+        {
+            tbs.add(new ASN1Integer(1));
+        }
+        tbs.add(sigAlg);
+        tbs.add(new DERSequence(new DERUTF8String("Issuer")));
+        tbs.add(time);
+        if (v2)
+        {
+            tbs.add(new DERUTCTime("200201000000Z"));
+        }
+        tbs.add(new DERSequence(entries));
+        if (v2)
+        {
+            tbs.add(new DERTaggedObject(true, 0, new DERSequence()));
+        }
+
+        return new DERSequence(new ASN1Encodable[]{ new DERSequence(tbs), sigAlg, new DERBitString(new byte[256]) })
+            .getEncoded(ASN1Encoding.DER);
+    }
+
+    // every element reported should match its encoding, and every start should be matched by an end
+    private void walkTest(byte[] data, InputStream in)
+        throws Exception
+    {
+        ASN1EventParser p = new ASN1EventParser(in);
+        long[] starts = new long[16];
+        int primitives = 0;
+
+        int event;
+        while ((event = p.next()) != ASN1EventParser.END_DOCUMENT)
+        {
+            int depth = p.getDepth();
+            if (event == ASN1EventParser.START_CONSTRUCTED)
+            {
+                isTrue(p.isConstructed());
+                starts[depth] = p.getOffset();
+                isTrue(checkHeader(data, p));
+            }
+            else if (event == ASN1EventParser.END_CONSTRUCTED)
+            {
+                isEquals(starts[depth], p.getOffset());
+            }
+            else
+            {
+                ++primitives;
+                isTrue(!p.isConstructed());
+                isTrue(checkHeader(data, p));
+                if ((primitives % 2) == 0)
+                {
+                    byte[] contents = p.getContents();
+                    isTrue(Arrays.areEqual(contents,
+                        Arrays.copyOfRange(data, (int)p.getContentsOffset(), (int)p.getContentsOffset() + contents.length)));
+                }
+            }
+        }
+
+        isEquals(ASN1EventParser.END_DOCUMENT, p.next());
+        isEquals(0, p.getDepth());
+        // version, algorithm x 2, issuer, times, entries, signature
+        isEquals(1 + 4 + 1 + 2 + ENTRIES * 2 + 1, primitives);
+    }
+
+    private boolean checkHeader(byte[] data, ASN1EventParser p)
+    {
+        int off = (int)p.getOffset();
+        int tag = data[off] & 0xff;
+        return (tag & ~0x1f) == p.getTag() && (tag & 0x1f) == p.getTagNo()
+            && p.getContentsOffset() + p.getContentsLength() <= data.length;
+    }
+
+    // walk to the entries as in the class documentation
+    private void entriesTest(byte[] data, boolean v2, ASN1EventParser p)
+        throws Exception
+    {
+        ASN1Sequence entries = ASN1Sequence.getInstance(
+            ASN1Sequence.getInstance(ASN1Sequence.getInstance(ASN1Primitive.fromByteArray(data)).getObjectAt(0)).getObjectAt(v2 ? 5 : 3));
+
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        if (p.next() == ASN1EventParser.PRIMITIVE)
+        {
+            isTrue(v2);
+            p.next();
+        }
+        isTrue(p.isUniversal(BERTags.SEQUENCE));
+        p.skipSubtree();
+        p.next();
+        p.skipSubtree();
+        p.next();
+        if (p.next() == ASN1EventParser.PRIMITIVE)
+        {
+            isTrue(v2);
+            p.next();
+        }
+
+        int count = 0;
+        if (p.getEvent() == ASN1EventParser.START_CONSTRUCTED && p.isUniversal(BERTags.SEQUENCE))
+        {
+            while (p.next() == ASN1EventParser.START_CONSTRUCTED)
+            {
+                isEquals(entries.getObjectAt(count++), p.readObject());
+            }
+            isEquals(ASN1EventParser.END_CONSTRUCTED, p.getEvent());
+        }
+        isEquals(ENTRIES, count);
+
+        if (v2)
+        {
+            isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+            isTrue(p.isTagged(0));
+            p.skipSubtree();
+        }
+        isEquals(ASN1EventParser.END_CONSTRUCTED, p.next());
+
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE).toASN1Primitive(),
+            p.readObject());
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isTrue(p.isUniversal(BERTags.BIT_STRING));
+        isEquals(ASN1EventParser.END_CONSTRUCTED, p.next());
+        isEquals(ASN1EventParser.END_DOCUMENT, p.next());
+    }
+
+    private void skipTest(byte[] data)
+        throws Exception
+    {
+        CountingInputStream in = new CountingInputStream(data);
+        ASN1EventParser p = new ASN1EventParser(in);
+
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        p.skipSubtree();
+        isEquals(0, p.getEvent());
+
+        // the TBSCertList should be skipped without being read
+        isTrue(in.read < data.length / 2);
+
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(1, p.getDepth());
+        isTrue(p.isUniversal(BERTags.SEQUENCE));
+        p.skipSubtree();
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        p.skipSubtree();
+        isEquals(ASN1EventParser.END_CONSTRUCTED, p.next());
+        isEquals(ASN1EventParser.END_DOCUMENT, p.next());
+    }
+
+    private void berTest()
+        throws Exception
+    {
+        ASN1Encodable inner = new BERSequence(new ASN1Encodable[]{
+            new BEROctetString(new byte[20000]), new DERSequence(new ASN1Integer(5)), new BERTaggedObject(true, 3, new BERSequence()) });
+        byte[] data = new BERSequence(new ASN1Encodable[]{ new ASN1Integer(1), inner, new ASN1Integer(2) }).getEncoded();
+
+        ASN1EventParser p = new ASN1EventParser(new OneByteInputStream(data));
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(-1, p.getContentsLength());
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isEquals(ASN1EventParser.START_CONSTRUCTED, p.next());
+        isEquals(-1, p.getContentsLength());
+        isEquals(inner.toASN1Primitive(), p.readObject());
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isEquals(new ASN1Integer(2), p.readObject());
+        isEquals(ASN1EventParser.END_CONSTRUCTED, p.next());
+        isEquals(0, p.getDepth());
+        isEquals(ASN1EventParser.END_DOCUMENT, p.next());
+
+        p = new ASN1EventParser(new ByteArrayInputStream(data));
+        p.next();
+        p.next();
+        p.next();
+        p.skipSubtree();
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isEquals(new ASN1Integer(2), p.readObject());
+        isEquals(ASN1EventParser.END_CONSTRUCTED, p.next());
+
+        // the whole walk, with the end-of-contents octets reported as ends
+        p = new ASN1EventParser(new ByteArrayInputStream(data));
+        int starts = 0, ends = 0;
+        int event;
+        while ((event = p.next()) != ASN1EventParser.END_DOCUMENT)
+        {
+            if (event == ASN1EventParser.START_CONSTRUCTED)
+            {
+                ++starts;
+            }
+            else if (event == ASN1EventParser.END_CONSTRUCTED)
+            {
+                ++ends;
+            }
+        }
+        isEquals(starts, ends);
+    }
+
+    private void contentsTest()
+        throws Exception
+    {
+        byte[] contents = new byte[30000];
+        for (int i = 0; i < contents.length; ++i)
+        {
+            contents[i] = (byte)i;
+        }
+        byte[] data = new DERSequence(new ASN1Encodable[]{ new DEROctetString(contents), new ASN1Integer(7) }).getEncoded();
+
+        ASN1EventParser p = new ASN1EventParser(new ByteArrayInputStream(data));
+        p.next();
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isTrue(Arrays.areEqual(contents, Streams.readAll(p.getContentStream())));
+
+        p = new ASN1EventParser(new ByteArrayInputStream(data));
+        p.next();
+        p.next();
+        InputStream cIn = p.getContentStream();
+        byte[] start = new byte[100];
+        Streams.readFully(cIn, start);
+        isTrue(Arrays.areEqual(Arrays.copyOfRange(contents, 0, 100), start));
+        isTrue(Arrays.areEqual(Arrays.copyOfRange(contents, 100, contents.length), p.getContents()));
+
+        p = new ASN1EventParser(new ByteArrayInputStream(data));
+        p.next();
+        p.next();
+        cIn = p.getContentStream();
+        cIn.read();
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isEquals(-1, cIn.read());
+        isEquals(new ASN1Integer(7), p.readObject());
+
+        // the limit applies to what is read into memory, not what is passed over
+        p = new ASN1EventParser(new ByteArrayInputStream(data), 1000);
+        p.next();
+        p.next();
+        try
+        {
+            p.getContents();
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isTrue(e.getMessage().startsWith("corrupted stream - out of bounds length found"));
+        }
+        isEquals(ASN1EventParser.PRIMITIVE, p.next());
+        isEquals(new ASN1Integer(7), p.readObject());
+    }
+
+    private void errorTest()
+        throws Exception
+    {
+        byte[] data = new DERSequence(new ASN1Encodable[]{ new ASN1Integer(1), new DEROctetString(new byte[10]) }).getEncoded();
+
+        checkError(Arrays.copyOf(data, data.length - 1), EOFException.class, "EOF encountered in middle of object");
+        checkError(Arrays.copyOf(data, 5), EOFException.class, "EOF found when tag expected");
+
+        // child longer than its parent
+        byte[] bad = Arrays.clone(data);
+        bad[6] = 11;
+        checkError(bad, IOException.class, "corrupted stream - out of bounds length found: 11");
+
+        // end-of-contents in a definite-length element
+        checkError(Hex.decode("3004020100000000"), IOException.class, "unexpected end-of-contents marker");
+        checkError(Hex.decode("30800201000001"), IOException.class, "malformed end-of-contents marker");
+        checkError(Hex.decode("0480"), IOException.class, "indefinite-length primitive encoding encountered");
+        checkError(Hex.decode("3085"), IOException.class, "DER length more than 4 bytes: 5");
+        checkError(Hex.decode("1f00"), IOException.class, "corrupted stream - invalid high tag number found");
+    }
+
+    private void checkError(byte[] data, Class type, String message)
+        throws Exception
+    {
+        ASN1EventParser p = new ASN1EventParser(new ByteArrayInputStream(data));
+        try
+        {
+            while (p.next() != ASN1EventParser.END_DOCUMENT)
+            {
+            }
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isTrue(e.getClass().getName(), type.isInstance(e));
+            isEquals(message, e.getMessage());
+        }
+    }
+
+    private static class OneByteInputStream
+        extends FilterInputStream
+    {
+        OneByteInputStream(byte[] data)
+        {
+            super(new ByteArrayInputStream(data));
+        }
+
+        public int read(byte[] b, int off, int len)
+            throws IOException
+        {
+            return super.read(b, off, Math.min(len, 1));
+        }
+
+        public long skip(long n)
+            throws IOException
+        {
+            return super.skip(Math.min(n, 1));
+        }
+    }
+
+    private static class CountingInputStream
+        extends ByteArrayInputStream
+    {
+        int read;
+
+        CountingInputStream(byte[] data)
+        {
+            super(data);
+        }
+
+        public synchronized int read()
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                ++read;
+            }
+            return b;
+        }
+
+        public synchronized int read(byte[] b, int off, int len)
+        {
+            int count = super.read(b, off, len);
+            if (count > 0)
+            {
+                read += count;
+            }
+            return count;
+        }
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ASN1EventParserTest());
+    }
+}
@@ -0,0 +1,195 @@
+package org.bouncycastle.asn1.test;
+
+import java.io.ByteArrayOutputStream;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1External;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.BEROctetString;
+import org.bouncycastle.asn1.BERSequence;
+import org.bouncycastle.asn1.BERSet;
+import org.bouncycastle.asn1.BERTaggedObject;
+import org.bouncycastle.asn1.DERExternal;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.DLExternal;
+import org.bouncycastle.asn1.DLSequence;
+import org.bouncycastle.asn1.DLSet;
+import org.bouncycastle.asn1.DLTaggedObject;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check the exact-size encodings from getEncoded() and encodeTo(byte[], int, String) against the stream encodings, and
+ * the cached encodings of immutable objects.
+ */
+public class EncodingTest
+    extends SimpleTest
+{
+    private static final String[] encodings = { ASN1Encoding.BER, ASN1Encoding.DL, ASN1Encoding.DER };
+
+    public String getName()
+    {
+        return "Encoding";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        ASN1Encodable leaf = new DLSequence(new ASN1Encodable[]{ new ASN1Integer(1), new DERUTF8String("leaf") });
+        ASN1Encodable set = new DLSet(new ASN1Encodable[]{ new DERUTF8String("z"), new DERUTF8String("a"), leaf });
+
+        ASN1EncodableVector v = new ASN1EncodableVector();
+        v.add(leaf);
+        v.add(set);
+        v.add(new BERTaggedObject(false, 0, new DEROctetString(new byte[2500])));
+        v.add(new BERTaggedObject(false, 1, new DLSequence(leaf)));
+        v.add(new BERTaggedObject(true, 2, new BERSet(leaf)));
+        v.add(new BERTaggedObject(3));
+        v.add(new BEROctetString(new byte[1500]));
+        v.add(new DLTaggedObject(false, 4, set));
+        v.add(new DERTaggedObject(true, 500, new DLSequence(leaf)));
+        for (int i = 0; i < 20; ++i)
+        {
+            v.add(new DLSequence(new ASN1Encodable[]{ leaf, new DEROctetString(new byte[i * 10]) }));
+        }
+
+        checkEncodings(new BERSequence(v));
+        checkEncodings(new DLSequence(v));
+        checkEncodings(new DERSequence(v));
+        checkEncodings(new DLSequence(new BERSequence(v)));
+
+        for (int i = 0; i < encodings.length; ++i)
+        {
+            // the DER form of a DL structure, cached, should be reusable
+            ASN1Primitive dl = new DLSequence(new DLSequence(v));
+            isTrue(Arrays.areEqual(dl.getEncoded(ASN1Encoding.DER), dl.getEncoded(ASN1Encoding.DER)));
+            isTrue(Arrays.areEqual(dl.getEncoded(ASN1Encoding.DER), new DERSequence(new DERSequence(v)).getEncoded()));
+        }
+
+        externalTest();
+        immutableObjectTest();
+    }
+
+    private void externalTest()
+        throws Exception
+    {
+        ASN1ObjectIdentifier directRef = new ASN1ObjectIdentifier("1.2.840.113549.1.1.1");
+        ASN1Integer indirectRef = new ASN1Integer(7);
+        ASN1Primitive descriptor = new DERUTF8String("descriptor");
+        ASN1Primitive data = new DLSequence(new ASN1Encodable[]{ new ASN1Integer(1), new BEROctetString(new byte[300]) });
+
+        ASN1External[] externals = {
+            new DERExternal(directRef, indirectRef, descriptor, 0, data),
+            new DERExternal(null, null, null, 2, new DEROctetString(new byte[200])),
+            new DLExternal(directRef, null, descriptor, 1, new DEROctetString(new byte[5])),
+            new DLExternal(null, indirectRef, null, 0, data)
+        };
+
+        for (int i = 0; i < externals.length; ++i)
+        {
+            ASN1External ext = externals[i];
+
+            checkEncodings(ext);
+            checkEncodings(new DERSequence(new ASN1Encodable[]{ indirectRef, ext }));
+
+            for (int j = 0; j < encodings.length; ++j)
+            {
+                ASN1External read = (ASN1External)ASN1Primitive.fromByteArray(ext.getEncoded(encodings[j]));
+
+                isTrue(ext.equals(read));
+                isTrue(Arrays.areEqual(ext.getEncoded(ASN1Encoding.DER), read.getEncoded(ASN1Encoding.DER)));
+            }
+        }
+    }
+
+    private void immutableObjectTest()
+        throws Exception
+    {
+        X500Name name = new X500Name("CN=Test, O=Bouncy Castle, C=AU");
+        AlgorithmIdentifier algId = new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE);
+
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        extGen.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign));
+        Extensions exts = extGen.generate();
+
+        ASN1Object[] objs = { name, algId, exts };
+        for (int i = 0; i < objs.length; ++i)
+        {
+            ASN1Object obj = objs[i];
+            byte[] expected = obj.toASN1Primitive().getEncoded(ASN1Encoding.DER);
+
+            // the cached encoding is handed out as a copy
+            byte[] first = obj.getEncoded(ASN1Encoding.DER);
+            isTrue(Arrays.areEqual(expected, first));
+            first[0] ^= 1;
+            byte[] second = obj.getEncoded(ASN1Encoding.DER);
+            isTrue(first != second);
+            isTrue(Arrays.areEqual(expected, second));
+
+            isEquals(expected.length, obj.getEncodedLength(ASN1Encoding.DER));
+
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            obj.encodeTo(bOut, ASN1Encoding.DER);
+            isTrue(Arrays.areEqual(expected, bOut.toByteArray()));
+
+            byte[] buf = new byte[expected.length];
+            isEquals(expected.length, obj.encodeTo(buf, 0, ASN1Encoding.DER));
+            isTrue(Arrays.areEqual(expected, buf));
+
+            // as an element of a larger structure
+            isTrue(Arrays.areEqual(Arrays.concatenate(new byte[]{ 0x30, (byte)expected.length }, expected),
+                new DERSequence(obj).getEncoded(ASN1Encoding.DER)));
+        }
+    }
+
+    private void checkEncodings(ASN1Object obj)
+        throws Exception
+    {
+        for (int i = 0; i < encodings.length; ++i)
+        {
+            String encoding = encodings[i];
+
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            obj.encodeTo(bOut, encoding);
+            byte[] expected = bOut.toByteArray();
+
+            isTrue(encoding, Arrays.areEqual(expected, obj.getEncoded(encoding)));
+            isEquals(encoding, expected.length, obj.getEncodedLength(encoding));
+
+            byte[] buf = new byte[expected.length + 10];
+            isEquals(encoding, expected.length, obj.encodeTo(buf, 3, encoding));
+            isTrue(encoding, Arrays.areEqual(expected, Arrays.copyOfRange(buf, 3, 3 + expected.length)));
+
+            // implicitly tagged contents read back as a different type, so just check the encoding parses
+            ASN1Primitive.fromByteArray(expected);
+        }
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        obj.encodeTo(bOut);
+        isTrue(Arrays.areEqual(bOut.toByteArray(), obj.getEncoded()));
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new EncodingTest());
+    }
+}
@@ -0,0 +1,151 @@
+package org.bouncycastle.asn1.test;
+
+import java.util.Enumeration;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.ASN1Set;
+import org.bouncycastle.asn1.ASN1TaggedObject;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.DLSet;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.test.SimpleTest;
+
+public class LazyEncodingTest
+    extends SimpleTest
+{
+    public String getName()
+    {
+        return "LazyEncoding";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        ASN1EncodableVector v = new ASN1EncodableVector();
+        v.add(new ASN1Integer(42));
+        v.add(new DERSet(new ASN1Encodable[]{ new DERUTF8String("b"), new DERUTF8String("a") }));
+        v.add(new DERTaggedObject(true, 0, new DERSequence(new ASN1Integer(7))));
+        v.add(new DERTaggedObject(false, 1, new DERSequence(new ASN1Encodable[]{ new ASN1Integer(1), new ASN1Integer(2) })));
+        v.add(new DERTaggedObject(false, 2, new DERSequence()));
+        for (int i = 0; i < 20; ++i)
+        {
+            v.add(new DEROctetString(new byte[i]));
+        }
+
+        byte[] data = new DERSequence(v).getEncoded(ASN1Encoding.DER);
+
+        ASN1Primitive eager = ASN1Primitive.fromByteArray(data);
+        ASN1Sequence lazy = (ASN1Sequence)new ASN1InputStream(data, true).readObject();
+
+        isTrue(Arrays.areEqual(data, lazy.getEncoded()));
+        isTrue(Arrays.areEqual(data, lazy.getEncoded(ASN1Encoding.DER)));
+        isEquals(eager, lazy);
+        isEquals(eager.hashCode(), lazy.hashCode());
+        isEquals(eager.toString(), lazy.toString());
+
+        lazy = (ASN1Sequence)new ASN1InputStream(data, true).readObject();
+        isEquals(v.size(), lazy.size());
+        isTrue(lazy.getObjectAt(3) == lazy.getObjectAt(3));
+
+        Enumeration en = lazy.getObjects();
+        for (int i = 0; i < v.size(); ++i)
+        {
+            isTrue(en.hasMoreElements());
+            isTrue(en.nextElement() == lazy.getObjectAt(i));
+        }
+        isTrue(!en.hasMoreElements());
+
+        setTest(ASN1Set.getInstance(lazy.getObjectAt(1)));
+        taggedTest(ASN1TaggedObject.getInstance(lazy.getObjectAt(2)), true, 1);
+        taggedTest(ASN1TaggedObject.getInstance(lazy.getObjectAt(3)), false, 2);
+        taggedTest(ASN1TaggedObject.getInstance(lazy.getObjectAt(4)), false, 0);
+
+        concurrencyTest(data);
+    }
+
+    private void setTest(ASN1Set set)
+        throws Exception
+    {
+        // the DL encoding is kept as read, the DER encoding is sorted
+        byte[] unsorted = new DLSet(new ASN1Encodable[]{ new DERUTF8String("b"), new DERUTF8String("a") }).getEncoded();
+        byte[] sorted = new DERSet(new ASN1Encodable[]{ new DERUTF8String("b"), new DERUTF8String("a") }).getEncoded();
+
+        ASN1Set lazy = (ASN1Set)new ASN1InputStream(unsorted, true).readObject();
+        isTrue(Arrays.areEqual(unsorted, lazy.getEncoded()));
+        isTrue(Arrays.areEqual(sorted, lazy.getEncoded(ASN1Encoding.DER)));
+        isEquals(2, lazy.size());
+        isEquals(new DERUTF8String("b"), lazy.getObjectAt(0));
+        isEquals(ASN1Primitive.fromByteArray(sorted), lazy);
+
+        isEquals(2, set.size());
+        isTrue(Arrays.areEqual(sorted, set.getEncoded()));
+    }
+
+    private void taggedTest(ASN1TaggedObject tagged, boolean explicit, int size)
+    {
+        isTrue(explicit == tagged.isExplicit());
+        isEquals(size, ASN1Sequence.getInstance(tagged, explicit).size());
+    }
+
+    private void concurrencyTest(byte[] data)
+        throws Exception
+    {
+        final ASN1Sequence shared = (ASN1Sequence)new ASN1InputStream(data, true).readObject();
+        final ASN1Encodable[][] seen = new ASN1Encodable[8][];
+
+        Thread[] threads = new Thread[seen.length];
+        for (int t = 0; t < threads.length; ++t)
+        {
+            final int id = t;
+            threads[t] = new Thread()
+            {
+                public void run()
+                {
+                    int count = shared.size();
+                    ASN1Encodable[] elements = new ASN1Encodable[count];
+                    for (int i = 0; i < count; ++i)
+                    {
+                        // visit the elements in a different order on each thread
+                        int index = (i + id * 3) % count;
+                        elements[index] = shared.getObjectAt(index);
+                    }
+                    seen[id] = elements;
+                }
+            };
+        }
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].join();
+        }
+
+        ASN1Encodable[] all = shared.toArray();
+        for (int t = 0; t < seen.length; ++t)
+        {
+            isEquals(all.length, seen[t].length);
+            for (int i = 0; i < all.length; ++i)
+            {
+                isTrue("thread " + t + " element " + i, all[i] == seen[t][i]);
+            }
+        }
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new LazyEncodingTest());
+    }
+}
@@ -79,7 +79,11 @@
         new CertifiedKeyPairTest(),
         new PrivateKeyInfoTest(),
         new LocaleTest(),
-        new LinkedCertificateTest()
+        new LinkedCertificateTest(),
+        new ASN1CursorTest(),
+        new LazyEncodingTest(),
+        new EncodingTest(),
+        new ASN1EventParserTest()
     };
 
     public static void main(String[] args)
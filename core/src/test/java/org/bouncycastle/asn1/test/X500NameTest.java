@@ -20,6 +20,7 @@
 import org.bouncycastle.asn1.x500.RDN;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x500.X500NameBuilder;
+import org.bouncycastle.asn1.x500.X500NameInterner;
 import org.bouncycastle.asn1.x500.style.BCStrictStyle;
 import org.bouncycastle.asn1.x500.style.BCStyle;
 import org.bouncycastle.asn1.x500.style.IETFUtils;
@@ -655,6 +656,55 @@ public void performTest()
         {
             fail("padded equality test failed");
         }
+
+        internerTest();
+    }
+
+    private void internerTest()
+    {
+        X500NameInterner interner = new X500NameInterner(2);
+
+        X500Name name1 = interner.intern(new X500Name("CN=\"  CA1 -   CP.04.03\", OU=Testing, O=U.S. Government, C=US"));
+        X500Name name2 = interner.intern(new X500Name("cn=ca1 - cp.04.03,ou=testing,o=u.s. government,c=us"));
+        X500Name name3 = interner.intern(new X500Name("C=US, O=U.S. Government, OU=Testing, CN=CA2"));
+
+        if (name1 != name2)
+        {
+            fail("equal names not interned to the same instance");
+        }
+        if (name1 == name3 || name1.equals(name3) || name3.equals(name1))
+        {
+            fail("different names interned to the same instance");
+        }
+        if (interner.size() != 2)
+        {
+            fail("interner size wrong");
+        }
+
+        // least recently used name dropped
+        interner.intern(name1);
+        interner.intern(new X500Name("CN=CA3"));
+        if (interner.size() != 2 || interner.intern(name1) != name1)
+        {
+            fail("recently used name not retained");
+        }
+        if (interner.intern(new X500Name("C=US, O=U.S. Government, OU=Testing, CN=CA2")) == name3)
+        {
+            fail("least recently used name not dropped");
+        }
+
+        // names are given the interner's style
+        X500Name strict = new X500NameInterner(BCStrictStyle.INSTANCE, 10).intern(name1);
+        if (strict == name1 || !strict.equals(name1))
+        {
+            fail("style not applied");
+        }
+
+        interner.clear();
+        if (interner.size() != 0)
+        {
+            fail("interner not cleared");
+        }
     }
 
     private String getValue(RDN vl)
@@ -0,0 +1,234 @@
+package org.bouncycastle.crypto.test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.crypto.digests.Blake2bpDigest;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+public class Blake2bpDigestTest
+    extends SimpleTest
+{
+    // input length (bytes 0x00, 0x01, ... 0xff, 0x00, ...), hash
+    private static final String[][] testVectors = {
+        { "0", "b5ef811a8038f70b628fa8b294daae7492b1ebe343a80eaabbf1f6ae664dd67b9d90b0120791eab81dc96985f28849f6a305186a85501b405114bfa678df9380" },
+        { "1", "a139280e72757b723e6473d5be59f36e9d50fc5cd7d4585cbc09804895a36c521242fb2789f85cb9e35491f31d4a6952f9d8e097aef94fa1ca0b12525721f03d" },
+        { "64", "6b9d86f15c090a00fc3d907f906c5eb79265e58b88eb64294b4cc4e2b89b1a7c5ee3127ed21b456862de6b2abda59eaacf2dcbe922ca755e40735be81d9c88a5" },
+        { "127", "ea64b003a135766121cfbccbdc08dca2402926be78cea3d0a7253d9ec9e63b8acdd994559917e0e03b5e155f944d7198d99245a794ce19c9b4df4da4a3399334" },
+        { "128", "05ad0f271faf7e361320518452813ff9fb9976ac378050b6eefb05f7867b577b8f14475794cff61b2bc062d346a7c65c6e0067c60a374af7940f10aa449d5fb9" },
+        { "129", "b545880294afa153f8b9f49c73d952b5d1228f1a1ab5ebcb05ff79e560c030f7500fe256a40b6a0e6cb3d42acd4b98595c5b51eaec5ad69cd40f1fc16d2d5f50" },
+        { "511", "fa14897433dd69321b1933a1fe101fdd463dc15fffe3f572c0b489bb607edff8b6dd04a23871be993d64af5aaa9b76af482a2363a36c1e6daaef21d3e3ac29c6" },
+        { "512", "5b3a0e990c4e8c6e5463e763a6686551a129a81ab48c49cd8dc10519dfe2d02d2a451cbba6511775b6a9cb26db88363cdd067ffb7183efe19826678b2fc9f349" },
+        { "513", "cd79fbbded91823272abb7a97a5530608f0583bd5405c7765156c4d8754ddf435d6d71b84f83c6381078935e378d4bf0f752b309d1398af578e103e443b8ac55" },
+        { "1000", "1ce5b8d6f6fcc89fcb6ed29f12796cc210a03f4763e528cb2c0e1b4b1255d6ae86c79332529f6368d0bcfe9d316a5f999a53af47a8f0ec4412ce19156bbafd04" },
+        { "4113", "e4322cbd70c02f1435f3c73da8a86216ad715e7aac63779e8b8ef93a6d7c32e9970542f292a48879fde84c8d2c24bde37c3124d37b1383b454ed15a86f7722da" },
+        { "200000", "93c7f3db0b37fbc9f578e5b419462d37c4cabf25440a1c7d1787a337633a8fe47dbc438150a23fe36144f06481250cbee2802e3610bb3838d4e18a1614c345b1" }
+    };
+
+    // as above, keyed with the bytes 0x00, 0x01, ... up to the maximum key length
+    private static final String[][] keyedTestVectors = {
+        { "0", "9d9461073e4eb640a255357b839f394b838c6ff57c9b686a3f76107c1066728f3c9956bd785cbc3bf79dc2ab578c5a0c063b9d9c405848de1dbe821cd05c940a" },
+        { "1", "ff8e90a37b94623932c59f7559f26035029c376732cb14d41602001cbb73adb79293a2dbda5f60703025144d158e2735529596251c73c0345ca6fccb1fb1e97e" },
+        { "64", "22b8249eaf722964ce424f71a74d038ff9b615fba5c7c22cb62797f5398224c3f072ebc1dacba32fc6f66360b3e1658d0fa0da1ed1c1da662a2037da823a3383" },
+        { "255", "96fbcbb60bd313b8845033e5bc058a38027438572d7e7957f3684f6268aadd3ad08d21767ed6878685331ba98571487e12470aad669326716e46667f69f8d7e8" },
+        { "256", "9915a97dc3df81251f1778dfc4fa02a2ad8cfc8f89b51ac19e90a45f372069015d8b4e877b330d7e53d1ef636fa7b6f8736b2e049aa98d2f7c85c9615df9e2ec" },
+        { "1000", "10e119191da5964afdbf0171f5e062d4123e6c97e759d20d03825be22debc6947ef6c01f5fdac9eb36e3b03955ff28d647caf564f2cb2f203a0cbc90e0dd4dc3" }
+    };
+
+    public String getName()
+    {
+        return "BLAKE2bp";
+    }
+
+    private static byte[] input(int len)
+    {
+        byte[] in = new byte[len];
+        for (int i = 0; i != len; i++)
+        {
+            in[i] = (byte)i;
+        }
+        return in;
+    }
+
+    private void testVectors()
+    {
+        Blake2bpDigest digest = new Blake2bpDigest();
+        byte[] hash = new byte[64];
+
+        for (int i = 0; i != testVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(testVectors[i][0]));
+
+            digest.update(in, 0, in.length);
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2bp mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+
+            for (int j = 0; j != in.length; j++)
+            {
+                digest.update(in[j]);
+            }
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2bp byte update mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testKeyedVectors()
+    {
+        Blake2bpDigest digest = new Blake2bpDigest(input(64), 64);
+        byte[] hash = new byte[64];
+
+        for (int i = 0; i != keyedTestVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(keyedTestVectors[i][0]));
+
+            digest.update(in, 0, in.length);
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(keyedTestVectors[i][1]), hash))
+            {
+                fail("BLAKE2bp mismatch on keyed test vector ", keyedTestVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testRandomUpdate()
+    {
+        Blake2bpDigest digest = new Blake2bpDigest();
+        Random random = new Random();
+        byte[] hash = new byte[64];
+
+        for (int i = 0; i != testVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(testVectors[i][0]));
+
+            int pos = 0;
+            while (pos < in.length)
+            {
+                int len = Math.min(in.length - pos, random.nextInt(1500));
+                digest.update(in, pos, len);
+                pos += len;
+            }
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2bp random update mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testParallel()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] key = input(64);
+            Blake2bpDigest sequential = new Blake2bpDigest(key, 64);
+            Blake2bpDigest parallel = new Blake2bpDigest(key, 64, executor);
+            byte[] in = input(1000003);
+
+            sequential.update(in, 0, in.length);
+            parallel.update(in, 0, 7);
+            parallel.update(in, 7, in.length - 7);
+
+            byte[] expected = new byte[64];
+            byte[] hash = new byte[64];
+            sequential.doFinal(expected, 0);
+            parallel.doFinal(hash, 0);
+
+            if (!areEqual(expected, hash))
+            {
+                fail("BLAKE2bp parallel mismatch", Hex.toHexString(expected), Hex.toHexString(hash));
+            }
+
+            parallel = new Blake2bpDigest(null, 64, executor);
+            in = input(Integer.parseInt(testVectors[testVectors.length - 1][0]));
+            parallel.update(in, 0, in.length);
+            parallel.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[testVectors.length - 1][1]), hash))
+            {
+                fail("BLAKE2bp parallel mismatch on test vector", testVectors[testVectors.length - 1][1], Hex.toHexString(hash));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void testCloneAndReset()
+    {
+        byte[] in = input(3000);
+        Blake2bpDigest digest = new Blake2bpDigest(Strings.toByteArray("key"), 20);
+
+        digest.update(in, 0, 1001);
+        Blake2bpDigest copy = new Blake2bpDigest(digest);
+        digest.update(in, 1001, in.length - 1001);
+        copy.update(in, 1001, in.length - 1001);
+
+        byte[] hash1 = new byte[20];
+        byte[] hash2 = new byte[20];
+        digest.doFinal(hash1, 0);
+        copy.doFinal(hash2, 0);
+
+        isTrue("clone mismatch", areEqual(hash1, hash2));
+
+        copy.update(in, 0, 77);
+        copy.reset();
+        copy.update(in, 0, in.length);
+        copy.doFinal(hash2, 0);
+
+        isTrue("reset mismatch", areEqual(hash1, hash2));
+    }
+
+    private void testTreeNode()
+    {
+        byte[] abc = Strings.toByteArray("abc");
+
+        // BLAKE2b tree node with salt and personalization
+        Blake2bDigest node = new Blake2bDigest(null, 32, Hex.decode("000102030405060708090a0b0c0d0e0f"),
+            Hex.decode("101112131415161718191a1b1c1d1e1f"), 2, 3, 4096, 5, 1, 64);
+        node.setLastNode(true);
+        byte[] expected = Hex.decode("395f3468afe96f2581c02576aff393cf2cc66dabee1c9a8300fc38e9c7fca820");
+        byte[] hash = new byte[node.getDigestSize()];
+
+        node.update(abc, 0, abc.length);
+        node.doFinal(hash, 0);
+
+        if (!areEqual(expected, hash))
+        {
+            fail("tree node mismatch", Hex.toHexString(expected), Hex.toHexString(hash));
+        }
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        testVectors();
+        testKeyedVectors();
+        testRandomUpdate();
+        testParallel();
+        testCloneAndReset();
+        testTreeNode();
+    }
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        runTest(new Blake2bpDigestTest());
+    }
+}
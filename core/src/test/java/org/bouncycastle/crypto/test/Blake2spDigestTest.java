@@ -0,0 +1,234 @@
+package org.bouncycastle.crypto.test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.crypto.digests.Blake2spDigest;
+import org.bouncycastle.crypto.digests.Blake2sDigest;
+import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+public class Blake2spDigestTest
+    extends SimpleTest
+{
+    // input length (bytes 0x00, 0x01, ... 0xff, 0x00, ...), hash
+    private static final String[][] testVectors = {
+        { "0", "dd0e891776933f43c7d032b08a917e25741f8aa9a12c12e1cac8801500f2ca4f" },
+        { "1", "a6b9eecc25227ad788c99d3f236debc8da408849e9a5178978727a81457f7239" },
+        { "64", "52603b6cbfad4966cb044cb267568385cf35f21e6c45cf30aed19832cb51e9f5" },
+        { "127", "a626543c271fccc3e4450b48d66bc9cbdeb25e5d077a6213cd90cbbd0fd22076" },
+        { "128", "05cf3a90049116dc60efc31536aaa3d167762994892876dcb7ef3fbecd7449c0" },
+        { "129", "ccd61c926cc1e5e9128c021c0c6e92aefc4ffbde394dd6f3b7d87a8ced896014" },
+        { "511", "50285271956932d39b0967202b56006cbb6d738ee29e5a867edf72c8c4386f1b" },
+        { "512", "322ce06cc141a0b3d89bcdcfcb385975dbca56e5719a78c34000fcec2e15b55d" },
+        { "513", "1336628c7f1541c7815fc0ff1fb5dfb07a85cf5a17a2872a3ce4b322d4a03d0b" },
+        { "1000", "7e2830f74fc7c4d224a201b46f95e37ebbfb56dddc492f8227e4d905201734b8" },
+        { "4113", "c1e8f17f0487556380d28676b051095c924cdc7421131de099e4e27d22dc8272" },
+        { "200000", "3e99708d961df301c83cbc5830f1882699161545f16241dfad6e95f9a96ceb3c" }
+    };
+
+    // as above, keyed with the bytes 0x00, 0x01, ... up to the maximum key length
+    private static final String[][] keyedTestVectors = {
+        { "0", "715cb13895aeb678f6124160bff21465b30f4f6874193fc851b4621043f09cc6" },
+        { "1", "40578ffa52bf51ae1866f4284d3a157fc1bcd36ac13cbdcb0377e4d0cd0b6603" },
+        { "64", "1d3701a5661bd31ab20562bd07b74dd19ac8f3524b73ce7bc996b788afd2f317" },
+        { "255", "0c8a36597d7461c63a94732821c941856c668376606c86a52de0ee4104c615db" },
+        { "256", "e5f46751ed888c5fb7436c3088dea8d398066a43e521cb13133438f2c80e60e5" },
+        { "1000", "686d695f449e5156d70c54cd7c3f740c9233dca172ffcadba9488414da9c1415" }
+    };
+
+    public String getName()
+    {
+        return "BLAKE2sp";
+    }
+
+    private static byte[] input(int len)
+    {
+        byte[] in = new byte[len];
+        for (int i = 0; i != len; i++)
+        {
+            in[i] = (byte)i;
+        }
+        return in;
+    }
+
+    private void testVectors()
+    {
+        Blake2spDigest digest = new Blake2spDigest();
+        byte[] hash = new byte[32];
+
+        for (int i = 0; i != testVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(testVectors[i][0]));
+
+            digest.update(in, 0, in.length);
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2sp mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+
+            for (int j = 0; j != in.length; j++)
+            {
+                digest.update(in[j]);
+            }
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2sp byte update mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testKeyedVectors()
+    {
+        Blake2spDigest digest = new Blake2spDigest(input(32), 32);
+        byte[] hash = new byte[32];
+
+        for (int i = 0; i != keyedTestVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(keyedTestVectors[i][0]));
+
+            digest.update(in, 0, in.length);
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(keyedTestVectors[i][1]), hash))
+            {
+                fail("BLAKE2sp mismatch on keyed test vector ", keyedTestVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testRandomUpdate()
+    {
+        Blake2spDigest digest = new Blake2spDigest();
+        Random random = new Random();
+        byte[] hash = new byte[32];
+
+        for (int i = 0; i != testVectors.length; i++)
+        {
+            byte[] in = input(Integer.parseInt(testVectors[i][0]));
+
+            int pos = 0;
+            while (pos < in.length)
+            {
+                int len = Math.min(in.length - pos, random.nextInt(1500));
+                digest.update(in, pos, len);
+                pos += len;
+            }
+            digest.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[i][1]), hash))
+            {
+                fail("BLAKE2sp random update mismatch on test vector ", testVectors[i][1], Hex.toHexString(hash));
+            }
+        }
+    }
+
+    private void testParallel()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] key = input(32);
+            Blake2spDigest sequential = new Blake2spDigest(key, 32);
+            Blake2spDigest parallel = new Blake2spDigest(key, 32, executor);
+            byte[] in = input(1000003);
+
+            sequential.update(in, 0, in.length);
+            parallel.update(in, 0, 7);
+            parallel.update(in, 7, in.length - 7);
+
+            byte[] expected = new byte[32];
+            byte[] hash = new byte[32];
+            sequential.doFinal(expected, 0);
+            parallel.doFinal(hash, 0);
+
+            if (!areEqual(expected, hash))
+            {
+                fail("BLAKE2sp parallel mismatch", Hex.toHexString(expected), Hex.toHexString(hash));
+            }
+
+            parallel = new Blake2spDigest(null, 32, executor);
+            in = input(Integer.parseInt(testVectors[testVectors.length - 1][0]));
+            parallel.update(in, 0, in.length);
+            parallel.doFinal(hash, 0);
+
+            if (!areEqual(Hex.decode(testVectors[testVectors.length - 1][1]), hash))
+            {
+                fail("BLAKE2sp parallel mismatch on test vector", testVectors[testVectors.length - 1][1], Hex.toHexString(hash));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void testCloneAndReset()
+    {
+        byte[] in = input(3000);
+        Blake2spDigest digest = new Blake2spDigest(Strings.toByteArray("key"), 20);
+
+        digest.update(in, 0, 1001);
+        Blake2spDigest copy = new Blake2spDigest(digest);
+        digest.update(in, 1001, in.length - 1001);
+        copy.update(in, 1001, in.length - 1001);
+
+        byte[] hash1 = new byte[20];
+        byte[] hash2 = new byte[20];
+        digest.doFinal(hash1, 0);
+        copy.doFinal(hash2, 0);
+
+        isTrue("clone mismatch", areEqual(hash1, hash2));
+
+        copy.update(in, 0, 77);
+        copy.reset();
+        copy.update(in, 0, in.length);
+        copy.doFinal(hash2, 0);
+
+        isTrue("reset mismatch", areEqual(hash1, hash2));
+    }
+
+    private void testTreeNode()
+    {
+        byte[] abc = Strings.toByteArray("abc");
+
+        // BLAKE2s keyed tree node with a 48 bit node offset
+        Blake2sDigest node = new Blake2sDigest(Strings.toByteArray("key"), 16, null, null,
+            2, 3, 4096, (1L << 40) + 5, 1, 32);
+        node.setLastNode(true);
+        byte[] expected = Hex.decode("3c385e8b6b1d7170753e908b99c9b8cb");
+        byte[] hash = new byte[node.getDigestSize()];
+
+        node.update(abc, 0, abc.length);
+        node.doFinal(hash, 0);
+
+        if (!areEqual(expected, hash))
+        {
+            fail("tree node mismatch", Hex.toHexString(expected), Hex.toHexString(hash));
+        }
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        testVectors();
+        testKeyedVectors();
+        testRandomUpdate();
+        testParallel();
+        testCloneAndReset();
+        testTreeNode();
+    }
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        runTest(new Blake2spDigestTest());
+    }
+}
@@ -0,0 +1,225 @@
+package org.bouncycastle.crypto.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.crypto.digests.Blake2sDigest;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.util.ChannelDigester;
+import org.bouncycastle.crypto.util.DigestCheckpoint;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Checkpoint and resume tests for ChannelDigester.
+ */
+public class ChannelDigesterTest
+    extends SimpleTest
+{
+    private static final int DATA_LENGTH = 300000 + 17;
+
+    public String getName()
+    {
+        return "ChannelDigester";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        byte[] data = new byte[DATA_LENGTH];
+        new SecureRandom().nextBytes(data);
+
+        File file = File.createTempFile("bcdigest", ".bin");
+        try
+        {
+            FileOutputStream fOut = new FileOutputStream(file);
+            fOut.write(data);
+            fOut.close();
+
+            Digest[] digests = new Digest[]{
+                new SHA256Digest(),
+                new SHA512Digest(),
+                new SHA3Digest(256),
+                new SHAKEDigest(128),
+                new KeccakDigest(288),
+                new Blake2bDigest(),
+                new Blake2bDigest(new byte[32], 48, new byte[16], new byte[16]),
+                new Blake2bDigest(null, 64, null, null, 0, 2, 4096, 3L, 0, 64),
+                new Blake2sDigest(new byte[16], 20, new byte[8], new byte[8]),
+            };
+
+            for (int i = 0; i != digests.length; i++)
+            {
+                checkResume(digests[i], data, file, 1000);
+                checkResume(digests[i], data, file, 65536);
+            }
+
+            checkUncheckpointable(file);
+            checkKeccakStates();
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private void checkResume(Digest digest, byte[] data, File file, int bufferSize)
+        throws IOException
+    {
+        String label = digest.getAlgorithmName() + " buffer " + bufferSize;
+
+        digest.update(data, 0, data.length);
+        byte[] expected = new byte[digest.getDigestSize()];
+        digest.doFinal(expected, 0);
+
+        final List checkpoints = new ArrayList();
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+
+            ChannelDigester digester = new ChannelDigester(digest, 0, bufferSize);
+            digester.setCheckpointInterval(100003, new ChannelDigester.CheckpointListener()
+            {
+                public void checkpoint(DigestCheckpoint checkpoint)
+                {
+                    checkpoints.add(checkpoint.getEncoded());
+                }
+            });
+
+            // stop part way through, as if interrupted
+            digester.update(channel, 250000);
+            isTrue(label + " position", digester.getPosition() == 250000);
+            isTrue(label + " checkpoint count", checkpoints.size() == 2);
+
+            // resume from the last saved checkpoint, in a new digester
+            DigestCheckpoint last = DigestCheckpoint.getInstance((byte[])checkpoints.get(1));
+            isTrue(label + " checkpoint position", last.getPosition() == 200006);
+            isTrue(label + " checkpoint name", digest.getAlgorithmName().equals(last.getAlgorithmName()));
+
+            ChannelDigester resumed = new ChannelDigester(last);
+            resumed.update(channel);
+            isTrue(label + " resumed position", resumed.getPosition() == data.length);
+
+            byte[] result = resumed.doFinal();
+            isTrue(label + " resumed digest", Arrays.areEqual(expected, result));
+            isTrue(label + " reset", resumed.getPosition() == 0);
+
+            // and the original, continued from where it stopped
+            digester.update(channel);
+            isTrue(label + " continued digest", Arrays.areEqual(expected, digester.doFinal()));
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    private void checkUncheckpointable(File file)
+        throws IOException
+    {
+        ChannelDigester digester = new ChannelDigester(new RIPEMD160Digest());
+
+        try
+        {
+            digester.setCheckpointInterval(1024, null);
+            fail("no exception for non-encodable digest");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            DigestCheckpoint.getInstance(new byte[]{ 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+            fail("no exception for bad version");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        // hashing without checkpoints still works
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            digester.update(raf.getChannel());
+            isTrue("no checkpoint digest", digester.doFinal().length == 20);
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    // SHA-3 and SHAKE should only restore states with their own parameters
+    private void checkKeccakStates()
+    {
+        byte[] sha3State = new SHA3Digest(256).getEncodedState();
+        byte[] shakeState = new SHAKEDigest(128).getEncodedState();
+
+        isEquals("SHA3-256", new SHA3Digest(sha3State).getAlgorithmName());
+        isEquals("SHAKE128", new SHAKEDigest(shakeState).getAlgorithmName());
+
+        checkBadState(true, shakeState);
+        checkBadState(false, new SHA3Digest(224).getEncodedState());
+        checkBadState(true, new KeccakDigest(288).getEncodedState());
+        checkBadState(false, new KeccakDigest(288).getEncodedState());
+
+        // reduced rounds, as for KangarooTwelve
+        byte[] state = Arrays.clone(sha3State);
+        state[13] = 12;
+        checkBadState(true, state);
+        state = Arrays.clone(shakeState);
+        state[13] = 12;
+        checkBadState(false, state);
+
+        // output length not matching the rate
+        state = Arrays.clone(sha3State);
+        Pack.intToBigEndian(512, state, 8);
+        checkBadState(true, state);
+        state = Arrays.clone(shakeState);
+        Pack.intToBigEndian(256, state, 8);
+        checkBadState(false, state);
+    }
+
+    private void checkBadState(boolean sha3, byte[] state)
+    {
+        try
+        {
+            if (sha3)
+            {
+                new SHA3Digest(state);
+            }
+            else
+            {
+                new SHAKEDigest(state);
+            }
+            fail("foreign state accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        runTest(new ChannelDigesterTest());
+    }
+}
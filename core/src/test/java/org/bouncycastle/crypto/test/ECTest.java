@@ -22,6 +22,7 @@
 import org.bouncycastle.crypto.params.ECDHUPublicParameters;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECPrecomputedPublicKeyParameters;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.params.MQVPrivateParameters;
@@ -32,6 +33,7 @@
 import org.bouncycastle.math.ec.ECConstants;
 import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.BigIntegers;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Hex;
@@ -732,6 +734,93 @@ private void testECDSAKeyGenTest()
         }
     }
 
+    private void testGenerateKeyPairs(X9ECParameters x9)
+    {
+        SecureRandom random = new SecureRandom();
+
+        ECDomainParameters params = new ECDomainParameters(x9.getCurve(), x9.getG(), x9.getN(), x9.getH());
+
+        ECKeyPairGenerator pGen = new ECKeyPairGenerator();
+        pGen.init(new ECKeyGenerationParameters(params, random));
+
+        AsymmetricCipherKeyPair[] pairs = pGen.generateKeyPairs(10);
+        isTrue("wrong key pair count", pairs.length == 10);
+
+        for (int i = 0; i < pairs.length; ++i)
+        {
+            ECPrivateKeyParameters priv = (ECPrivateKeyParameters)pairs[i].getPrivate();
+            ECPoint Q = ((ECPublicKeyParameters)pairs[i].getPublic()).getQ();
+
+            isTrue("public point not normalized", Q.isNormalized());
+            isTrue("public point wrong", Q.equals(params.getG().multiply(priv.getD()).normalize()));
+        }
+
+        isTrue("empty batch", pGen.generateKeyPairs(0).length == 0);
+    }
+
+    private void testECDSABatchVerify(X9ECParameters x9)
+    {
+        SecureRandom random = new SecureRandom();
+
+        ECDomainParameters params = new ECDomainParameters(x9.getCurve(), x9.getG(), x9.getN(), x9.getH());
+
+        ECKeyPairGenerator pGen = new ECKeyPairGenerator();
+        pGen.init(new ECKeyGenerationParameters(params, random));
+
+        AsymmetricCipherKeyPair pair = pGen.generateKeyPair();
+
+        ECDSASigner ecdsa = new ECDSASigner();
+        ecdsa.init(true, new ParametersWithRandom(pair.getPrivate(), random));
+
+        int count = 20;
+        byte[][] messages = new byte[count][];
+        BigInteger[] r = new BigInteger[count];
+        BigInteger[] s = new BigInteger[count];
+        for (int i = 0; i < count; ++i)
+        {
+            messages[i] = new byte[32];
+            random.nextBytes(messages[i]);
+
+            BigInteger[] sig = ecdsa.generateSignature(messages[i]);
+            r[i] = sig[0];
+            s[i] = sig[1];
+        }
+
+        ECPublicKeyParameters pub = (ECPublicKeyParameters)pair.getPublic();
+        ECPrecomputedPublicKeyParameters precomputed = new ECPrecomputedPublicKeyParameters(pub);
+
+        ECDSASigner verifier = new ECDSASigner();
+        verifier.init(false, precomputed);
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("precomputed verify failed", verifier.verifySignature(messages[i], r[i], s[i]));
+        }
+
+        boolean[] results = new boolean[count];
+        isTrue("precomputed batch failed", verifier.verifySignatures(messages, r, s, results));
+
+        // corrupt a few signatures, including out of range values
+        messages[3] = Arrays.clone(messages[3]);
+        messages[3][0] ^= 1;
+        s[7] = s[7].add(ECConstants.ONE).mod(params.getN());
+        r[11] = ECConstants.ZERO;
+        s[15] = params.getN();
+
+        for (int pass = 0; pass < 2; ++pass)
+        {
+            ecdsa.init(false, pass == 0 ? (ECPublicKeyParameters)precomputed : pub);
+
+            isTrue("corrupt batch passed", !ecdsa.verifySignatures(messages, r, s, results));
+            for (int i = 0; i < count; ++i)
+            {
+                boolean expected = i != 3 && i != 7 && i != 11 && i != 15;
+
+                isTrue("wrong batch result", results[i] == expected);
+                isTrue("wrong single result", ecdsa.verifySignature(messages[i], r[i], s[i]) == expected);
+            }
+        }
+    }
+
     /**
      * Basic Key Agreement Test
      */
@@ -1113,6 +1202,12 @@ public void performTest()
         testECDSAP521sha512();
         testECDSASecP224k1sha256();
         testECDSA239bitBinaryAndLargeDigest();
+        testECDSABatchVerify(CustomNamedCurves.getByName("secp256r1"));
+        testECDSABatchVerify(CustomNamedCurves.getByName("secp256k1"));
+        testECDSABatchVerify(ECNamedCurveTable.getByName("B-283"));
+
+        testGenerateKeyPairs(CustomNamedCurves.getByName("secp256r1"));
+        testGenerateKeyPairs(ECNamedCurveTable.getByName("B-283"));
 
         testECDSAP256sha3(224, new BigInteger("84d7d8e68e405064109cd9fc3e3026d74d278aada14ce6b7a9dd0380c154dc94", 16));
         testECDSAP256sha3(256, new BigInteger("99a43bdab4af989aaf2899079375642f2bae2dce05bcd8b72ec8c4a8d9a143f", 16));
@@ -43,6 +43,25 @@ public void performTest() throws Exception
         }
 
         basicSigTest();
+        testGenerateKeyPairs();
+    }
+
+    private void testGenerateKeyPairs()
+    {
+        Ed25519KeyPairGenerator kpg = new Ed25519KeyPairGenerator();
+        kpg.init(new Ed25519KeyGenerationParameters(RANDOM));
+
+        AsymmetricCipherKeyPair[] pairs = kpg.generateKeyPairs(10);
+        isTrue(pairs.length == 10);
+
+        for (int i = 0; i < pairs.length; ++i)
+        {
+            Ed25519PrivateKeyParameters privateKey = (Ed25519PrivateKeyParameters)pairs[i].getPrivate();
+            Ed25519PublicKeyParameters publicKey = (Ed25519PublicKeyParameters)pairs[i].getPublic();
+
+            isTrue("Ed25519 batch public key", Arrays.areEqual(privateKey.generatePublicKey().getEncoded(),
+                publicKey.getEncoded()));
+        }
     }
 
     private void basicSigTest()
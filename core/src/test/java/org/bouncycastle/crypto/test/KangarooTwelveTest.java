@@ -0,0 +1,152 @@
+package org.bouncycastle.crypto.test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.crypto.digests.KangarooTwelveDigest;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * KangarooTwelve test vectors from:
+ *
+ * https://keccak.team/kangarootwelve.html - draft-irtf-cfrg-kangarootwelve
+ */
+public class KangarooTwelveTest
+    extends SimpleTest
+{
+    // message length (ptn(n) = 0x00, 0x01, ... 0xFA, 0x00, ...), 32 byte output
+    private static final String[][] vectors = {
+        { "0", "1ac2d450fc3b4205d19da7bfca1b37513c0803577ac7167f06fe2ce1f0ef39e5" },
+        { "17", "6bf75fa2239198db4772e36478f8e19b0f371205f6a9a93a273f51df37122888" },
+        { "289", "0c315ebcdedbf61426de7dcf8fb725d1e74675d7f5327a5067f367b108ecb67c" },
+        { "4913", "cb552e2ec77d9910701d578b457ddf772c12e322e4ee7fe417f92c758f0d59d0" },
+        { "83521", "8701045e22205345ff4dda05555cbb5c3af1a771c2b89baef37db43d9998b9fe" },
+        { "1419857", "844d610933b1b9963cbdeb5ae3b6b05cc7cbd67ceedf883eb678a0a8e0371682" },
+    };
+
+    public String getName()
+    {
+        return "KangarooTwelve";
+    }
+
+    private static byte[] ptn(int len)
+    {
+        byte[] in = new byte[len];
+        for (int i = 0; i != len; i++)
+        {
+            in[i] = (byte)(i % 251);
+        }
+        return in;
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        KangarooTwelveDigest k12 = new KangarooTwelveDigest();
+        byte[] res = new byte[32];
+
+        for (int i = 0; i != vectors.length; i++)
+        {
+            byte[] msg = ptn(Integer.parseInt(vectors[i][0]));
+
+            k12.update(msg, 0, msg.length);
+            k12.doFinal(res, 0);
+
+            isTrue("vector " + i + " failed", Arrays.areEqual(Hex.decode(vectors[i][1]), res));
+        }
+
+        res = new byte[64];
+        k12.doFinal(res, 0, res.length);
+
+        isTrue("long output failed", Arrays.areEqual(Hex.decode(
+            "1ac2d450fc3b4205d19da7bfca1b37513c0803577ac7167f06fe2ce1f0ef39e5"
+          + "4269c056b8c82e48276038b6d292966cc07a3d4645272e31ff38508139eb0a71"), res));
+
+        testUpdates();
+        testParallel();
+    }
+
+    private void testUpdates()
+    {
+        Random random = new Random();
+        byte[] c = Strings.toByteArray("customization");
+        byte[] msg = ptn(3 * 8192 + 5);
+
+        for (int j = 0; j != 5; j++)
+        {
+            KangarooTwelveDigest k12 = new KangarooTwelveDigest(c);
+            KangarooTwelveDigest random12 = new KangarooTwelveDigest(c);
+
+            k12.update(msg, 0, msg.length);
+
+            int pos = 0;
+            while (pos < msg.length)
+            {
+                int len = Math.min(msg.length - pos, random.nextInt(10000));
+                if (len == 1)
+                {
+                    random12.update(msg[pos]);
+                }
+                else
+                {
+                    random12.update(msg, pos, len);
+                }
+                pos += len;
+            }
+
+            byte[] res1 = new byte[100];
+            byte[] res2 = new byte[100];
+
+            k12.doOutput(res1, 0, 30);
+            k12.doOutput(res1, 30, 70);
+            random12.doFinal(res2, 0, 100);
+
+            isTrue("update mismatch", Arrays.areEqual(res1, res2));
+        }
+    }
+
+    private void testParallel()
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] msg = ptn(Integer.parseInt(vectors[vectors.length - 1][0]));
+            KangarooTwelveDigest k12 = new KangarooTwelveDigest(null, 32, executor);
+            byte[] res = new byte[32];
+
+            k12.update(msg, 0, 10000);
+            k12.update(msg, 10000, msg.length - 10000);
+            k12.doFinal(res, 0);
+
+            isTrue("parallel vector failed", Arrays.areEqual(Hex.decode(vectors[vectors.length - 1][1]), res));
+
+            // exactly on a chunk boundary
+            msg = ptn(8192 * 17);
+            KangarooTwelveDigest sequential = new KangarooTwelveDigest();
+            byte[] expected = new byte[32];
+
+            sequential.update(msg, 0, msg.length);
+            sequential.doFinal(expected, 0);
+
+            k12.update(msg, 0, 8192);
+            k12.update(msg, 8192, msg.length - 8192);
+            k12.doFinal(res, 0);
+
+            isTrue("parallel chunk boundary failed", Arrays.areEqual(expected, res));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new KangarooTwelveTest());
+    }
+}
@@ -0,0 +1,120 @@
+package org.bouncycastle.crypto.test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.crypto.digests.ParallelHash;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * ParallelHash test vectors from:
+ *
+ * https://csrc.nist.gov/CSRC/media/Projects/Cryptographic-Standards-and-Guidelines/documents/examples/ParallelHash_samples.pdf
+ */
+public class ParallelHashTest
+    extends SimpleTest
+{
+    public String getName()
+    {
+        return "ParallelHash";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        byte[] data = Hex.decode("000102030405060710111213141516172021222324252627");
+
+        ParallelHash pHash = new ParallelHash(128, new byte[0], 8);
+
+        pHash.update(data, 0, data.length);
+
+        byte[] res = new byte[pHash.getDigestSize()];
+
+        pHash.doFinal(res, 0);
+
+        isTrue("oops!", Arrays.areEqual(Hex.decode("BA8DC1D1D979331D3F813603C67F72609AB5E44B94A0B8F9AF46514454A2B4F5"), res));
+
+        pHash = new ParallelHash(128, Strings.toByteArray("Parallel Data"), 8);
+
+        pHash.update(data, 0, data.length);
+
+        res = new byte[pHash.getDigestSize()];
+
+        pHash.doFinal(res, 0);
+
+        isTrue("oops!", Arrays.areEqual(Hex.decode("FC484DCB3F84DCEEDC353438151BEE58157D6EFED0445A81F165E495795B7206"), res));
+
+        pHash = new ParallelHash(256, new byte[0], 8);
+
+        pHash.update(data, 0, data.length);
+
+        res = new byte[pHash.getDigestSize()];
+
+        pHash.doFinal(res, 0);
+
+        isTrue("oops!", Arrays.areEqual(Hex.decode("BC1EF124DA34495E948EAD207DD9842235DA432D2BBC54B4C110E64C451105531B7F2A3E0CE055C02805E7C2DE1FB746AF97A1DD01F43B824E31B87612410429"), res));
+
+        pHash = new ParallelHash(256, Strings.toByteArray("Parallel Data"), 8);
+
+        pHash.update(data, 0, data.length);
+
+        res = new byte[pHash.getDigestSize()];
+
+        pHash.doFinal(res, 0);
+
+        isTrue("oops!", Arrays.areEqual(Hex.decode("CDF15289B54F6212B4BC270528B49526006DD9B54E2B6ADD1EF6900DDA3963BB33A72491F236969CA8AFAEA29C682D47A393C065B38E29FAE651A2091C833110"), res));
+
+        pHash = new ParallelHash(128, new byte[0], 8);
+
+        pHash.update(data, 0, data.length);
+
+        res = new byte[32];
+
+        pHash.doOutput(res, 0, res.length);
+
+        isTrue("oops!", Arrays.areEqual(Hex.decode("FE47D661E49FFE5B7D999922C062356750CAF552985B8E8CE6667F2727C3C8D3"), res));
+
+        testParallel();
+    }
+
+    private void testParallel()
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] data = new byte[1000000];
+            for (int i = 0; i != data.length; i++)
+            {
+                data[i] = (byte)i;
+            }
+
+            ParallelHash sequential = new ParallelHash(256, Strings.toByteArray("Parallel Data"), 1024);
+            ParallelHash parallel = new ParallelHash(256, Strings.toByteArray("Parallel Data"), 1024, 512, executor);
+
+            sequential.update(data, 0, data.length);
+            parallel.update(data, 0, 11);
+            parallel.update(data, 11, data.length - 11);
+
+            byte[] expected = new byte[64];
+            byte[] res = new byte[64];
+
+            sequential.doFinal(expected, 0);
+            parallel.doFinal(res, 0);
+
+            isTrue("parallel mismatch", Arrays.areEqual(expected, res));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ParallelHashTest());
+    }
+}
@@ -6,10 +6,14 @@
 import org.bouncycastle.crypto.encodings.OAEPEncoding;
 import org.bouncycastle.crypto.encodings.PKCS1Encoding;
 import org.bouncycastle.crypto.engines.RSABlindedEngine;
+import org.bouncycastle.crypto.engines.RSAEngine;
 import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
 import org.bouncycastle.crypto.params.RSAKeyParameters;
 import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.BigIntegers;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
 
@@ -156,6 +160,30 @@ private void checkForPKCS1Exception(RSAKeyParameters pubParameters, RSAKeyParame
         }
     }
 
+    private void testBlindingFactorReuse(RSAKeyParameters pubParameters, RSAKeyParameters privParameters)
+    {
+        SecureRandom random = new SecureRandom();
+        RSAEngine ref = new RSAEngine();
+        ref.init(false, privParameters);
+
+        // two engines sharing the key's blinding factors, over several refreshes
+        RSABlindedEngine[] engines = new RSABlindedEngine[]{ new RSABlindedEngine(), new RSABlindedEngine() };
+        engines[0].init(false, privParameters);
+        engines[1].init(false, new ParametersWithRandom(privParameters, random));
+
+        BigInteger n = pubParameters.getModulus();
+        for (int i = 0; i < 100; ++i)
+        {
+            byte[] in = BigIntegers.asUnsignedByteArray(new BigInteger(n.bitLength() - 1, random));
+            byte[] expected = ref.processBlock(in, 0, in.length);
+
+            if (!Arrays.areEqual(expected, engines[i & 1].processBlock(in, 0, in.length)))
+            {
+                fail("blinding factor reuse failed at " + i);
+            }
+        }
+    }
+
     private void testOAEP(RSAKeyParameters pubParameters, RSAKeyParameters privParameters)
     {
         //
@@ -416,6 +444,7 @@ public void performTest()
         testMissingDataPKCS1Block(pubParameters, privParameters);
         testTruncatedPKCS1Block(pubParameters, privParameters);
         testWrongPaddingPKCS1Block(pubParameters, privParameters);
+        testBlindingFactorReuse(pubParameters, privParameters);
 
         try
         {
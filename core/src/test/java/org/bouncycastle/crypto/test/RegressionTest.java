@@ -149,6 +149,9 @@
             new Blake2bDigestTest(),
             new Blake2sDigestTest(),
             new Blake2xsDigestTest(),
+            new Blake2bpDigestTest(),
+            new Blake2spDigestTest(),
+            new ChannelDigesterTest(),
             new KeccakDigestTest(),
             new SHAKEDigestTest(),
             new SM2EngineTest(),
@@ -166,6 +169,8 @@
             new Ed25519Test(),
             new Ed448Test(),
             new CSHAKETest(),
+            new ParallelHashTest(),
+            new KangarooTwelveTest(),
             new Argon2Test(),
             new OpenSSHKeyParsingTests(),
             new EthereumIESTest(),
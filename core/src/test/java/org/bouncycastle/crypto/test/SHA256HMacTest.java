@@ -94,6 +94,43 @@ public TestResult perform()
                     "Reset with vector " + vector + " failed");
         }
 
+        //
+        // test shared key state
+        //
+        for (int i = 0; i < messages.length; i++)
+        {
+            byte[] msg = messages[i].getBytes();
+            if (messages[i].startsWith("0x"))
+            {
+                msg = Hex.decode(messages[i].substring(2));
+            }
+            hmac.init(new KeyParameter(Hex.decode(keys[i])));
+
+            HMac other = new HMac(new SHA256Digest());
+            other.init(hmac.getKeyState());
+
+            for (int j = 0; j != 2; j++)
+            {
+                other.update(msg, 0, msg.length);
+                other.doFinal(resBuf, 0);
+
+                if (!Arrays.areEqual(resBuf, Hex.decode(digests[i])))
+                {
+                    return new SimpleTestResult(false, getName() + ": key state vector " + i + " failed");
+                }
+            }
+
+            other.update(msg, 0, msg.length);
+            other.reset();
+            other.update(msg, 0, msg.length);
+            other.doFinal(resBuf, 0);
+
+            if (!Arrays.areEqual(resBuf, Hex.decode(digests[i])))
+            {
+                return new SimpleTestResult(false, getName() + ": key state reset vector " + i + " failed");
+            }
+        }
+
         return new SimpleTestResult(true, getName() + ": Okay");
     }
 
@@ -4,6 +4,7 @@
 
 import junit.framework.TestCase;
 import org.bouncycastle.math.ec.rfc7748.X25519;
+import org.bouncycastle.math.ec.rfc7748.X25519KeyPool;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 
@@ -65,6 +66,59 @@ public void testECDH()
         }
     }
 
+//    @Test
+    public void testGeneratePublicKeys()
+    {
+        int count = 17;
+        byte[] k = new byte[count * X25519.SCALAR_SIZE];
+        byte[] r = new byte[count * X25519.POINT_SIZE];
+        byte[] q = new byte[X25519.POINT_SIZE];
+
+        RANDOM.nextBytes(k);
+        X25519.generatePublicKeys(k, 0, r, 0, count);
+
+        for (int i = 0; i < count; ++i)
+        {
+            X25519.scalarMultBase(k, i * X25519.SCALAR_SIZE, q, 0);
+            assertTrue("Batch #" + i, Arrays.areEqual(q, Arrays.copyOfRange(r, i * X25519.POINT_SIZE, (i + 1) * X25519.POINT_SIZE)));
+        }
+    }
+
+//    @Test
+    public void testKeyPool()
+        throws Exception
+    {
+        X25519KeyPool pool = new X25519KeyPool(RANDOM, 40);
+        byte[] k = new byte[X25519.SCALAR_SIZE];
+        byte[] r = new byte[X25519.POINT_SIZE];
+        byte[] q = new byte[X25519.POINT_SIZE];
+
+        for (int i = 1; i <= 50; ++i)
+        {
+            pool.take(k, 0, r, 0);
+            X25519.scalarMultBase(k, 0, q, 0);
+            assertTrue("Pool #" + i, Arrays.areEqual(q, r));
+
+            if (i == 10)
+            {
+                pool.start();
+            }
+        }
+
+        pool.close();
+        assertEquals(0, pool.getAvailable());
+
+        try
+        {
+            pool.take(k, 0, r, 0);
+            fail("no exception for closed pool");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
 //    @Test
     public void testECDHVector1()
     {
@@ -5,6 +5,7 @@
 import junit.framework.TestCase;
 
 import org.bouncycastle.math.ec.rfc7748.X448;
+import org.bouncycastle.math.ec.rfc7748.X448KeyPool;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 
@@ -66,6 +67,59 @@ public void testECDH()
         }
     }
 
+//    @Test
+    public void testGeneratePublicKeys()
+    {
+        int count = 17;
+        byte[] k = new byte[count * X448.SCALAR_SIZE];
+        byte[] r = new byte[count * X448.POINT_SIZE];
+        byte[] q = new byte[X448.POINT_SIZE];
+
+        RANDOM.nextBytes(k);
+        X448.generatePublicKeys(k, 0, r, 0, count);
+
+        for (int i = 0; i < count; ++i)
+        {
+            X448.scalarMultBase(k, i * X448.SCALAR_SIZE, q, 0);
+            assertTrue("Batch #" + i, Arrays.areEqual(q, Arrays.copyOfRange(r, i * X448.POINT_SIZE, (i + 1) * X448.POINT_SIZE)));
+        }
+    }
+
+//    @Test
+    public void testKeyPool()
+        throws Exception
+    {
+        X448KeyPool pool = new X448KeyPool(RANDOM, 40);
+        byte[] k = new byte[X448.SCALAR_SIZE];
+        byte[] r = new byte[X448.POINT_SIZE];
+        byte[] q = new byte[X448.POINT_SIZE];
+
+        for (int i = 1; i <= 50; ++i)
+        {
+            pool.take(k, 0, r, 0);
+            X448.scalarMultBase(k, 0, q, 0);
+            assertTrue("Pool #" + i, Arrays.areEqual(q, r));
+
+            if (i == 10)
+            {
+                pool.start();
+            }
+        }
+
+        pool.close();
+        assertEquals(0, pool.getAvailable());
+
+        try
+        {
+            pool.take(k, 0, r, 0);
+            fail("no exception for closed pool");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
 //    @Test
     public void testECDHVector1()
     {
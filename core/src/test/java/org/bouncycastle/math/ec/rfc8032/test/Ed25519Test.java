@@ -1,11 +1,13 @@
 package org.bouncycastle.math.ec.rfc8032.test;
 
+import java.math.BigInteger;
 import java.security.SecureRandom;
 
 import junit.framework.TestCase;
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.math.ec.rfc8032.Ed25519;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.BigIntegers;
 import org.bouncycastle.util.encoders.Hex;
 
 public class Ed25519Test
@@ -20,6 +22,36 @@ public void setUp()
         Ed25519.precompute();
     }
 
+//    @Test
+    public void testEd25519PrecomputationEncoding()
+    {
+        byte[] encoding = Ed25519.getPrecomputationEncoding();
+
+        // already precomputed, so this only checks the encoding
+        Ed25519.precompute(encoding);
+
+        encoding[3] ^= 1;
+        try
+        {
+            Ed25519.precompute(encoding);
+            fail("no exception for corrupted base point");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            Ed25519.precompute(Arrays.copyOfRange(encoding, 0, encoding.length - 4));
+            fail("no exception for truncated encoding");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
 //    @Test
     public void testEd25519Consistency()
     {
@@ -53,7 +85,112 @@ public void testEd25519Consistency()
             assertFalse("Ed25519 consistent verification failure #" + i, shouldNotVerify);
         }
     }
-    
+
+//    @Test
+    public void testEd25519BatchVerify()
+    {
+        int[] sizes = new int[]{ 0, 1, 2, 7, 32 };
+
+        for (int n = 0; n < sizes.length; ++n)
+        {
+            int count = sizes[n];
+
+            byte[][] sigs = new byte[count][];
+            byte[][] pks = new byte[count][];
+            byte[][] ms = new byte[count][];
+
+            for (int i = 0; i < count; ++i)
+            {
+                byte[] sk = new byte[Ed25519.SECRET_KEY_SIZE];
+                RANDOM.nextBytes(sk);
+
+                pks[i] = new byte[Ed25519.PUBLIC_KEY_SIZE];
+                Ed25519.generatePublicKey(sk, 0, pks[i], 0);
+
+                ms[i] = new byte[RANDOM.nextInt() & 255];
+                RANDOM.nextBytes(ms[i]);
+
+                sigs[i] = new byte[Ed25519.SIGNATURE_SIZE];
+                Ed25519.sign(sk, 0, ms[i], 0, ms[i].length, sigs[i], 0);
+            }
+
+            boolean[] results = new boolean[count];
+            assertTrue("Ed25519 batch verify #" + count, Ed25519.verifyBatch(sigs, pks, ms, RANDOM, results));
+            for (int i = 0; i < count; ++i)
+            {
+                assertTrue("Ed25519 batch result #" + count + "/" + i, results[i]);
+            }
+
+            if (count == 0)
+            {
+                continue;
+            }
+
+            // corrupt one signature, the batch fails and the individual results identify it
+            int bad = RANDOM.nextInt(count);
+            sigs[bad][Ed25519.SIGNATURE_SIZE - 4] ^= 0x01;
+
+            assertFalse("Ed25519 batch verify failure #" + count, Ed25519.verifyBatch(sigs, pks, ms, RANDOM, results));
+            for (int i = 0; i < count; ++i)
+            {
+                assertEquals("Ed25519 batch failure result #" + count + "/" + i, i != bad, results[i]);
+            }
+
+            // a signature for a different message
+            sigs[bad][Ed25519.SIGNATURE_SIZE - 4] ^= 0x01;
+            ms[bad] = Arrays.append(ms[bad], (byte)0);
+
+            assertFalse("Ed25519 batch wrong message #" + count, Ed25519.verifyBatch(sigs, pks, ms, RANDOM, null));
+        }
+    }
+
+//    @Test
+    public void testEd25519BatchVerifySmallOrder()
+    {
+        byte[] sk = new byte[Ed25519.SECRET_KEY_SIZE];
+        RANDOM.nextBytes(sk);
+
+        byte[] pk = new byte[Ed25519.PUBLIC_KEY_SIZE];
+        Ed25519.generatePublicKey(sk, 0, pk, 0);
+
+        byte[] m = new byte[32];
+        RANDOM.nextBytes(m);
+
+        byte[] sig = new byte[Ed25519.SIGNATURE_SIZE];
+        Ed25519.sign(sk, 0, m, 0, m.length, sig, 0);
+
+        // the secret scalar, so that R = [s]B is the honest public key
+        BigInteger L = BigInteger.ONE.shiftLeft(252).add(new BigInteger("27742317777372353535851937790883648493"));
+        Digest d = Ed25519.createPrehash();
+        byte[] h = new byte[d.getDigestSize()];
+        d.update(sk, 0, sk.length);
+        d.doFinal(h, 0);
+        h[0] &= 0xF8;
+        h[31] &= 0x7F;
+        h[31] |= 0x40;
+        byte[] s = BigIntegers.asUnsignedByteArray(32,
+            new BigInteger(1, Arrays.reverse(Arrays.copyOfRange(h, 0, 32))).mod(L));
+        byte[] sigS = Arrays.concatenate(pk, Arrays.reverse(s));
+
+        // with the neutral element as public key the signature is valid, even individually
+        byte[] neutral = Hex.decode("0100000000000000000000000000000000000000000000000000000000000000");
+        assertTrue(Ed25519.verify(sigS, 0, neutral, 0, m, 0, m.length));
+        assertTrue(Ed25519.verifyBatch(new byte[][]{ sig, sigS }, new byte[][]{ pk, neutral }, new byte[][]{ m, m },
+            RANDOM, null));
+
+        // with a point of order 8 only the cofactored equation holds, unless 8 divides the challenge
+        byte[] order8 = Hex.decode("c7176a703d4dd84fba3c0b760d10670f2a2053fa2c39ccc64ec7fd7792ac037a");
+        while (Ed25519.verify(sigS, 0, order8, 0, m, 0, m.length))
+        {
+            RANDOM.nextBytes(m);
+        }
+
+        boolean[] results = new boolean[1];
+        assertFalse(Ed25519.verifyBatch(new byte[][]{ sigS }, new byte[][]{ order8 }, new byte[][]{ m }, RANDOM,
+            results));
+        assertFalse(results[0]);
+    }
+
 //    @Test
     public void testEd25519ctxConsistency()
     {
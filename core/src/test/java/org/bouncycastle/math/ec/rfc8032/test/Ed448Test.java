@@ -20,6 +20,36 @@ public void setUp()
         Ed448.precompute();
     }
 
+//    @Test
+    public void testEd448PrecomputationEncoding()
+    {
+        byte[] encoding = Ed448.getPrecomputationEncoding();
+
+        // already precomputed, so this only checks the encoding
+        Ed448.precompute(encoding);
+
+        encoding[3] ^= 1;
+        try
+        {
+            Ed448.precompute(encoding);
+            fail("no exception for corrupted base point");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            Ed448.precompute(Arrays.copyOfRange(encoding, 0, encoding.length - 4));
+            fail("no exception for truncated encoding");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
 //    @Test
     public void testEd448Consistency()
     {
@@ -14,6 +14,7 @@
 import org.bouncycastle.math.ec.ECAlgorithms;
 import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointUtil;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -43,6 +44,19 @@ public void testSumOfMultipliesComplete()
         }
     }
 
+    public void testSumOfMultipliesLarge()
+    {
+        String[] names = new String[]{ "secp256r1", "secp256k1", "curve25519", "sect233r1" };
+        for (int i = 0; i < names.length; ++i)
+        {
+            X9ECParameters x9 = CustomNamedCurves.getByName(names[i]);
+            assertNotNull(x9);
+            doTestSumOfMultipliesLarge(x9);
+        }
+
+        doTestSumOfMultipliesLarge(ECNamedCurveTable.getByName("secp256r1"));
+    }
+
     public void testSumOfTwoMultiplies()
     {
         X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
@@ -86,6 +100,40 @@ private void doTestSumOfMultiplies(X9ECParameters x9)
         }
     }
 
+    private void doTestSumOfMultipliesLarge(X9ECParameters x9)
+    {
+        int count = 260;
+
+        ECPoint[] points = new ECPoint[count];
+        BigInteger[] scalars = new BigInteger[count];
+        ECPoint u = x9.getCurve().getInfinity();
+        for (int i = 0; i < count; ++i)
+        {
+            points[i] = getRandomPoint(x9);
+            switch (i % 10)
+            {
+            case 0:
+                scalars[i] = BigInteger.valueOf(0);
+                break;
+            case 1:
+                scalars[i] = getRandomScalar(x9).negate();
+                break;
+            default:
+                scalars[i] = getRandomScalar(x9);
+                break;
+            }
+
+            u = u.add(points[i].multiply(scalars[i]));
+        }
+
+        ECPoint v = ECAlgorithms.sumOfMultiplies(points, scalars);
+
+        ECPoint[] results = new ECPoint[]{ u, v };
+        x9.getCurve().normalizeAll(results);
+
+        assertPointsEqual("ECAlgorithms.sumOfMultiplies is incorrect for many points", results[0], results[1]);
+    }
+
     private void doTestSumOfTwoMultiplies(X9ECParameters x9)
     {
         ECPoint p = getRandomPoint(x9);
@@ -99,12 +147,18 @@ private void doTestSumOfTwoMultiplies(X9ECParameters x9)
             ECPoint u = p.multiply(a).add(q.multiply(b));
             ECPoint v = ECAlgorithms.shamirsTrick(p, a, q, b);
             ECPoint w = ECAlgorithms.sumOfTwoMultiplies(p, a, q, b);
+            ECPoint x = ECAlgorithms.sumOfTwoFixedPointMultiplies(p, a, q, b);
+            ECPoint y = ECAlgorithms.sumOfTwoFixedPointMultiplies(p, a, FixedPointUtil.precompute(p), q, b,
+                FixedPointUtil.precompute(q));
 
-            ECPoint[] results = new ECPoint[]{ u, v, w };
+            ECPoint[] results = new ECPoint[]{ u, v, w, x, y };
             x9.getCurve().normalizeAll(results);
 
             assertPointsEqual("ECAlgorithms.shamirsTrick is incorrect", results[0], results[1]);
             assertPointsEqual("ECAlgorithms.sumOfTwoMultiplies is incorrect", results[0], results[2]);
+            assertPointsEqual("ECAlgorithms.sumOfTwoFixedPointMultiplies is incorrect", results[0], results[3]);
+            assertPointsEqual("ECAlgorithms.sumOfTwoFixedPointMultiplies with tables is incorrect", results[0],
+                results[4]);
 
             p = q;
             a = b;
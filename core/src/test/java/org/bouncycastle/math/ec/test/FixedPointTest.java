@@ -1,5 +1,8 @@
 package org.bouncycastle.math.ec.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -12,9 +15,14 @@
 import org.bouncycastle.asn1.x9.ECNamedCurveTable;
 import org.bouncycastle.asn1.x9.X9ECParameters;
 import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.ec.FixedBaseTables;
 import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
 import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.bouncycastle.math.ec.FixedPointUtil;
+import org.bouncycastle.math.ec.PreCompCallback;
+import org.bouncycastle.math.ec.PreCompInfo;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -64,6 +72,193 @@ public void testFixedPointMultiplier()
         }
     }
 
+    public void testFixedPointMultiplierConcurrent()
+        throws Exception
+    {
+        final X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
+
+        // a fresh point, so the threads race to build its precomputation
+        final ECPoint p = x9.getG().multiply(new BigInteger(x9.getN().bitLength() - 1, RANDOM)).normalize();
+        final FixedPointCombMultiplier M = new FixedPointCombMultiplier();
+        final List failures = new ArrayList();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t] = new Thread()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < TESTS_PER_CURVE; ++i)
+                    {
+                        BigInteger k = new BigInteger(x9.getN().bitLength() - 1, RANDOM);
+                        ECPoint pRef = ECAlgorithms.referenceMultiply(p, k).normalize();
+
+                        if (!pRef.equals(M.multiply(p, k)) || !pRef.equals(p.multiply(k)))
+                        {
+                            synchronized (failures)
+                            {
+                                failures.add(k);
+                            }
+                        }
+                    }
+                }
+            };
+        }
+
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].join();
+        }
+
+        assertTrue("Concurrent fixed-point failure", failures.isEmpty());
+
+        PreCompInfo info = p.getCurve().getPreCompInfo(p, FixedPointUtil.PRECOMP_NAME);
+        assertNotNull("Fixed-point precomputation not saved", FixedPointUtil.getFixedPointPreCompInfo(info));
+    }
+
+    public void testPrecomputeCallbacksSerialized()
+        throws Exception
+    {
+        final X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
+        final ECPoint p = x9.getG().multiply(BigInteger.valueOf(7)).normalize();
+        final ECCurve c = p.getCurve();
+        final int[] active = new int[1];
+        final List failures = new ArrayList();
+
+        // each callback updates the existing precomputation in place, as the WNaf promotion countdown does
+        final PreCompCallback callback = new PreCompCallback()
+        {
+            public PreCompInfo precompute(PreCompInfo existing)
+            {
+                synchronized (active)
+                {
+                    if (++active[0] != 1)
+                    {
+                        failures.add(existing);
+                    }
+                }
+
+                CountingPreCompInfo result = (existing instanceof CountingPreCompInfo) ? (CountingPreCompInfo)existing : new CountingPreCompInfo();
+                result.count++;
+                Thread.yield();
+
+                synchronized (active)
+                {
+                    --active[0];
+                }
+                return result;
+            }
+        };
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t] = new Thread()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        c.precompute(p, "test", callback);
+                    }
+                }
+            };
+        }
+
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; ++t)
+        {
+            threads[t].join();
+        }
+
+        assertTrue("Precompute callbacks run concurrently", failures.isEmpty());
+        assertEquals(threads.length * 1000, ((CountingPreCompInfo)c.getPreCompInfo(p, "test")).count);
+    }
+
+    private static class CountingPreCompInfo
+        implements PreCompInfo
+    {
+        int count;
+    }
+
+    public void testPrecomputationEncoding()
+    {
+        final FixedPointCombMultiplier M = new FixedPointCombMultiplier();
+
+        String[] names = new String[]{ "secp256r1", "secp256k1", "sect233r1", "curve25519" };
+        for (int n = 0; n < names.length; ++n)
+        {
+            X9ECParameters x9 = CustomNamedCurves.getByName(names[n]);
+            byte[] encoding = FixedPointUtil.getPrecomputationEncoding(x9.getG());
+
+            // a copy of the base point, without any precomputation
+            ECPoint g = x9.getCurve().decodePoint(x9.getG().getEncoded(false));
+            assertNull(FixedPointUtil.getFixedPointPreCompInfo(
+                g.getCurve().getPreCompInfo(g, FixedPointUtil.PRECOMP_NAME)));
+
+            FixedPointUtil.precompute(g, encoding);
+
+            for (int i = 0; i < TESTS_PER_CURVE; ++i)
+            {
+                BigInteger k = new BigInteger(x9.getN().bitLength(), RANDOM);
+                ECPoint pRef = ECAlgorithms.referenceMultiply(x9.getG(), k);
+
+                assertPointsEqual("Loaded fixed-point failure", pRef, M.multiply(g, k));
+            }
+
+            try
+            {
+                FixedPointUtil.precompute(x9.getG().twice().normalize(), encoding);
+                fail("no exception for wrong point");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // expected
+            }
+
+            encoding[encoding.length - 1] ^= 1;
+            try
+            {
+                FixedPointUtil.precompute(x9.getCurve().decodePoint(x9.getG().getEncoded(false)), encoding);
+                fail("no exception for corrupted table");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    public void testFixedBaseTables()
+        throws Exception
+    {
+        String[] names = new String[]{ "secp256r1", "sect233r1", FixedBaseTables.ED25519, FixedBaseTables.ED448 };
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        FixedBaseTables.write(bOut, names);
+
+        byte[] tables = bOut.toByteArray();
+        assertEquals(names.length, FixedBaseTables.load(new ByteArrayInputStream(tables)));
+
+        try
+        {
+            FixedBaseTables.load(new ByteArrayInputStream(new byte[12]));
+            fail("no exception for bad stream");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
     private List enumToList(Enumeration en)
     {
         List rv = new ArrayList();
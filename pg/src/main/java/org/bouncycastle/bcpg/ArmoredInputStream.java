@@ -58,7 +58,7 @@ private int decode(
         int      in1,
         int      in2,
         int      in3,
-        int[]    out)
+        byte[]   out)
         throws IOException
     {
         int    b1, b2, b3, b4;
@@ -78,7 +78,7 @@ private int decode(
                 throw new IOException("invalid armor");
             }
 
-            out[2] = ((b1 << 2) | (b2 >> 4)) & 0xff;
+            out[2] = (byte)((b1 << 2) | (b2 >> 4));
 
             return 2;
         }
@@ -93,8 +93,8 @@ else if (in3 == '=')
                 throw new IOException("invalid armor");
             }
 
-            out[1] = ((b1 << 2) | (b2 >> 4)) & 0xff;
-            out[2] = ((b2 << 4) | (b3 >> 2)) & 0xff;
+            out[1] = (byte)((b1 << 2) | (b2 >> 4));
+            out[2] = (byte)((b2 << 4) | (b3 >> 2));
 
             return 1;
         }
@@ -110,9 +110,9 @@ else if (in3 == '=')
                 throw new IOException("invalid armor");
             }
 
-            out[0] = ((b1 << 2) | (b2 >> 4)) & 0xff;
-            out[1] = ((b2 << 4) | (b3 >> 2)) & 0xff;
-            out[2] = ((b3 << 6) | b4) & 0xff;
+            out[0] = (byte)((b1 << 2) | (b2 >> 4));
+            out[1] = (byte)((b2 << 4) | (b3 >> 2));
+            out[2] = (byte)((b3 << 6) | b4);
 
             return 0;
         }
@@ -120,7 +120,7 @@ else if (in3 == '=')
 
     InputStream    in;
     boolean        start = true;
-    int[]          outBuf = new int[3];
+    byte[]         outBuf = new byte[3];
     int            bufPtr = 3;
     CRC24          crc = new CRC24();
     boolean        crcFound = false;
@@ -462,6 +462,7 @@ else if (c == '-')        // end of record reached
                 else                   // data
                 {
                     bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+                    crc.update(outBuf, bufPtr, 3 - bufPtr);
                 }
             }
             else
@@ -469,6 +470,7 @@ else if (c == '-')        // end of record reached
                 if (c >= 0)
                 {
                     bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+                    crc.update(outBuf, bufPtr, 3 - bufPtr);
                 }
                 else
                 {
@@ -478,11 +480,40 @@ else if (c == '-')        // end of record reached
             }
         }
 
-        c = outBuf[bufPtr++];
+        return outBuf[bufPtr++] & 0xff;
+    }
 
-        crc.update(c);
+    public int read(
+        byte[] b,
+        int    off,
+        int    len)
+        throws IOException
+    {
+        int count = 0;
 
-        return c;
+        while (count < len)
+        {
+            // copy out whatever is left of the current group in one go.
+            if (!clearText && !start && !crcFound && bufPtr < 3)
+            {
+                int avail = Math.min(3 - bufPtr, len - count);
+
+                System.arraycopy(outBuf, bufPtr, b, off + count, avail);
+                bufPtr += avail;
+                count += avail;
+                continue;
+            }
+
+            int c = read();
+            if (c < 0)
+            {
+                break;
+            }
+
+            b[off + count++] = (byte)c;
+        }
+
+        return (count == 0 && len > 0) ? -1 : count;
     }
     
     public void close()
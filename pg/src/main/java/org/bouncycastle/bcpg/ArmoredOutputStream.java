@@ -20,6 +20,8 @@
 {
     public static final String VERSION_HDR = "Version";
 
+    private static final int ENC_BUF_SIZE = 4096;
+
     private static final byte[] encodingTable =
         {
             (byte)'A', (byte)'B', (byte)'C', (byte)'D', (byte)'E', (byte)'F', (byte)'G',
@@ -86,6 +88,7 @@ private void encode(
     OutputStream    out;
     int[]           buf = new int[3];
     int             bufPtr = 0;
+    byte[]          encBuf;
     CRC24           crc = new CRC24();
     int             chunkCount = 0;
     int             lastb;
@@ -384,6 +387,106 @@ public void write(
         buf[bufPtr++] = b & 0xff;
     }
 
+    public void write(
+        byte[] b,
+        int    off,
+        int    len)
+        throws IOException
+    {
+        if (clearText)
+        {
+            for (int i = 0; i != len; i++)
+            {
+                write(b[off + i]);
+            }
+            return;
+        }
+
+        if (len > 0 && start)
+        {
+            write(b[off++]);
+            len--;
+        }
+
+        if (len <= 0)
+        {
+            return;
+        }
+
+        crc.update(b, off, len);
+
+        // top up the pending group, it is only encoded once more data follows it.
+        while (bufPtr < 3 && len > 0)
+        {
+            buf[bufPtr++] = b[off++] & 0xff;
+            len--;
+        }
+
+        if (len == 0)
+        {
+            return;
+        }
+
+        if (encBuf == null)
+        {
+            encBuf = new byte[ENC_BUF_SIZE];
+        }
+
+        int encOff = encodeGroup(encBuf, 0, buf[0], buf[1], buf[2]);
+
+        while (len > 3)
+        {
+            if (encOff > ENC_BUF_SIZE - 4 - nl.length())
+            {
+                out.write(encBuf, 0, encOff);
+                encOff = 0;
+            }
+
+            encOff = encodeGroup(encBuf, encOff, b[off] & 0xff, b[off + 1] & 0xff, b[off + 2] & 0xff);
+
+            off += 3;
+            len -= 3;
+        }
+
+        out.write(encBuf, 0, encOff);
+
+        bufPtr = 0;
+        while (len > 0)
+        {
+            buf[bufPtr++] = b[off++] & 0xff;
+            len--;
+        }
+    }
+
+    /**
+     * base 64 encode a full group of three bytes into out, followed by a line break at the end
+     * of each line.
+     *
+     * @return the offset following the data written.
+     */
+    private int encodeGroup(
+        byte[] out,
+        int    outOff,
+        int    d1,
+        int    d2,
+        int    d3)
+    {
+        out[outOff++] = encodingTable[(d1 >>> 2) & 0x3f];
+        out[outOff++] = encodingTable[((d1 << 4) | (d2 >>> 4)) & 0x3f];
+        out[outOff++] = encodingTable[((d2 << 2) | (d3 >>> 6)) & 0x3f];
+        out[outOff++] = encodingTable[d3 & 0x3f];
+
+        if ((++chunkCount & 0xf) == 0)
+        {
+            for (int i = 0; i != nl.length(); i++)
+            {
+                out[outOff++] = (byte)nl.charAt(i);
+            }
+        }
+
+        return outOff;
+    }
+
     public void flush()
         throws IOException
     {
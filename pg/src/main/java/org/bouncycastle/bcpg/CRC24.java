@@ -1,12 +1,51 @@
 package org.bouncycastle.bcpg;
 
+/**
+ * The 24 bit CRC used to check the contents of ASCII armored OpenPGP messages (RFC 4880, section 6.1).
+ * <p>
+ * The CRC is table driven, bulk updates process 8 bytes at a time using 8 tables (slice-by-8).
+ * </p>
+ */
 public class CRC24
 {
     private static final int CRC24_INIT = 0x0b704ce;
     private static final int CRC24_POLY = 0x1864cfb;
-                                                                                
+    private static final int CRC24_MASK = 0x0ffffff;
+
+    /*
+     * TABLES[k][b] is the CRC of the byte b followed by k zero bytes, starting from a zero register.
+     */
+    private static final int[][] TABLES = new int[8][256];
+
+    static
+    {
+        for (int b = 0; b < 256; b++)
+        {
+            int crc = b << 16;
+            for (int i = 0; i < 8; i++)
+            {
+                crc <<= 1;
+                if ((crc & 0x1000000) != 0)
+                {
+                    crc ^= CRC24_POLY;
+                }
+            }
+            TABLES[0][b] = crc;
+        }
+
+        for (int k = 1; k < TABLES.length; k++)
+        {
+            for (int b = 0; b < 256; b++)
+            {
+                int crc = TABLES[k - 1][b];
+
+                TABLES[k][b] = ((crc << 8) & CRC24_MASK) ^ TABLES[0][crc >>> 16];
+            }
+        }
+    }
+
     private int crc = CRC24_INIT;
-                                                                                
+
     public CRC24()
     {
     }
@@ -14,15 +53,45 @@ public CRC24()
     public void update(
         int b)
     {
-        crc ^= b << 16;
-        for (int i = 0; i < 8; i++)
+        crc = ((crc << 8) & CRC24_MASK) ^ TABLES[0][((crc >>> 16) ^ b) & 0xff];
+    }
+
+    /**
+     * Update the CRC with len bytes from buf, starting at off.
+     *
+     * @param buf the bytes to process.
+     * @param off the offset of the first byte in buf.
+     * @param len the number of bytes to process.
+     */
+    public void update(
+        byte[] buf,
+        int    off,
+        int    len)
+    {
+        int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+        int[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+        int c = crc;
+
+        while (len >= 8)
         {
-            crc <<= 1;
-            if ((crc & 0x1000000) != 0)
-            {
-                crc ^= CRC24_POLY;
-            }
+            // only the first three bytes overlap the register
+            int x = c ^ (((buf[off] & 0xff) << 16) | ((buf[off + 1] & 0xff) << 8) | (buf[off + 2] & 0xff));
+
+            c = t7[x >>> 16] ^ t6[(x >>> 8) & 0xff] ^ t5[x & 0xff]
+                ^ t4[buf[off + 3] & 0xff] ^ t3[buf[off + 4] & 0xff] ^ t2[buf[off + 5] & 0xff]
+                ^ t1[buf[off + 6] & 0xff] ^ t0[buf[off + 7] & 0xff];
+
+            off += 8;
+            len -= 8;
         }
+
+        while (len > 0)
+        {
+            c = ((c << 8) & CRC24_MASK) ^ t0[((c >>> 16) ^ buf[off++]) & 0xff];
+            len--;
+        }
+
+        crc = c;
     }
 
     public int getValue()
@@ -3,9 +3,11 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.SecureRandom;
 
 import org.bouncycastle.bcpg.ArmoredInputStream;
 import org.bouncycastle.bcpg.ArmoredOutputStream;
+import org.bouncycastle.bcpg.CRC24;
 import org.bouncycastle.openpgp.PGPUtil;
 import org.bouncycastle.openpgp.jcajce.JcaPGPObjectFactory;
 import org.bouncycastle.util.Arrays;
@@ -106,6 +108,131 @@ private void pgpUtilTest()
         }
     }
 
+    private void crcTest()
+    {
+        SecureRandom random = new SecureRandom();
+        byte[] data = new byte[1000];
+        random.nextBytes(data);
+
+        for (int len = 0; len <= data.length; len += 1 + len / 4)
+        {
+            CRC24 single = new CRC24();
+            CRC24 bulk = new CRC24();
+
+            for (int i = 0; i != len; i++)
+            {
+                single.update(data[i] & 0xff);
+            }
+            int split = len / 3;
+            bulk.update(data, 0, split);
+            bulk.update(data, split, len - split);
+
+            if (single.getValue() != referenceCRC(data, len) || bulk.getValue() != single.getValue())
+            {
+                fail("CRC24 mismatch for length " + len);
+            }
+        }
+    }
+
+    // the bitwise CRC from RFC 4880, section 6.1
+    private static int referenceCRC(byte[] data, int len)
+    {
+        int crc = 0xB704CE;
+        for (int i = 0; i != len; i++)
+        {
+            crc ^= (data[i] & 0xff) << 16;
+            for (int j = 0; j < 8; j++)
+            {
+                crc <<= 1;
+                if ((crc & 0x1000000) != 0)
+                {
+                    crc ^= 0x1864CFB;
+                }
+            }
+        }
+        return crc & 0xFFFFFF;
+    }
+
+    private void bulkReadWriteTest()
+        throws Exception
+    {
+        byte[] data = new byte[5000];
+        new SecureRandom().nextBytes(data);
+        data[0] = sample[0];        // a packet tag, so the armor type is consistent
+
+        int[] chunks = new int[]{ 1, 2, 3, 4, 7, 48, 49, 100, 5000 };
+        byte[] expected = null;
+
+        for (int i = 0; i != chunks.length; i++)
+        {
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            ArmoredOutputStream aOut = new ArmoredOutputStream(bOut);
+
+            if (chunks[i] == 1)
+            {
+                for (int j = 0; j != data.length; j++)
+                {
+                    aOut.write(data[j]);
+                }
+            }
+            else
+            {
+                for (int off = 0; off < data.length; off += chunks[i])
+                {
+                    aOut.write(data, off, Math.min(chunks[i], data.length - off));
+                }
+            }
+            aOut.close();
+
+            if (expected == null)
+            {
+                expected = bOut.toByteArray();
+            }
+            else if (!Arrays.areEqual(expected, bOut.toByteArray()))
+            {
+                fail("bulk armored output differs for chunk size " + chunks[i]);
+            }
+
+            ArmoredInputStream aIn = new ArmoredInputStream(new ByteArrayInputStream(expected));
+            ByteArrayOutputStream dOut = new ByteArrayOutputStream();
+            byte[] buf = new byte[chunks[i]];
+            int len;
+            while ((len = aIn.read(buf, 0, buf.length)) >= 0)
+            {
+                dOut.write(buf, 0, len);
+            }
+
+            if (!Arrays.areEqual(data, dOut.toByteArray()))
+            {
+                fail("bulk armored input differs for chunk size " + chunks[i]);
+            }
+        }
+
+        // a corrupted body must still fail the CRC check on bulk reads
+        byte[] corrupt = Arrays.clone(expected);
+        int pos = corrupt.length / 2;
+        while (corrupt[pos] == '\r' || corrupt[pos] == '\n')
+        {
+            pos++;
+        }
+        corrupt[pos] = (byte)(corrupt[pos] == 'A' ? 'B' : 'A');
+
+        ArmoredInputStream aIn = new ArmoredInputStream(new ByteArrayInputStream(corrupt));
+        try
+        {
+            byte[] buf = new byte[1024];
+            while (aIn.read(buf, 0, buf.length) >= 0)
+            {
+                // drain
+            }
+            fail("no exception on corrupted armor");
+        }
+        catch (IOException e)
+        {
+            isEquals("crc check failed in armored message.", e.getMessage());
+        }
+    }
+
     private void blankLineTest()
         throws Exception
     {
@@ -261,6 +388,8 @@ public void performTest()
 
         blankLineTest();
         pgpUtilTest();
+        crcTest();
+        bulkReadWriteTest();
     }
 
     public String getName()
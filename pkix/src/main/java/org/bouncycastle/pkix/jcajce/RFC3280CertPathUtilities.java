@@ -1,6 +1,7 @@
 package org.bouncycastle.pkix.jcajce;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.security.PublicKey;
 import java.security.cert.CertPathBuilder;
 import java.security.cert.CertPathBuilderException;
@@ -21,6 +22,7 @@
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.DERSequence;
@@ -561,9 +563,31 @@ protected static X509CRL processCRLH(
     {
         Exception lastException = null;
 
-        for (Iterator it = deltacrls.iterator(); it.hasNext();)
+        X509CRL[] crls = (X509CRL[])deltacrls.toArray(new X509CRL[deltacrls.size()]);
+        BigInteger[] crlNumbers = new BigInteger[crls.length];
+        for (int i = 0; i != crls.length; i++)
         {
-            X509CRL crl = (X509CRL)it.next();
+            crlNumbers[i] = getCRLNumber(crls[i]);
+        }
+
+        // try the most recent delta CRLs first - the sets are small, so an insertion sort will do
+        for (int i = 1; i < crls.length; i++)
+        {
+            for (int j = i; j > 0 && compareCRLNumbers(crlNumbers[j - 1], crlNumbers[j]) < 0; j--)
+            {
+                X509CRL crl = crls[j];
+                crls[j] = crls[j - 1];
+                crls[j - 1] = crl;
+
+                BigInteger crlNumber = crlNumbers[j];
+                crlNumbers[j] = crlNumbers[j - 1];
+                crlNumbers[j - 1] = crlNumber;
+            }
+        }
+
+        for (int i = 0; i != crls.length; i++)
+        {
+            X509CRL crl = crls[i];
             try
             {
                 crl.verify(key);
@@ -582,6 +606,31 @@ protected static X509CRL processCRLH(
         return null;
     }
 
+    private static BigInteger getCRLNumber(X509CRL crl)
+    {
+        try
+        {
+            ASN1Primitive crlNumber = RevocationUtilities.getExtensionValue(crl, Extension.cRLNumber);
+
+            return crlNumber == null ? null : ASN1Integer.getInstance(crlNumber).getPositiveValue();
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
+    // a missing CRL number orders before any other
+    private static int compareCRLNumbers(BigInteger a, BigInteger b)
+    {
+        if (a == null)
+        {
+            return b == null ? 0 : -1;
+        }
+
+        return b == null ? 1 : a.compareTo(b);
+    }
+
     protected static Set processCRLA1i(
         Date currentDate,
         PKIXExtendedParameters paramsPKIX,
@@ -63,6 +63,7 @@
         private int validityModel = PKIX_VALIDITY_MODEL;
         private boolean useDeltas = false;
         private Set<TrustAnchor> trustAnchors;
+        private PKIXValidationCache validationCache;
 
         public Builder(PKIXParameters baseParameters)
         {
@@ -91,6 +92,7 @@ public Builder(PKIXExtendedParameters baseParameters)
             this.validityModel = baseParameters.validityModel;
             this.revocationEnabled = baseParameters.isRevocationEnabled();
             this.trustAnchors = baseParameters.getTrustAnchors();
+            this.validationCache = baseParameters.validationCache;
         }
 
         public Builder addCertificateStore(PKIXCertStore store)
@@ -178,6 +180,20 @@ public Builder setTrustAnchors(Set<TrustAnchor> trustAnchors)
             return this;
         }
 
+        /**
+         * Set a cache of signature and revocation results to be shared with other validations using the same
+         * trust anchors and revocation sources.
+         *
+         * @param validationCache the cache to use, null if results should not be cached.
+         * @return the current builder.
+         */
+        public Builder setValidationCache(PKIXValidationCache validationCache)
+        {
+            this.validationCache = validationCache;
+
+            return this;
+        }
+
         /**
          * Flag whether or not revocation checking is to be enabled.
          *
@@ -205,6 +221,7 @@ public PKIXExtendedParameters build()
     private final boolean useDeltas;
     private final int validityModel;
     private final Set<TrustAnchor> trustAnchors;
+    private final PKIXValidationCache validationCache;
 
     private PKIXExtendedParameters(Builder builder)
     {
@@ -219,6 +236,7 @@ private PKIXExtendedParameters(Builder builder)
         this.useDeltas = builder.useDeltas;
         this.validityModel = builder.validityModel;
         this.trustAnchors = Collections.unmodifiableSet(builder.trustAnchors);
+        this.validationCache = builder.validationCache;
     }
 
     public List<PKIXCertStore> getCertificateStores()
@@ -272,6 +290,16 @@ public int getValidityModel()
         return validityModel;
     }
 
+    /**
+     * Return the cache of signature and revocation results to use.
+     *
+     * @return the validation cache, null if there is none.
+     */
+    public PKIXValidationCache getValidationCache()
+    {
+        return validationCache;
+    }
+
     public Object clone()
     {
         return this;
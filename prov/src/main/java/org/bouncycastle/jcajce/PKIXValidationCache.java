@@ -0,0 +1,243 @@
+package org.bouncycastle.jcajce;
+
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A size bounded cache of the results of the expensive steps of certification path validation, for sharing
+ * between validations of paths with certificates in common, such as the intermediate certificates of a CA which
+ * appear in nearly every path it issues. The cache is used by the BC PKIX CertPathValidator once it is set with
+ * {@link PKIXExtendedParameters.Builder#setValidationCache(PKIXValidationCache)}.
+ * <p>
+ * Two results are cached for a certificate and the public key of its issuer:
+ * <ul>
+ * <li>that the certificate's signature verifies with the key, until the certificate expires.</li>
+ * <li>that the certificate was found not to be revoked, for at most the revocation lifetime given to the
+ * constructor, and only for validity dates from the one checked up to the end of that lifetime.</li>
+ * </ul>
+ * Everything else - validity periods, name chaining, name constraints and policy processing - is done in full on
+ * each validation, as it only depends on data already in memory.
+ * </p>
+ * <p>
+ * Note: revocation results are not keyed by the trust anchors or the CRL sources used to find them, so a cache
+ * should only be shared between parameters which use the same ones. A certificate revoked after a result is
+ * cached will be accepted until the result expires, choose the revocation lifetime accordingly, or call
+ * {@link #clear()} when new revocation information arrives. Instances of this class are thread safe.
+ * </p>
+ */
+public class PKIXValidationCache
+{
+    private static final int SIGNATURE = 0;
+    private static final int NOT_REVOKED = 1;
+
+    private final long revocationLifetime;
+    private final Map<Key, Result> cache;
+
+    /**
+     * Create a cache which keeps signature results only.
+     *
+     * @param maxSize the maximum number of results to hold.
+     */
+    public PKIXValidationCache(int maxSize)
+    {
+        this(maxSize, 0);
+    }
+
+    /**
+     * Create a cache which keeps signature results and, for up to revocationLifetime milliseconds, revocation results.
+     *
+     * @param maxSize the maximum number of results to hold.
+     * @param revocationLifetime how long, in milliseconds, a certificate found not to be revoked is taken to stay
+     * that way - 0 if revocation results should not be cached.
+     */
+    public PKIXValidationCache(final int maxSize, long revocationLifetime)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        if (revocationLifetime < 0)
+        {
+            throw new IllegalArgumentException("revocationLifetime cannot be negative");
+        }
+
+        this.revocationLifetime = revocationLifetime;
+        this.cache = new LinkedHashMap<Key, Result>(16, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Return whether the signature on a certificate is known to verify with the passed in key.
+     *
+     * @param cert the certificate of interest.
+     * @param issuerKey the public key of the certificate's issuer.
+     * @return true if the signature has been verified with the key, false otherwise.
+     */
+    public boolean isSignatureVerified(X509Certificate cert, PublicKey issuerKey)
+    {
+        return get(new Key(SIGNATURE, cert, issuerKey, 0, false)) != null;
+    }
+
+    /**
+     * Record that the signature on a certificate has been verified with the passed in key. The result is kept until
+     * the certificate expires.
+     *
+     * @param cert the certificate of interest.
+     * @param issuerKey the public key the certificate's signature verified with.
+     */
+    public void addVerifiedSignature(X509Certificate cert, PublicKey issuerKey)
+    {
+        put(new Key(SIGNATURE, cert, issuerKey, 0, false), new Result(null, cert.getNotAfter().getTime()));
+    }
+
+    /**
+     * Return whether a certificate is known not to have been revoked at the passed in date, as found by revocation
+     * checking with equivalent parameters. A result only covers dates from the one it was checked for up to the
+     * revocation lifetime after it, as some revocations only take effect from their revocation date.
+     *
+     * @param cert the certificate of interest.
+     * @param issuerKey the public key of the certificate's issuer.
+     * @param paramsPKIX the parameters revocation is being checked with.
+     * @param validDate the date the certificate's revocation status is being checked for.
+     * @return true if the certificate is known not to be revoked, false otherwise.
+     */
+    public boolean isNotRevoked(X509Certificate cert, PublicKey issuerKey, PKIXExtendedParameters paramsPKIX, Date validDate)
+    {
+        if (revocationLifetime == 0)
+        {
+            return false;
+        }
+
+        Result result = get(new Key(NOT_REVOKED, cert, issuerKey, paramsPKIX.getValidityModel(), paramsPKIX.isUseDeltasEnabled()));
+
+        return result != null && !validDate.before(result.validDate)
+            && validDate.getTime() - result.validDate.getTime() <= revocationLifetime;
+    }
+
+    /**
+     * Record that revocation checking found a certificate not to have been revoked at the passed in date. The
+     * result is kept for the revocation lifetime of the cache, or until the certificate expires if that is sooner,
+     * and is only used for dates within the revocation lifetime after the passed in one.
+     *
+     * @param cert the certificate of interest.
+     * @param issuerKey the public key of the certificate's issuer.
+     * @param paramsPKIX the parameters revocation was checked with.
+     * @param validDate the date the certificate's revocation status was checked for.
+     */
+    public void addNotRevoked(X509Certificate cert, PublicKey issuerKey, PKIXExtendedParameters paramsPKIX, Date validDate)
+    {
+        if (revocationLifetime == 0)
+        {
+            return;
+        }
+
+        long expiry = Math.min(System.currentTimeMillis() + revocationLifetime, cert.getNotAfter().getTime());
+
+        put(new Key(NOT_REVOKED, cert, issuerKey, paramsPKIX.getValidityModel(), paramsPKIX.isUseDeltasEnabled()),
+            new Result(validDate, expiry));
+    }
+
+    /**
+     * Return the number of results currently held.
+     */
+    public int size()
+    {
+        synchronized (cache)
+        {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Remove all the results held.
+     */
+    public void clear()
+    {
+        synchronized (cache)
+        {
+            cache.clear();
+        }
+    }
+
+    private Result get(Key key)
+    {
+        synchronized (cache)
+        {
+            Result result = cache.get(key);
+            if (result != null && result.expiry < System.currentTimeMillis())
+            {
+                cache.remove(key);
+                result = null;
+            }
+            return result;
+        }
+    }
+
+    private void put(Key key, Result result)
+    {
+        synchronized (cache)
+        {
+            cache.put(key, result);
+        }
+    }
+
+    private static class Key
+    {
+        private final int type;
+        private final X509Certificate cert;
+        private final byte[] issuerKey;
+        private final int validityModel;
+        private final boolean useDeltas;
+        private final int hashCode;
+
+        Key(int type, X509Certificate cert, PublicKey issuerKey, int validityModel, boolean useDeltas)
+        {
+            this.type = type;
+            this.cert = cert;
+            this.issuerKey = issuerKey.getEncoded();
+            this.validityModel = validityModel;
+            this.useDeltas = useDeltas;
+            this.hashCode = cert.hashCode() ^ Arrays.hashCode(this.issuerKey) + type;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+
+            return type == other.type && validityModel == other.validityModel && useDeltas == other.useDeltas
+                && Arrays.areEqual(issuerKey, other.issuerKey) && cert.equals(other.cert);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
+    private static class Result
+    {
+        private final Date validDate;
+        private final long expiry;
+
+        Result(Date validDate, long expiry)
+        {
+            this.validDate = validDate;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.bouncycastle.jcajce.provider.asymmetric.edec;
+
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+
+/**
+ * Batch verification of Ed25519 signatures for JCA public keys. The JCA Signature API verifies one
+ * signature at a time, this class allows a set of signatures to be checked together, which is
+ * substantially faster than calling Signature.verify() for each of them.
+ */
+public final class Ed25519BatchVerifier
+{
+    private Ed25519BatchVerifier()
+    {
+    }
+
+    /**
+     * Verify a batch of Ed25519 signatures.
+     *
+     * @param publicKeys the Ed25519 public key for each signature.
+     * @param messages   the message for each signature.
+     * @param signatures the signatures.
+     * @param random     source of randomness for the batch coefficients, null for the default.
+     * @param results    if not null, receives the validity of each individual signature.
+     * @return true if all the signatures are valid, false otherwise.
+     * @throws InvalidKeyException if one of the public keys is not an Ed25519 key.
+     */
+    public static boolean verify(PublicKey[] publicKeys, byte[][] messages, byte[][] signatures,
+        SecureRandom random, boolean[] results)
+        throws InvalidKeyException
+    {
+        Ed25519PublicKeyParameters[] keys = new Ed25519PublicKeyParameters[publicKeys.length];
+
+        for (int i = 0; i != publicKeys.length; i++)
+        {
+            keys[i] = getKeyParameters(publicKeys[i]);
+        }
+
+        return Ed25519Signer.verifyBatch(keys, messages, signatures, random, results);
+    }
+
+    private static Ed25519PublicKeyParameters getKeyParameters(PublicKey publicKey)
+        throws InvalidKeyException
+    {
+        BCEdDSAPublicKey key;
+        if (publicKey instanceof BCEdDSAPublicKey)
+        {
+            key = (BCEdDSAPublicKey)publicKey;
+        }
+        else
+        {
+            try
+            {
+                key = new BCEdDSAPublicKey(SubjectPublicKeyInfo.getInstance(publicKey.getEncoded()));
+            }
+            catch (Exception e)
+            {
+                throw new InvalidKeyException("cannot identify EdDSA public key: " + e.getMessage());
+            }
+        }
+
+        AsymmetricKeyParameter pub = key.engineGetKeyParameters();
+        if (!(pub instanceof Ed25519PublicKeyParameters))
+        {
+            throw new InvalidKeyException("public key not an Ed25519 key");
+        }
+
+        return (Ed25519PublicKeyParameters)pub;
+    }
+}
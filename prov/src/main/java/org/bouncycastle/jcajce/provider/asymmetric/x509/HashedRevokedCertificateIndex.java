@@ -0,0 +1,101 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.TBSCertList;
+
+/**
+ * An in memory index of the entries of a CRL by serial number, built once so that lookups do not have to scan
+ * the revokedCertificates list. The index is an open addressing hash table of entry positions keyed on the low
+ * order bits of the serial numbers, with candidates confirmed against the entries themselves, so no copies of
+ * the serial numbers are kept.
+ */
+class HashedRevokedCertificateIndex
+    extends RevokedCertificateIndex
+{
+    private final TBSCertList.CRLEntry[] entries;
+
+    // for an indirect CRL, the certificate issuer in effect for each entry (null for the CRL issuer)
+    private final X500Name[] certificateIssuers;
+
+    // entry position + 1, 0 marks an empty slot
+    private final int[] table;
+    private final int mask;
+
+    HashedRevokedCertificateIndex(TBSCertList tbsCertList, boolean isIndirect)
+    {
+        this.entries = tbsCertList.getRevokedCertificates();
+        this.certificateIssuers = isIndirect ? new X500Name[entries.length] : null;
+
+        int size = 2;
+        while (size < entries.length * 2)
+        {
+            size <<= 1;
+        }
+        this.table = new int[size];
+        this.mask = size - 1;
+
+        X500Name certificateIssuer = null;
+        for (int i = 0; i != entries.length; i++)
+        {
+            TBSCertList.CRLEntry entry = entries[i];
+
+            if (isIndirect)
+            {
+                certificateIssuer = findCertificateIssuer(entry, certificateIssuer);
+                certificateIssuers[i] = certificateIssuer;
+            }
+
+            BigInteger serialNumber = entry.getUserCertificate().getValue();
+            int slot = find(serialNumber);
+            if (table[slot] == 0)
+            {
+                table[slot] = i + 1;
+            }
+        }
+    }
+
+    int indexOf(BigInteger serialNumber)
+    {
+        if (serialNumber == null)
+        {
+            return -1;
+        }
+
+        return table[find(serialNumber)] - 1;
+    }
+
+    TBSCertList.CRLEntry getEntry(int index)
+    {
+        return entries[index];
+    }
+
+    X500Name getCertificateIssuer(int index)
+    {
+        return certificateIssuers == null ? null : certificateIssuers[index];
+    }
+
+    // return the slot holding the serial number, or the empty slot where it would go
+    private int find(BigInteger serialNumber)
+    {
+        int slot = hash(serialNumber.intValue()) & mask;
+
+        for (;;)
+        {
+            int pos = table[slot];
+            if (pos == 0 || entries[pos - 1].getUserCertificate().hasValue(serialNumber))
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int hash(int h)
+    {
+        // serial numbers are often sequential, so spread the low order bits
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
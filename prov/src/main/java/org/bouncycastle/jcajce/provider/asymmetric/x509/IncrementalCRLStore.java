@@ -0,0 +1,321 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.math.BigInteger;
+import java.security.cert.CRLException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Enumerated;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.jcajce.PKIXCRLStore;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Selector;
+import org.bouncycastle.util.StoreException;
+
+/**
+ * A store of complete CRLs kept up to date by delta CRLs. For each CRL scope - the CRL issuer and issuing
+ * distribution point - the store holds the most recent complete CRL and the most recent delta CRL, so taking in a
+ * new delta CRL only processes the entries of the delta: the complete CRL, along with any index of its entries, is
+ * kept, and superseded CRLs are dropped. The complete CRLs can be any X509CRL, for example ones from a
+ * {@link MappedCRLStore} so the base of the merged state stays on disk.
+ * <p>
+ * As a {@link PKIXCRLStore} for path validation with delta CRLs enabled (see
+ * {@link org.bouncycastle.jcajce.PKIXExtendedParameters.Builder#setUseDeltasEnabled(boolean)}) the store only offers
+ * the current complete and delta CRL for each scope. The merged revocation state can also be queried directly with
+ * {@link #getRevokedCertificate(X500Principal, X500Principal, BigInteger)}.
+ * </p>
+ * <p>
+ * Note: CRLs are not verified when they are added - path validation verifies the ones it uses, other callers
+ * should verify CRLs before adding them.
+ * </p>
+ */
+public class IncrementalCRLStore
+    implements PKIXCRLStore<X509CRL>
+{
+    private final Map<Scope, ScopeCRLs> scopes = new LinkedHashMap<Scope, ScopeCRLs>();
+
+    /**
+     * Add a complete or delta CRL to the store. A complete CRL replaces an older complete CRL for the same scope,
+     * and a delta CRL an older delta CRL. CRLs are ordered by CRL number, or by their thisUpdate date if either
+     * has no CRL number.
+     *
+     * @param crl the CRL to add.
+     * @return true if the CRL was added, false if the store already holds a CRL at least as recent.
+     * @throws CRLException if the CRL number or delta CRL indicator extensions cannot be read, or a delta CRL has
+     * no CRL number.
+     */
+    public boolean addCRL(X509CRL crl)
+        throws CRLException
+    {
+        BigInteger crlNumber = getIntegerExtension(crl, Extension.cRLNumber);
+        BigInteger baseCRLNumber = getIntegerExtension(crl, Extension.deltaCRLIndicator);
+        Scope scope = new Scope(crl.getIssuerX500Principal(), crl.getExtensionValue(Extension.issuingDistributionPoint.getId()));
+
+        synchronized (scopes)
+        {
+            ScopeCRLs crls = scopes.get(scope);
+            if (crls == null)
+            {
+                crls = new ScopeCRLs();
+                scopes.put(scope, crls);
+            }
+
+            if (baseCRLNumber != null)
+            {
+                if (crlNumber == null)
+                {
+                    throw new CRLException("delta CRL has no CRL number");
+                }
+
+                if (!isNewer(crl, crlNumber, crls.delta, crls.deltaNumber)
+                    || !isNewer(crl, crlNumber, crls.complete, crls.completeNumber))
+                {
+                    return false;
+                }
+
+                crls.delta = crl;
+                crls.deltaNumber = crlNumber;
+                crls.deltaBaseNumber = baseCRLNumber;
+            }
+            else
+            {
+                if (!isNewer(crl, crlNumber, crls.complete, crls.completeNumber))
+                {
+                    return false;
+                }
+
+                crls.complete = crl;
+                crls.completeNumber = crlNumber;
+
+                // a delta CRL the new complete CRL has caught up with is no longer needed
+                if (crls.delta != null && !isNewer(crls.delta, crls.deltaNumber, crl, crlNumber))
+                {
+                    crls.delta = null;
+                    crls.deltaNumber = null;
+                    crls.deltaBaseNumber = null;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Return the entry revoking a certificate in the merged state of the complete and delta CRLs from the passed in
+     * CRL issuer, or null if the certificate is not revoked. An entry in a delta CRL takes precedence over one in the
+     * complete CRL, and a delta CRL entry with the reason removeFromCRL reinstates the certificate. A delta CRL is
+     * only merged with a complete CRL at least as recent as the delta CRL's base CRL.
+     * <p>
+     * Only entries for the passed in certificate issuer are returned: for an indirect CRL this is the issuer named by
+     * the entry's certificate issuer extension, or an earlier entry's, and otherwise it is the CRL issuer.
+     * </p>
+     *
+     * @param crlIssuer the issuer of the CRLs.
+     * @param certificateIssuer the issuer of the certificate.
+     * @param serialNumber the serial number of the certificate.
+     * @return the revoking CRL entry, or null.
+     */
+    public X509CRLEntry getRevokedCertificate(X500Principal crlIssuer, X500Principal certificateIssuer, BigInteger serialNumber)
+    {
+        synchronized (scopes)
+        {
+            for (Iterator<Map.Entry<Scope, ScopeCRLs>> it = scopes.entrySet().iterator(); it.hasNext();)
+            {
+                Map.Entry<Scope, ScopeCRLs> e = it.next();
+                if (!e.getKey().issuer.equals(crlIssuer))
+                {
+                    continue;
+                }
+
+                ScopeCRLs crls = e.getValue();
+
+                if (crls.isDeltaApplicable())
+                {
+                    X509CRLEntry entry = getRevokedCertificate(crls.delta, certificateIssuer, serialNumber);
+                    if (entry != null)
+                    {
+                        if (isRemoveFromCRL(entry))
+                        {
+                            continue;
+                        }
+                        return entry;
+                    }
+                }
+
+                if (crls.complete != null)
+                {
+                    X509CRLEntry entry = getRevokedCertificate(crls.complete, certificateIssuer, serialNumber);
+                    if (entry != null)
+                    {
+                        return entry;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public Collection<X509CRL> getMatches(Selector<X509CRL> selector)
+        throws StoreException
+    {
+        List<X509CRL> matches = new ArrayList<X509CRL>();
+
+        synchronized (scopes)
+        {
+            for (Iterator<ScopeCRLs> it = scopes.values().iterator(); it.hasNext();)
+            {
+                ScopeCRLs crls = it.next();
+
+                addMatch(matches, selector, crls.complete);
+                addMatch(matches, selector, crls.delta);
+            }
+        }
+
+        return matches;
+    }
+
+    private static void addMatch(List<X509CRL> matches, Selector<X509CRL> selector, X509CRL crl)
+    {
+        if (crl != null && (selector == null || selector.match(crl)))
+        {
+            matches.add(crl);
+        }
+    }
+
+    private static X509CRLEntry getRevokedCertificate(X509CRL crl, X500Principal certificateIssuer, BigInteger serialNumber)
+    {
+        X509CRLEntry entry = crl.getRevokedCertificate(serialNumber);
+        if (entry == null || isCertificateIssuer(crl, entry, certificateIssuer))
+        {
+            return entry;
+        }
+
+        // the first entry with the serial number belongs to another issuer, so look at any others
+        for (Iterator<? extends X509CRLEntry> it = crl.getRevokedCertificates().iterator(); it.hasNext();)
+        {
+            entry = it.next();
+            if (serialNumber.equals(entry.getSerialNumber()) && isCertificateIssuer(crl, entry, certificateIssuer))
+            {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isCertificateIssuer(X509CRL crl, X509CRLEntry entry, X500Principal certificateIssuer)
+    {
+        X500Principal entryIssuer = entry.getCertificateIssuer();
+
+        return certificateIssuer.equals(entryIssuer != null ? entryIssuer : crl.getIssuerX500Principal());
+    }
+
+    private static boolean isNewer(X509CRL crl, BigInteger crlNumber, X509CRL other, BigInteger otherNumber)
+    {
+        if (other == null)
+        {
+            return true;
+        }
+
+        if (crlNumber != null && otherNumber != null)
+        {
+            return crlNumber.compareTo(otherNumber) > 0;
+        }
+
+        return crl.getThisUpdate().after(other.getThisUpdate());
+    }
+
+    private static boolean isRemoveFromCRL(X509CRLEntry entry)
+    {
+        byte[] reasonCode = entry.getExtensionValue(Extension.reasonCode.getId());
+        if (reasonCode == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            return ASN1Enumerated.getInstance(ASN1OctetString.getInstance(reasonCode).getOctets()).intValueExact() == CRLReason.removeFromCRL;
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
+    private static BigInteger getIntegerExtension(X509CRL crl, ASN1ObjectIdentifier oid)
+        throws CRLException
+    {
+        byte[] extValue = crl.getExtensionValue(oid.getId());
+        if (extValue == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return ASN1Integer.getInstance(ASN1OctetString.getInstance(extValue).getOctets()).getPositiveValue();
+        }
+        catch (Exception e)
+        {
+            throw new ExtCRLException("cannot read " + oid.getId() + " extension: " + e.getMessage(), e);
+        }
+    }
+
+    private static class Scope
+    {
+        final X500Principal issuer;
+        final byte[] issuingDistributionPoint;
+
+        Scope(X500Principal issuer, byte[] issuingDistributionPoint)
+        {
+            this.issuer = issuer;
+            this.issuingDistributionPoint = issuingDistributionPoint;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Scope))
+            {
+                return false;
+            }
+
+            Scope other = (Scope)o;
+
+            return issuer.equals(other.issuer) && Arrays.areEqual(issuingDistributionPoint, other.issuingDistributionPoint);
+        }
+
+        public int hashCode()
+        {
+            return issuer.hashCode() ^ Arrays.hashCode(issuingDistributionPoint);
+        }
+    }
+
+    private static class ScopeCRLs
+    {
+        X509CRL complete;
+        BigInteger completeNumber;
+
+        X509CRL delta;
+        BigInteger deltaNumber;
+        BigInteger deltaBaseNumber;
+
+        boolean isDeltaApplicable()
+        {
+            return delta != null && completeNumber != null && deltaBaseNumber.compareTo(completeNumber) <= 0;
+        }
+    }
+}
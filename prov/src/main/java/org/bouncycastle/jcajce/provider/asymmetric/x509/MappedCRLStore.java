@@ -0,0 +1,140 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.cert.CRLException;
+import java.security.cert.X509CRL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bouncycastle.jcajce.PKIXCRLStore;
+import org.bouncycastle.jcajce.util.BCJcaJceHelper;
+import org.bouncycastle.jcajce.util.JcaJceHelper;
+import org.bouncycastle.util.Selector;
+import org.bouncycastle.util.StoreException;
+
+/**
+ * A store of X.509 CRLs held in DER encoded files which are memory-mapped rather than read onto the heap. Each CRL
+ * has an index of its entries sorted by serial number, built the first time the CRL is added and kept in a file,
+ * so looking up a serial number, even after a restart, needs neither a parse of the CRL nor a copy of it in memory.
+ * <p>
+ * The store can be used for path validation by adding it to the parameters with
+ * {@link org.bouncycastle.jcajce.PKIXExtendedParameters.Builder#addCRLStore(PKIXCRLStore)}. The CRLs returned verify
+ * their signatures straight from the mapped files, and only once for a given key.
+ * </p>
+ * <p>
+ * Note: an index is checked against the length and signature of its CRL when it is opened, but is otherwise
+ * trusted, so the directory holding the index files needs the same protection as the CRL files themselves.
+ * </p>
+ */
+public class MappedCRLStore
+    implements PKIXCRLStore<X509CRL>
+{
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final JcaJceHelper bcHelper = new BCJcaJceHelper();
+    private final File indexDirectory;
+    private final List<X509CRL> crls = new ArrayList<X509CRL>();
+
+    /**
+     * Create a store which keeps the index for each CRL file next to it, in a file with the suffix ".idx".
+     */
+    public MappedCRLStore()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a store which keeps the index for each CRL file in the passed in directory, in a file named after the
+     * CRL file with the suffix ".idx".
+     *
+     * @param indexDirectory the directory holding the index files.
+     */
+    public MappedCRLStore(File indexDirectory)
+    {
+        this.indexDirectory = indexDirectory;
+    }
+
+    /**
+     * Map a DER encoded CRL file and add it to the store, building the index for it if there is no up to date one.
+     * The file must not be modified while the store is in use - to update a CRL write the new one to a new file
+     * and add that.
+     *
+     * @param crlFile the file containing the CRL.
+     * @return the CRL read from the file.
+     * @throws IOException if the CRL file cannot be mapped, or the index cannot be read or written.
+     * @throws CRLException if the file does not contain a DER encoded CRL.
+     */
+    public X509CRL addCRL(File crlFile)
+        throws IOException, CRLException
+    {
+        ByteBuffer crl;
+
+        RandomAccessFile raf = new RandomAccessFile(crlFile, "r");
+        try
+        {
+            long length = raf.length();
+            if (length > Integer.MAX_VALUE)
+            {
+                throw new CRLException("CRL file too large to map: " + crlFile);
+            }
+
+            crl = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        finally
+        {
+            raf.close();
+        }
+
+        File indexFile = new File(indexDirectory != null ? indexDirectory : crlFile.getAbsoluteFile().getParentFile(),
+            crlFile.getName() + INDEX_SUFFIX);
+
+        X509CRL x509CRL = MappedX509CRL.getInstance(bcHelper, crl, indexFile);
+
+        synchronized (crls)
+        {
+            crls.add(x509CRL);
+        }
+
+        return x509CRL;
+    }
+
+    /**
+     * Remove a CRL returned by {@link #addCRL(File)} from the store.
+     *
+     * @param crl the CRL to remove.
+     * @return true if the CRL was in the store, false otherwise.
+     */
+    public boolean removeCRL(X509CRL crl)
+    {
+        synchronized (crls)
+        {
+            return crls.remove(crl);
+        }
+    }
+
+    public Collection<X509CRL> getMatches(Selector<X509CRL> selector)
+        throws StoreException
+    {
+        List<X509CRL> matches = new ArrayList<X509CRL>();
+
+        synchronized (crls)
+        {
+            for (int i = 0; i != crls.size(); i++)
+            {
+                X509CRL crl = crls.get(i);
+
+                if (selector == null || selector.match(crl))
+                {
+                    matches.add(crl);
+                }
+            }
+        }
+
+        return matches;
+    }
+}
@@ -0,0 +1,419 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.bouncycastle.asn1.ASN1BufferCursor;
+import org.bouncycastle.asn1.ASN1Cursor;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.TBSCertList;
+
+/**
+ * An index of the entries of a memory-mapped CRL, kept in a file of its own so it survives between runs. The index
+ * file holds a fixed size record for each entry, sorted by serial number, giving where the entry and its serial
+ * number are in the CRL and where the entry carrying the certificate issuer in effect for it is. Lookups are a
+ * binary search of the mapped records comparing serial numbers in place in the mapped CRL, so neither the CRL nor
+ * the index is read onto the heap.
+ * <p>
+ * The index file starts with a header recording the length of the CRL and a digest of its signature. An index
+ * file which does not match the CRL it is opened with is rebuilt.
+ * </p>
+ */
+class MappedRevokedCertificateIndex
+    extends RevokedCertificateIndex
+{
+    private static final int MAGIC = 0x42435249;    // "BCRI"
+    private static final int VERSION = 1;
+
+    static final int DIGEST_LENGTH = 32;
+
+    // magic, version, CRL length, CRL digest, record count
+    private static final int HEADER_LENGTH = 4 + 4 + 8 + DIGEST_LENGTH + 4;
+
+    // serial number offset, serial number length, entry offset, certificate issuer entry offset (-1 for none)
+    private static final int RECORD_LENGTH = 16;
+
+    private final ByteBuffer crl;
+    private final ByteBuffer records;
+    private final int count;
+
+    private MappedRevokedCertificateIndex(ByteBuffer crl, ByteBuffer records, int count)
+    {
+        this.crl = crl;
+        this.records = records;
+        this.count = count;
+    }
+
+    /**
+     * Open the index for a mapped CRL, building the index file if it is missing or is for a different CRL.
+     *
+     * @param indexFile the file holding the index.
+     * @param crl the complete CRL.
+     * @param entriesOff the offset of the contents of the revokedCertificates list, -1 if there is none.
+     * @param entriesLimit the offset of the end of the contents of the revokedCertificates list.
+     * @param crlDigest the digest identifying the CRL.
+     * @param isIndirect true if the CRL is an indirect CRL.
+     */
+    static MappedRevokedCertificateIndex open(File indexFile, ByteBuffer crl, int entriesOff, int entriesLimit,
+        byte[] crlDigest, boolean isIndirect)
+        throws IOException
+    {
+        ByteBuffer index = mapIndex(indexFile, crl.limit(), crlDigest);
+        if (index == null)
+        {
+            writeIndex(indexFile, crl, entriesOff, entriesLimit, crlDigest, isIndirect);
+
+            index = mapIndex(indexFile, crl.limit(), crlDigest);
+            if (index == null)
+            {
+                throw new IOException("unable to read back index file: " + indexFile);
+            }
+        }
+
+        int count = index.getInt(HEADER_LENGTH - 4);
+
+        index.position(HEADER_LENGTH);
+
+        return new MappedRevokedCertificateIndex(crl, index.slice(), count);
+    }
+
+    int size()
+    {
+        return count;
+    }
+
+    int indexOf(BigInteger serialNumber)
+    {
+        if (serialNumber == null)
+        {
+            return -1;
+        }
+
+        byte[] serial = serialNumber.toByteArray();
+
+        // the lower bound, records for the same serial number are in CRL order
+        int low = 0, high = count;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (compareSerial(serial, mid) > 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return (low < count && compareSerial(serial, low) == 0) ? low : -1;
+    }
+
+    TBSCertList.CRLEntry getEntry(int index)
+    {
+        return parseEntry(records.getInt(index * RECORD_LENGTH + 8));
+    }
+
+    X500Name getCertificateIssuer(int index)
+    {
+        int issuerOff = records.getInt(index * RECORD_LENGTH + 12);
+        if (issuerOff < 0)
+        {
+            return null;
+        }
+
+        return findCertificateIssuer(parseEntry(issuerOff), null);
+    }
+
+    private TBSCertList.CRLEntry parseEntry(int entryOff)
+    {
+        ByteBuffer entry = crl.duplicate();
+        entry.position(entryOff);
+
+        try
+        {
+            ASN1Cursor cursor = new ASN1BufferCursor(entry);
+
+            cursor.next();
+
+            return TBSCertList.CRLEntry.getInstance(cursor.toASN1Primitive());
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("unable to parse CRL entry: " + e.getMessage());
+        }
+    }
+
+    // compare a serial number to the one in a record, by length and then as unsigned octets
+    private int compareSerial(byte[] serial, int index)
+    {
+        int off = records.getInt(index * RECORD_LENGTH);
+        int len = records.getInt(index * RECORD_LENGTH + 4);
+
+        if (serial.length != len)
+        {
+            return serial.length < len ? -1 : 1;
+        }
+
+        for (int i = 0; i != len; i++)
+        {
+            int diff = (serial[i] & 0xff) - (crl.get(off + i) & 0xff);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        return 0;
+    }
+
+    private static ByteBuffer mapIndex(File indexFile, long crlLength, byte[] crlDigest)
+        throws IOException
+    {
+        if (!indexFile.exists())
+        {
+            return null;
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+        try
+        {
+            long length = raf.length();
+            if (length < HEADER_LENGTH || length > Integer.MAX_VALUE)
+            {
+                return null;
+            }
+
+            ByteBuffer index = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION || index.getLong(8) != crlLength)
+            {
+                return null;
+            }
+
+            for (int i = 0; i != DIGEST_LENGTH; i++)
+            {
+                if (index.get(16 + i) != crlDigest[i])
+                {
+                    return null;
+                }
+            }
+
+            int count = index.getInt(HEADER_LENGTH - 4);
+            if (count < 0 || length != HEADER_LENGTH + (long)count * RECORD_LENGTH)
+            {
+                return null;
+            }
+
+            return index;
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    private static void writeIndex(File indexFile, ByteBuffer crl, int entriesOff, int entriesLimit,
+        byte[] crlDigest, boolean isIndirect)
+        throws IOException
+    {
+        int count = 0;
+        int[] serialOffs = new int[256];
+        int[] serialLens = new int[256];
+        int[] entryOffs = new int[256];
+        int[] issuerOffs = new int[256];
+
+        if (entriesOff >= 0)
+        {
+            ByteBuffer entries = crl.duplicate();
+            entries.limit(entriesLimit);
+            entries.position(entriesOff);
+
+            ASN1Cursor cursor = new ASN1BufferCursor(entries);
+
+            int issuerOff = -1;
+            while (cursor.next())
+            {
+                int entryOff = cursor.getOffset();
+
+                cursor.down();
+                if (!cursor.next() || !cursor.isUniversal(BERTags.INTEGER) || cursor.getContentsLength() < 1)
+                {
+                    throw new IOException("malformed CRL entry at offset " + entryOff);
+                }
+
+                int serialOff = cursor.getContentsOffset();
+                int serialLen = cursor.getContentsLength();
+
+                // skip any redundant leading octets, so equal values have equal encodings
+                while (serialLen > 1 && isRedundant(crl.get(serialOff), crl.get(serialOff + 1)))
+                {
+                    serialOff++;
+                    serialLen--;
+                }
+
+                // revocationDate, then crlEntryExtensions if present
+                boolean hasExtensions = cursor.next() && cursor.next();
+                cursor.up();
+
+                if (isIndirect && hasExtensions)
+                {
+                    try
+                    {
+                        if (findCertificateIssuer(TBSCertList.CRLEntry.getInstance(cursor.toASN1Primitive()), null) != null)
+                        {
+                            issuerOff = entryOff;
+                        }
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        throw new IOException("malformed CRL entry at offset " + entryOff + ": " + e.getMessage());
+                    }
+                }
+
+                if (count == entryOffs.length)
+                {
+                    serialOffs = grow(serialOffs);
+                    serialLens = grow(serialLens);
+                    entryOffs = grow(entryOffs);
+                    issuerOffs = grow(issuerOffs);
+                }
+
+                serialOffs[count] = serialOff;
+                serialLens[count] = serialLen;
+                entryOffs[count] = entryOff;
+                issuerOffs[count] = issuerOff;
+                count++;
+            }
+        }
+
+        int[] order = sort(crl, serialOffs, serialLens, count);
+
+        // write to a temporary file first, so a partially written index is never picked up
+        File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getAbsoluteFile().getParentFile());
+        try
+        {
+            DataOutputStream dOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try
+            {
+                dOut.writeInt(MAGIC);
+                dOut.writeInt(VERSION);
+                dOut.writeLong(crl.limit());
+                dOut.write(crlDigest, 0, DIGEST_LENGTH);
+                dOut.writeInt(count);
+
+                for (int i = 0; i != count; i++)
+                {
+                    int pos = order[i];
+
+                    dOut.writeInt(serialOffs[pos]);
+                    dOut.writeInt(serialLens[pos]);
+                    dOut.writeInt(entryOffs[pos]);
+                    dOut.writeInt(issuerOffs[pos]);
+                }
+            }
+            finally
+            {
+                dOut.close();
+            }
+
+            indexFile.delete();
+            if (!tmpFile.renameTo(indexFile))
+            {
+                throw new IOException("unable to create index file: " + indexFile);
+            }
+        }
+        finally
+        {
+            tmpFile.delete();
+        }
+    }
+
+    private static boolean isRedundant(byte first, byte second)
+    {
+        return (first == 0 && second >= 0) || (first == -1 && second < 0);
+    }
+
+    private static int[] grow(int[] values)
+    {
+        int[] tmp = new int[values.length * 2];
+        System.arraycopy(values, 0, tmp, 0, values.length);
+        return tmp;
+    }
+
+    // a stable merge sort of the entry positions by serial number
+    private static int[] sort(ByteBuffer crl, int[] serialOffs, int[] serialLens, int count)
+    {
+        int[] order = new int[count];
+        int[] tmp = new int[count];
+
+        for (int i = 0; i != count; i++)
+        {
+            order[i] = i;
+        }
+
+        for (int width = 1; width < count; width *= 2)
+        {
+            for (int low = 0; low < count; low += 2 * width)
+            {
+                int mid = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int i = low, j = mid, k = low;
+
+                while (i < mid && j < high)
+                {
+                    // on a tie take from the left, so entries for the same serial number stay in CRL order
+                    if (compareSerials(crl, serialOffs[order[j]], serialLens[order[j]], serialOffs[order[i]], serialLens[order[i]]) < 0)
+                    {
+                        tmp[k++] = order[j++];
+                    }
+                    else
+                    {
+                        tmp[k++] = order[i++];
+                    }
+                }
+                while (i < mid)
+                {
+                    tmp[k++] = order[i++];
+                }
+                while (j < high)
+                {
+                    tmp[k++] = order[j++];
+                }
+            }
+
+            int[] swap = order;
+            order = tmp;
+            tmp = swap;
+        }
+
+        return order;
+    }
+
+    private static int compareSerials(ByteBuffer crl, int aOff, int aLen, int bOff, int bLen)
+    {
+        if (aLen != bLen)
+        {
+            return aLen < bLen ? -1 : 1;
+        }
+
+        for (int i = 0; i != aLen; i++)
+        {
+            int diff = (crl.get(aOff + i) & 0xff) - (crl.get(bOff + i) & 0xff);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        return 0;
+    }
+}
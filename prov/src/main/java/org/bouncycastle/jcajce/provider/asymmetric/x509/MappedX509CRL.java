@@ -0,0 +1,274 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.cert.CRLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bouncycastle.asn1.ASN1BufferCursor;
+import org.bouncycastle.asn1.ASN1Cursor;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x509.CertificateList;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.jcajce.util.JcaJceHelper;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * An X.509 CRL backed by a memory-mapped DER encoding. Only the fields of the TBSCertList other than the
+ * revokedCertificates list are parsed onto the heap, entries are found through a {@link MappedRevokedCertificateIndex}
+ * and parsed as they are asked for.
+ * <p>
+ * The signature is verified by streaming the TBSCertList straight from the mapped encoding, and the key it
+ * verifies with is remembered, so repeated verification with the same key, as happens on each path validation,
+ * is only done once.
+ * </p>
+ */
+class MappedX509CRL
+    extends X509CRLImpl
+{
+    private final ByteBuffer crl;
+    private final int tbsOff;
+    private final int tbsLength;
+    private final byte[] crlDigest;
+    private final MappedRevokedCertificateIndex index;
+
+    private volatile byte[] verifiedKey;
+    private volatile int hashValue;
+    private volatile boolean hashValueSet;
+
+    private MappedX509CRL(JcaJceHelper bcHelper, CertificateList c, ByteBuffer crl, int tbsOff, int tbsLength,
+        byte[] crlDigest, int entriesOff, int entriesLimit, File indexFile)
+        throws CRLException, IOException
+    {
+        super(bcHelper, c, X509CRLObject.createSigAlgName(c), X509CRLObject.createSigAlgParams(c), X509CRLObject.isIndirectCRL(c));
+
+        this.crl = crl;
+        this.tbsOff = tbsOff;
+        this.tbsLength = tbsLength;
+        this.crlDigest = crlDigest;
+        this.index = MappedRevokedCertificateIndex.open(indexFile, crl, entriesOff, entriesLimit, crlDigest, isIndirect);
+    }
+
+    /**
+     * Create a CRL from a mapped DER encoding, opening or building its index.
+     *
+     * @param bcHelper helper for creating signatures.
+     * @param crl the complete encoding of the CRL, from position 0 to the limit.
+     * @param indexFile the file holding the index of the CRL's entries.
+     */
+    static MappedX509CRL getInstance(JcaJceHelper bcHelper, ByteBuffer crl, File indexFile)
+        throws CRLException, IOException
+    {
+        CertificateList c;
+        int tbsOff, tbsLength;
+        int entriesOff = -1, entriesLimit = -1;
+
+        try
+        {
+            ASN1Cursor cursor = new ASN1BufferCursor(crl);
+
+            if (!cursor.next() || !cursor.isUniversal(BERTags.SEQUENCE) || cursor.getEncodedLength() != crl.limit())
+            {
+                throw new CRLException("CRL is not a single DER encoded CertificateList");
+            }
+
+            cursor.down();
+            if (!cursor.next() || !cursor.isUniversal(BERTags.SEQUENCE))
+            {
+                throw new CRLException("CRL contents invalid: TBSCertList not found");
+            }
+
+            tbsOff = cursor.getOffset();
+            tbsLength = cursor.getEncodedLength();
+
+            // everything but the revokedCertificates list, which is the SEQUENCE following the update times
+            ASN1EncodableVector tbsFields = new ASN1EncodableVector();
+            boolean timeSeen = false;
+
+            cursor.down();
+            while (cursor.next())
+            {
+                if (timeSeen && entriesOff < 0 && cursor.isUniversal(BERTags.SEQUENCE))
+                {
+                    entriesOff = cursor.getContentsOffset();
+                    entriesLimit = cursor.getContentsLength() < 0
+                        ? cursor.getOffset() + cursor.getEncodedLength() - 2
+                        : entriesOff + cursor.getContentsLength();
+                }
+                else
+                {
+                    timeSeen |= cursor.isUniversal(BERTags.UTC_TIME) || cursor.isUniversal(BERTags.GENERALIZED_TIME);
+                    tbsFields.add(cursor.toASN1Primitive());
+                }
+            }
+            cursor.up();
+
+            ASN1EncodableVector v = new ASN1EncodableVector(3);
+            v.add(new DERSequence(tbsFields));
+            while (cursor.next())
+            {
+                v.add(cursor.toASN1Primitive());
+            }
+
+            c = CertificateList.getInstance(new DERSequence(v));
+        }
+        catch (CRLException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new ExtCRLException("CRL contents invalid: " + e.getMessage(), e);
+        }
+
+        byte[] signature = c.getSignature().getEncoded(ASN1Encoding.DER);
+        byte[] crlDigest = new byte[MappedRevokedCertificateIndex.DIGEST_LENGTH];
+        Digest digest = new SHA256Digest();
+        digest.update(signature, 0, signature.length);
+        digest.doFinal(crlDigest, 0);
+
+        return new MappedX509CRL(bcHelper, c, crl, tbsOff, tbsLength, crlDigest, entriesOff, entriesLimit, indexFile);
+    }
+
+    RevokedCertificateIndex getRevokedCertificateIndex()
+    {
+        return index;
+    }
+
+    void updateWithTBSCertList(Signature sig)
+        throws SignatureException
+    {
+        ByteBuffer tbs = crl.duplicate();
+        tbs.limit(tbsOff + tbsLength);
+        tbs.position(tbsOff);
+
+        sig.update(tbs);
+    }
+
+    public void verify(PublicKey key)
+        throws CRLException, NoSuchAlgorithmException,
+        InvalidKeyException, NoSuchProviderException, SignatureException
+    {
+        if (!isVerified(key))
+        {
+            super.verify(key);
+            setVerified(key);
+        }
+    }
+
+    public void verify(PublicKey key, String sigProvider)
+        throws CRLException, NoSuchAlgorithmException,
+        InvalidKeyException, NoSuchProviderException, SignatureException
+    {
+        if (!isVerified(key))
+        {
+            super.verify(key, sigProvider);
+            setVerified(key);
+        }
+    }
+
+    public void verify(PublicKey key, Provider sigProvider)
+        throws CRLException, NoSuchAlgorithmException,
+        InvalidKeyException, SignatureException
+    {
+        if (!isVerified(key))
+        {
+            super.verify(key, sigProvider);
+            setVerified(key);
+        }
+    }
+
+    private boolean isVerified(PublicKey key)
+    {
+        byte[] verified = verifiedKey;
+
+        return verified != null && Arrays.areEqual(verified, key.getEncoded());
+    }
+
+    private void setVerified(PublicKey key)
+    {
+        verifiedKey = key.getEncoded();
+    }
+
+    public Set getRevokedCertificates()
+    {
+        int count = index.size();
+        if (count == 0)
+        {
+            return null;
+        }
+
+        Set entrySet = new HashSet();
+        for (int i = 0; i != count; i++)
+        {
+            entrySet.add(new X509CRLEntryObject(index.getEntry(i), isIndirect, index.getCertificateIssuer(i)));
+        }
+
+        return Collections.unmodifiableSet(entrySet);
+    }
+
+    public byte[] getEncoded()
+    {
+        return copy(0, crl.limit());
+    }
+
+    public byte[] getTBSCertList()
+    {
+        return copy(tbsOff, tbsLength);
+    }
+
+    private byte[] copy(int off, int length)
+    {
+        ByteBuffer buf = crl.duplicate();
+        buf.position(off);
+
+        byte[] data = new byte[length];
+        buf.get(data);
+        return data;
+    }
+
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+
+        if (other instanceof MappedX509CRL)
+        {
+            MappedX509CRL otherCRL = (MappedX509CRL)other;
+
+            // the digest of the signature will nearly always tell different CRLs apart without a full comparison
+            return Arrays.areEqual(crlDigest, otherCRL.crlDigest) && crl.equals(otherCRL.crl);
+        }
+
+        // compare encodings, as other X509CRL implementations do
+        return super.equals(other);
+    }
+
+    public int hashCode()
+    {
+        // X509CRL hashes the encoding, so this is consistent with equals() for other implementations.
+        if (!hashValueSet)
+        {
+            hashValue = super.hashCode();
+            hashValueSet = true;
+        }
+
+        return hashValue;
+    }
+}
@@ -0,0 +1,49 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.TBSCertList;
+
+/**
+ * Base class for indexes of the entries of a CRL by serial number.
+ * <p>
+ * Where a serial number appears more than once the first entry is used, as a scan of the list would.
+ * </p>
+ */
+abstract class RevokedCertificateIndex
+{
+    /**
+     * Return the position of the first entry for the passed in serial number, or -1 if there is none.
+     */
+    abstract int indexOf(BigInteger serialNumber);
+
+    abstract TBSCertList.CRLEntry getEntry(int index);
+
+    /**
+     * Return the certificate issuer in effect for an entry of an indirect CRL, taking account of any certificate
+     * issuer extension on the entry itself, or null if it is the CRL issuer.
+     */
+    abstract X500Name getCertificateIssuer(int index);
+
+    /**
+     * Return the certificate issuer named by an entry's certificate issuer extension, or the passed in previous
+     * certificate issuer if the entry has none.
+     */
+    static X500Name findCertificateIssuer(TBSCertList.CRLEntry entry, X500Name previousCertificateIssuer)
+    {
+        if (entry.hasExtensions())
+        {
+            Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+
+            if (currentCaName != null)
+            {
+                return X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
+            }
+        }
+
+        return previousCertificateIssuer;
+    }
+}
@@ -68,6 +68,8 @@
     protected byte[] sigAlgParams;
     protected boolean isIndirect;
 
+    private volatile RevokedCertificateIndex revokedCertificateIndex;
+
     X509CRLImpl(JcaJceHelper bcHelper, CertificateList c, String sigAlgName, byte[] sigAlgParams, boolean isIndirect)
     {
         this.bcHelper = bcHelper;
@@ -245,11 +247,7 @@ private void doVerify(PublicKey key, Signature sig)
         
         try
         {
-            OutputStream sigOut = new BufferedOutputStream(OutputStreamFactory.createStream(sig), 512);
-
-            c.getTBSCertList().encodeTo(sigOut, ASN1Encoding.DER);
-
-            sigOut.close();
+            updateWithTBSCertList(sig);
         }
         catch (IOException e)
         {
@@ -262,6 +260,19 @@ private void doVerify(PublicKey key, Signature sig)
         }
     }
 
+    /**
+     * Feed the DER encoding of the TBSCertList to a signature initialised for verification.
+     */
+    void updateWithTBSCertList(Signature sig)
+        throws IOException, SignatureException
+    {
+        OutputStream sigOut = new BufferedOutputStream(OutputStreamFactory.createStream(sig), 512);
+
+        c.getTBSCertList().encodeTo(sigOut, ASN1Encoding.DER);
+
+        sigOut.close();
+    }
+
     public int getVersion()
     {
         return c.getVersionNumber();
@@ -324,32 +335,30 @@ private Set loadCRLEntries()
         return entrySet;
     }
 
-    public X509CRLEntry getRevokedCertificate(BigInteger serialNumber)
+    RevokedCertificateIndex getRevokedCertificateIndex()
     {
-        Enumeration certs = c.getRevokedCertificateEnumeration();
-
-        X500Name previousCertificateIssuer = null; // the issuer
-        while (certs.hasMoreElements())
+        // built on first use, a racing thread may build its own copy
+        RevokedCertificateIndex index = revokedCertificateIndex;
+        if (null == index)
         {
-            TBSCertList.CRLEntry entry = (TBSCertList.CRLEntry)certs.nextElement();
-
-            if (entry.getUserCertificate().hasValue(serialNumber))
-            {
-                return new X509CRLEntryObject(entry, isIndirect, previousCertificateIssuer);
-            }
+            index = new HashedRevokedCertificateIndex(c.getTBSCertList(), isIndirect);
+            revokedCertificateIndex = index;
+        }
+        return index;
+    }
 
-            if (isIndirect && entry.hasExtensions())
-            {
-                Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+    public X509CRLEntry getRevokedCertificate(BigInteger serialNumber)
+    {
+        RevokedCertificateIndex index = getRevokedCertificateIndex();
 
-                if (currentCaName != null)
-                {
-                    previousCertificateIssuer = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                }
-            }
+        int pos = index.indexOf(serialNumber);
+        if (pos < 0)
+        {
+            return null;
         }
 
-        return null;
+        // passing the issuer in effect as the previous one is equivalent, as any issuer on the entry takes precedence
+        return new X509CRLEntryObject(index.getEntry(pos), isIndirect, index.getCertificateIssuer(pos));
     }
 
     public Set getRevokedCertificates()
@@ -539,56 +548,41 @@ public boolean isRevoked(Certificate cert)
             throw new IllegalArgumentException("X.509 CRL used with non X.509 Cert");
         }
 
-        Enumeration certs = c.getRevokedCertificateEnumeration();
-
-        X500Name caName = c.getIssuer();
+        RevokedCertificateIndex index = getRevokedCertificateIndex();
 
-        if (certs.hasMoreElements())
+        int pos = index.indexOf(((X509Certificate)cert).getSerialNumber());
+        if (pos >= 0)
         {
-            BigInteger serial = ((X509Certificate)cert).getSerialNumber();
-
-            while (certs.hasMoreElements())
+            X500Name caName = index.getCertificateIssuer(pos);
+            if (caName == null)
             {
-                TBSCertList.CRLEntry entry = TBSCertList.CRLEntry.getInstance(certs.nextElement());
+                caName = c.getIssuer();
+            }
 
-                if (isIndirect && entry.hasExtensions())
-                {
-                    Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+            X500Name issuer;
 
-                    if (currentCaName != null)
-                    {
-                        caName = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                    }
+            if (cert instanceof  X509Certificate)
+            {
+                issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
+            }
+            else
+            {
+                try
+                {
+                    issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
                 }
-
-                if (entry.getUserCertificate().hasValue(serial))
+                catch (CertificateEncodingException e)
                 {
-                    X500Name issuer;
-
-                    if (cert instanceof  X509Certificate)
-                    {
-                        issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
-                    }
-                    else
-                    {
-                        try
-                        {
-                            issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
-                        }
-                        catch (CertificateEncodingException e)
-                        {
-                            throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
-                        }
-                    }
-
-                    if (!caName.equals(issuer))
-                    {
-                        return false;
-                    }
-
-                    return true;
+                    throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
                 }
             }
+
+            if (!caName.equals(issuer))
+            {
+                return false;
+            }
+
+            return true;
         }
 
         return false;
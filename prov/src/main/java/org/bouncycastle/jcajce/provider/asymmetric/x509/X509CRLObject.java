@@ -99,7 +99,7 @@ private X509CRLInternal getInternalCRL()
         }
     }
 
-    private static String createSigAlgName(CertificateList c) throws CRLException
+    static String createSigAlgName(CertificateList c) throws CRLException
     {
         try
         {
@@ -111,7 +111,7 @@ private static String createSigAlgName(CertificateList c) throws CRLException
         }
     }
 
-    private static byte[] createSigAlgParams(CertificateList c) throws CRLException
+    static byte[] createSigAlgParams(CertificateList c) throws CRLException
     {
         try
         {
@@ -129,7 +129,7 @@ private static byte[] createSigAlgParams(CertificateList c) throws CRLException
         }
     }
 
-    private static boolean isIndirectCRL(CertificateList c) throws CRLException
+    static boolean isIndirectCRL(CertificateList c) throws CRLException
     {
         try
         {
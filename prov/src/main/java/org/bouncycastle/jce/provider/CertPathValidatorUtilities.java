@@ -69,6 +69,7 @@
 import org.bouncycastle.jcajce.PKIXCertStore;
 import org.bouncycastle.jcajce.PKIXCertStoreSelector;
 import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.PKIXValidationCache;
 import org.bouncycastle.jcajce.util.JcaJceHelper;
 import org.bouncycastle.jce.exception.ExtCertPathValidatorException;
 import org.bouncycastle.util.Selector;
@@ -156,6 +157,31 @@ protected static TrustAnchor findTrustAnchor(
         Set trustAnchors,
         String sigProvider)
         throws AnnotatedException
+    {
+        return findTrustAnchor(cert, trustAnchors, sigProvider, null);
+    }
+
+    /**
+     * Search the given Set of TrustAnchor's for one that is the
+     * issuer of the given X509 certificate, as above, skipping the
+     * signature verification if the validation cache has already
+     * seen the signature verify with the trust anchor's key.
+     *
+     * @param cert         the X509 certificate
+     * @param trustAnchors a Set of TrustAnchor's
+     * @param sigProvider  the provider to use for signature verification
+     * @param validationCache the cache of verified signatures, may be null.
+     * @return the <code>TrustAnchor</code> object if found or
+     *         <code>null</code> if not.
+     * @throws AnnotatedException if a TrustAnchor was found but the signature verification
+     * on the given certificate has thrown an exception.
+     */
+    protected static TrustAnchor findTrustAnchor(
+        X509Certificate cert,
+        Set trustAnchors,
+        String sigProvider,
+        PKIXValidationCache validationCache)
+        throws AnnotatedException
     {
         TrustAnchor trust = null;
         PublicKey trustPublicKey = null;
@@ -215,11 +241,17 @@ else if (trust.getCA() != null
                 trust = null;
             }
 
-            if (trustPublicKey != null)
+            if (trustPublicKey != null
+                && (validationCache == null || !validationCache.isSignatureVerified(cert, trustPublicKey)))
             {
                 try
                 {
                     verifyX509Certificate(cert, trustPublicKey, sigProvider);
+
+                    if (validationCache != null)
+                    {
+                        validationCache.addVerifiedSignature(cert, trustPublicKey);
+                    }
                 }
                 catch (Exception ex)
                 {
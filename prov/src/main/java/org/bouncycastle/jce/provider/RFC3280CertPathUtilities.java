@@ -57,6 +57,7 @@
 import org.bouncycastle.jcajce.PKIXCertStoreSelector;
 import org.bouncycastle.jcajce.PKIXExtendedBuilderParameters;
 import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.PKIXValidationCache;
 import org.bouncycastle.jcajce.util.JcaJceHelper;
 import org.bouncycastle.jce.exception.ExtCertPathValidatorException;
 import org.bouncycastle.util.Arrays;
@@ -608,9 +609,31 @@ protected static X509CRL processCRLH(
     {
         Exception lastException = null;
 
-        for (Iterator it = deltacrls.iterator(); it.hasNext();)
+        X509CRL[] crls = (X509CRL[])deltacrls.toArray(new X509CRL[deltacrls.size()]);
+        BigInteger[] crlNumbers = new BigInteger[crls.length];
+        for (int i = 0; i != crls.length; i++)
         {
-            X509CRL crl = (X509CRL)it.next();
+            crlNumbers[i] = getCRLNumber(crls[i]);
+        }
+
+        // try the most recent delta CRLs first - the sets are small, so an insertion sort will do
+        for (int i = 1; i < crls.length; i++)
+        {
+            for (int j = i; j > 0 && compareCRLNumbers(crlNumbers[j - 1], crlNumbers[j]) < 0; j--)
+            {
+                X509CRL crl = crls[j];
+                crls[j] = crls[j - 1];
+                crls[j - 1] = crl;
+
+                BigInteger crlNumber = crlNumbers[j];
+                crlNumbers[j] = crlNumbers[j - 1];
+                crlNumbers[j - 1] = crlNumber;
+            }
+        }
+
+        for (int i = 0; i != crls.length; i++)
+        {
+            X509CRL crl = crls[i];
             try
             {
                 crl.verify(key);
@@ -629,6 +652,31 @@ protected static X509CRL processCRLH(
         return null;
     }
 
+    private static BigInteger getCRLNumber(X509CRL crl)
+    {
+        try
+        {
+            ASN1Primitive crlNumber = CertPathValidatorUtilities.getExtensionValue(crl, CRL_NUMBER);
+
+            return crlNumber == null ? null : ASN1Integer.getInstance(crlNumber).getPositiveValue();
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
+    // a missing CRL number orders before any other
+    private static int compareCRLNumbers(BigInteger a, BigInteger b)
+    {
+        if (a == null)
+        {
+            return b == null ? 0 : -1;
+        }
+
+        return b == null ? 1 : a.compareTo(b);
+    }
+
     protected static Set processCRLA1i(
         Date currentDate,
         PKIXExtendedParameters paramsPKIX,
@@ -1500,10 +1548,12 @@ protected static void processCertA(
     {
         List certs = certPath.getCertificates();
         X509Certificate cert = (X509Certificate)certs.get(index);
+        PKIXValidationCache validationCache = paramsPKIX.getValidationCache();
         //
         // (a) verify
         //
-        if (!verificationAlreadyPerformed)
+        if (!verificationAlreadyPerformed
+            && (validationCache == null || !validationCache.isSignatureVerified(cert, workingPublicKey)))
         {
             try
             {
@@ -1516,6 +1566,11 @@ protected static void processCertA(
             {
                 throw new ExtCertPathValidatorException("Could not validate certificate signature.", e, certPath, index);
             }
+
+            if (validationCache != null)
+            {
+                validationCache.addVerifiedSignature(cert, workingPublicKey);
+            }
         }
 
         try
@@ -1545,8 +1600,18 @@ protected static void processCertA(
         {
             try
             {
-                checkCRLs(paramsPKIX, cert, CertPathValidatorUtilities.getValidCertDateFromValidityModel(paramsPKIX,
-                    certPath, index), sign, workingPublicKey, certs, helper);
+                Date validCertDate = CertPathValidatorUtilities.getValidCertDateFromValidityModel(paramsPKIX,
+                    certPath, index);
+
+                if (validationCache == null || !validationCache.isNotRevoked(cert, workingPublicKey, paramsPKIX, validCertDate))
+                {
+                    checkCRLs(paramsPKIX, cert, validCertDate, sign, workingPublicKey, certs, helper);
+
+                    if (validationCache != null)
+                    {
+                        validationCache.addNotRevoked(cert, workingPublicKey, paramsPKIX, validCertDate);
+                    }
+                }
             }
             catch (AnnotatedException e)
             {
@@ -1,13 +1,36 @@
 package org.bouncycastle.jce.provider.test;
 
 import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.Security;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.Set;
 
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuingDistributionPoint;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V2TBSCertListGenerator;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.util.encoders.Base64;
 import org.bouncycastle.util.test.SimpleTest;
@@ -251,11 +274,85 @@ public void directCRLTest()
         }
     }
     
+    public void lookupTest()
+        throws Exception
+    {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+        X509CRL crl = (X509CRL)cf.generateCRL(new ByteArrayInputStream(inDirectCrl));
+
+        // lookups should find the same entries, with the same certificate issuers, as the full entry set
+        Iterator it = crl.getRevokedCertificates().iterator();
+        while (it.hasNext())
+        {
+            X509CRLEntry entry = (X509CRLEntry)it.next();
+            X509CRLEntry found = crl.getRevokedCertificate(entry.getSerialNumber());
+
+            isEquals(entry, found);
+            isEquals(entry.getCertificateIssuer(), found.getCertificateIssuer());
+        }
+        isTrue(crl.getRevokedCertificate(BigInteger.valueOf(1)) == null);
+
+        KeyPairGenerator kpGen = KeyPairGenerator.getInstance("RSA", "BC");
+        kpGen.initialize(1024);
+        KeyPair kp = kpGen.generateKeyPair();
+
+        X509Certificate crlIssuerCert = TestUtils.createSelfSignedCert("CN=CRL Issuer", "SHA256withRSA", kp);
+        X509Certificate otherCert = TestUtils.createSelfSignedCert("CN=Other CA", "SHA256withRSA", kp);
+        X509Certificate unrevokedCert = TestUtils.createSelfSignedCert("CN=Other CA", "SHA256withRSA", kp);
+
+        V2TBSCertListGenerator tbsGen = new V2TBSCertListGenerator();
+        tbsGen.setSignature(new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE));
+        tbsGen.setIssuer(new X500Name("CN=CRL Issuer"));
+        tbsGen.setThisUpdate(new Time(new Date()));
+
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.issuingDistributionPoint, true,
+            new IssuingDistributionPoint(null, false, false, null, true, false));
+        tbsGen.setExtensions(extGen.generate());
+
+        Time revocationDate = new Time(new Date());
+        tbsGen.addCRLEntry(new ASN1Integer(crlIssuerCert.getSerialNumber()), revocationDate, CRLReason.keyCompromise);
+        for (int i = 0; i != 5000; i++)
+        {
+            tbsGen.addCRLEntry(new ASN1Integer(BigInteger.valueOf(i).shiftLeft(64).add(BigInteger.valueOf(i))), revocationDate, CRLReason.keyCompromise);
+        }
+
+        // switch to the other CA, carried over to the following entries
+        extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.certificateIssuer, true, new GeneralNames(new GeneralName(new X500Name("CN=Other CA"))));
+        tbsGen.addCRLEntry(new ASN1Integer(BigInteger.valueOf(-1)), revocationDate, extGen.generate());
+        tbsGen.addCRLEntry(new ASN1Integer(otherCert.getSerialNumber()), revocationDate, CRLReason.keyCompromise);
+        // a repeat of an earlier serial number, the first entry is the one found
+        tbsGen.addCRLEntry(new ASN1Integer(crlIssuerCert.getSerialNumber()), revocationDate, CRLReason.keyCompromise);
+
+        byte[] encoded = new DERSequence(new ASN1Encodable[]{ tbsGen.generateTBSCertList(),
+            new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE), new DERBitString(new byte[128]) })
+            .getEncoded();
+        crl = (X509CRL)cf.generateCRL(new ByteArrayInputStream(encoded));
+
+        isTrue(crl.isRevoked(crlIssuerCert));
+        isTrue(crl.isRevoked(otherCert));
+        isTrue(!crl.isRevoked(unrevokedCert));
+
+        isTrue(crl.getRevokedCertificate(crlIssuerCert.getSerialNumber()).getCertificateIssuer() == null);
+        isEquals(new X500Principal("CN=Other CA"), crl.getRevokedCertificate(otherCert.getSerialNumber()).getCertificateIssuer());
+        isEquals(new X500Principal("CN=Other CA"), crl.getRevokedCertificate(BigInteger.valueOf(-1)).getCertificateIssuer());
+        for (int i = 0; i < 5000; i += 7)
+        {
+            BigInteger serial = BigInteger.valueOf(i).shiftLeft(64).add(BigInteger.valueOf(i));
+
+            isEquals(serial, crl.getRevokedCertificate(serial).getSerialNumber());
+            isTrue(crl.getRevokedCertificate(serial.add(BigInteger.valueOf(1))) == null);
+        }
+        isTrue(crl.getRevokedCertificate((BigInteger)null) == null);
+    }
+
     public void performTest()
         throws Exception
     {
         indirectCRLTest();
         directCRLTest();
+        lookupTest();
     }
 
     public static void main(
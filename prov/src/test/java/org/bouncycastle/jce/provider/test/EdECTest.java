@@ -30,6 +30,7 @@
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
 import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.jcajce.provider.asymmetric.edec.Ed25519BatchVerifier;
 import org.bouncycastle.jcajce.spec.DHUParameterSpec;
 import org.bouncycastle.jcajce.spec.EdDSAParameterSpec;
 import org.bouncycastle.jcajce.spec.UserKeyingMaterialSpec;
@@ -480,6 +481,46 @@ private void ed25519SignatureTest()
         throws Exception
     {
         signatureTest("Ed25519");
+        ed25519BatchTest();
+    }
+
+    private void ed25519BatchTest()
+        throws Exception
+    {
+        KeyPairGenerator kpGen = KeyPairGenerator.getInstance("Ed25519", "BC");
+        Signature signer = Signature.getInstance("Ed25519", "BC");
+        SecureRandom random = new SecureRandom();
+
+        int count = 10;
+        PublicKey[] keys = new PublicKey[count];
+        byte[][] messages = new byte[count][];
+        byte[][] signatures = new byte[count][];
+
+        for (int i = 0; i != count; i++)
+        {
+            KeyPair kp = kpGen.generateKeyPair();
+
+            messages[i] = new byte[i * 10];
+            random.nextBytes(messages[i]);
+
+            signer.initSign(kp.getPrivate());
+            signer.update(messages[i]);
+
+            keys[i] = kp.getPublic();
+            signatures[i] = signer.sign();
+        }
+
+        boolean[] results = new boolean[count];
+
+        isTrue("batch verify failed", Ed25519BatchVerifier.verify(keys, messages, signatures, random, results));
+
+        signatures[3][5] ^= 0x01;
+
+        isTrue("batch verify passed", !Ed25519BatchVerifier.verify(keys, messages, signatures, random, results));
+        for (int i = 0; i != count; i++)
+        {
+            isTrue("batch result wrong", results[i] == (i != 3));
+        }
     }
 
     private void agreementTest(String algorithm)
@@ -0,0 +1,234 @@
+package org.bouncycastle.jce.provider.test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertStore;
+import java.security.cert.CertificateFactory;
+import java.security.cert.CollectionCertStoreParameters;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuingDistributionPoint;
+import org.bouncycastle.asn1.x509.X509Extensions;
+import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.provider.asymmetric.x509.IncrementalCRLStore;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.test.SimpleTest;
+import org.bouncycastle.x509.X509V2CRLGenerator;
+import org.bouncycastle.x509.extension.AuthorityKeyIdentifierStructure;
+
+public class IncrementalCRLStoreTest
+    extends SimpleTest
+{
+    private KeyPair caKp;
+    private X509Certificate caCert;
+    private Date now = new Date(System.currentTimeMillis() - 60000);
+
+    public String getName()
+    {
+        return "IncrementalCRLStore";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        caKp = TestUtils.generateRSAKeyPair();
+        KeyPair eeKp = TestUtils.generateRSAKeyPair();
+
+        caCert = TestUtils.generateRootCert(caKp);
+        X509Certificate certA = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=A"), caKp.getPrivate(), caCert);
+        X509Certificate certB = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=B"), caKp.getPrivate(), caCert);
+        X509Certificate certC = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=C"), caKp.getPrivate(), caCert);
+
+        BigInteger serialA = certA.getSerialNumber();
+        BigInteger serialB = certB.getSerialNumber();
+        BigInteger serialC = certC.getSerialNumber();
+
+        X509CRL base1 = createCRL(1, -1, new BigInteger[]{ serialA }, new int[]{ CRLReason.certificateHold });
+        X509CRL delta2 = createCRL(2, 1, new BigInteger[]{ serialB }, new int[]{ CRLReason.keyCompromise });
+        // deltas are cumulative: B is still revoked, and the hold on A is lifted
+        X509CRL delta3 = createCRL(3, 1, new BigInteger[]{ serialB, serialA }, new int[]{ CRLReason.keyCompromise, CRLReason.removeFromCRL });
+        X509CRL base4 = createCRL(4, -1, new BigInteger[]{ serialB }, new int[]{ CRLReason.keyCompromise });
+
+        IncrementalCRLStore store = new IncrementalCRLStore();
+        X500Principal issuer = caCert.getSubjectX500Principal();
+
+        isTrue(store.addCRL(base1));
+        isTrue(store.addCRL(delta2));
+        isEquals(2, store.getMatches(null).size());
+
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialA) != null);
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialB) != null);
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialC) == null);
+
+        checkValidation(store, certA, false);
+        checkValidation(store, certB, false);
+        checkValidation(store, certC, true);
+
+        // a newer delta replaces the old one
+        isTrue(store.addCRL(delta3));
+        isTrue(!store.addCRL(delta2));
+        isTrue(!store.addCRL(base1));
+        isEquals(2, store.getMatches(null).size());
+        isTrue(store.getMatches(null).contains(delta3));
+
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialA) == null);
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialB) != null);
+
+        checkValidation(store, certA, true);
+        checkValidation(store, certB, false);
+
+        // with an older delta also on offer, the most recent one should be used
+        CertStore oldDeltas = CertStore.getInstance("Collection",
+            new CollectionCertStoreParameters(Collections.singletonList(delta2)), "BC");
+        checkValidation(store, oldDeltas, certA, true);
+
+        // a new complete CRL supersedes the delta
+        isTrue(store.addCRL(base4));
+        isEquals(1, store.getMatches(null).size());
+        isTrue(!store.addCRL(delta3));
+
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialA) == null);
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialB) != null);
+
+        checkValidation(store, certA, true);
+        checkValidation(store, certB, false);
+
+        indirectTest(serialA, serialB, serialC);
+    }
+
+    // entries of an indirect CRL are only returned for the issuer in effect for them
+    private void indirectTest(BigInteger serialA, BigInteger serialB, BigInteger serialC)
+        throws Exception
+    {
+        X500Principal issuer = caCert.getSubjectX500Principal();
+        X500Principal other = new X500Principal("CN=Other CA");
+
+        X509V2CRLGenerator crlGen = new X509V2CRLGenerator();
+
+        crlGen.setIssuerDN(issuer);
+        crlGen.setThisUpdate(now);
+        crlGen.setNextUpdate(new Date(now.getTime() + 1000000));
+        crlGen.setSignatureAlgorithm("SHA256WithRSAEncryption");
+
+        crlGen.addCRLEntry(serialC, now, CRLReason.keyCompromise);
+        crlGen.addCRLEntry(serialA, now, createCertificateIssuer(other));
+        crlGen.addCRLEntry(serialB, now, CRLReason.keyCompromise);
+        crlGen.addCRLEntry(serialA, now, createCertificateIssuer(issuer));
+
+        crlGen.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.ONE));
+        crlGen.addExtension(Extension.issuingDistributionPoint, true,
+            new IssuingDistributionPoint(null, false, false, null, true, false));
+
+        IncrementalCRLStore store = new IncrementalCRLStore();
+        isTrue(store.addCRL(crlGen.generate(caKp.getPrivate(), "BC")));
+
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialC) != null);
+        isTrue(store.getRevokedCertificate(issuer, other, serialC) == null);
+        isTrue(store.getRevokedCertificate(issuer, other, serialA) != null);
+        isTrue(store.getRevokedCertificate(issuer, other, serialB) != null);
+        isTrue(store.getRevokedCertificate(issuer, issuer, serialB) == null);
+
+        // A was revoked by both issuers, the second entry has to be found for the CRL issuer
+        X509CRLEntry entry = store.getRevokedCertificate(issuer, issuer, serialA);
+        isTrue(entry != null);
+        isEquals(issuer, entry.getCertificateIssuer());
+
+        isTrue(store.getRevokedCertificate(other, other, serialA) == null);
+    }
+
+    private X509Extensions createCertificateIssuer(X500Principal certificateIssuer)
+        throws Exception
+    {
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+
+        extGen.addExtension(Extension.certificateIssuer, true,
+            new GeneralNames(new GeneralName(X500Name.getInstance(certificateIssuer.getEncoded()))));
+
+        return X509Extensions.getInstance(extGen.generate().toASN1Primitive());
+    }
+
+    private X509CRL createCRL(int crlNumber, int baseCRLNumber, BigInteger[] serials, int[] reasons)
+        throws Exception
+    {
+        X509V2CRLGenerator crlGen = new X509V2CRLGenerator();
+
+        crlGen.setIssuerDN(caCert.getSubjectX500Principal());
+        crlGen.setThisUpdate(new Date(now.getTime() + crlNumber * 1000));
+        crlGen.setNextUpdate(new Date(now.getTime() + 1000000));
+        crlGen.setSignatureAlgorithm("SHA256WithRSAEncryption");
+
+        for (int i = 0; i != serials.length; i++)
+        {
+            crlGen.addCRLEntry(serials[i], now, reasons[i]);
+        }
+
+        crlGen.addExtension(Extension.authorityKeyIdentifier, false, new AuthorityKeyIdentifierStructure(caCert));
+        crlGen.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(crlNumber)));
+        if (baseCRLNumber >= 0)
+        {
+            crlGen.addExtension(Extension.deltaCRLIndicator, true, new CRLNumber(BigInteger.valueOf(baseCRLNumber)));
+        }
+
+        return crlGen.generate(caKp.getPrivate(), "BC");
+    }
+
+    private void checkValidation(IncrementalCRLStore store, X509Certificate cert, boolean valid)
+        throws Exception
+    {
+        checkValidation(store, null, cert, valid);
+    }
+
+    private void checkValidation(IncrementalCRLStore store, CertStore certStore, X509Certificate cert, boolean valid)
+        throws Exception
+    {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+        CertPathValidator cpv = CertPathValidator.getInstance("PKIX", "BC");
+
+        PKIXParameters params = new PKIXParameters(Collections.singleton(new TrustAnchor(caCert, null)));
+        params.setRevocationEnabled(true);
+        if (certStore != null)
+        {
+            params.addCertStore(certStore);
+        }
+
+        PKIXExtendedParameters extParams = new PKIXExtendedParameters.Builder(params)
+            .setUseDeltasEnabled(true).addCRLStore(store).build();
+
+        try
+        {
+            cpv.validate(cf.generateCertPath(Collections.singletonList(cert)), extParams);
+            isTrue("revoked certificate validated", valid);
+        }
+        catch (CertPathValidatorException e)
+        {
+            isTrue(e.getMessage(), !valid);
+            isTrue(e.getMessage(), e.getMessage().startsWith("Certificate revocation after"));
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        runTest(new IncrementalCRLStoreTest());
+    }
+}
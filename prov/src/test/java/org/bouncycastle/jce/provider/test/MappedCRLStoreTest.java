@@ -0,0 +1,256 @@
+package org.bouncycastle.jce.provider.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.SignatureException;
+import java.security.cert.CRLException;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.provider.asymmetric.x509.MappedCRLStore;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Objects;
+import org.bouncycastle.util.io.Streams;
+import org.bouncycastle.util.test.SimpleTest;
+import org.bouncycastle.x509.X509V2CRLGenerator;
+
+public class MappedCRLStoreTest
+    extends SimpleTest
+{
+    public String getName()
+    {
+        return "MappedCRLStore";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        File dir = File.createTempFile("crls", "");
+        dir.delete();
+        dir.mkdir();
+
+        try
+        {
+            KeyPair caKp = TestUtils.generateRSAKeyPair();
+            KeyPair eeKp = TestUtils.generateRSAKeyPair();
+
+            X509Certificate caCert = TestUtils.generateRootCert(caKp);
+            X509Certificate revokedCert = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=Revoked"), caKp.getPrivate(), caCert);
+            X509Certificate validCert = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=Valid"), caKp.getPrivate(), caCert);
+
+            X509V2CRLGenerator crlGen = new X509V2CRLGenerator();
+            Date now = new Date();
+
+            crlGen.setIssuerDN(caCert.getSubjectX500Principal());
+            crlGen.setThisUpdate(now);
+            crlGen.setNextUpdate(new Date(now.getTime() + 100000));
+            crlGen.setSignatureAlgorithm("SHA256WithRSAEncryption");
+
+            // serial numbers of assorted lengths and signs, out of order
+            Random rand = new Random(1);
+            for (int i = 0; i != 3000; i++)
+            {
+                BigInteger serial = new BigInteger(1 + rand.nextInt(100), rand);
+                crlGen.addCRLEntry((i % 5 == 0) ? serial.negate() : serial, now, CRLReason.keyCompromise);
+            }
+            crlGen.addCRLEntry(revokedCert.getSerialNumber(), now, CRLReason.privilegeWithdrawn);
+
+            CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+            X509CRL crl = (X509CRL)cf.generateCRL(new ByteArrayInputStream(crlGen.generate(caKp.getPrivate(), "BC").getEncoded()));
+            File crlFile = writeFile(dir, "ca.crl", crl.getEncoded());
+
+            MappedCRLStore store = new MappedCRLStore();
+            X509CRL mapped = store.addCRL(crlFile);
+
+            checkCRL(crl, mapped);
+
+            mapped.verify(caKp.getPublic());
+            mapped.verify(caKp.getPublic());
+            try
+            {
+                mapped.verify(eeKp.getPublic());
+                fail("mapped CRL verified with wrong key");
+            }
+            catch (SignatureException e)
+            {
+                // expected
+            }
+
+            isTrue(mapped.isRevoked(revokedCert));
+            isTrue(!mapped.isRevoked(validCert));
+
+            // the index should be picked up again, and the CRL should be equal to the first one
+            File indexFile = new File(dir, "ca.crl.idx");
+            byte[] index = readFile(indexFile);
+
+            X509CRL reopened = new MappedCRLStore().addCRL(crlFile);
+            isTrue(Arrays.areEqual(index, readFile(indexFile)));
+            isEquals(mapped, reopened);
+            isEquals(mapped.hashCode(), reopened.hashCode());
+            checkCRL(crl, reopened);
+
+            // an index for a different CRL should be replaced
+            X509CRL indirectCRL = (X509CRL)cf.generateCRL(new ByteArrayInputStream(new CRL5Test().inDirectCrl));
+            File indirectFile = writeFile(dir, "indirect.crl", indirectCRL.getEncoded());
+            writeFile(dir, "indirect.crl.idx", index);
+
+            X509CRL mappedIndirect = store.addCRL(indirectFile);
+            isTrue(!Arrays.areEqual(index, readFile(new File(dir, "indirect.crl.idx"))));
+            checkCRL(indirectCRL, mappedIndirect);
+            isTrue(!mapped.equals(mappedIndirect));
+
+            // separate index directory
+            File indexDir = new File(dir, "index");
+            indexDir.mkdir();
+            checkCRL(crl, new MappedCRLStore(indexDir).addCRL(crlFile));
+            isTrue(new File(indexDir, "ca.crl.idx").exists());
+
+            store.removeCRL(mappedIndirect);
+            isEquals(1, store.getMatches(null).size());
+
+            pathValidationTest(store, caCert, revokedCert, validCert);
+
+            try
+            {
+                store.addCRL(writeFile(dir, "bad.crl", new byte[]{ 0x30, 0x03, 0x02, 0x01, 0x01 }));
+                fail("bad CRL accepted");
+            }
+            catch (CRLException e)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            deleteAll(dir);
+        }
+    }
+
+    private void checkCRL(X509CRL crl, X509CRL mapped)
+        throws Exception
+    {
+        isTrue(Arrays.areEqual(crl.getEncoded(), mapped.getEncoded()));
+        isEquals(crl, mapped);
+        isEquals(mapped, crl);
+        isEquals(crl.hashCode(), mapped.hashCode());
+        isTrue(Arrays.areEqual(crl.getTBSCertList(), mapped.getTBSCertList()));
+        isEquals(crl.getIssuerX500Principal(), mapped.getIssuerX500Principal());
+        isEquals(crl.getThisUpdate(), mapped.getThisUpdate());
+        isEquals(crl.getNextUpdate(), mapped.getNextUpdate());
+        isEquals(crl.getSigAlgName(), mapped.getSigAlgName());
+        isTrue(Objects.areEqual(crl.getCriticalExtensionOIDs(), mapped.getCriticalExtensionOIDs()));
+        isTrue(Arrays.areEqual(crl.getExtensionValue(Extension.issuingDistributionPoint.getId()),
+            mapped.getExtensionValue(Extension.issuingDistributionPoint.getId())));
+        isEquals(crl.getRevokedCertificates(), mapped.getRevokedCertificates());
+
+        Iterator it = crl.getRevokedCertificates().iterator();
+        while (it.hasNext())
+        {
+            X509CRLEntry entry = (X509CRLEntry)it.next();
+            X509CRLEntry expected = crl.getRevokedCertificate(entry.getSerialNumber());
+            X509CRLEntry found = mapped.getRevokedCertificate(entry.getSerialNumber());
+
+            isEquals(expected, found);
+            isTrue(Objects.areEqual(expected.getCertificateIssuer(), found.getCertificateIssuer()));
+
+            BigInteger other = entry.getSerialNumber().shiftLeft(8).add(BigInteger.valueOf(255));
+            isTrue(Objects.areEqual(crl.getRevokedCertificate(other), mapped.getRevokedCertificate(other)));
+        }
+        isTrue(mapped.getRevokedCertificate((BigInteger)null) == null);
+    }
+
+    private void pathValidationTest(MappedCRLStore store, X509Certificate caCert, X509Certificate revokedCert, X509Certificate validCert)
+        throws Exception
+    {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+        CertPathValidator cpv = CertPathValidator.getInstance("PKIX", "BC");
+
+        PKIXParameters params = new PKIXParameters(Collections.singleton(new TrustAnchor(caCert, null)));
+        params.setRevocationEnabled(true);
+
+        PKIXExtendedParameters extParams = new PKIXExtendedParameters.Builder(params).addCRLStore(store).build();
+
+        CertPath validPath = cf.generateCertPath(Collections.singletonList(validCert));
+        cpv.validate(validPath, extParams);
+
+        CertPath revokedPath = cf.generateCertPath(Collections.singletonList(revokedCert));
+        try
+        {
+            cpv.validate(revokedPath, extParams);
+            fail("revoked certificate validated");
+        }
+        catch (CertPathValidatorException e)
+        {
+            isTrue(e.getMessage(), e.getMessage().startsWith("Certificate revocation after"));
+        }
+    }
+
+    private static File writeFile(File dir, String name, byte[] data)
+        throws IOException
+    {
+        File file = new File(dir, name);
+        OutputStream fOut = new FileOutputStream(file);
+        fOut.write(data);
+        fOut.close();
+        return file;
+    }
+
+    private static byte[] readFile(File file)
+        throws IOException
+    {
+        InputStream fIn = new FileInputStream(file);
+        try
+        {
+            return Streams.readAll(fIn);
+        }
+        finally
+        {
+            fIn.close();
+        }
+    }
+
+    private static void deleteAll(File file)
+    {
+        File[] files = file.listFiles();
+        if (files != null)
+        {
+            for (int i = 0; i != files.length; i++)
+            {
+                deleteAll(files[i]);
+            }
+        }
+        file.delete();
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        runTest(new MappedCRLStoreTest());
+    }
+}
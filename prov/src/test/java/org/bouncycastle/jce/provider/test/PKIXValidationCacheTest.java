@@ -0,0 +1,255 @@
+package org.bouncycastle.jce.provider.test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.jcajce.PKIXCRLStore;
+import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.PKIXValidationCache;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.Selector;
+import org.bouncycastle.util.test.SimpleTest;
+import org.bouncycastle.x509.X509V2CRLGenerator;
+import org.bouncycastle.x509.extension.AuthorityKeyIdentifierStructure;
+
+public class PKIXValidationCacheTest
+    extends SimpleTest
+{
+    private KeyPair caKp;
+    private X509Certificate caCert;
+    private Date now = new Date(System.currentTimeMillis() - 60000);
+
+    public String getName()
+    {
+        return "PKIXValidationCache";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        caKp = TestUtils.generateRSAKeyPair();
+        KeyPair intKp = TestUtils.generateRSAKeyPair();
+        KeyPair eeKp = TestUtils.generateRSAKeyPair();
+
+        caCert = TestUtils.generateRootCert(caKp);
+        X509Certificate intCert = TestUtils.generateIntermediateCert(intKp.getPublic(), caKp.getPrivate(), caCert);
+        X509Certificate certA = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=A"), intKp.getPrivate(), intCert);
+        X509Certificate certB = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=B"), intKp.getPrivate(), intCert);
+
+        List<X509CRL> crls = new ArrayList<X509CRL>();
+        CRLList crlStore = new CRLList(crls);
+
+        crls.add(createCRL(caKp, caCert, 1, null));
+
+        // signature results only
+        PKIXValidationCache cache = new PKIXValidationCache(100);
+
+        checkValidation(cache, null, certA, intCert, true);
+        isEquals(2, cache.size());
+        checkValidation(cache, null, certB, intCert, true);
+        isEquals(3, cache.size());
+        isTrue(cache.isSignatureVerified(intCert, caKp.getPublic()));
+        isTrue(!cache.isSignatureVerified(intCert, intKp.getPublic()));
+
+        // a certificate that does not verify is not cached
+        X509Certificate forged = TestUtils.generateEndEntityCert(eeKp.getPublic(), new X500Name("CN=A"), eeKp.getPrivate(), intCert);
+        checkValidation(cache, null, forged, intCert, false);
+        checkValidation(cache, null, forged, intCert, false);
+        isEquals(3, cache.size());
+
+        // the least recently used results are dropped
+        PKIXValidationCache small = new PKIXValidationCache(1);
+        checkValidation(small, null, certA, intCert, true);
+        isEquals(1, small.size());
+
+        // revocation results
+        cache = new PKIXValidationCache(100, 60000);
+        List<X509CRL> intCRLs = new ArrayList<X509CRL>();
+        intCRLs.add(createCRL(intKp, intCert, 1, null));
+        CRLList intCRLStore = new CRLList(intCRLs);
+
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, true);
+        isEquals(4, cache.size());
+
+        // A is revoked, but the cached result stands until it expires or the cache is cleared
+        intCRLs.set(0, createCRL(intKp, intCert, 2, certA.getSerialNumber()));
+
+        checkValidation(null, crlStore, intCRLStore, certA, intCert, false);
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, true);
+
+        PKIXExtendedParameters params = createParameters(cache, crlStore, intCRLStore);
+        isTrue(cache.isNotRevoked(certA, intKp.getPublic(), params, params.getDate()));
+        isTrue(!cache.isNotRevoked(certA, intKp.getPublic(), params, new Date(now.getTime() - 1000000)));
+        isTrue(!cache.isNotRevoked(certA, caKp.getPublic(), params, params.getDate()));
+
+        cache.clear();
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, false);
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, false);
+
+        // a short revocation lifetime
+        cache = new PKIXValidationCache(100, 1);
+        intCRLs.set(0, createCRL(intKp, intCert, 1, null));
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, true);
+
+        intCRLs.set(0, createCRL(intKp, intCert, 2, certA.getSerialNumber()));
+        Thread.sleep(10);
+        checkValidation(cache, crlStore, intCRLStore, certA, intCert, false);
+
+        // a result for a past date does not cover today - A was revoked since with a reason that only counts
+        // from its revocation date
+        Date pastDate = new Date(certA.getNotBefore().getTime() + 500);
+        intCRLs.set(0, createCRL(intKp, intCert, 3, certA.getSerialNumber(), new Date(pastDate.getTime() + 1000),
+            CRLReason.superseded));
+
+        cache = new PKIXValidationCache(100, 3000);
+        checkValidation(cache, crlStore, intCRLStore, pastDate, certA, intCert, true);
+        params = createParameters(cache, crlStore, intCRLStore, pastDate);
+        isTrue(cache.isNotRevoked(certA, intKp.getPublic(), params, pastDate));
+        isTrue(!cache.isNotRevoked(certA, intKp.getPublic(), params, new Date()));
+        checkValidation(cache, crlStore, intCRLStore, null, certA, intCert, false);
+
+        try
+        {
+            new PKIXValidationCache(0);
+            fail("zero size cache accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private X509CRL createCRL(KeyPair issuerKp, X509Certificate issuerCert, int crlNumber, BigInteger revoked)
+        throws Exception
+    {
+        return createCRL(issuerKp, issuerCert, crlNumber, revoked, now, CRLReason.keyCompromise);
+    }
+
+    private X509CRL createCRL(KeyPair issuerKp, X509Certificate issuerCert, int crlNumber, BigInteger revoked,
+        Date revocationDate, int reason)
+        throws Exception
+    {
+        X509V2CRLGenerator crlGen = new X509V2CRLGenerator();
+
+        crlGen.setIssuerDN(issuerCert.getSubjectX500Principal());
+        crlGen.setThisUpdate(new Date(now.getTime() + crlNumber * 1000));
+        crlGen.setNextUpdate(new Date(now.getTime() + 1000000));
+        crlGen.setSignatureAlgorithm("SHA256WithRSAEncryption");
+
+        if (revoked != null)
+        {
+            crlGen.addCRLEntry(revoked, revocationDate, reason);
+        }
+
+        crlGen.addExtension(Extension.authorityKeyIdentifier, false, new AuthorityKeyIdentifierStructure(issuerCert));
+        crlGen.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(crlNumber)));
+
+        return crlGen.generate(issuerKp.getPrivate(), "BC");
+    }
+
+    private PKIXExtendedParameters createParameters(PKIXValidationCache cache, CRLList caCRLs, CRLList intCRLs)
+        throws Exception
+    {
+        return createParameters(cache, caCRLs, intCRLs, null);
+    }
+
+    private PKIXExtendedParameters createParameters(PKIXValidationCache cache, CRLList caCRLs, CRLList intCRLs, Date date)
+        throws Exception
+    {
+        PKIXParameters params = new PKIXParameters(Collections.singleton(new TrustAnchor(caCert, null)));
+        params.setRevocationEnabled(caCRLs != null);
+        params.setDate(date);
+
+        PKIXExtendedParameters.Builder builder = new PKIXExtendedParameters.Builder(params).setValidationCache(cache);
+        if (caCRLs != null)
+        {
+            builder.addCRLStore(caCRLs).addCRLStore(intCRLs);
+        }
+
+        return builder.build();
+    }
+
+    private void checkValidation(PKIXValidationCache cache, CRLList crls, X509Certificate cert, X509Certificate intCert, boolean valid)
+        throws Exception
+    {
+        checkValidation(cache, crls, null, cert, intCert, valid);
+    }
+
+    private void checkValidation(PKIXValidationCache cache, CRLList caCRLs, CRLList intCRLs, X509Certificate cert, X509Certificate intCert, boolean valid)
+        throws Exception
+    {
+        checkValidation(cache, caCRLs, intCRLs, null, cert, intCert, valid);
+    }
+
+    private void checkValidation(PKIXValidationCache cache, CRLList caCRLs, CRLList intCRLs, Date date, X509Certificate cert, X509Certificate intCert, boolean valid)
+        throws Exception
+    {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+        CertPathValidator cpv = CertPathValidator.getInstance("PKIX", "BC");
+
+        List<X509Certificate> certs = new ArrayList<X509Certificate>();
+        certs.add(cert);
+        certs.add(intCert);
+
+        try
+        {
+            cpv.validate(cf.generateCertPath(certs), createParameters(cache, caCRLs, intCRLs, date));
+            isTrue("path validated", valid);
+        }
+        catch (CertPathValidatorException e)
+        {
+            isTrue(e.getMessage(), !valid);
+        }
+    }
+
+    private static class CRLList
+        implements PKIXCRLStore<X509CRL>
+    {
+        private final List<X509CRL> crls;
+
+        CRLList(List<X509CRL> crls)
+        {
+            this.crls = crls;
+        }
+
+        public Collection<X509CRL> getMatches(Selector<X509CRL> selector)
+        {
+            List<X509CRL> matches = new ArrayList<X509CRL>();
+
+            for (int i = 0; i != crls.size(); i++)
+            {
+                if (selector == null || selector.match(crls.get(i)))
+                {
+                    matches.add(crls.get(i));
+                }
+            }
+
+            return matches;
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        runTest(new PKIXValidationCacheTest());
+    }
+}
@@ -71,6 +71,9 @@
         new OCBTest(),
         new DSTU4145Test(),
         new CRL5Test(),
+        new MappedCRLStoreTest(),
+        new IncrementalCRLStoreTest(),
+        new PKIXValidationCacheTest(),
         new Poly1305Test(),
         new SipHashTest(),
         new KeccakTest(),
@@ -43,6 +43,8 @@
 import org.bouncycastle.crypto.params.RSAKeyParameters;
 import org.bouncycastle.crypto.params.SRP6GroupParameters;
 import org.bouncycastle.crypto.prng.DigestRandomGenerator;
+import org.bouncycastle.math.ec.rfc7748.X25519KeyPool;
+import org.bouncycastle.math.ec.rfc7748.X448KeyPool;
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.EncryptionAlgorithm;
 import org.bouncycastle.tls.HashAlgorithm;
@@ -90,11 +92,54 @@
 {
     private final SecureRandom entropySource;
 
+    private volatile X25519KeyPool x25519KeyPool = null;
+    private volatile X448KeyPool x448KeyPool = null;
+
     public BcTlsCrypto(SecureRandom entropySource)
     {
         this.entropySource = entropySource;
     }
 
+    /**
+     * Return the pool X25519 ephemeral key pairs are taken from, if any.
+     *
+     * @return the X25519 key pool, or null if ephemeral keys are generated on demand.
+     */
+    public X25519KeyPool getX25519KeyPool()
+    {
+        return x25519KeyPool;
+    }
+
+    /**
+     * Set a pool to take X25519 ephemeral key pairs from, rather than generating each on demand.
+     *
+     * @param x25519KeyPool the pool to use, null to generate ephemeral keys on demand.
+     */
+    public void setX25519KeyPool(X25519KeyPool x25519KeyPool)
+    {
+        this.x25519KeyPool = x25519KeyPool;
+    }
+
+    /**
+     * Return the pool X448 ephemeral key pairs are taken from, if any.
+     *
+     * @return the X448 key pool, or null if ephemeral keys are generated on demand.
+     */
+    public X448KeyPool getX448KeyPool()
+    {
+        return x448KeyPool;
+    }
+
+    /**
+     * Set a pool to take X448 ephemeral key pairs from, rather than generating each on demand.
+     *
+     * @param x448KeyPool the pool to use, null to generate ephemeral keys on demand.
+     */
+    public void setX448KeyPool(X448KeyPool x448KeyPool)
+    {
+        this.x448KeyPool = x448KeyPool;
+    }
+
     BcTlsSecret adoptLocalSecret(byte[] data)
     {
         return new BcTlsSecret(this, data);
@@ -3,6 +3,7 @@
 import java.io.IOException;
 
 import org.bouncycastle.math.ec.rfc7748.X25519;
+import org.bouncycastle.math.ec.rfc7748.X25519KeyPool;
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.crypto.TlsAgreement;
@@ -25,9 +26,17 @@ public BcX25519(BcTlsCrypto crypto)
 
     public byte[] generateEphemeral() throws IOException
     {
+        byte[] publicKey = new byte[X25519.POINT_SIZE];
+
+        X25519KeyPool keyPool = crypto.getX25519KeyPool();
+        if (keyPool != null)
+        {
+            keyPool.take(privateKey, 0, publicKey, 0);
+            return publicKey;
+        }
+
         crypto.getSecureRandom().nextBytes(privateKey);
 
-        byte[] publicKey = new byte[X25519.POINT_SIZE];
         X25519.scalarMultBase(privateKey, 0, publicKey, 0);
         return publicKey;
     }
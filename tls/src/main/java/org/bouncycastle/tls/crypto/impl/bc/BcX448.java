@@ -3,6 +3,7 @@
 import java.io.IOException;
 
 import org.bouncycastle.math.ec.rfc7748.X448;
+import org.bouncycastle.math.ec.rfc7748.X448KeyPool;
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.crypto.TlsAgreement;
@@ -25,9 +26,17 @@ public BcX448(BcTlsCrypto crypto)
 
     public byte[] generateEphemeral() throws IOException
     {
+        byte[] publicKey = new byte[X448.POINT_SIZE];
+
+        X448KeyPool keyPool = crypto.getX448KeyPool();
+        if (keyPool != null)
+        {
+            keyPool.take(privateKey, 0, publicKey, 0);
+            return publicKey;
+        }
+
         crypto.getSecureRandom().nextBytes(privateKey);
 
-        byte[] publicKey = new byte[X448.POINT_SIZE];
         X448.scalarMultBase(privateKey, 0, publicKey, 0);
         return publicKey;
     }